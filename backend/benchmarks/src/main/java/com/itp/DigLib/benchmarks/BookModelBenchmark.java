@@ -0,0 +1,150 @@
+package com.itp.DigLib.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.PagedContent;
+import com.itp.DigLib.api.model.TextStatistics;
+
+/**
+ * Measures the per-request work done on books and pages outside of storage and the database.
+ *
+ * <p>{@code setTitle} also draws the random file name from the {@code Random} shared by all books,
+ * so it is measured on one thread and on eight threads contending for its seed. The page of books is
+ * serialized with an {@code ObjectMapper} configured like Spring Boot's default one.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookModelBenchmark {
+    private static final String TITLE = "The Fellowship of the Ring";
+    private static final String ISBN = "9780261102354";
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private Page<Book> books;
+
+    /**
+     * The text pages are cut from.
+     */
+    @State(Scope.Benchmark)
+    public static class Text {
+        @Param({"ASCII", "UTF8"})
+        public Corpus.Script script;
+
+        private String text;
+
+        /**
+         * Generates the text.
+         */
+        @Setup
+        public void setUp() {
+            text = new String(Corpus.generate(Corpus.Size.SMALL, script), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Builds the page of books.
+     */
+    @Setup
+    public void setUp() {
+        List<Book> content = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Book book = new Book();
+            book.setId(i + 1);
+            book.setTitle(TITLE + " " + i);
+            book.setAuthor("J. R. R. Tolkien");
+            book.setGenre("Fantasy");
+            book.setIsbn(ISBN);
+            book.setYear(1954);
+            book.setTextStatistics(new TextStatistics(1_000_000, 1_000_000, 180_000, 20_000, 1_000_000));
+            content.add(book);
+        }
+        books = new PageImpl<>(content, PageRequest.of(0, 10, Sort.by("title", "id")), 1_000_000);
+    }
+
+    /**
+     * Builds a page of content the way the service does for every page read.
+     *
+     * @param text the text of the book
+     * @return the page
+     */
+    @Benchmark
+    public PagedContent newPagedContent(Text text) {
+        String content = text.text;
+        return new PagedContent(content.substring(1000, 2000), 1, content.length() / 1000, 1000, content.length());
+    }
+
+    /**
+     * Sets the title of a new book, generating its file name.
+     *
+     * @return the book
+     */
+    @Benchmark
+    public Book setTitle() {
+        Book book = new Book();
+        book.setTitle(TITLE);
+        return book;
+    }
+
+    /**
+     * Sets the title of a new book on eight threads at once.
+     *
+     * @return the book
+     */
+    @Benchmark
+    @Threads(8)
+    public Book setTitleContended() {
+        Book book = new Book();
+        book.setTitle(TITLE);
+        return book;
+    }
+
+    /**
+     * Validates and sets an ISBN.
+     *
+     * @return the book
+     */
+    @Benchmark
+    public Book setIsbn() {
+        Book book = new Book();
+        book.setIsbn(ISBN);
+        return book;
+    }
+
+    /**
+     * Serializes the response of {@code GET /books}.
+     *
+     * @return the JSON
+     * @throws JsonProcessingException if the page cannot be serialized
+     */
+    @Benchmark
+    public byte[] serializeBookPage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(books);
+    }
+}
@@ -0,0 +1,115 @@
+package com.itp.DigLib.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.itp.DigLib.api.model.PagedContent;
+import com.itp.DigLib.api.model.TextStatistics;
+import com.itp.DigLib.api.service.BookContentCache;
+import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.api.service.ReadAhead;
+import com.itp.DigLib.storage.LocalBookStorage;
+
+/**
+ * Reads random pages of a stored book through {@link BookContentService#readBookContent}.
+ *
+ * <p>The book is stored once per trial on a {@link LocalBookStorage} in a temporary directory, with
+ * the default page size and frame size, so page reads go through the page index, the frame table and
+ * frame decompression as in production, without the network. {@code cacheBytes=0} disables the
+ * content cache so every read decodes its frames; the default budget measures reads that mostly hit
+ * the cache. Read-ahead is off.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ContentReadBenchmark {
+    private static final String FILENAME = "benchmark.txt";
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    public Corpus.Size size;
+
+    @Param({"ASCII", "UTF8"})
+    public Corpus.Script script;
+
+    @Param({"0", "67108864"})
+    public long cacheBytes;
+
+    private Path root;
+    private ReadAhead readAhead;
+    private BookContentService service;
+    private TextStatistics statistics;
+    private int totalPages;
+
+    /**
+     * The page numbers read by one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Pages {
+        private final SplittableRandom random = new SplittableRandom(7);
+    }
+
+    /**
+     * Stores the book.
+     *
+     * @throws IOException if the book cannot be stored
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("content-benchmark");
+        readAhead = new ReadAhead(1, 1, 0, 0, false);
+        service = new BookContentService(new LocalBookStorage(root), new BookContentCache(cacheBytes), readAhead,
+            1000, new int[0], 65536, 1_000_000);
+        statistics = service.storeContent(new ByteArrayInputStream(Corpus.generate(size, script)), FILENAME);
+        totalPages = service.readBookContent(FILENAME, statistics, 0, null).getTotalPages();
+    }
+
+    /**
+     * Deletes the stored book.
+     *
+     * @throws IOException if the directory cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        readAhead.shutdown();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Reads a random page.
+     *
+     * @param pages the page numbers of this thread
+     * @return the page
+     * @throws IOException if the page cannot be read
+     */
+    @Benchmark
+    public PagedContent readRandomPage(Pages pages) throws IOException {
+        return service.readBookContent(FILENAME, statistics, pages.random.nextInt(totalPages), null);
+    }
+}
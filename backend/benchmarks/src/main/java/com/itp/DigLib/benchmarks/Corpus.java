@@ -0,0 +1,100 @@
+package com.itp.DigLib.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic book contents for the benchmarks.
+ *
+ * <p>The text is built from a fixed seed, so every run reads the same bytes. Words are drawn from a
+ * small vocabulary with a skewed distribution, and lines are broken every few words, roughly like
+ * prose.</p>
+ */
+public final class Corpus {
+    private static final long SEED = 42;
+    private static final String[] ASCII_WORDS = {
+        "the", "and", "of", "to", "a", "in", "was", "he", "that", "it", "her", "his", "with", "as",
+        "had", "for", "she", "not", "at", "but", "river", "house", "garden", "winter", "shadow",
+        "journey", "silent", "golden", "forest", "empire", "library", "morning", "whispered", "stone",
+    };
+    private static final String[] UTF8_WORDS = {
+        "the", "and", "of", "to", "a", "in", "blåbær", "fjøs", "ærlig", "straße", "café", "naïve",
+        "東京", "図書館", "物語", "静かな", "книга", "ночь", "βιβλίο", "😀", "📚", "🌲", "señor", "øst",
+    };
+
+    /**
+     * Sizes of the generated books.
+     */
+    public enum Size {
+        SMALL(100 * 1024),
+        MEDIUM(10 * 1024 * 1024),
+        LARGE(100 * 1024 * 1024);
+
+        private final int bytes;
+
+        Size(int bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Returns the size of the generated content.
+         *
+         * @return the size in UTF-8 bytes
+         */
+        public int bytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Scripts of the generated books.
+     */
+    public enum Script {
+        /** Only ASCII, one byte per character. */
+        ASCII(ASCII_WORDS),
+        /** Latin-1, Cyrillic, Greek, CJK and emoji mixed with ASCII, one to four bytes per character. */
+        UTF8(UTF8_WORDS);
+
+        private final byte[][] words;
+
+        Script(String[] words) {
+            this.words = Arrays.stream(words).map(word -> word.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        }
+    }
+
+    private Corpus() {
+    }
+
+    /**
+     * Generates the content of a book.
+     *
+     * @param size the size of the book
+     * @param script the characters used
+     * @return the content as UTF-8, exactly {@code size.bytes()} long
+     */
+    public static byte[] generate(Size size, Script script) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        byte[] content = new byte[size.bytes()];
+        int length = 0;
+        int wordsInLine = 0;
+        while (true) {
+            // Squaring skews the choice towards the first, most common words
+            double skew = random.nextDouble();
+            byte[] word = script.words[(int) (skew * skew * script.words.length)];
+            if (length + word.length + 1 > content.length) {
+                break;
+            }
+            System.arraycopy(word, 0, content, length, word.length);
+            length += word.length;
+            wordsInLine++;
+            content[length++] = (byte) (wordsInLine >= 12 && random.nextInt(4) == 0 ? '\n' : ' ');
+            if (content[length - 1] == '\n') {
+                wordsInLine = 0;
+            }
+        }
+        // Pad with spaces so every size is exact without splitting a character
+        Arrays.fill(content, length, content.length, (byte) ' ');
+        return content;
+    }
+}
@@ -0,0 +1,100 @@
+package com.itp.DigLib.loadtest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The books of the backend under load, sampled once before the run.
+ *
+ * <p>Scenarios read books picked at random from the first {@value #MAX_BOOKS} books of the listing,
+ * and browse at most the first {@value #MAX_LISTING_PAGES} pages of it, as people rarely page further.</p>
+ */
+final class Catalogue {
+    static final int PAGE_SIZE = 10;
+    static final int MAX_BOOKS = 1000;
+    static final int MAX_LISTING_PAGES = 100;
+
+    private final int[] ids;
+    private final int listingPages;
+
+    /**
+     * Constructs a new Catalogue.
+     *
+     * @param ids the IDs of the books to read
+     * @param totalBooks the number of books in the listing
+     */
+    Catalogue(int[] ids, long totalBooks) {
+        this.ids = ids;
+        this.listingPages = (int) Math.max(1, Math.min(MAX_LISTING_PAGES, (totalBooks + PAGE_SIZE - 1) / PAGE_SIZE));
+    }
+
+    /**
+     * Samples the books of a backend.
+     *
+     * @param client the client of the backend
+     * @return the catalogue
+     * @throws IOException if the listing cannot be read
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static Catalogue load(Client client) throws IOException, InterruptedException {
+        int[] ids = new int[0];
+        long total = 0;
+        for (int page = 0; ids.length < MAX_BOOKS; page++) {
+            JsonNode listing = client.listBooks(page, 100).json();
+            total = listing.path("totalElements").asLong();
+            int[] found = ids(listing);
+            if (found.length == 0) {
+                break;
+            }
+            int[] merged = Arrays.copyOf(ids, ids.length + found.length);
+            System.arraycopy(found, 0, merged, ids.length, found.length);
+            ids = merged;
+        }
+        return new Catalogue(ids, total);
+    }
+
+    /**
+     * Reads the book IDs of a page of the listing.
+     *
+     * @param listing the page as returned by {@code GET /books}
+     * @return the IDs in listing order
+     */
+    static int[] ids(JsonNode listing) {
+        JsonNode content = listing.path("content");
+        int[] ids = new int[content.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = content.get(i).path("id").asInt();
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the number of books sampled.
+     *
+     * @return the number of books
+     */
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the number of listing pages browsed.
+     *
+     * @return the number of pages of {@value #PAGE_SIZE} books
+     */
+    int listingPages() {
+        return listingPages;
+    }
+
+    /**
+     * Picks a book.
+     *
+     * @return the ID of a random sampled book
+     */
+    int randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
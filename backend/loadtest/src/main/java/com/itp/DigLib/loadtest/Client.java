@@ -0,0 +1,185 @@
+package com.itp.DigLib.loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sends the requests of the scenarios and records their latency under the endpoint's route.
+ *
+ * <p>Responses are read completely, so a request is timed until its last byte arrives. A request
+ * fails on a status of 400 or above, or on an I/O error, which is recorded with the time it took and
+ * thrown to end the scenario.</p>
+ */
+final class Client {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient http;
+    private final URI baseUrl;
+    private final Stats stats;
+
+    /**
+     * The response of a request that succeeded.
+     *
+     * @param status the status code
+     * @param body the body as received
+     * @param gzip whether the body is gzipped
+     */
+    record Response(int status, byte[] body, boolean gzip) {
+
+        /**
+         * Reads the body as JSON.
+         *
+         * @return the root node
+         * @throws IOException if the body is not JSON
+         */
+        JsonNode json() throws IOException {
+            try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(body))
+                    : new ByteArrayInputStream(body)) {
+                return MAPPER.readTree(in);
+            }
+        }
+    }
+
+    /**
+     * Constructs a new Client.
+     *
+     * @param http the HTTP client
+     * @param baseUrl the URL of the backend
+     * @param stats the statistics receiving the latencies
+     */
+    Client(HttpClient http, URI baseUrl, Stats stats) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60));
+    }
+
+    private Response send(String route, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 400) {
+                throw new IOException(route + " returned " + response.statusCode());
+            }
+            ok = true;
+            String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+            return new Response(response.statusCode(), response.body(), "gzip".equalsIgnoreCase(encoding));
+        } finally {
+            stats.record(route, System.nanoTime() - start, ok);
+        }
+    }
+
+    /**
+     * Fetches a page of the book listing.
+     *
+     * @param page the page number
+     * @param size the books per page
+     * @return the response
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Response listBooks(int page, int size) throws IOException, InterruptedException {
+        return send("GET /books", request("/books?page=" + page + "&size=" + size).GET().build());
+    }
+
+    /**
+     * Fetches the metadata of a book.
+     *
+     * @param id the ID of the book
+     * @return the response
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Response getBook(int id) throws IOException, InterruptedException {
+        return send("GET /books/{id}", request("/books/" + id).GET().build());
+    }
+
+    /**
+     * Fetches a page of the content of a book, compressed like a browser would ask for it.
+     *
+     * @param id the ID of the book
+     * @param page the page number
+     * @return the response
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Response getContent(int id, int page) throws IOException, InterruptedException {
+        return send("GET /books/{id}/content", request("/books/" + id + "/content?page=" + page)
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build());
+    }
+
+    /**
+     * Downloads the whole content of a book.
+     *
+     * @param id the ID of the book
+     * @return the response
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Response download(int id) throws IOException, InterruptedException {
+        return send("GET /books/{id}/content/raw", request("/books/" + id + "/content/raw").GET().build());
+    }
+
+    /**
+     * Uploads a new book.
+     *
+     * @param title the title of the book
+     * @param content the content of the book
+     * @return the ID of the new book
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    int upload(String title, byte[] content) throws IOException, InterruptedException {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 1024);
+        String[][] fields = {
+            {"title", title}, {"author", "Load Test"}, {"genre", "Literary Fiction"}, {"isbn", "9780000000002"},
+            {"year", "2024"},
+        };
+        for (String[] field : fields) {
+            body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + field[0]
+                + "\"\r\n\r\n" + field[1] + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"content\"; "
+            + "filename=\"loadtest.txt\"\r\nContent-Type: text/plain\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        Response response = send("POST /books", request("/books")
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+            .build());
+        // The response body is "ID:<id>"
+        String text = new String(response.body(), StandardCharsets.UTF_8).trim();
+        return Integer.parseInt(text.substring(text.indexOf(':') + 1));
+    }
+
+    /**
+     * Deletes a book.
+     *
+     * @param id the ID of the book
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void delete(int id) throws IOException, InterruptedException {
+        send("DELETE /books/{id}", request("/books/" + id).DELETE().build());
+    }
+}
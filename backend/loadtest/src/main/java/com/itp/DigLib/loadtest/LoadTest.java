@@ -0,0 +1,141 @@
+package com.itp.DigLib.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Puts an open-loop load of scripted scenarios on a running backend and reports the latency
+ * percentiles and throughput of every endpoint.
+ *
+ * <p>Scenarios start at the given rate with exponentially distributed gaps (a Poisson process),
+ * whether or not earlier ones have finished, so a slow backend faces a growing number of concurrent
+ * users as it would in production, instead of a fixed number of clients that slow down with it. Each
+ * scenario runs on its own virtual thread. Run it against the {@code local-perf} profile or against a
+ * deployed backend, like {@code DeploymentIT}.</p>
+ */
+public final class LoadTest {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(120);
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the options, see {@link Options#USAGE}
+     * @throws IOException if the backend cannot be reached or the results cannot be written
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Stats stats = new Stats();
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        Client client = new Client(http, options.baseUrl(), stats);
+        Catalogue catalogue = Catalogue.load(client);
+        boolean needsBooks = options.mix().entrySet().stream()
+            .anyMatch(entry -> entry.getValue() > 0 && entry.getKey().needsBooks());
+        if (needsBooks && catalogue.size() == 0) {
+            System.err.println("The backend has no books to read; upload some first or use --mix write=1");
+            System.exit(1);
+            return;
+        }
+        System.out.printf("Loading %s at %.1f scenarios/s with %s, %d books sampled%n",
+            options.baseUrl(), options.rate(), options.mix(), catalogue.size());
+
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore inFlight = new Semaphore(options.maxInFlight());
+            if (!options.warmup().isZero()) {
+                run(options, options.warmup(), client, catalogue, stats, sessions, inFlight);
+                stats.reset();
+            }
+            run(options, options.duration(), client, catalogue, stats, sessions, inFlight);
+        }
+
+        double seconds = options.duration().toNanos() / 1e9;
+        stats.print(System.out, seconds);
+        if (options.json() != null) {
+            stats.writeJson(options.json(), options, seconds);
+            System.out.println("Results written to " + options.json());
+        }
+    }
+
+    private static void run(Options options, Duration duration, Client client, Catalogue catalogue, Stats stats,
+            ExecutorService sessions, Semaphore inFlight) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom();
+        Scenario[] scenarios = Scenario.values();
+        int[] cumulative = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += options.mix().getOrDefault(scenarios[i], 0);
+            cumulative[i] = total;
+        }
+
+        long next = System.nanoTime();
+        long end = next + duration.toNanos();
+        while (next < end) {
+            long wait;
+            while ((wait = next - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.tryAcquire()) {
+                Scenario scenario = pick(scenarios, cumulative, random.nextInt(total));
+                long intended = next;
+                sessions.execute(() -> runScenario(scenario, intended, client, catalogue, options, stats, inFlight));
+            } else {
+                stats.drop();
+            }
+            next += (long) (-Math.log(1 - random.nextDouble()) * 1e9 / options.rate());
+        }
+
+        // Let the running scenarios finish, so they are not counted in the next phase
+        if (inFlight.tryAcquire(options.maxInFlight(), DRAIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            inFlight.release(options.maxInFlight());
+        }
+    }
+
+    private static Scenario pick(Scenario[] scenarios, int[] cumulative, int value) {
+        for (int i = 0; i < scenarios.length; i++) {
+            if (value < cumulative[i]) {
+                return scenarios[i];
+            }
+        }
+        return scenarios[scenarios.length - 1];
+    }
+
+    private static void runScenario(Scenario scenario, long intended, Client client, Catalogue catalogue,
+            Options options, Stats stats, Semaphore inFlight) {
+        boolean ok = false;
+        try {
+            scenario.run(client, catalogue, options);
+            ok = true;
+        } catch (IOException | RuntimeException e) {
+            // Failed requests are counted by the client, the scenario is counted as failed below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stats.record("scenario " + scenario.name().toLowerCase(Locale.ROOT),
+                System.nanoTime() - intended, ok);
+            inFlight.release();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.itp.DigLib.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The settings of a load test run, read from the command line.
+ *
+ * @param baseUrl the URL of the backend, without a trailing slash
+ * @param rate the scenarios started per second
+ * @param duration how long scenarios are started for the measurement
+ * @param warmup how long scenarios are started before the measurement, which is discarded
+ * @param mix the relative weight of every scenario
+ * @param pages the number of sequential pages read by the read scenario
+ * @param maxInFlight the most scenarios running at once; later arrivals are dropped and counted
+ * @param json the file to write the results to as JSON, or null
+ */
+public record Options(URI baseUrl, double rate, Duration duration, Duration warmup, Map<Scenario, Integer> mix,
+        int pages, int maxInFlight, Path json) {
+
+    static final String USAGE = """
+        Usage: java -jar loadtest.jar [options]
+          --url <url>           backend to load (default http://localhost:8080)
+          --rate <n>            scenarios started per second (default 20)
+          --duration <s>        seconds of measurement (default 60)
+          --warmup <s>          seconds of warm-up before the measurement (default 10)
+          --mix <name=weight,...>  scenario weights (default browse=25,read=70,download=5)
+                                scenarios: browse, read, download, write
+          --pages <n>           pages read one after the other by the read scenario (default 20)
+          --max-in-flight <n>   most scenarios running at once (default 10000)
+          --json <file>         also write the results to a JSON file
+        """;
+
+    /**
+     * Reads the options.
+     *
+     * @param args the command line arguments
+     * @return the options
+     * @throws IllegalArgumentException if an argument is unknown or invalid
+     */
+    public static Options parse(String... args) {
+        URI baseUrl = URI.create("http://localhost:8080");
+        double rate = 20;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        Map<Scenario, Integer> mix = parseMix("browse=25,read=70,download=5");
+        int pages = 20;
+        int maxInFlight = 10_000;
+        Path json = null;
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            String value = args[++i];
+            switch (name) {
+                case "--url" -> baseUrl = URI.create(value.replaceAll("/+$", ""));
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "--warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "--mix" -> mix = parseMix(value);
+                case "--pages" -> pages = Integer.parseInt(value);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "--json" -> json = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        if (rate <= 0 || duration.isZero() || duration.isNegative() || warmup.isNegative()
+                || pages < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Rate, duration, pages and max-in-flight must be positive");
+        }
+        return new Options(baseUrl, rate, duration, warmup, mix, pages, maxInFlight, json);
+    }
+
+    /**
+     * Reads scenario weights such as {@code read=70,browse=30}.
+     *
+     * @param value the weights
+     * @return the weight of every named scenario
+     * @throws IllegalArgumentException if a scenario is unknown or a weight is invalid
+     */
+    static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected scenario=weight: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight cannot be negative: " + part);
+            }
+            mix.put(Scenario.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one scenario needs a positive weight");
+        }
+        return mix;
+    }
+}
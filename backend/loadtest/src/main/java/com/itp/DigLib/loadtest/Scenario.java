@@ -0,0 +1,76 @@
+package com.itp.DigLib.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The scripted user sessions the load is made of.
+ */
+enum Scenario {
+    /** Looks through three pages of the listing, then opens one of the listed books. */
+    BROWSE {
+        @Override
+        void run(Client client, Catalogue catalogue, Options options) throws IOException, InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Client.Response page = null;
+            for (int i = 0; i < 3; i++) {
+                page = client.listBooks(random.nextInt(catalogue.listingPages()), Catalogue.PAGE_SIZE);
+            }
+            int[] ids = Catalogue.ids(page.json());
+            if (ids.length > 0) {
+                client.getBook(ids[random.nextInt(ids.length)]);
+            }
+        }
+    },
+    /** Opens a book and reads its first pages one after the other. */
+    READ {
+        @Override
+        void run(Client client, Catalogue catalogue, Options options) throws IOException, InterruptedException {
+            int id = catalogue.randomId();
+            client.getBook(id);
+            int totalPages = client.getContent(id, 0).json().path("totalPages").asInt(1);
+            for (int page = 1; page < Math.min(options.pages(), totalPages); page++) {
+                client.getContent(id, page);
+            }
+        }
+    },
+    /** Downloads the whole content of a book. */
+    DOWNLOAD {
+        @Override
+        void run(Client client, Catalogue catalogue, Options options) throws IOException, InterruptedException {
+            client.download(catalogue.randomId());
+        }
+    },
+    /** Uploads a book of 64 KB and deletes it again, leaving the catalogue as it was. */
+    WRITE {
+        @Override
+        void run(Client client, Catalogue catalogue, Options options) throws IOException, InterruptedException {
+            int id = client.upload("Load test " + ThreadLocalRandom.current().nextInt(1_000_000), UPLOAD);
+            client.delete(id);
+        }
+    };
+
+    private static final byte[] UPLOAD = "All work and no play makes Jack a dull boy.\n"
+        .repeat(64 * 1024 / 44).getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Runs the scenario once.
+     *
+     * @param client the client sending the requests
+     * @param catalogue the books of the backend
+     * @param options the settings of the run
+     * @throws IOException if a request fails, which ends the scenario
+     * @throws InterruptedException if interrupted while waiting for a response
+     */
+    abstract void run(Client client, Catalogue catalogue, Options options) throws IOException, InterruptedException;
+
+    /**
+     * Returns whether the scenario reads existing books, so the backend has to hold some.
+     *
+     * @return true unless the scenario brings its own book
+     */
+    boolean needsBooks() {
+        return this != WRITE;
+    }
+}
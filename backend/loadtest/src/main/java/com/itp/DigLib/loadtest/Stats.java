@@ -0,0 +1,137 @@
+package com.itp.DigLib.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Latency histograms and error counts per endpoint and per scenario.
+ *
+ * <p>Latencies are kept in HDR histograms with three significant digits, from one microsecond to one
+ * hour. Request latencies are measured from sending the request. Scenario latencies are measured from
+ * the time the scenario was scheduled to start, so time spent waiting for the load generator is not
+ * hidden (coordinated omission).</p>
+ */
+final class Stats {
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final ConcurrentMap<String, Series> series = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * The latencies and errors of one endpoint or scenario.
+     */
+    private static final class Series {
+        private final Histogram latencies = new ConcurrentHistogram(1, HIGHEST_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * Records one request or scenario.
+     *
+     * @param name the endpoint, such as {@code GET /books/{id}}, or the scenario
+     * @param nanos the latency
+     * @param ok whether it succeeded
+     */
+    void record(String name, long nanos, boolean ok) {
+        Series entry = series.computeIfAbsent(name, key -> new Series());
+        entry.latencies.recordValue(Math.min(HIGHEST_MICROS, Math.max(1, nanos / 1000)));
+        if (!ok) {
+            entry.errors.increment();
+        }
+    }
+
+    /**
+     * Counts a scenario that was not started because too many were running.
+     */
+    void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * Forgets everything recorded so far, at the end of the warm-up.
+     */
+    void reset() {
+        series.clear();
+        dropped.reset();
+    }
+
+    /**
+     * Summarizes the recorded latencies.
+     *
+     * @param seconds the length of the measurement, to compute throughput
+     * @return the summary of every endpoint and scenario, by name
+     */
+    Map<String, Map<String, Object>> summary(double seconds) {
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        for (Map.Entry<String, Series> entry : new TreeMap<>(series).entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", latencies.getTotalCount());
+            values.put("errors", entry.getValue().errors.sum());
+            values.put("throughput", latencies.getTotalCount() / seconds);
+            for (double percentile : PERCENTILES) {
+                values.put("p" + format(percentile) + "Ms", latencies.getValueAtPercentile(percentile) / 1000.0);
+            }
+            values.put("maxMs", latencies.getMaxValue() / 1000.0);
+            summary.put(entry.getKey(), values);
+        }
+        return summary;
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Prints the summary as a table.
+     *
+     * @param out the stream to print to
+     * @param seconds the length of the measurement
+     */
+    void print(PrintStream out, double seconds) {
+        out.printf("%-30s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+            "", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Map<String, Object>> entry : summary(seconds).entrySet()) {
+            Map<String, Object> values = entry.getValue();
+            out.printf("%-30s %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                values.get("count"), values.get("errors"), values.get("throughput"), values.get("p50Ms"),
+                values.get("p90Ms"), values.get("p99Ms"), values.get("p99.9Ms"), values.get("maxMs"));
+        }
+        out.printf("Dropped scenarios: %d%n", dropped.sum());
+    }
+
+    /**
+     * Writes the summary and the run settings as JSON.
+     *
+     * @param file the file to write
+     * @param options the settings of the run
+     * @param seconds the length of the measurement
+     * @throws IOException if the file cannot be written
+     */
+    void writeJson(Path file, Options options, double seconds) throws IOException {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("url", options.baseUrl().toString());
+        run.put("rate", options.rate());
+        run.put("seconds", seconds);
+        run.put("mix", options.mix());
+        run.put("pages", options.pages());
+        run.put("dropped", dropped.sum());
+        run.put("results", summary(seconds));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), run);
+    }
+}
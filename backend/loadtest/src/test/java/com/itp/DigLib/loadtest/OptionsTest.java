@@ -0,0 +1,49 @@
+package com.itp.DigLib.loadtest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class OptionsTest {
+
+    @Test
+    void testDefaults() {
+        // Act
+        Options options = Options.parse();
+
+        // Assert
+        assertEquals(URI.create("http://localhost:8080"), options.baseUrl());
+        assertEquals(Map.of(Scenario.BROWSE, 25, Scenario.READ, 70, Scenario.DOWNLOAD, 5), options.mix());
+        assertNull(options.json());
+    }
+
+    @Test
+    void testParse() {
+        // Act
+        Options options = Options.parse("--url", "https://api.diglib.no/", "--rate", "12.5", "--duration", "30",
+            "--warmup", "0", "--mix", "read=3, write=1", "--pages", "5");
+
+        // Assert
+        assertEquals(URI.create("https://api.diglib.no"), options.baseUrl());
+        assertEquals(12.5, options.rate());
+        assertEquals(Duration.ofSeconds(30), options.duration());
+        assertEquals(Duration.ZERO, options.warmup());
+        assertEquals(Map.of(Scenario.READ, 3, Scenario.WRITE, 1), options.mix());
+        assertEquals(5, options.pages());
+    }
+
+    @Test
+    void testInvalidOptions() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Options.parse("--rate"));
+        assertThrows(IllegalArgumentException.class, () -> Options.parse("--threads", "4"));
+        assertThrows(IllegalArgumentException.class, () -> Options.parse("--rate", "0"));
+        assertThrows(IllegalArgumentException.class, () -> Options.parse("--mix", "search=1"));
+        assertThrows(IllegalArgumentException.class, () -> Options.parse("--mix", "read=0"));
+    }
+}
@@ -1,27 +1,53 @@
 package com.itp.DigLib.api.controller;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.BookFacets;
+import com.itp.DigLib.api.model.BookFilter;
+import com.itp.DigLib.api.model.BookSlice;
+import com.itp.DigLib.api.model.ContentCacheStats;
 import com.itp.DigLib.api.model.Genres;
+import com.itp.DigLib.api.model.PageMode;
 import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.api.service.EncodedPage;
+import com.itp.DigLib.db.BookCursor;
 import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.db.BookSpecifications;
+import com.itp.DigLib.search.FacetCounts;
+import com.itp.DigLib.search.TrigramIndex;
 import com.itp.DigLib.api.model.PagedContent;
 
 /**
@@ -31,6 +57,9 @@ import com.itp.DigLib.api.model.PagedContent;
 @RequestMapping("/")
 public class GetController {
     private static final Logger LOGGER = LoggerFactory.getLogger(GetController.class);
+    static final int MAX_SLICE_SIZE = 100;
+    static final int MAX_FACET_AUTHORS = 100;
+    static final Duration CONTENT_MAX_AGE = Duration.ofDays(365);
 
     @Autowired
     private BookRepository bookRepo;
@@ -41,94 +70,486 @@ public class GetController {
     @Autowired
     private Genres genres;
 
+    @Autowired
+    private TrigramIndex trigramIndex;
+
+    @Autowired
+    private FacetCounts facetCounts;
+
     /**
      * Fetches a paginated list of books with optional sorting and filtering.
      *
+     * <p>All filters given are combined into one query. Books can only be sorted by indexed fields, see
+     * {@link BookSpecifications#SORTABLE_FIELDS}; ties are broken by ID so pages never overlap. The
+     * total of an unfiltered listing is taken from the cached catalogue counts instead of being
+     * counted by the database.</p>
+     *
      * @param page the page number to retrieve (default is 0)
      * @param size the number of items per page (default is 10)
-     * @param sortBy the field to sort by (default is "title")
+     * @param sortBy the field to sort by: title (default), author, year or id
      * @param sortDir the direction to sort (asc or desc, default is "asc")
-     * @param title optional filter by book title
-     * @param author optional filter by book author
-     * @param genre optional filter by book genre
-     * @return a paginated list of books
+     * @param filter optional filters: title, author and genre substrings, exact isbn, and a
+     *               publication year range from yearFrom to yearTo, inclusive
+     * @return a paginated list of books, or a 400 Bad Request status if the books cannot be sorted by
+     *         the requested field
      */
     @GetMapping("/books")
-    public @ResponseBody Page<Book> getAllBooks(
+    public @ResponseBody ResponseEntity<Page<Book>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "title") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
-            @RequestParam(required = false) String title,
-            @RequestParam(required = false) String author,
-            @RequestParam(required = false) String genre
+            BookFilter filter
     ) {
-        LOGGER.info("Fetching all books with page: {}, size: {}, sortBy: {}, sortDir: {}, title: {}, author: {}, genre: {}",
-        page, size, sortBy, sortDir, title, author, genre);
-
-        Sort sort = Sort.by(sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
-        PageRequest pageRequest = PageRequest.of(page, size, sort);
+        LOGGER.info("Fetching all books with page: {}, size: {}, sortBy: {}, sortDir: {}, {}",
+            page, size, sortBy, sortDir, filter);
+        if (!BookSpecifications.SORTABLE_FIELDS.contains(sortBy)) {
+            LOGGER.error("Cannot sort books by: {}", sortBy);
+            return ResponseEntity.badRequest().build();
+        }
 
+        PageRequest pageRequest = PageRequest.of(page, size, listingSort(sortBy, sortDir));
         Page<Book> result;
-        if (title != null) {
-            result = bookRepo.findByTitleContainingIgnoreCase(title, pageRequest);
-        } else if (author != null) {
-            result = bookRepo.findByAuthorContainingIgnoreCase(author, pageRequest);
-        } else if (genre != null) {
-            result = bookRepo.findByGenreContainingIgnoreCase(genre, pageRequest);
-        } else {
+        if (filter.isEmpty() && facetCounts.isReady()) {
+            Slice<Book> slice = bookRepo.findAllBy(pageRequest);
+            result = new PageImpl<>(slice.getContent(), pageRequest, facetCounts.total());
+        } else if (filter.isEmpty()) {
             result = bookRepo.findAll(pageRequest);
-        } 
+        } else {
+            result = bookRepo.findAll(filterSpecification(filter), pageRequest);
+        }
         LOGGER.info("Fetched {} books", result.getTotalElements());
-        return result;
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Fetches a slice of books with a cursor, for clients walking through the whole listing.
+     *
+     * <p>Unlike pages, slices are found by seeking the sort index from the position of the cursor,
+     * so a slice deep into the listing costs the same as the first, and no total count is computed.
+     * Pass an empty cursor for the first slice, then the {@code next} cursor of each response until it
+     * is null. The sorting and filters have to stay the same while following cursors.</p>
+     *
+     * @param cursor the cursor returned with the previous slice, or empty for the first slice
+     * @param size the number of books per slice (default is 10, at most 100)
+     * @param sortBy the field to sort by: title (default), author, year or id
+     * @param sortDir the direction to sort (asc or desc, default is "asc")
+     * @param filter optional filters, as for the paginated listing
+     * @return the slice of books, or a 400 Bad Request status if the cursor is invalid or belongs to
+     *         another sorting, or the books cannot be sorted by the requested field
+     */
+    @GetMapping(value = "/books", params = "cursor")
+    public @ResponseBody ResponseEntity<BookSlice> getBookSlice(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "title") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            BookFilter filter
+    ) {
+        LOGGER.info("Fetching books after cursor: {}, size: {}, sortBy: {}, sortDir: {}, {}",
+            cursor, size, sortBy, sortDir, filter);
+        if (!BookSpecifications.SORTABLE_FIELDS.contains(sortBy) || size <= 0) {
+            LOGGER.error("Invalid slice size {} or sort field: {}", size, sortBy);
+            return ResponseEntity.badRequest().build();
+        }
+        Sort.Direction direction = sortDirection(sortDir);
+        Specification<Book> specification = filterSpecification(filter);
+        if (!cursor.isEmpty()) {
+            try {
+                BookCursor after = BookCursor.decode(cursor);
+                if (!after.matches(sortBy, direction)) {
+                    throw new IllegalArgumentException("Cursor belongs to another sorting");
+                }
+                specification = specification.and(after.toSpecification());
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Invalid cursor: {}. Error: {}", cursor, e.getMessage());
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        // One more book than asked for tells whether there is a next slice, without counting
+        int limit = Math.min(size, MAX_SLICE_SIZE);
+        Sort sort = listingSort(sortBy, sortDir);
+        List<Book> books = bookRepo.findBy(specification, query -> query.sortBy(sort).limit(limit + 1).all());
+        String next = null;
+        if (books.size() > limit) {
+            books = books.subList(0, limit);
+            next = BookCursor.after(books.get(limit - 1), sortBy, direction).encode();
+        }
+        LOGGER.info("Fetched {} books", books.size());
+        return ResponseEntity.ok(new BookSlice(books, next));
+    }
+
+    private static Sort.Direction sortDirection(String sortDir) {
+        return sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+
+    /**
+     * Returns the sort of a listing, with the ID as tie-breaker so the order is total.
+     */
+    private static Sort listingSort(String sortBy, String sortDir) {
+        Sort.Direction direction = sortDirection(sortDir);
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals("id") ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Returns the query for the books matching a filter.
+     */
+    private Specification<Book> filterSpecification(BookFilter filter) {
+        // Substring filters are narrowed to candidate IDs by the trigram index when it can, so the
+        // database filters those rows instead of scanning the whole table
+        Map<TrigramIndex.Field, String> substrings = new EnumMap<>(TrigramIndex.Field.class);
+        substrings.put(TrigramIndex.Field.TITLE, filter.getTitle());
+        substrings.put(TrigramIndex.Field.AUTHOR, filter.getAuthor());
+        substrings.put(TrigramIndex.Field.GENRE, filter.getGenre());
+        int[] ids = trigramIndex.candidates(substrings);
+        Specification<Book> specification = BookSpecifications.matching(filter);
+        if (ids != null) {
+            // Books saved by other instances since the index was last refreshed are not candidates yet,
+            // so the books past the indexed IDs are filtered by the database as well
+            Specification<Book> unindexed = BookSpecifications.idGreaterThan(trigramIndex.indexedUpTo());
+            specification = specification.and(ids.length == 0 ? unindexed
+                : BookSpecifications.idIn(Arrays.stream(ids).boxed().toList()).or(unindexed));
+        }
+        return specification;
+    }
+
+    /**
+     * Fetches the number of books in the catalogue, in total and by genre, decade and author.
+     *
+     * <p>The counts are kept in memory and updated as books are added and deleted, so this does not
+     * query the database. Every genre of the genre list is included, with zero if it has no books.</p>
+     *
+     * @param authors the number of most prolific authors to include (default is 20, at most 100)
+     * @return the counts, a 400 Bad Request status if the number of authors is negative,
+     *         a 503 Service Unavailable status while the counts are still being loaded,
+     *         or a 500 Internal Server Error status if the genres cannot be read
+     */
+    @GetMapping("/books/facets")
+    public @ResponseBody ResponseEntity<BookFacets> getBookFacets(
+            @RequestParam(defaultValue = "20") int authors
+    ) {
+        LOGGER.info("Fetching book facets with authors: {}", authors);
+        if (authors < 0) {
+            LOGGER.error("Invalid number of authors: {}", authors);
+            return ResponseEntity.badRequest().build();
+        }
+        if (!facetCounts.isReady()) {
+            LOGGER.warn("Book facets are still being loaded");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(new BookFacets(facetCounts.total(),
+                facetCounts.genres(genres.getGenresList()),
+                facetCounts.decades(),
+                facetCounts.topAuthors(Math.min(authors, MAX_FACET_AUTHORS))));
+        } catch (IOException e) {
+            LOGGER.error("Failed to fetch genres: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
     }
 
     /**
      * Fetches a book by its ID.
      *
+     * <p>The response carries an ETag built from the ID and the version of the book. Clients have to
+     * revalidate it, and get a 304 Not Modified status without a body while the book is unchanged.</p>
+     *
      * @param id the ID of the book to retrieve
-     * @return the book with the specified ID, or a 404 Not Found status if the book does not exist
+     * @param ifNoneMatch the optional If-None-Match header
+     * @return the book with the specified ID, a 304 Not Modified status if the If-None-Match header
+     *         holds its current ETag, or a 404 Not Found status if the book does not exist
      */
     @GetMapping("/books/{id}")
-    public @ResponseBody ResponseEntity<Book> getBook(@PathVariable int id) {
+    public @ResponseBody ResponseEntity<Book> getBook(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         LOGGER.info("Fetching book with ID: {}", id);
-        return bookRepo.findById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        Optional<Book> bookOpt = bookRepo.findById(id);
+        if (bookOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Book book = bookOpt.get();
+        String etag = "\"" + book.getId() + "-" + book.getVersion() + "\"";
+        if (matchesETag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(book);
     }
 
     /**
      * Fetches the content of a book by its ID.
      *
+     * <p>The stored content of a book never changes, so every page has a strong ETag derived from the
+     * hash of the content. Pages requested with an explicit page size are sent as immutable and can be
+     * cached for a year; pages of the default page size, which is configured on the server, have to
+     * be revalidated.</p>
+     *
+     * <p>The page is sent as serialized {@link PagedContent} JSON, gzip-compressed if the client accepts
+     * it. Both forms are cached, so a page requested again is neither built nor compressed.</p>
+     *
      * @param id the ID of the book
      * @param page the page number of the content to retrieve (default is 0)
      * @param pageSize the size of the content page (optional)
-     * @return the content of the book, or a 404 Not Found status if the book does not exist,
+     * @param mode how the content is split into pages: char (default), word or paragraph
+     * @param ifNoneMatch the optional If-None-Match header
+     * @param acceptEncoding the optional Accept-Encoding header
+     * @return the content of the book, a 304 Not Modified status if the If-None-Match header holds
+     *         the ETag of the page, a 400 Bad Request status if the mode is unknown, the page does not
+     *         exist or the page size cannot be served in the mode,
+     *         a 404 Not Found status if the book does not exist,
      *         or a 500 Internal Server Error status if an error occurs while reading the content
      */
     @GetMapping("/books/{id}/content")
-    public @ResponseBody ResponseEntity<PagedContent> getBookContent(
+    public @ResponseBody ResponseEntity<byte[]> getBookContent(
             @PathVariable int id,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(required = false) Integer pageSize
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(defaultValue = "char") String mode,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
-        LOGGER.info("Fetching content for book with ID: {}, page: {}, pageSize: {}", id, page, pageSize);
+        LOGGER.info("Fetching content for book with ID: {}, page: {}, pageSize: {}, mode: {}", id, page, pageSize, mode);
+        PageMode pageMode;
+        try {
+            pageMode = PageMode.fromParameter(mode);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Unknown page mode: {}", mode);
+            return ResponseEntity.badRequest().build();
+        }
         try {
             Optional<Book> bookOpt = bookRepo.findById(id);
             if (bookOpt.isPresent()) {
                 Book book = bookOpt.get();
-                PagedContent content = bookContentService.readBookContent(book.getFileName(), page, pageSize);
-                return ResponseEntity.ok(content);
+                boolean gzip = acceptsGzip(acceptEncoding);
+                String etag = bookContentService.pageETag(
+                    book.getFileName(), book.getTextStatistics(), page, pageSize, pageMode);
+                if (etag != null && gzip) {
+                    // Each encoding of the page is a different representation, with its own strong ETag
+                    etag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+                }
+                CacheControl cacheControl = pageSize != null
+                    ? CacheControl.maxAge(CONTENT_MAX_AGE).cachePublic().immutable()
+                    : CacheControl.noCache();
+                if (matchesETag(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(cacheControl)
+                        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+                }
+                EncodedPage content = bookContentService.readEncodedPage(
+                    book.getFileName(), book.getTextStatistics(), page, pageSize, pageMode);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.APPLICATION_JSON);
+                if (gzip) {
+                    return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(content.gzip());
+                }
+                return response.body(content.json());
             } else {
                 LOGGER.error("Book with ID: {} not found", id);
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid page for book with ID: {}. Error: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            LOGGER.error("Failed to read book content for book with ID: {}. Error: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Fetches a run of consecutive pages of a book's content in one request.
+     *
+     * <p>The pages are read from storage together. The server caps the number of characters
+     * returned, so fewer pages than requested may come back; the page numbers of the entries
+     * tell the client where to continue.</p>
+     *
+     * @param id the ID of the book
+     * @param from the first page to retrieve
+     * @param to the last page to retrieve, inclusive
+     * @param pageSize the size of the content pages (optional)
+     * @param mode how the content is split into pages: char (default), word or paragraph
+     * @return the pages of the book, a 400 Bad Request status if the page range or mode is invalid,
+     *         a 404 Not Found status if the book does not exist,
+     *         or a 500 Internal Server Error status if an error occurs while reading the content
+     */
+    @GetMapping(value = "/books/{id}/content", params = {"from", "to"})
+    public @ResponseBody ResponseEntity<List<PagedContent>> getBookContentRange(
+            @PathVariable int id,
+            @RequestParam int from,
+            @RequestParam int to,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(defaultValue = "char") String mode
+    ) {
+        LOGGER.info("Fetching content for book with ID: {}, pages: {}-{}, pageSize: {}, mode: {}",
+            id, from, to, pageSize, mode);
+        Optional<Book> bookOpt = bookRepo.findById(id);
+        if (bookOpt.isEmpty()) {
+            LOGGER.error("Book with ID: {} not found", id);
+            return ResponseEntity.notFound().build();
+        }
+        Book book = bookOpt.get();
+        try {
+            return ResponseEntity.ok(bookContentService.readBookContentRange(
+                book.getFileName(), book.getTextStatistics(), from, to, pageSize, PageMode.fromParameter(mode)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid page range {}-{} or mode {} for book with ID: {}", from, to, mode, id);
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             LOGGER.error("Failed to read book content for book with ID: {}. Error: {}", id, e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Streams the raw UTF-8 content of a book, or a single byte range of it.
+     *
+     * <p>A {@code Range} header with one range is answered with 206 Partial Content, unless an
+     * {@code If-Range} header does not match the current ETag of the content. The content is
+     * streamed from storage without being held in memory.</p>
+     *
+     * @param id the ID of the book
+     * @param range the optional Range header
+     * @param ifRange the optional If-Range header
+     * @return the content or the requested part of it, a 404 Not Found status if the book does not exist,
+     *         a 416 Range Not Satisfiable status if the range is outside the content,
+     *         or a 500 Internal Server Error status if an error occurs while reading the content
+     */
+    @GetMapping("/books/{id}/content/raw")
+    public ResponseEntity<StreamingResponseBody> getRawBookContent(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange
+    ) {
+        LOGGER.info("Fetching raw content for book with ID: {}, range: {}", id, range);
+        Optional<Book> bookOpt = bookRepo.findById(id);
+        if (bookOpt.isEmpty()) {
+            LOGGER.error("Book with ID: {} not found", id);
+            return ResponseEntity.notFound().build();
+        }
+        String filename = bookOpt.get().getFileName();
+        long length;
+        try {
+            length = bookContentService.contentLength(filename);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read book content for book with ID: {}. Error: {}", id, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8));
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String etag = "\"" + filename + "-" + Long.toHexString(length) + "\"";
+        headers.setETag(etag);
+
+        HttpRange requested = range != null && (ifRange == null || ifRange.equals(etag)) ? parseRange(range) : null;
+        if (requested == null) {
+            headers.setContentLength(length);
+            return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> bookContentService.transferContent(filename, 0, length, out));
+        }
+
+        long start = satisfiableStart(requested, length);
+        if (start < 0) {
+            LOGGER.error("Unsatisfiable range {} for book with ID: {}", range, id);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+        }
+        long end = requested.getRangeEnd(length) + 1;
+        headers.setContentLength(end - start);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+            .headers(headers)
+            .body(out -> bookContentService.transferContent(filename, start, end, out));
+    }
+
+    /**
+     * Returns the first byte of a range, or -1 if the range does not overlap the content. HttpRange
+     * clamps the end of a range to the content but not its start, so a start past the end is checked here.
+     */
+    private static long satisfiableStart(HttpRange range, long length) {
+        try {
+            long start = range.getRangeStart(length);
+            return start < length && range.getRangeEnd(length) >= start ? start : -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses a Range header holding a single byte range. Malformed headers and multiple ranges
+     * are ignored, which makes the request return the whole content.
+     */
+    private static HttpRange parseRange(String range) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Ignoring malformed range {}: {}", range, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether an Accept-Encoding header accepts gzip, explicitly or through a wildcard. A
+     * coding listed with a zero quality value is refused.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (parameter.startsWith("q=")) {
+                    accepted = !parameter.substring(2).trim().matches("0(\\.0*)?");
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = accepted;
+            } else if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return gzip != null ? gzip : Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * Returns whether an If-None-Match header lists an entity tag, or any tag. Tags are compared
+     * weakly, as the header requires.
+     */
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Fetches a list of available genres.
      *
@@ -145,4 +566,15 @@ public class GetController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Fetches the hit, miss and eviction counters of the book content cache.
+     *
+     * @return the current cache statistics
+     */
+    @GetMapping("/cache/stats")
+    public @ResponseBody ResponseEntity<ContentCacheStats> getCacheStats() {
+        LOGGER.info("Fetching content cache statistics");
+        return ResponseEntity.ok(bookContentService.getCacheStats());
+    }
 }
@@ -0,0 +1,62 @@
+package com.itp.DigLib.api.controller;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.itp.DigLib.api.model.SearchResult;
+import com.itp.DigLib.search.SearchService;
+
+/**
+ * REST controller for full-text search over book contents.
+ */
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchController.class);
+    static final int MAX_LIMIT = 50;
+
+    @Autowired
+    private SearchService searchService;
+
+    /**
+     * Searches the contents of all books, ranking the matching books by relevance.
+     *
+     * @param q the query text
+     * @param limit the maximum number of books to return (default is 10, at most 50)
+     * @param pageSize the page size used to number the pages of the hits (optional)
+     * @return the matching books, best first, or a 400 Bad Request status if the query has no
+     *         searchable terms or a parameter is invalid, or a 500 Internal Server Error status if
+     *         the index cannot be read
+     */
+    @GetMapping
+    public @ResponseBody ResponseEntity<List<SearchResult>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Integer pageSize
+    ) {
+        LOGGER.info("Searching book contents for: {}, limit: {}, pageSize: {}", q, limit, pageSize);
+        if (limit <= 0) {
+            LOGGER.error("Invalid search limit: {}", limit);
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(searchService.search(q, Math.min(limit, MAX_LIMIT), pageSize));
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid search query: {}. Error: {}", q, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            LOGGER.error("Failed to search book contents for: {}. Error: {}", q, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
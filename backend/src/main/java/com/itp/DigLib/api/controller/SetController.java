@@ -1,7 +1,11 @@
 package com.itp.DigLib.api.controller;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.zip.ZipException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,8 +21,13 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.ImportReport;
 import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.api.service.BookImportService;
 import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.search.FacetCounts;
+import com.itp.DigLib.search.SearchService;
+import com.itp.DigLib.search.TrigramIndex;
 
 /**
  * REST controller for managing books.
@@ -27,6 +36,7 @@ import com.itp.DigLib.db.BookRepository;
 @RequestMapping("/books")
 public class SetController {
     private static final Logger LOGGER = LoggerFactory.getLogger(SetController.class);
+    static final int MAX_BULK_DELETE = 1000;
 
     @Autowired
     private BookRepository bookRepo;
@@ -34,6 +44,18 @@ public class SetController {
     @Autowired
     private BookContentService bookContentService;
 
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private TrigramIndex trigramIndex;
+
+    @Autowired
+    private FacetCounts facetCounts;
+
     /**
      * Adds a new book to the repository.
      *
@@ -62,8 +84,15 @@ public class SetController {
             book.setIsbn(isbn);
             book.setYear(year);
             
-            book = bookRepo.save(book);
-            bookContentService.storeFile(content, book.getFileName());
+            // Store the content first so the book is saved once, together with its statistics
+            book.setTextStatistics(bookContentService.storeFile(content, book.getFileName()));
+            try {
+                book = bookRepo.save(book);
+            } catch (RuntimeException e) {
+                bookContentService.deleteBookContent(book.getFileName());
+                throw e;
+            }
+            searchService.indexBook(book);
 
             LOGGER.info("Added new book: {}", title);
             return ResponseEntity.ok("ID:" + book.getId());
@@ -77,6 +106,43 @@ public class SetController {
         }
     }
 
+    /**
+     * Adds many books at once. The books are described by a manifest (CSV with a header row, or a JSON
+     * array) with the fields title, author, genre, isbn, year and file, sent either inside a ZIP
+     * archive together with the content files, or as a part of its own next to them.
+     *
+     * @param archive a ZIP archive with manifest.csv or manifest.json at its root and the content files
+     * @param manifest the manifest, when no archive is sent
+     * @param files the content files named in the manifest by their file names, when no archive is sent
+     * @return a ResponseEntity containing the result of every entry, or 400 for an invalid archive or manifest
+     */
+    @PostMapping("/import")
+    public @ResponseBody ResponseEntity<ImportReport> importBooks(
+            @RequestParam(required = false) MultipartFile archive,
+            @RequestParam(required = false) MultipartFile manifest,
+            @RequestParam(required = false) List<MultipartFile> files
+    ) {
+        if ((archive == null) == (manifest == null)) {
+            LOGGER.error("Import needs either an archive or a manifest with files");
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            ImportReport report = archive != null
+                ? bookImportService.importArchive(archive)
+                : bookImportService.importFiles(manifest, files == null ? List.of() : files);
+            return ResponseEntity.ok(report);
+        } catch (ZipException e) {
+            LOGGER.error("Failed to read import archive. Error: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid import manifest. Error: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            LOGGER.error("Failed to read import. Error: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Deletes a book from the repository.
      *
@@ -90,6 +156,7 @@ public class SetController {
             Book book = bookOpt.get();
             bookContentService.deleteBookContent(book.getFileName());
             bookRepo.deleteById(id);
+            searchService.removeBook(id);
             LOGGER.info("Deleted book with ID: {}", id);
             return ResponseEntity.ok("Book deleted successfully");
         } else {
@@ -97,4 +164,43 @@ public class SetController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * Deletes several books at once. The books are loaded with one query and deleted with one
+     * statement, and their contents are removed with batched storage deletes.
+     *
+     * @param ids the IDs of the books to delete, at most {@value #MAX_BULK_DELETE}
+     * @return a ResponseEntity containing the IDs of the books that were deleted; IDs of books that do
+     *     not exist are left out
+     */
+    @DeleteMapping
+    public @ResponseBody ResponseEntity<List<Integer>> deleteBooks(@RequestParam List<Integer> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BULK_DELETE) {
+            LOGGER.error("Bulk delete needs between 1 and {} IDs, got {}", MAX_BULK_DELETE, ids.size());
+            return ResponseEntity.badRequest().build();
+        }
+        List<Book> books = new ArrayList<>();
+        bookRepo.findAllById(new LinkedHashSet<>(ids)).forEach(books::add);
+        if (books.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        List<Integer> found = books.stream().map(Book::getId).toList();
+
+        // Rows first: if the storage fails afterwards it leaves unreferenced files, not books without content
+        bookRepo.deleteByIdIn(found);
+        for (Book book : books) {
+            // The statement bypasses BookIndexListener, which keeps these in step for single deletes
+            trigramIndex.remove(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre());
+            facetCounts.remove(book.getId(), book.getGenre(), book.getAuthor(), book.getYear());
+            searchService.removeBook(book.getId());
+        }
+        try {
+            bookContentService.deleteBookContents(books.stream().map(Book::getFileName).toList());
+        } catch (RuntimeException e) {
+            LOGGER.error("Deleted {} books but failed to delete their contents. Error: {}", found.size(),
+                e.getMessage());
+        }
+        LOGGER.info("Deleted {} books with IDs: {}", found.size(), found);
+        return ResponseEntity.ok(found);
+    }
 }
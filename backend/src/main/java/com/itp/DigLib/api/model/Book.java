@@ -3,19 +3,37 @@ package com.itp.DigLib.api.model;
 import java.nio.file.Paths;
 import java.util.Random;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.itp.DigLib.search.BookIndexListener;
 
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Represents a book with a title, author, year, genre, ISBN, and file path.
  */
 @Entity // This tells Hibernate to make a table out of this class
+@EntityListeners(BookIndexListener.class)
+// One index per sortable field; InnoDB appends the primary key, matching the id tie-breaker of every sort
+@Table(indexes = {
+    @Index(name = "idx_book_title", columnList = "title"),
+    @Index(name = "idx_book_author", columnList = "author"),
+    @Index(name = "idx_book_year", columnList = "year"),
+    @Index(name = "idx_book_isbn", columnList = "isbn")
+})
 public class Book {
+    // Pooled sequence, a table on MySQL: one round-trip reserves 50 IDs, so inserts can be batched.
+    // Changing the increment would let new ranges overlap IDs already handed out.
     @Id
-    @GeneratedValue(strategy=GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private int id;
     private String title;
     private String author;
@@ -23,6 +41,10 @@ public class Book {
     private String genre;
     private String isbn;
     private String filename;
+    @Embedded
+    private TextStatistics textStatistics;
+    @Version
+    private long version;
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
     private static final Random RANDOM = new Random();
 
@@ -81,6 +103,10 @@ public class Book {
         this.id = id; 
     }
 
+    public void setTextStatistics(TextStatistics textStatistics) {
+        this.textStatistics = textStatistics;
+    }
+
 
     /**
      * Returns the title of the book.
@@ -146,6 +172,24 @@ public class Book {
         return isbn;
     }
 
+    /**
+     * Returns the statistics of the content of the book.
+     *
+     * @return the content statistics, or null if the book was uploaded before they were computed
+     */
+    public TextStatistics getTextStatistics() {
+        return textStatistics;
+    }
+
+    /**
+     * Returns the version of the metadata of the book, incremented by every update.
+     *
+     * @return the version of the book
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Returns the file path of the book.
      *
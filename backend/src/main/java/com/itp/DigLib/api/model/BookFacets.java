@@ -0,0 +1,38 @@
+package com.itp.DigLib.api.model;
+
+import java.util.Map;
+
+/**
+ * Counts of the books in the catalogue, in total and by genre, decade and author.
+ */
+public class BookFacets {
+    private final long total;                   // Number of books
+    private final Map<String, Long> genres;     // Books by genre, every known genre included
+    private final Map<Integer, Long> decades;   // Books by first year of their decade, in order
+    private final Map<String, Long> authors;    // Books by author, most prolific first
+
+    public BookFacets(long total, Map<String, Long> genres, Map<Integer, Long> decades,
+            Map<String, Long> authors) {
+        this.total = total;
+        this.genres = genres;
+        this.decades = decades;
+        this.authors = authors;
+    }
+
+    // Getters
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Long> getGenres() {
+        return genres;
+    }
+
+    public Map<Integer, Long> getDecades() {
+        return decades;
+    }
+
+    public Map<String, Long> getAuthors() {
+        return authors;
+    }
+}
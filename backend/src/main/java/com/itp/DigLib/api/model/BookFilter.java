@@ -0,0 +1,87 @@
+package com.itp.DigLib.api.model;
+
+/**
+ * The optional filters of a book listing, bound from the query parameters of {@code GET /books}.
+ * All filters given are combined; a book has to match every one of them.
+ */
+public class BookFilter {
+    private String title;       // Substring of the title, ignoring case
+    private String author;      // Substring of the author, ignoring case
+    private String genre;       // Substring of the genre, ignoring case
+    private String isbn;        // Exact ISBN
+    private Integer yearFrom;   // First publication year, inclusive
+    private Integer yearTo;     // Last publication year, inclusive
+
+    public BookFilter() {}
+
+    public BookFilter(String title, String author, String genre) {
+        this.title = title;
+        this.author = author;
+        this.genre = genre;
+    }
+
+    /**
+     * Returns whether no filter is set.
+     *
+     * @return true if every book matches
+     */
+    public boolean isEmpty() {
+        return title == null && author == null && genre == null && isbn == null
+            && yearFrom == null && yearTo == null;
+    }
+
+    // Getters and setters
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public void setIsbn(String isbn) {
+        this.isbn = isbn;
+    }
+
+    public Integer getYearFrom() {
+        return yearFrom;
+    }
+
+    public void setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public Integer getYearTo() {
+        return yearTo;
+    }
+
+    public void setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    @Override
+    public String toString() {
+        return "title: " + title + ", author: " + author + ", genre: " + genre + ", isbn: " + isbn
+            + ", yearFrom: " + yearFrom + ", yearTo: " + yearTo;
+    }
+}
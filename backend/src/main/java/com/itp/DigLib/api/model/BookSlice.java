@@ -0,0 +1,33 @@
+package com.itp.DigLib.api.model;
+
+import java.util.List;
+
+/**
+ * One slice of a book listing read with a cursor, without the total count of a page.
+ */
+public class BookSlice {
+    private final List<Book> content;   // The books of this slice, in listing order
+    private final String next;          // Cursor of the following slice, or null after the last slice
+
+    public BookSlice(List<Book> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    // Getters
+    public List<Book> getContent() {
+        return content;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public int getSize() {
+        return content.size();
+    }
+
+    public boolean isLast() {
+        return next == null;
+    }
+}
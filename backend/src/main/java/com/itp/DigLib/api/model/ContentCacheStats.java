@@ -0,0 +1,54 @@
+package com.itp.DigLib.api.model;
+
+/**
+ * Snapshot of the counters of the book content cache, used to size the cache in production.
+ */
+public class ContentCacheStats {
+    private final long hitCount;          // Lookups served from the cache
+    private final long missCount;         // Lookups that had to read from storage
+    private final long evictionCount;     // Entries evicted to stay within the size limit
+    private final long evictionWeight;    // Estimated bytes evicted
+    private final long entryCount;        // Entries currently cached
+    private final long weightedSize;      // Estimated bytes currently cached
+    private final long maximumWeight;     // Configured limit in bytes
+
+    public ContentCacheStats(long hitCount, long missCount, long evictionCount, long evictionWeight,
+            long entryCount, long weightedSize, long maximumWeight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.entryCount = entryCount;
+        this.weightedSize = weightedSize;
+        this.maximumWeight = maximumWeight;
+    }
+
+    // Getters
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+}
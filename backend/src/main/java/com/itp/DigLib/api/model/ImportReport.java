@@ -0,0 +1,77 @@
+package com.itp.DigLib.api.model;
+
+import java.util.List;
+
+/**
+ * The outcome of a bulk import, with one item per manifest entry in manifest order.
+ */
+public class ImportReport {
+    private final int imported;         // Number of books added
+    private final int failed;           // Number of entries rejected or not stored
+    private final List<Item> items;     // Result of every entry
+
+    public ImportReport(List<Item> items) {
+        this.items = items;
+        this.imported = (int) items.stream().filter(Item::isImported).count();
+        this.failed = items.size() - imported;
+    }
+
+    // Getters
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * The result of one manifest entry: the ID of the added book, or the reason it was not added.
+     */
+    public static class Item {
+        private final int index;        // Position of the entry in the manifest (0-based)
+        private final String file;      // Content file named by the entry
+        private final Integer id;       // ID of the added book, null if it failed
+        private final String error;     // Reason the entry failed, null if it was added
+
+        private Item(int index, String file, Integer id, String error) {
+            this.index = index;
+            this.file = file;
+            this.id = id;
+            this.error = error;
+        }
+
+        public static Item imported(int index, String file, int id) {
+            return new Item(index, file, id, null);
+        }
+
+        public static Item failed(int index, String file, String error) {
+            return new Item(index, file, null, error);
+        }
+
+        // Getters
+        public int getIndex() {
+            return index;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isImported() {
+            return id != null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.itp.DigLib.api.model;
+
+/**
+ * How the content of a book is split into pages of a given size.
+ */
+public enum PageMode {
+    /** Pages of exactly the page size, cut at any character. */
+    CHAR,
+    /** Pages of at most the page size that end before the start of a word. */
+    WORD,
+    /** Pages of at most the page size that end at a paragraph break, or at a word if there is none. */
+    PARAGRAPH;
+
+    /**
+     * Parses a mode given as a request parameter, ignoring case.
+     *
+     * @param value the parameter value, e.g. {@code word}
+     * @return the page mode
+     * @throws IllegalArgumentException if the value is not a page mode
+     */
+    public static PageMode fromParameter(String value) {
+        for (PageMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown page mode: " + value);
+    }
+}
@@ -14,21 +14,26 @@ public class PagedContent {
     private final String readingTime;       // Average reading time for the entire book
     
     public PagedContent(String content, int pageNumber, int totalPages, int pageSize, int totalSize) {
+        // Without a word count, assume an average word length of 5 characters
+        this(content, pageNumber, totalPages, pageSize, totalSize, totalSize / 5);
+    }
+
+    public PagedContent(String content, int pageNumber, int totalPages, int pageSize, int totalSize, long words) {
         this.content = content;
         this.pageNumber = pageNumber;
         this.totalPages = totalPages;
         this.pageSize = pageSize;
         this.totalSize = totalSize;
-        this.readingTime = calculateReadingTime();
+        this.readingTime = calculateReadingTime(words);
     }
 
-    private String calculateReadingTime() {
-        int words = this.totalSize / 5; // Average word length is 5 characters
+    private static String calculateReadingTime(long words) {
         int avgReadingTime = 183; // Average reading speed in words per minute
-        int totaltMinutes = words / avgReadingTime;
-        int hours = totaltMinutes / 60;
-        int minutes = totaltMinutes % 60;
-        return String.format("%d hours, %d minutes", hours, minutes);
+        long totaltMinutes = words / avgReadingTime;
+        long hours = totaltMinutes / 60;
+        long minutes = totaltMinutes % 60;
+        // Concatenation instead of String.format, which parses the pattern on every page
+        return hours + " hours, " + minutes + " minutes";
     }
     
     // Getters
@@ -0,0 +1,49 @@
+package com.itp.DigLib.api.model;
+
+import java.util.List;
+
+/**
+ * A book matching a full-text search, with the pages where the query terms occur.
+ */
+public class SearchResult {
+    private final int bookId;
+    private final String title;
+    private final String author;
+    private final double score;         // BM25 score, higher is better
+    private final List<Integer> pages;  // Pages (0-based) of the first occurrences of the query terms
+    private final String snippet;       // Text around the first occurrence
+
+    public SearchResult(int bookId, String title, String author, double score, List<Integer> pages, String snippet) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.score = score;
+        this.pages = pages;
+        this.snippet = snippet;
+    }
+
+    // Getters
+    public int getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public List<Integer> getPages() {
+        return pages;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+}
@@ -0,0 +1,182 @@
+package com.itp.DigLib.api.model;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Size and word statistics of the content of a book, computed once when the content is uploaded,
+ * along with a hash identifying the content.
+ *
+ * <p>The columns are nullable so books uploaded before the statistics existed load with no statistics.</p>
+ */
+@Embeddable
+public class TextStatistics {
+    @Column(name = "char_count")
+    private Long chars;         // UTF-16 characters in the decoded text
+    @Column(name = "code_point_count")
+    private Long codePoints;    // Unicode code points in the decoded text
+    @Column(name = "word_count")
+    private Long words;         // Runs of non-whitespace code points
+    @Column(name = "line_count")
+    private Long lines;         // Lines, counting a last line without a line break
+    @Column(name = "byte_count")
+    private Long bytes;         // Bytes of the stored UTF-8 content
+    @Column(name = "content_sha256", length = 64)
+    private String sha256;      // Hex SHA-256 of the stored UTF-8 content, null for books uploaded before it existed
+
+    protected TextStatistics() {}
+
+    public TextStatistics(long chars, long codePoints, long words, long lines, long bytes) {
+        this(chars, codePoints, words, lines, bytes, null);
+    }
+
+    public TextStatistics(long chars, long codePoints, long words, long lines, long bytes, String sha256) {
+        this.chars = chars;
+        this.codePoints = codePoints;
+        this.words = words;
+        this.lines = lines;
+        this.bytes = bytes;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Creates a builder computing statistics from UTF-8 content fed in arbitrary chunks.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Getters
+    public long getChars() {
+        return chars;
+    }
+
+    public long getCodePoints() {
+        return codePoints;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * Computes {@link TextStatistics} from UTF-8 content fed in arbitrary chunks.
+     *
+     * <p>Malformed sequences are counted as one replacement character, as the decoder used for
+     * reading the content does.</p>
+     */
+    public static final class Builder {
+        private long chars;
+        private long codePoints;
+        private long words;
+        private long lines;
+        private long bytes;
+        private int codePoint;
+        private int pending;
+        private boolean inWord;
+        private boolean endsWithLineBreak;
+        private final MessageDigest digest;
+
+        private Builder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Feeds the next chunk of content.
+         *
+         * @param data the buffer holding the chunk
+         * @param offset the start of the chunk in the buffer
+         * @param length the length of the chunk
+         * @return this builder
+         */
+        public Builder update(byte[] data, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                accept(data[i] & 0xFF);
+            }
+            digest.update(data, offset, length);
+            bytes += length;
+            return this;
+        }
+
+        private void accept(int b) {
+            if (pending > 0) {
+                if ((b & 0xC0) == 0x80) {
+                    codePoint = codePoint << 6 | (b & 0x3F);
+                    if (--pending == 0) {
+                        count(codePoint);
+                    }
+                    return;
+                }
+                // Truncated sequence, the byte starts a new one
+                pending = 0;
+                count(0xFFFD);
+            }
+            if (b < 0x80) {
+                count(b);
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                codePoint = b & 0x1F;
+                pending = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                codePoint = b & 0x0F;
+                pending = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                codePoint = b & 0x07;
+                pending = 3;
+            } else {
+                count(0xFFFD);
+            }
+        }
+
+        private void count(int cp) {
+            codePoints++;
+            chars += Character.charCount(cp);
+            boolean whitespace = Character.isWhitespace(cp) || Character.isSpaceChar(cp);
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+            endsWithLineBreak = cp == '\n';
+            if (endsWithLineBreak) {
+                lines++;
+            }
+        }
+
+        /**
+         * Finishes the computation.
+         *
+         * @return the statistics of the content fed so far
+         */
+        public TextStatistics build() {
+            if (pending > 0) {
+                pending = 0;
+                count(0xFFFD);
+            }
+            long totalLines = codePoints > 0 && !endsWithLineBreak ? lines + 1 : lines;
+            return new TextStatistics(chars, codePoints, words, totalLines, bytes,
+                HexFormat.of().formatHex(digest.digest()));
+        }
+    }
+}
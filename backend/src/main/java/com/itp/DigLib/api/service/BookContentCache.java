@@ -0,0 +1,334 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import com.itp.DigLib.api.model.ContentCacheStats;
+
+/**
+ * In-process cache of decoded book content and page indexes, bounded by an estimate of the heap it uses.
+ *
+ * <p>All entries of a book are keyed by its filename, so they can be dropped together when the
+ * content is deleted or replaced.</p>
+ */
+@Component
+public class BookContentCache {
+    private static final String INDEX = "index";
+    private static final String FRAMES = "frames";
+    private static final String BREAKS = "breaks";
+    private static final String FULL_TEXT = "text";
+
+    private final Cache<Key, Object> cache;
+    private final long maximumBytes;
+
+    /**
+     * Constructs a new BookContentCache.
+     *
+     * @param maximumBytes the approximate number of heap bytes the cached entries may use
+     */
+    public BookContentCache(@Value("${book.cache.max-bytes:67108864}") long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maximumBytes)
+            .weigher(BookContentCache::weigh)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Loads something that may fail with an I/O error.
+     *
+     * @param <T> the type of the loaded value
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        /**
+         * Loads the value.
+         *
+         * @return the loaded value
+         * @throws IOException if an I/O error occurs
+         */
+        T load() throws IOException;
+    }
+
+    /**
+     * Returns the page index of a book, loading it on a miss. A missing index is cached as well.
+     *
+     * @param filename the name of the stored file
+     * @param loader loads the index, returning null if the book has none
+     * @return the page index, or null if the book has none
+     * @throws IOException if loading fails
+     */
+    @SuppressWarnings("unchecked")
+    public PageIndex getIndex(String filename, Loader<PageIndex> loader) throws IOException {
+        Optional<PageIndex> index = (Optional<PageIndex>) get(new Key(filename, INDEX),
+            () -> Optional.ofNullable(loader.load()));
+        return index.orElse(null);
+    }
+
+    /**
+     * Returns the frame table of a book, loading it on a miss. A missing table is cached as well.
+     *
+     * @param filename the name of the stored file
+     * @param loader loads the table, returning null if the content is not compressed
+     * @return the frame table, or null if the content is not compressed
+     * @throws IOException if loading fails
+     */
+    @SuppressWarnings("unchecked")
+    public FrameTable getFrames(String filename, Loader<FrameTable> loader) throws IOException {
+        Optional<FrameTable> frames = (Optional<FrameTable>) get(new Key(filename, FRAMES),
+            () -> Optional.ofNullable(loader.load()));
+        return frames.orElse(null);
+    }
+
+    /**
+     * Returns the break table of a book, loading it on a miss. A missing table is cached as well.
+     *
+     * @param filename the name of the stored file
+     * @param loader loads the table, returning null if the book has none
+     * @return the break table, or null if the book has none
+     * @throws IOException if loading fails
+     */
+    @SuppressWarnings("unchecked")
+    public BreakTable getBreaks(String filename, Loader<BreakTable> loader) throws IOException {
+        Optional<BreakTable> breaks = (Optional<BreakTable>) get(new Key(filename, BREAKS),
+            () -> Optional.ofNullable(loader.load()));
+        return breaks.orElse(null);
+    }
+
+    /**
+     * Replaces the cached break table of a book, after tables were added to it.
+     *
+     * @param filename the name of the stored file
+     * @param breaks the break table
+     */
+    public void putBreaks(String filename, BreakTable breaks) {
+        cache.put(new Key(filename, BREAKS), Optional.of(breaks));
+    }
+
+    /**
+     * Returns an inflated frame of a book if it is cached.
+     *
+     * @param filename the name of the stored file
+     * @param frame the frame number
+     * @return the uncompressed bytes of the frame, or null if they are not cached
+     */
+    public byte[] getFrameIfPresent(String filename, int frame) {
+        return (byte[]) cache.getIfPresent(new Key(filename, "frame:" + frame));
+    }
+
+    /**
+     * Caches an inflated frame of a book.
+     *
+     * @param filename the name of the stored file
+     * @param frame the frame number
+     * @param raw the uncompressed bytes of the frame
+     */
+    public void putFrame(String filename, int frame, byte[] raw) {
+        cache.put(new Key(filename, "frame:" + frame), raw);
+    }
+
+    /**
+     * Returns the full decoded text of a book, loading it on a miss.
+     *
+     * @param filename the name of the stored file
+     * @param loader loads the text
+     * @return the decoded text
+     * @throws IOException if loading fails
+     */
+    public String getFullText(String filename, Loader<String> loader) throws IOException {
+        return (String) get(new Key(filename, FULL_TEXT), loader);
+    }
+
+    /**
+     * Returns the decoded text of a single page, loading it on a miss.
+     *
+     * @param filename the name of the stored file
+     * @param layout the page layout, the page size for character pages
+     * @param pageNumber the page number
+     * @param loader loads the page text
+     * @return the page text
+     * @throws IOException if loading fails
+     */
+    public String getPage(String filename, String layout, int pageNumber, Loader<String> loader) throws IOException {
+        return (String) get(new Key(filename, layout + ":" + pageNumber), loader);
+    }
+
+    /**
+     * Returns whether the decoded text of a page is cached, without counting a hit or miss.
+     *
+     * @param filename the name of the stored file
+     * @param layout the page layout, the page size for character pages
+     * @param pageNumber the page number
+     * @return true if the page is cached
+     */
+    public boolean containsPage(String filename, String layout, int pageNumber) {
+        return cache.asMap().containsKey(new Key(filename, layout + ":" + pageNumber));
+    }
+
+    /**
+     * Returns the decoded text of a page if it is cached, without counting a hit or miss.
+     *
+     * @param filename the name of the stored file
+     * @param layout the page layout, the page size for character pages
+     * @param pageNumber the page number
+     * @return the page text, or null if it is not cached
+     */
+    public String getPageIfPresent(String filename, String layout, int pageNumber) {
+        return (String) cache.asMap().get(new Key(filename, layout + ":" + pageNumber));
+    }
+
+    /**
+     * Caches the decoded text of a page.
+     *
+     * @param filename the name of the stored file
+     * @param layout the page layout, the page size for character pages
+     * @param pageNumber the page number
+     * @param text the page text
+     */
+    public void putPage(String filename, String layout, int pageNumber, String text) {
+        cache.put(new Key(filename, layout + ":" + pageNumber), text);
+    }
+
+    /**
+     * Returns the serialized JSON of a page if it is cached.
+     *
+     * @param filename the name of the stored file
+     * @param layout the page layout, including the mode and page size
+     * @param pageNumber the page number
+     * @return the encoded page, or null if it is not cached
+     */
+    public EncodedPage getEncodedPageIfPresent(String filename, String layout, int pageNumber) {
+        return (EncodedPage) cache.getIfPresent(new Key(filename, "json:" + layout + ":" + pageNumber));
+    }
+
+    /**
+     * Caches the serialized JSON of a page.
+     *
+     * @param filename the name of the stored file
+     * @param layout the page layout, including the mode and page size
+     * @param pageNumber the page number
+     * @param page the encoded page
+     */
+    public void putEncodedPage(String filename, String layout, int pageNumber, EncodedPage page) {
+        cache.put(new Key(filename, "json:" + layout + ":" + pageNumber), page);
+    }
+
+    /**
+     * Drops every cached entry of a book.
+     *
+     * @param filename the name of the stored file
+     */
+    public void invalidate(String filename) {
+        cache.asMap().keySet().removeIf(key -> key.filename.equals(filename));
+    }
+
+    /**
+     * Drops every cached entry of several books, scanning the cache once.
+     *
+     * @param filenames the names of the stored files
+     */
+    public void invalidateAll(Collection<String> filenames) {
+        Set<String> dropped = new HashSet<>(filenames);
+        cache.asMap().keySet().removeIf(key -> dropped.contains(key.filename));
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public ContentCacheStats stats() {
+        // Run pending evictions so the reported size is within the limit
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        long weightedSize = cache.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L))
+            .orElse(0L);
+        return new ContentCacheStats(
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount(),
+            stats.evictionWeight(),
+            cache.estimatedSize(),
+            weightedSize,
+            maximumBytes
+        );
+    }
+
+    private Object get(Key key, Loader<?> loader) throws IOException {
+        try {
+            return cache.get(key, k -> {
+                try {
+                    return loader.load();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int weigh(Key key, Object value) {
+        long size = 64 + key.filename.length() * 2L + key.part.length() * 2L;
+        if (value instanceof String) {
+            size += 40 + ((String) value).length() * 2L;
+        } else if (value instanceof byte[]) {
+            size += 16 + ((byte[]) value).length;
+        } else if (value instanceof EncodedPage) {
+            size += ((EncodedPage) value).estimatedSize();
+        } else if (value instanceof Optional) {
+            size += ((Optional<?>) value).map(BookContentCache::estimatedSize).orElse(0L);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    private static long estimatedSize(Object sidecar) {
+        if (sidecar instanceof FrameTable) {
+            return ((FrameTable) sidecar).estimatedSize();
+        }
+        if (sidecar instanceof BreakTable) {
+            return ((BreakTable) sidecar).estimatedSize();
+        }
+        return ((PageIndex) sidecar).estimatedSize();
+    }
+
+    /**
+     * Cache key made of the filename of a book and the part of it that is cached.
+     */
+    private static final class Key {
+        private final String filename;
+        private final String part;
+
+        private Key(String filename, String part) {
+            this.filename = filename;
+            this.part = part;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return filename.equals(key.filename) && part.equals(key.part);
+        }
+
+        @Override
+        public int hashCode() {
+            return filename.hashCode() * 31 + part.hashCode();
+        }
+    }
+}
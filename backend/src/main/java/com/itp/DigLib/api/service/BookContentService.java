@@ -1,64 +1,171 @@
 package com.itp.DigLib.api.service;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.google.cloud.storage.Blob;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Storage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
+import com.itp.DigLib.api.model.ContentCacheStats;
+import com.itp.DigLib.api.model.PageMode;
 import com.itp.DigLib.api.model.PagedContent;
+import com.itp.DigLib.api.model.TextStatistics;
+import com.itp.DigLib.storage.BookStorage;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 
 /**
- * Service for managing book content stored in Google Cloud Storage.
+ * Service for managing book content kept in a {@link BookStorage}.
  */
 @Service
-public class BookContentService {    
-    private final Storage storage;
-    private final String bucketName;
+public class BookContentService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookContentService.class);
+    private static final String CONTENT_PREFIX = "bookcontents/";
+    private static final String INDEX_PREFIX = "bookindex/";
+    private static final String COMPRESSED_CONTENT_TYPE = "application/x-diglib-frames";
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    private static final PageMode[] BREAK_MODES = {PageMode.WORD, PageMode.PARAGRAPH};
+    // Page sizes computed on first use are refused once a book has this many tables
+    private static final int MAX_BREAK_TABLES = 16;
+    // Break tables are computed and stored under one of these locks per book, so concurrent requests
+    // neither stream the book twice nor overwrite each other's tables
+    private static final int BREAK_LOCK_STRIPES = 64;
+    private static final ObjectWriter PAGE_WRITER = new ObjectMapper().writerFor(PagedContent.class);
+
+    private final BookStorage storage;
+    private final BookContentCache cache;
+    private final ReadAhead readAhead;
     private final int defaultPageSize;
+    private final int[] indexPageSizes;
+    private final int frameSize;
+    private final int maxBatchChars;
+    private final ReentrantLock[] breakLocks = new ReentrantLock[BREAK_LOCK_STRIPES];
+    // No-op until Spring provides the application's registry
+    private MeterRegistry meters = Metrics.globalRegistry;
 
     /**
      * Constructs a new BookContentService.
      *
-     * @param storage the Google Cloud Storage instance
-     * @param bucketName the name of the bucket where book contents are stored
+     * @param storage the storage holding the book contents
+     * @param cache the cache of decoded content in front of the storage
+     * @param readAhead decides which pages to load into the cache ahead of the reader
      * @param pageSize the default page size for reading book content
+     * @param indexPageSizes additional page sizes to compute page indexes for
+     * @param frameSize the number of text bytes per compressed frame, or 0 to store content uncompressed
+     * @param maxBatchChars the maximum number of characters returned by a multi-page read
      */
     public BookContentService(
-            Storage storage,
-            @Value("${spring.cloud.gcp.storage.bucket-name}") String bucketName,
-            @Value("${book.page.size:1000}") int pageSize
+            BookStorage storage,
+            BookContentCache cache,
+            ReadAhead readAhead,
+            @Value("${book.page.size:1000}") int pageSize,
+            @Value("${book.page.index-sizes:}") int[] indexPageSizes,
+            @Value("${book.content.frame-size:65536}") int frameSize,
+            @Value("${book.content.batch.max-chars:1000000}") int maxBatchChars
     ) {
         this.storage = storage;
-        this.bucketName = bucketName;
+        this.cache = cache;
+        this.readAhead = readAhead;
         this.defaultPageSize = pageSize;
+        this.indexPageSizes = IntStream.concat(IntStream.of(pageSize), IntStream.of(indexPageSizes))
+            .distinct()
+            .toArray();
+        this.frameSize = frameSize;
+        this.maxBatchChars = maxBatchChars;
+        for (int stripe = 0; stripe < BREAK_LOCK_STRIPES; stripe++) {
+            breakLocks[stripe] = new ReentrantLock();
+        }
     }
 
     /**
-     * Stores a file in Google Cloud Storage.
+     * Sets the registry receiving the page read metrics.
+     *
+     * <p>{@code diglib.content.page.read} times every encoded page read, tagged with whether the
+     * encoded page was cached; {@code diglib.content.decoded} records the bytes decoded from storage
+     * per page loaded, and {@code diglib.content.page.encoded} the JSON bytes of every page encoded.
+     * Storage requests are measured by {@code MeteredBookStorage}.</p>
+     *
+     * @param meters the meter registry
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meters) {
+        this.meters = meters;
+    }
+
+    /**
+     * Stores a file along with its page index.
      *
      * @param file the file to store
      * @param filename the name of the file to store
-     * @return the path to the stored file
+     * @return the statistics of the stored content
+     * @throws IOException if an I/O error occurs
+     */
+    public TextStatistics storeFile(MultipartFile file, String filename) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            return storeContent(content, filename);
+        }
+    }
+
+    /**
+     * Streams content into storage and stores its page index and break table.
+     * Only one chunk of the content is held in memory at a time, whatever the size of the book,
+     * and the text statistics are computed in the same pass. Unless disabled, the content is stored
+     * as independently compressed frames along with their {@link FrameTable}.
+     *
+     * @param content the content to store, read until the end but not closed
+     * @param filename the name of the file to store
+     * @return the statistics of the stored content
      * @throws IOException if an I/O error occurs
      */
-    public String storeFile(MultipartFile file, String filename) throws IOException {
-        BlobId blobId = BlobId.of(bucketName, "bookcontents/" + filename);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType("text/plain").build();
-        
-        storage.create(blobInfo, file.getBytes());
-        
-        return String.format("gs://%s/%s", bucketName, filename);
+    public TextStatistics storeContent(InputStream content, String filename) throws IOException {
+        PageIndex.Builder index = PageIndex.builder(indexPageSizes);
+        BreakTable.Builder breaks = BreakTable.builder(BREAK_MODES, indexPageSizes);
+        TextStatistics.Builder statistics = TextStatistics.builder();
+
+        InputStream indexed = new IndexingInputStream(content, index, breaks, statistics);
+        // The frame table is only known once the content is written, so the content and its sidecars
+        // are replaced one after the other. The cache is cleared before, so nothing cached from the
+        // previous content outlives the store, and after, for anything read while it was in progress.
+        cache.invalidate(filename);
+        if (frameSize > 0) {
+            FrameCompressingInputStream compressed = new FrameCompressingInputStream(indexed, frameSize);
+            storage.put(contentKey(filename), compressed, COMPRESSED_CONTENT_TYPE);
+            storage.put(framesKey(filename), new ByteArrayInputStream(compressed.frameTable().toBytes()),
+                "application/octet-stream");
+        } else {
+            storage.put(contentKey(filename), indexed, "text/plain");
+            storage.delete(framesKey(filename));
+        }
+        storeIndex(filename, index.build());
+        storeBreaks(filename, breaks.build());
+        cache.invalidate(filename);
+
+        LOGGER.info("Stored book content at {}", storage.locationOf(contentKey(filename)));
+        return statistics.build();
     }
 
     /**
-     * Reads the content of a book from Google Cloud Storage.
+     * Reads the content of a book that has no stored text statistics.
      *
      * @param filename the name of the file to read
      * @param pageNumber the page number to read
@@ -68,41 +175,401 @@ public class BookContentService {
      * @throws IllegalArgumentException if the filename is null or the page number is invalid
      */
     public PagedContent readBookContent(String filename, int pageNumber, Integer pageSize) throws IOException {
+        return readBookContent(filename, null, pageNumber, pageSize);
+    }
+
+    /**
+     * Reads a page of the content of a book, cut at any character.
+     *
+     * @param filename the name of the file to read
+     * @param statistics the statistics stored for the book, or null if it has none
+     * @param pageNumber the page number to read
+     * @param pageSize the size of the page to read, or null to use the default page size
+     * @return the paged content
+     * @throws IOException if an I/O error occurs or the file is not found
+     * @throws IllegalArgumentException if the filename is null or the page number is invalid
+     */
+    public PagedContent readBookContent(String filename, TextStatistics statistics, int pageNumber, Integer pageSize)
+            throws IOException {
+        return readBookContent(filename, statistics, pageNumber, pageSize, PageMode.CHAR);
+    }
+
+    /**
+     * Reads a page of the content of a book.
+     *
+     * <p>When the positions of the pages are known for the page size and mode, only the bytes of the
+     * requested page are read. Character pages of books without a page index are sliced from the whole
+     * book. Word and paragraph pages of a page size not computed at upload are located by computing
+     * its break table once, which is then stored with the book. Such sizes must be at least the
+     * default page size, and a book keeps at most {@value #MAX_BREAK_TABLES} tables. The reading time
+     * is based on the stored word count when the book has statistics.</p>
+     *
+     * @param filename the name of the file to read
+     * @param statistics the statistics stored for the book, or null if it has none
+     * @param pageNumber the page number to read
+     * @param pageSize the maximum size of the page to read, or null to use the default page size
+     * @param mode how the content is split into pages
+     * @return the paged content
+     * @throws IOException if an I/O error occurs or the file is not found
+     * @throws IllegalArgumentException if the filename is null or the page number or size is invalid
+     */
+    public PagedContent readBookContent(String filename, TextStatistics statistics, int pageNumber, Integer pageSize,
+            PageMode mode) throws IOException {
         if (filename == null) {
             throw new IllegalArgumentException("Filename cannot be null");
         }
-        BlobId blobId = BlobId.of(bucketName, "bookcontents/" + filename);
-        Blob blob = storage.get(blobId);
-        
-        if (blob == null) {
-            throw new IOException("File not found: " + filename);
+        int charactersPerPage = pageSize != null ? pageSize : defaultPageSize;
+        PageLayout layout = loadLayout(filename, mode, charactersPerPage);
+        if (layout == null) {
+            return readFullContent(filename, statistics, pageNumber, charactersPerPage);
+        }
+
+        int totalPages = layout.totalPages();
+        if (pageNumber < 0 || pageNumber >= totalPages) {
+            throw new IllegalArgumentException("Invalid page number");
+        }
+
+        String pageContent = cache.getPage(filename, layout.key(), pageNumber,
+            () -> readPage(filename, layout, pageNumber));
+        readAhead.afterRead(filename, charactersPerPage, pageNumber, totalPages,
+            (from, to) -> readPages(filename, layout, from, to));
+
+        return pagedContent(pageContent, pageNumber, totalPages, (int) layout.totalChars(), statistics);
+    }
+
+    /**
+     * Reads a page of the content of a book as serialized JSON, in plain and gzip-compressed form.
+     *
+     * <p>Encoded pages are cached next to the decoded text, so a page requested again is sent without
+     * being read, built, serialized or compressed. A miss reads the page as
+     * {@link #readBookContent(String, TextStatistics, int, Integer, PageMode)} does.</p>
+     *
+     * @param filename the name of the file to read
+     * @param statistics the statistics stored for the book, or null if it has none
+     * @param pageNumber the page number to read
+     * @param pageSize the maximum size of the page to read, or null to use the default page size
+     * @param mode how the content is split into pages
+     * @return the encoded page
+     * @throws IOException if an I/O error occurs or the file is not found
+     * @throws IllegalArgumentException if the filename is null or the page number or size is invalid
+     */
+    public EncodedPage readEncodedPage(String filename, TextStatistics statistics, int pageNumber, Integer pageSize,
+            PageMode mode) throws IOException {
+        if (filename == null) {
+            throw new IllegalArgumentException("Filename cannot be null");
         }
+        long started = System.nanoTime();
+        String layout = mode.name() + (pageSize != null ? pageSize : defaultPageSize);
+        EncodedPage encoded = cache.getEncodedPageIfPresent(filename, layout, pageNumber);
+        boolean cached = encoded != null;
+        if (!cached) {
+            // Concurrent misses may both encode the page, which is cheaper than holding a lock over the read
+            PagedContent page = readBookContent(filename, statistics, pageNumber, pageSize, mode);
+            encoded = EncodedPage.of(PAGE_WRITER.writeValueAsBytes(page));
+            cache.putEncodedPage(filename, layout, pageNumber, encoded);
+            DistributionSummary.builder("diglib.content.page.encoded")
+                .baseUnit("bytes")
+                .register(meters)
+                .record(encoded.json().length);
+        }
+        Timer.builder("diglib.content.page.read")
+            .tag("cache", cached ? "hit" : "miss")
+            .register(meters)
+            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return encoded;
+    }
 
-        byte[] content = blob.getContent();
-        String fullContent = new String(content, StandardCharsets.UTF_8);
-        
+    /**
+     * Returns the strong ETag of a page of the content of a book, without reading the content.
+     *
+     * <p>The stored content of a book never changes, so a page is identified by the hash of the
+     * content, or the name of the stored file for books uploaded before the hash was recorded,
+     * together with the page number, the effective page size and the mode.</p>
+     *
+     * @param filename the name of the stored file
+     * @param statistics the statistics stored for the book, or null if it has none
+     * @param pageNumber the page number
+     * @param pageSize the maximum size of the page, or null to use the default page size
+     * @param mode how the content is split into pages
+     * @return the quoted entity tag
+     */
+    public String pageETag(String filename, TextStatistics statistics, int pageNumber, Integer pageSize,
+            PageMode mode) {
+        String content = statistics != null && statistics.getSha256() != null ? statistics.getSha256() : filename;
         int charactersPerPage = pageSize != null ? pageSize : defaultPageSize;
+        return "\"" + content + "-" + mode.name().toLowerCase(Locale.ROOT) + charactersPerPage + "-" + pageNumber
+            + "\"";
+    }
+
+    private String readPage(String filename, PageLayout layout, int pageNumber) throws IOException {
+        long start = layout.startByte(pageNumber);
+        long end = layout.endByte(pageNumber);
+        String decoded = StandardCharsets.UTF_8.decode(readRange(filename, start, end)).toString();
+        DistributionSummary.builder("diglib.content.decoded")
+            .baseUnit("bytes")
+            .register(meters)
+            .record(end - start);
+        int skip = layout.skipChars(pageNumber);
+        return decoded.substring(skip, skip + layout.pageChars(pageNumber));
+    }
+
+    /**
+     * Reads a run of consecutive pages of a book.
+     *
+     * <p>When the positions of the pages are known, the pages are read with a single ranged read
+     * and cached. Otherwise they are sliced from the full text. The run is cut short at the last
+     * page of the book, and at the configured character limit, but always holds at least the
+     * first page.</p>
+     *
+     * @param filename the name of the file to read
+     * @param statistics the statistics stored for the book, or null if it has none
+     * @param fromPage the first page to read
+     * @param toPage the last page to read, inclusive
+     * @param pageSize the maximum size of the pages to read, or null to use the default page size
+     * @param mode how the content is split into pages
+     * @return the paged content of every page read, in order
+     * @throws IOException if an I/O error occurs or the file is not found
+     * @throws IllegalArgumentException if the filename is null or the page range or size is invalid
+     */
+    public List<PagedContent> readBookContentRange(String filename, TextStatistics statistics, int fromPage,
+            int toPage, Integer pageSize, PageMode mode) throws IOException {
+        if (filename == null) {
+            throw new IllegalArgumentException("Filename cannot be null");
+        }
+        if (toPage < fromPage) {
+            throw new IllegalArgumentException("Invalid page range");
+        }
+        int charactersPerPage = pageSize != null ? pageSize : defaultPageSize;
+        if (charactersPerPage <= 0) {
+            throw new IllegalArgumentException("Invalid page size");
+        }
+        int maxPages = Math.max(1, maxBatchChars / charactersPerPage);
+        int lastRequested = (int) Math.min(toPage, (long) fromPage + maxPages - 1);
+
+        PageLayout layout = loadLayout(filename, mode, charactersPerPage);
+        if (layout == null) {
+            String fullContent = loadFullText(filename);
+            int totalPages = (fullContent.length() + charactersPerPage - 1) / charactersPerPage;
+            if (fromPage < 0 || fromPage >= totalPages) {
+                throw new IllegalArgumentException("Invalid page number");
+            }
+            int last = Math.min(lastRequested, totalPages - 1);
+            List<PagedContent> pages = new ArrayList<>(last - fromPage + 1);
+            for (int page = fromPage; page <= last; page++) {
+                int startPosition = page * charactersPerPage;
+                int endPosition = Math.min(startPosition + charactersPerPage, fullContent.length());
+                pages.add(pagedContent(fullContent.substring(startPosition, endPosition), page, totalPages,
+                    fullContent.length(), statistics));
+            }
+            return pages;
+        }
+
+        int totalPages = layout.totalPages();
+        if (fromPage < 0 || fromPage >= totalPages) {
+            throw new IllegalArgumentException("Invalid page number");
+        }
+        int last = Math.min(lastRequested, totalPages - 1);
+        String[] contents = readPages(filename, layout, fromPage, last + 1);
+        List<PagedContent> pages = new ArrayList<>(contents.length);
+        for (int page = fromPage; page <= last; page++) {
+            pages.add(pagedContent(contents[page - fromPage], page, totalPages, (int) layout.totalChars(),
+                statistics));
+        }
+        readAhead.afterRead(filename, charactersPerPage, last, totalPages,
+            (from, to) -> readPages(filename, layout, from, to));
+        return pages;
+    }
+
+    /**
+     * Returns the pages in the given range, reading those that are not cached yet with one ranged read
+     * and caching them.
+     */
+    private String[] readPages(String filename, PageLayout layout, int from, int to) throws IOException {
+        String[] pages = new String[to - from];
+        int first = from;
+        int last = to - 1;
+        for (int page = from; page < to; page++) {
+            pages[page - from] = cache.getPageIfPresent(filename, layout.key(), page);
+        }
+        while (first <= last && pages[first - from] != null) {
+            first++;
+        }
+        while (last >= first && pages[last - from] != null) {
+            last--;
+        }
+        if (first > last) {
+            return pages;
+        }
+        long start = layout.startByte(first);
+        long end = layout.endByte(last);
+        String decoded = StandardCharsets.UTF_8.decode(readRange(filename, start, end)).toString();
+        int offset = layout.skipChars(first);
+        for (int page = first; page <= last; page++) {
+            int length = layout.pageChars(page);
+            pages[page - from] = decoded.substring(offset, offset + length);
+            cache.putPage(filename, layout.key(), page, pages[page - from]);
+            offset += length;
+        }
+        return pages;
+    }
+
+    /**
+     * Returns the positions of the pages of a book, or null if they are not known and the pages
+     * have to be sliced from the full text.
+     */
+    private PageLayout loadLayout(String filename, PageMode mode, int pageSize) throws IOException {
+        if (mode == PageMode.CHAR) {
+            PageIndex index = loadIndex(filename);
+            return index != null && index.supports(pageSize) ? index.layout(pageSize) : null;
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Invalid page size");
+        }
+        BreakTable breaks = loadBreaks(filename);
+        if (breaks == null || !breaks.supports(mode, pageSize)) {
+            breaks = computeBreaks(filename, mode, pageSize);
+        }
+        if (breaks == null) {
+            LOGGER.warn("Content of {} is not valid UTF-8, serving character pages", filename);
+            return null;
+        }
+        return breaks.layout(mode, pageSize);
+    }
+
+    /**
+     * Computes the break table of a page mode and size that was not computed at upload, by streaming
+     * the content once. It is stored with the other tables of the book, so later requests find it.
+     *
+     * <p>Sizes below the default page size are refused, since the table grows with the number of
+     * pages, and so is any new size once the book has {@value #MAX_BREAK_TABLES} tables. The tables
+     * are read again and merged under the lock of the book, so a concurrent request for the same size
+     * waits for the table instead of computing it again, and one for another size keeps both.</p>
+     */
+    private BreakTable computeBreaks(String filename, PageMode mode, int pageSize) throws IOException {
+        if (pageSize < defaultPageSize) {
+            throw new IllegalArgumentException("Page size must be at least " + defaultPageSize + " characters");
+        }
+        ReentrantLock lock = breakLocks[Math.floorMod(filename.hashCode(), BREAK_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            BreakTable existing = loadBreaks(filename);
+            if (existing != null && existing.supports(mode, pageSize)) {
+                return existing;
+            }
+            if (existing != null && existing.tableCount() >= MAX_BREAK_TABLES) {
+                throw new IllegalArgumentException("No more page sizes can be computed for this book");
+            }
+            BreakTable.Builder builder = BreakTable.builder(new PageMode[] {mode}, pageSize);
+            try (InputStream content = openContent(filename)) {
+                byte[] buffer = new byte[READ_CHUNK_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    builder.update(buffer, 0, read);
+                }
+            }
+            BreakTable computed = builder.build();
+            if (computed == null) {
+                return null;
+            }
+            BreakTable breaks = existing != null ? existing.merge(computed) : computed;
+            storeBreaks(filename, breaks);
+            cache.putBreaks(filename, breaks);
+            return breaks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PagedContent readFullContent(String filename, TextStatistics statistics, int pageNumber,
+            int charactersPerPage) throws IOException {
+        String fullContent = loadFullText(filename);
         int totalPages = (fullContent.length() + charactersPerPage - 1) / charactersPerPage;
-        
+
         if (pageNumber < 0 || pageNumber >= totalPages) {
             throw new IllegalArgumentException("Invalid page number");
         }
-        
+
         int startPosition = pageNumber * charactersPerPage;
         int endPosition = Math.min(startPosition + charactersPerPage, fullContent.length());
         String pageContent = fullContent.substring(startPosition, endPosition);
-        
-        return new PagedContent(
-            pageContent,
-            pageNumber,
-            totalPages,
-            endPosition - startPosition,
-            fullContent.length()
-        );
+
+        return pagedContent(pageContent, pageNumber, totalPages, fullContent.length(), statistics);
+    }
+
+    private String loadFullText(String filename) throws IOException {
+        return cache.getFullText(filename, () -> {
+            byte[] content = storage.get(contentKey(filename));
+
+            if (content == null) {
+                throw new IOException("File not found: " + filename);
+            }
+            FrameTable frames = loadFrames(filename);
+            if (frames != null) {
+                try (InputStream in = new FrameDecompressingInputStream(new ByteArrayInputStream(content), frames)) {
+                    content = in.readAllBytes();
+                }
+            }
+            return new String(content, StandardCharsets.UTF_8);
+        });
     }
 
     /**
-     * Deletes a book content file from Google Cloud Storage.
+     * Reads a byte range of the uncompressed content of a book.
+     *
+     * <p>For compressed content, the frames holding the range are fetched with a single ranged
+     * read, except those already cached, and inflated.</p>
+     */
+    private ByteBuffer readRange(String filename, long start, long end) throws IOException {
+        FrameTable frames = loadFrames(filename);
+        if (frames == null) {
+            return storage.getRange(contentKey(filename), start, end);
+        }
+        int first = frames.frameOf(start);
+        int last = frames.frameOf(end - 1);
+        byte[][] raw = new byte[last - first + 1][];
+        int firstMissing = -1;
+        int lastMissing = -1;
+        for (int frame = first; frame <= last; frame++) {
+            raw[frame - first] = cache.getFrameIfPresent(filename, frame);
+            if (raw[frame - first] == null) {
+                firstMissing = firstMissing < 0 ? frame : firstMissing;
+                lastMissing = frame;
+            }
+        }
+        if (firstMissing >= 0) {
+            ByteBuffer compressed = storage.getRange(contentKey(filename),
+                frames.compressedStart(firstMissing), frames.compressedEnd(lastMissing));
+            for (int frame = firstMissing; frame <= lastMissing; frame++) {
+                int length = (int) (frames.compressedEnd(frame) - frames.compressedStart(frame));
+                ByteBuffer frameBytes = compressed.slice().limit(length);
+                compressed.position(compressed.position() + length);
+                if (raw[frame - first] == null) {
+                    raw[frame - first] = FrameTable.inflate(frameBytes, frames.rawLength(frame));
+                    cache.putFrame(filename, frame, raw[frame - first]);
+                }
+            }
+        }
+        ByteBuffer range = ByteBuffer.allocate((int) (end - start));
+        for (int frame = first; frame <= last; frame++) {
+            long frameStart = frames.rawStart(frame);
+            int from = (int) Math.max(0, start - frameStart);
+            int to = (int) Math.min(raw[frame - first].length, end - frameStart);
+            range.put(raw[frame - first], from, to - from);
+        }
+        return range.flip();
+    }
+
+    private static PagedContent pagedContent(String pageContent, int pageNumber, int totalPages, int totalSize,
+            TextStatistics statistics) {
+        if (statistics == null) {
+            return new PagedContent(pageContent, pageNumber, totalPages, pageContent.length(), totalSize);
+        }
+        return new PagedContent(pageContent, pageNumber, totalPages, pageContent.length(), totalSize,
+            statistics.getWords());
+    }
+
+    /**
+     * Deletes a book content file and its sidecars.
      *
      * @param filename the name of the file to delete
      * @return true if the file was deleted, false otherwise
@@ -112,7 +579,232 @@ public class BookContentService {
         if (filename == null) {
             throw new IllegalArgumentException("Filename cannot be null");
         }
-        BlobId blobId = BlobId.of(bucketName, "bookcontents/" + filename);
-        return storage.delete(blobId);
+        storage.delete(indexKey(filename));
+        storage.delete(framesKey(filename));
+        storage.delete(breaksKey(filename));
+        boolean deleted = storage.delete(contentKey(filename));
+        cache.invalidate(filename);
+        return deleted;
+    }
+
+    /**
+     * Deletes the content files of several books and their sidecars with batched storage deletes.
+     *
+     * @param filenames the names of the files to delete
+     * @return the number of content files that were deleted
+     */
+    public int deleteBookContents(List<String> filenames) {
+        List<String> keys = new ArrayList<>(filenames.size() * 4);
+        for (String filename : filenames) {
+            keys.add(indexKey(filename));
+            keys.add(framesKey(filename));
+            keys.add(breaksKey(filename));
+            keys.add(contentKey(filename));
+        }
+        List<Boolean> deleted = storage.deleteAll(keys);
+        int contents = 0;
+        for (int i = 3; i < deleted.size(); i += 4) {
+            if (Boolean.TRUE.equals(deleted.get(i))) {
+                contents++;
+            }
+        }
+        cache.invalidateAll(filenames);
+        LOGGER.info("Deleted {} of {} book contents", contents, filenames.size());
+        return contents;
+    }
+
+    /**
+     * Returns the counters of the content cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public ContentCacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Computes and stores the page index for content stored before indexing existed.
+     * The content is streamed in chunks so large books are never held in memory.
+     *
+     * @param filename the name of the stored file
+     * @return true if an index was written, false if the book is already indexed or cannot be indexed
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean indexExistingContent(String filename) throws IOException {
+        if (storage.exists(indexKey(filename))) {
+            return false;
+        }
+        PageIndex.Builder builder = PageIndex.builder(indexPageSizes);
+        try (InputStream content = openContent(filename)) {
+            byte[] buffer = new byte[READ_CHUNK_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                builder.update(buffer, 0, read);
+            }
+        }
+        boolean stored = storeIndex(filename, builder.build());
+        cache.invalidate(filename);
+        return stored;
+    }
+
+    /**
+     * Opens the uncompressed content of a book for sequential reading.
+     *
+     * @param filename the name of the stored file
+     * @return a stream over the UTF-8 content of the book
+     * @throws IOException if an I/O error occurs or the file is not found
+     */
+    public InputStream openContent(String filename) throws IOException {
+        FrameTable frames = loadFrames(filename);
+        InputStream content = storage.open(contentKey(filename));
+        return frames != null ? new FrameDecompressingInputStream(content, frames) : content;
+    }
+
+    /**
+     * Returns the length of the uncompressed UTF-8 content of a book.
+     *
+     * @param filename the name of the stored file
+     * @return the content length in bytes
+     * @throws IOException if an I/O error occurs or the file is not found
+     */
+    public long contentLength(String filename) throws IOException {
+        FrameTable frames = loadFrames(filename);
+        if (frames != null) {
+            return frames.getTotalBytes();
+        }
+        long size = storage.size(contentKey(filename));
+        if (size < 0) {
+            throw new IOException("File not found: " + filename);
+        }
+        return size;
+    }
+
+    /**
+     * Writes a byte range of the uncompressed UTF-8 content of a book to a stream.
+     *
+     * <p>Plain content is copied straight from the storage stream. Compressed content is inflated
+     * one frame at a time, reading only the frames that hold the range. Neither holds more than
+     * a chunk of the book in memory.</p>
+     *
+     * @param filename the name of the stored file
+     * @param start the first byte to write
+     * @param end the byte just past the last byte to write
+     * @param out the stream to write to, left open
+     * @throws IOException if an I/O error occurs or the file is not found
+     */
+    public void transferContent(String filename, long start, long end, OutputStream out) throws IOException {
+        if (start >= end) {
+            return;
+        }
+        FrameTable frames = loadFrames(filename);
+        if (frames == null) {
+            try (InputStream in = storage.openRange(contentKey(filename), start, end)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+        int first = frames.frameOf(start);
+        int last = frames.frameOf(end - 1);
+        InputStream compressed = storage.openRange(contentKey(filename),
+            frames.compressedStart(first), frames.compressedEnd(last));
+        try (InputStream in = new FrameDecompressingInputStream(compressed, frames, first)) {
+            in.skipNBytes(start - frames.rawStart(first));
+            byte[] buffer = new byte[READ_CHUNK_SIZE];
+            long remaining = end - start;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Unexpected end of content in " + filename);
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    /**
+     * Returns the names of all stored book content files.
+     *
+     * @return the stored filenames
+     */
+    public List<String> listStoredFiles() {
+        List<String> filenames = new ArrayList<>();
+        for (String key : storage.list(CONTENT_PREFIX)) {
+            String filename = key.substring(CONTENT_PREFIX.length());
+            if (!filename.isEmpty()) {
+                filenames.add(filename);
+            }
+        }
+        return filenames;
+    }
+
+    private boolean storeIndex(String filename, PageIndex index) throws IOException {
+        if (index == null) {
+            LOGGER.warn("Content of {} is not valid UTF-8, pages will be read from the full file", filename);
+            return false;
+        }
+        storage.put(indexKey(filename), new ByteArrayInputStream(index.toBytes()), "application/octet-stream");
+        return true;
+    }
+
+    private void storeBreaks(String filename, BreakTable breaks) throws IOException {
+        if (breaks == null) {
+            storage.delete(breaksKey(filename));
+            return;
+        }
+        storage.put(breaksKey(filename), new ByteArrayInputStream(breaks.toBytes()), "application/octet-stream");
+    }
+
+    private PageIndex loadIndex(String filename) throws IOException {
+        return cache.getIndex(filename, () -> {
+            byte[] data = storage.get(indexKey(filename));
+            if (data == null) {
+                return null;
+            }
+            try {
+                return PageIndex.fromBytes(data);
+            } catch (IOException e) {
+                LOGGER.warn("Ignoring unreadable page index for {}: {}", filename, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private BreakTable loadBreaks(String filename) throws IOException {
+        return cache.getBreaks(filename, () -> {
+            byte[] data = storage.get(breaksKey(filename));
+            if (data == null) {
+                return null;
+            }
+            try {
+                return BreakTable.fromBytes(data);
+            } catch (IOException e) {
+                LOGGER.warn("Ignoring unreadable break table for {}: {}", filename, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private FrameTable loadFrames(String filename) throws IOException {
+        return cache.getFrames(filename, () -> {
+            byte[] data = storage.get(framesKey(filename));
+            return data != null ? FrameTable.fromBytes(data) : null;
+        });
+    }
+
+    private static String contentKey(String filename) {
+        return CONTENT_PREFIX + filename;
+    }
+
+    private static String indexKey(String filename) {
+        return INDEX_PREFIX + filename + ".idx";
+    }
+
+    private static String framesKey(String filename) {
+        return INDEX_PREFIX + filename + ".frames";
+    }
+
+    private static String breaksKey(String filename) {
+        return INDEX_PREFIX + filename + ".breaks";
     }
-}
\ No newline at end of file
+}
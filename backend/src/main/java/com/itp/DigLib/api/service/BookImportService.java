@@ -0,0 +1,321 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.ImportReport;
+import com.itp.DigLib.api.model.TextStatistics;
+import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.search.SearchService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Adds many books at once from a manifest and their content files.
+ *
+ * <p>Entries are handled in chunks of {@value #CHUNK_SIZE}. The contents of a chunk are uploaded in
+ * parallel on a bounded pool of {@code book.import.upload-threads} threads, then the books whose
+ * content was stored are saved with one {@code saveAll}, which Hibernate sends as batched inserts
+ * with IDs taken from the pooled sequence. An entry with invalid metadata, a missing file or a failed
+ * upload fails on its own; if saving a chunk fails, its contents are deleted again and all of its
+ * entries fail. Every saved book is queued for search indexing like a single upload.</p>
+ */
+@Service
+public class BookImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookImportService.class);
+    static final int CHUNK_SIZE = 500;
+
+    private final BookRepository bookRepo;
+    private final BookContentService bookContentService;
+    private final SearchService searchService;
+    private final ExecutorService uploads;
+
+    /**
+     * The content files of an import, by the names used in the manifest.
+     */
+    interface ContentSource {
+        /**
+         * Returns whether a content file exists.
+         *
+         * @param name the name of the file in the manifest
+         * @return true if the file can be opened
+         */
+        boolean contains(String name);
+
+        /**
+         * Opens a content file.
+         *
+         * @param name the name of the file in the manifest
+         * @return the content, closed by the caller
+         * @throws IOException if the file cannot be read
+         */
+        InputStream open(String name) throws IOException;
+    }
+
+    /**
+     * Constructs a new BookImportService uploading on its own bounded thread pool.
+     *
+     * @param bookRepo the repository of books
+     * @param bookContentService the service storing the contents
+     * @param searchService the service indexing the contents for search
+     * @param uploadThreads the number of contents uploaded at once
+     */
+    @Autowired
+    public BookImportService(BookRepository bookRepo, BookContentService bookContentService,
+            SearchService searchService, @Value("${book.import.upload-threads:8}") int uploadThreads) {
+        this(bookRepo, bookContentService, searchService, newExecutor(uploadThreads));
+    }
+
+    /**
+     * Constructs a new BookImportService.
+     *
+     * @param bookRepo the repository of books
+     * @param bookContentService the service storing the contents
+     * @param searchService the service indexing the contents for search
+     * @param uploads the executor running the uploads
+     */
+    BookImportService(BookRepository bookRepo, BookContentService bookContentService,
+            SearchService searchService, ExecutorService uploads) {
+        this.bookRepo = bookRepo;
+        this.bookContentService = bookContentService;
+        this.searchService = searchService;
+        this.uploads = uploads;
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "book-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Imports the books of a ZIP archive holding a manifest.csv or manifest.json at its root and the
+     * content files it names.
+     *
+     * @param archive the uploaded archive
+     * @return the result of every entry
+     * @throws IOException if the archive cannot be read
+     * @throws IllegalArgumentException if the archive has no valid manifest
+     */
+    public ImportReport importArchive(MultipartFile archive) throws IOException {
+        // ZipFile needs a file, and reads the entries in any order and from several threads
+        Path temp = Files.createTempFile("book-import-", ".zip");
+        try {
+            archive.transferTo(temp);
+            try (ZipFile zip = new ZipFile(temp.toFile())) {
+                ZipEntry manifest = zip.getEntry("manifest.csv");
+                if (manifest == null) {
+                    manifest = zip.getEntry("manifest.json");
+                }
+                if (manifest == null) {
+                    throw new IllegalArgumentException("Archive has no manifest.csv or manifest.json");
+                }
+                List<ImportManifest.Entry> entries;
+                try (InputStream in = zip.getInputStream(manifest)) {
+                    entries = ImportManifest.parse(manifest.getName(), in);
+                }
+                return importBooks(entries, new ContentSource() {
+                    @Override
+                    public boolean contains(String name) {
+                        ZipEntry entry = zip.getEntry(name);
+                        return entry != null && !entry.isDirectory();
+                    }
+
+                    @Override
+                    public InputStream open(String name) throws IOException {
+                        return zip.getInputStream(zip.getEntry(name));
+                    }
+                });
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Imports the books of a manifest whose content files are uploaded alongside it, matched by
+     * their original file names.
+     *
+     * @param manifest the uploaded manifest.csv or manifest.json
+     * @param files the uploaded content files
+     * @return the result of every entry
+     * @throws IOException if the manifest cannot be read
+     * @throws IllegalArgumentException if the manifest is not valid
+     */
+    public ImportReport importFiles(MultipartFile manifest, List<MultipartFile> files) throws IOException {
+        List<ImportManifest.Entry> entries;
+        try (InputStream in = manifest.getInputStream()) {
+            entries = ImportManifest.parse(manifest.getOriginalFilename(), in);
+        }
+        Map<String, MultipartFile> byName = new HashMap<>();
+        for (MultipartFile file : files) {
+            byName.put(file.getOriginalFilename(), file);
+        }
+        return importBooks(entries, new ContentSource() {
+            @Override
+            public boolean contains(String name) {
+                return byName.containsKey(name);
+            }
+
+            @Override
+            public InputStream open(String name) throws IOException {
+                return byName.get(name).getInputStream();
+            }
+        });
+    }
+
+    /**
+     * Imports the books of a manifest.
+     *
+     * @param entries the entries of the manifest
+     * @param contents the content files named by the entries
+     * @return the result of every entry
+     */
+    ImportReport importBooks(List<ImportManifest.Entry> entries, ContentSource contents) {
+        long started = System.nanoTime();
+        List<ImportReport.Item> items = new ArrayList<>(entries.size());
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                // No further uploads are started for an interrupted import
+                for (int i = from; i < entries.size(); i++) {
+                    items.add(ImportReport.Item.failed(i, entries.get(i).file(), "Import interrupted"));
+                }
+                break;
+            }
+            importChunk(entries.subList(from, Math.min(entries.size(), from + CHUNK_SIZE)), from, contents, items);
+        }
+        ImportReport report = new ImportReport(items);
+        LOGGER.info("Imported {} books, {} failed, in {} ms", report.getImported(), report.getFailed(),
+            (System.nanoTime() - started) / 1_000_000);
+        return report;
+    }
+
+    private void importChunk(List<ImportManifest.Entry> entries, int offset, ContentSource contents,
+            List<ImportReport.Item> items) {
+        Book[] books = new Book[entries.size()];
+        String[] errors = new String[entries.size()];
+        List<Future<TextStatistics>> stored = new ArrayList<>(entries.size());
+        AtomicBoolean abandoned = new AtomicBoolean();
+        for (int i = 0; i < entries.size(); i++) {
+            ImportManifest.Entry entry = entries.get(i);
+            stored.add(null);
+            try {
+                books[i] = entry.toBook();
+            } catch (IllegalArgumentException e) {
+                errors[i] = "Illegal values " + e.getMessage();
+                continue;
+            }
+            if (!contents.contains(entry.file())) {
+                errors[i] = "Missing content file " + entry.file();
+                continue;
+            }
+            String filename = books[i].getFileName();
+            stored.set(i, uploads.submit(() -> {
+                TextStatistics statistics;
+                try (InputStream content = contents.open(entry.file())) {
+                    statistics = bookContentService.storeContent(content, filename);
+                }
+                if (abandoned.get()) {
+                    // Finished after the import gave up on it, and after its content was deleted
+                    bookContentService.deleteBookContent(filename);
+                    throw new CancellationException("Import interrupted");
+                }
+                return statistics;
+            }));
+        }
+
+        List<Book> saved = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            if (stored.get(i) == null) {
+                continue;
+            }
+            try {
+                books[i].setTextStatistics(stored.get(i).get());
+                saved.add(books[i]);
+            } catch (ExecutionException e) {
+                errors[i] = "Failed to store book content: " + e.getCause().getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandonUploads(books, errors, stored, i, abandoned);
+                break;
+            }
+        }
+
+        try {
+            bookRepo.saveAll(saved);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to save {} imported books: {}", saved.size(), e.getMessage());
+            // The chunk was rolled back as a whole, and BookIndexListener only applies committed books
+            for (int i = 0; i < entries.size(); i++) {
+                if (errors[i] == null) {
+                    bookContentService.deleteBookContent(books[i].getFileName());
+                    errors[i] = "Failed to save book: " + e.getMessage();
+                }
+            }
+            saved.clear();
+        }
+        for (Book book : saved) {
+            searchService.indexBook(book);
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            String file = entries.get(i).file();
+            items.add(errors[i] == null
+                ? ImportReport.Item.imported(offset + i, file, books[i].getId())
+                : ImportReport.Item.failed(offset + i, file, errors[i]));
+        }
+    }
+
+    /**
+     * Gives up on the uploads of a chunk from the given entry on, when the import is interrupted.
+     * Uploads that have not finished are cancelled, and the contents of all of them are deleted,
+     * since none of their books will be saved. An upload that still completes deletes its own content.
+     */
+    private void abandonUploads(Book[] books, String[] errors, List<Future<TextStatistics>> stored, int from,
+            AtomicBoolean abandoned) {
+        abandoned.set(true);
+        List<String> filenames = new ArrayList<>();
+        for (int i = from; i < stored.size(); i++) {
+            if (stored.get(i) != null) {
+                stored.get(i).cancel(true);
+                filenames.add(books[i].getFileName());
+                errors[i] = "Import interrupted";
+            }
+        }
+        bookContentService.deleteBookContents(filenames);
+    }
+
+    /**
+     * Stops the uploads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        uploads.shutdownNow();
+    }
+}
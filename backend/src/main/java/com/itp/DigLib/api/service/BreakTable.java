@@ -0,0 +1,411 @@
+package com.itp.DigLib.api.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.itp.DigLib.api.model.PageMode;
+
+/**
+ * Page breaks of a UTF-8 encoded book for the {@link PageMode#WORD} and {@link PageMode#PARAGRAPH}
+ * page modes.
+ *
+ * <p>A page holds at most the page size in characters and ends at the last paragraph break or word
+ * start that fits, so pages vary in length. When no such break fits, typically in a word longer than
+ * a page, the page is cut at the last whole code point that fits; surrogate pairs are never split.
+ * Every table keeps the character and byte offset at which each page starts, so a page is located in
+ * constant time and fetched with a ranged read like the pages of a {@link PageIndex}.</p>
+ *
+ * <p>A word starts at a non-whitespace code point following whitespace, and a paragraph starts at one
+ * following whitespace holding at least two line feeds. The whitespace between pages ends the earlier page.</p>
+ */
+public final class BreakTable {
+    private static final int MAGIC = 0x444C4254; // "DLBT"
+    private static final byte VERSION = 1;
+
+    private final long totalChars;
+    private final long totalBytes;
+    private final Map<String, long[][]> tables;
+
+    private BreakTable(long totalChars, long totalBytes, Map<String, long[][]> tables) {
+        this.totalChars = totalChars;
+        this.totalBytes = totalBytes;
+        this.tables = tables;
+    }
+
+    /**
+     * Creates a builder computing the tables of the given page modes and sizes.
+     *
+     * @param modes the page modes to compute tables for, {@link PageMode#CHAR} is ignored
+     * @param pageSizes the page sizes (in characters) to compute tables for
+     * @return a new builder
+     */
+    public static Builder builder(PageMode[] modes, int... pageSizes) {
+        return new Builder(modes, pageSizes);
+    }
+
+    /**
+     * Returns whether page breaks are known for the given mode and page size.
+     *
+     * @param mode the page mode
+     * @param pageSize the page size in characters
+     * @return true if the table exists
+     */
+    public boolean supports(PageMode mode, int pageSize) {
+        return tables.containsKey(key(mode, pageSize));
+    }
+
+    /**
+     * Returns the number of tables.
+     *
+     * @return the number of page mode and size combinations in this table
+     */
+    public int tableCount() {
+        return tables.size();
+    }
+
+    /**
+     * Returns an estimate of the heap used by this table.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimatedSize() {
+        long size = 64;
+        for (long[][] table : tables.values()) {
+            size += 64 + table[0].length * 16L;
+        }
+        return size;
+    }
+
+    /**
+     * Returns a table holding the tables of both this table and another one of the same content.
+     *
+     * @param other the other table
+     * @return the combined table
+     */
+    public BreakTable merge(BreakTable other) {
+        Map<String, long[][]> merged = new TreeMap<>(tables);
+        merged.putAll(other.tables);
+        return new BreakTable(totalChars, totalBytes, merged);
+    }
+
+    /**
+     * Returns the page positions for the given mode and page size as a {@link PageLayout}.
+     *
+     * @param mode the page mode
+     * @param pageSize the page size in characters
+     * @return the layout of the pages
+     * @throws IllegalArgumentException if the table does not exist
+     */
+    PageLayout layout(PageMode mode, int pageSize) {
+        String key = key(mode, pageSize);
+        long[][] table = tables.get(key);
+        if (table == null) {
+            throw new IllegalArgumentException("Page breaks not computed: " + key);
+        }
+        long[] chars = table[0];
+        long[] bytes = table[1];
+        return new PageLayout() {
+            @Override
+            public String key() {
+                return key;
+            }
+
+            @Override
+            public long totalChars() {
+                return totalChars;
+            }
+
+            @Override
+            public int totalPages() {
+                return chars.length;
+            }
+
+            @Override
+            public int pageChars(int pageNumber) {
+                long end = pageNumber + 1 < chars.length ? chars[pageNumber + 1] : totalChars;
+                return (int) (end - chars[pageNumber]);
+            }
+
+            @Override
+            public long startByte(int pageNumber) {
+                return bytes[pageNumber];
+            }
+
+            @Override
+            public long endByte(int pageNumber) {
+                return pageNumber + 1 < bytes.length ? bytes[pageNumber + 1] : totalBytes;
+            }
+
+            @Override
+            public int skipChars(int pageNumber) {
+                return 0;
+            }
+        };
+    }
+
+    private static String key(PageMode mode, int pageSize) {
+        return mode.name().toLowerCase(Locale.ROOT) + "-" + pageSize;
+    }
+
+    /**
+     * Serializes the table to its sidecar representation.
+     *
+     * @return the serialized table
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(totalChars);
+            out.writeLong(totalBytes);
+            out.writeInt(tables.size());
+            for (Map.Entry<String, long[][]> entry : tables.entrySet()) {
+                long[][] table = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(table[0].length);
+                for (long[] offsets : table) {
+                    long previous = 0;
+                    for (long offset : offsets) {
+                        PageIndex.writeVarLong(out, offset - previous);
+                        previous = offset;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize break table", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Reads a table from its sidecar representation.
+     *
+     * @param data the serialized table
+     * @return the break table
+     * @throws IOException if the data is not a valid break table
+     */
+    public static BreakTable fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Unsupported break table format");
+            }
+            long totalChars = in.readLong();
+            long totalBytes = in.readLong();
+            int count = in.readInt();
+            Map<String, long[][]> tables = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long[][] table = new long[2][in.readInt()];
+                for (long[] offsets : table) {
+                    long offset = 0;
+                    for (int page = 0; page < offsets.length; page++) {
+                        offset += PageIndex.readVarLong(in);
+                        offsets[page] = offset;
+                    }
+                }
+                tables.put(key, table);
+            }
+            return new BreakTable(totalChars, totalBytes, tables);
+        }
+    }
+
+    /**
+     * Computes a {@link BreakTable} from UTF-8 content fed in arbitrary chunks, in a single pass.
+     *
+     * <p>Content that is not well-formed UTF-8 cannot be mapped reliably, since the decoder
+     * replaces malformed input; {@link #build()} returns null for such content.</p>
+     */
+    public static final class Builder {
+        private final List<Pager> pagers = new ArrayList<>();
+        private long chars;
+        private long bytes;
+        private int codePoint;
+        private int pending;
+        private int width;
+        private int lowerBound = 0x80;
+        private int upperBound = 0xBF;
+        private boolean malformed;
+        private boolean afterWhitespace;
+        private int lineFeeds;
+
+        private Builder(PageMode[] modes, int... pageSizes) {
+            for (PageMode mode : modes) {
+                if (mode == PageMode.CHAR) {
+                    continue;
+                }
+                Arrays.stream(pageSizes).filter(size -> size > 0).distinct()
+                    .forEach(size -> pagers.add(new Pager(mode, size)));
+            }
+        }
+
+        /**
+         * Feeds the next chunk of content.
+         *
+         * @param data the buffer holding the chunk
+         * @param offset the start of the chunk in the buffer
+         * @param length the length of the chunk
+         * @return this builder
+         */
+        public Builder update(byte[] data, int offset, int length) {
+            if (pagers.isEmpty()) {
+                return this;
+            }
+            for (int i = offset; i < offset + length; i++) {
+                accept(data[i] & 0xFF);
+            }
+            return this;
+        }
+
+        private void accept(int b) {
+            bytes++;
+            if (pending > 0) {
+                if (b < lowerBound || b > upperBound) {
+                    malformed = true;
+                }
+                lowerBound = 0x80;
+                upperBound = 0xBF;
+                codePoint = codePoint << 6 | (b & 0x3F);
+                if (--pending == 0) {
+                    count(codePoint, width);
+                }
+                return;
+            }
+            if (b < 0x80) {
+                count(b, 1);
+                return;
+            }
+            if (b >= 0xC2 && b <= 0xDF) {
+                codePoint = b & 0x1F;
+                width = 2;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                codePoint = b & 0x0F;
+                width = 3;
+                lowerBound = b == 0xE0 ? 0xA0 : 0x80;
+                upperBound = b == 0xED ? 0x9F : 0xBF;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                codePoint = b & 0x07;
+                width = 4;
+                lowerBound = b == 0xF0 ? 0x90 : 0x80;
+                upperBound = b == 0xF4 ? 0x8F : 0xBF;
+            } else {
+                malformed = true;
+                return;
+            }
+            pending = width - 1;
+        }
+
+        private void count(int cp, int length) {
+            // The code point starts at these offsets
+            long startChars = chars;
+            long startBytes = bytes - length;
+            boolean whitespace = Character.isWhitespace(cp) || Character.isSpaceChar(cp);
+            int level = Pager.CODE_POINT;
+            if (!whitespace && afterWhitespace) {
+                level = lineFeeds >= 2 ? Pager.PARAGRAPH : Pager.WORD;
+            }
+            int charsInSequence = Character.charCount(cp);
+            for (Pager pager : pagers) {
+                pager.accept(startChars, startBytes, charsInSequence, level);
+            }
+            if (whitespace) {
+                lineFeeds += cp == '\n' ? 1 : 0;
+            } else {
+                lineFeeds = 0;
+            }
+            afterWhitespace = whitespace;
+            chars += charsInSequence;
+        }
+
+        /**
+         * Finishes the computation.
+         *
+         * @return the break table, or null if the content is not well-formed UTF-8
+         */
+        public BreakTable build() {
+            if (malformed || pending > 0) {
+                return null;
+            }
+            Map<String, long[][]> tables = new TreeMap<>();
+            for (Pager pager : pagers) {
+                tables.put(key(pager.mode, pager.pageSize), pager.table());
+            }
+            return new BreakTable(chars, bytes, tables);
+        }
+    }
+
+    /**
+     * Splits the content into pages for one mode and page size as the code points go by.
+     */
+    private static final class Pager {
+        private static final int CODE_POINT = 0;
+        private static final int WORD = 1;
+        private static final int PARAGRAPH = 2;
+
+        private final PageMode mode;
+        private final int pageSize;
+        private long[] chars = new long[16];
+        private long[] bytes = new long[16];
+        private int count;
+        private long pageStart;
+        // Latest breaks after the start of the current page, or -1
+        private long paragraphChars = -1;
+        private long paragraphBytes;
+        private long wordChars = -1;
+        private long wordBytes;
+
+        private Pager(PageMode mode, int pageSize) {
+            this.mode = mode;
+            this.pageSize = pageSize;
+        }
+
+        private void accept(long startChars, long startBytes, int length, int level) {
+            if (count == 0) {
+                record(0, 0);
+            }
+            if (startChars > pageStart) {
+                if (level >= PARAGRAPH && mode == PageMode.PARAGRAPH) {
+                    paragraphChars = startChars;
+                    paragraphBytes = startBytes;
+                }
+                if (level >= WORD) {
+                    wordChars = startChars;
+                    wordBytes = startBytes;
+                }
+            }
+            while (startChars + length - pageStart > pageSize && startChars > pageStart) {
+                if (paragraphChars > pageStart) {
+                    record(paragraphChars, paragraphBytes);
+                } else if (wordChars > pageStart) {
+                    record(wordChars, wordBytes);
+                } else {
+                    record(startChars, startBytes);
+                }
+            }
+        }
+
+        private void record(long pageChars, long pageBytes) {
+            if (count == chars.length) {
+                chars = Arrays.copyOf(chars, count * 2);
+                bytes = Arrays.copyOf(bytes, count * 2);
+            }
+            chars[count] = pageChars;
+            bytes[count] = pageBytes;
+            count++;
+            pageStart = pageChars;
+        }
+
+        private long[][] table() {
+            return new long[][] {Arrays.copyOf(chars, count), Arrays.copyOf(bytes, count)};
+        }
+    }
+}
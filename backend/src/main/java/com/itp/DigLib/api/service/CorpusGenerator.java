@@ -0,0 +1,314 @@
+package com.itp.DigLib.api.service;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a synthetic catalogue of books for scale tests.
+ *
+ * <p>Every book is derived from the seed and its index alone, so the same settings always produce
+ * the same catalogue, and any book can be generated on its own. Authors are drawn from a pool of one
+ * author per twenty books with a Zipf distribution, so a few authors write many books and most write
+ * one; genres come from the given list with a milder skew, and years lean towards recent decades.
+ * ISBNs are valid ISBN-13s. The content is streamed, so books of any size can be generated without
+ * holding them in memory. Its words are drawn from the scripts of a weighted mix.</p>
+ */
+final class CorpusGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final String[] FIRST_NAMES = {
+        "Anna", "Olav", "Maria", "Johan", "Ingrid", "Erik", "Sofia", "Lars", "Nora", "Henrik",
+        "Emma", "Jonas", "Sara", "Magnus", "Ida", "Aksel", "Hanna", "Emil", "Thea", "Noah",
+        "Yuki", "Chen", "Amara", "Diego", "Fatima", "Kenji", "Lucia", "Omar", "Priya", "Tomasz",
+    };
+    private static final String[] LAST_NAMES = {
+        "Berg", "Dahl", "Lie", "Strand", "Moen", "Haugen", "Bakke", "Lund", "Vik", "Holm",
+        "Tanaka", "Wang", "Okafor", "Garcia", "Haddad", "Sato", "Rossi", "Nasser", "Sharma", "Nowak",
+        "Smith", "Brown", "Martin", "Keller", "Dubois", "Silva", "Novak", "Jensen", "Murphy", "Young",
+    };
+    private static final String[] TITLE_WORDS = {
+        "shadow", "river", "garden", "winter", "night", "stone", "queen", "king", "empire", "island",
+        "fire", "ocean", "journey", "silent", "golden", "forest", "glass", "song", "city", "light",
+        "secret", "storm", "house", "letters", "summer", "north", "crown", "wolf", "mirror", "harbour",
+    };
+
+    /**
+     * The scripts content words are drawn from.
+     */
+    enum Script {
+        /** English words, one byte per character. */
+        ASCII("the", "and", "of", "to", "a", "in", "was", "he", "that", "it", "her", "his", "with", "as", "had",
+            "for", "she", "not", "at", "but", "river", "house", "garden", "winter", "shadow", "journey",
+            "silent", "morning", "whispered", "library", "stone", "letter", "window", "harbour", "road"),
+        /** Words with Latin-1 letters, two bytes per accented character. */
+        LATIN1("café", "naïve", "über", "façade", "señor", "blåbær", "smørbrød", "garçon", "rôle",
+            "straße", "fjør", "ærlig", "déjà", "mañana", "crème"),
+        /** Japanese and Chinese words, three bytes per character. */
+        CJK("図書館", "物語", "東京", "静かな夜", "読書", "山", "川", "春の風", "書店", "友達", "天空", "故事"),
+        /** Emoji, four bytes and two UTF-16 characters each. */
+        EMOJI("📚", "😀", "🌲", "✨", "🐉", "☕", "🚀", "🌙");
+
+        private final byte[][] words;
+
+        Script(String... words) {
+            this.words = Arrays.stream(words).map(word -> word.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        }
+    }
+
+    private final long seed;
+    private final List<String> genres;
+    private final long minBytes;
+    private final long maxBytes;
+    private final Script[] scripts;
+    private final int[] scriptWeights;
+    private final Zipf authors;
+    private final Zipf genreRanks;
+
+    /**
+     * Constructs a new CorpusGenerator.
+     *
+     * @param seed the seed every book is derived from
+     * @param books the number of books in the catalogue, which sizes the pool of authors
+     * @param genres the genres to draw from, earlier ones more often
+     * @param minBytes the smallest content size
+     * @param maxBytes the largest content size; sizes in between are drawn log-uniformly
+     * @param scriptMix the relative weight of every script in the content
+     */
+    CorpusGenerator(long seed, int books, List<String> genres, long minBytes, long maxBytes,
+            Map<Script, Integer> scriptMix) {
+        if (books < 1 || genres.isEmpty() || minBytes < 1 || maxBytes < minBytes) {
+            throw new IllegalArgumentException("Invalid corpus settings");
+        }
+        this.seed = seed;
+        this.genres = List.copyOf(genres);
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.scripts = scriptMix.keySet().toArray(new Script[0]);
+        this.scriptWeights = new int[scripts.length];
+        int total = 0;
+        for (int i = 0; i < scripts.length; i++) {
+            total += scriptMix.get(scripts[i]);
+            scriptWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one script needs a positive weight");
+        }
+        this.authors = new Zipf(Math.max(1, books / 20), 1.0);
+        this.genreRanks = new Zipf(genres.size(), 0.5);
+    }
+
+    /**
+     * Reads a script mix such as {@code ascii=85,latin1=10,cjk=4,emoji=1}.
+     *
+     * @param value the weights
+     * @return the weight of every named script
+     * @throws IllegalArgumentException if a script is unknown or a weight is invalid
+     */
+    static Map<Script, Integer> parseScripts(String value) {
+        Map<Script, Integer> mix = new EnumMap<>(Script.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2 || Integer.parseInt(pair[1].trim()) < 0) {
+                throw new IllegalArgumentException("Expected script=weight: " + part);
+            }
+            mix.put(Script.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+
+    private SplittableRandom random(int index, long stream) {
+        return new SplittableRandom(seed + (index * 2L + stream) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Generates the metadata of a book.
+     *
+     * @param index the index of the book in the catalogue
+     * @return the manifest entry of the book, whose file is {@link #fileName(int)}
+     */
+    ImportManifest.Entry entry(int index) {
+        SplittableRandom random = random(index, 0);
+        StringBuilder title = new StringBuilder(random.nextInt(4) == 0 ? "The" : "");
+        int words = 1 + random.nextInt(5);
+        for (int i = 0; i < words; i++) {
+            String word = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+            if (!title.isEmpty()) {
+                title.append(i == words - 1 && words > 2 && random.nextBoolean() ? " of " : " ");
+            }
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        String genre = genres.get(genreRanks.sample(random));
+        // Seven in ten books are from the last 75 years
+        int year = random.nextInt(10) < 7 ? 1950 + random.nextInt(76) : 1800 + random.nextInt(150);
+        return new ImportManifest.Entry(title.toString(), author(authors.sample(random)), genre,
+            isbn(random.nextLong(1_000_000_000L)), String.valueOf(year), fileName(index));
+    }
+
+    /**
+     * Returns the name of the content file of a book.
+     *
+     * @param index the index of the book
+     * @return the file name
+     */
+    static String fileName(int index) {
+        return "book-" + index + ".txt";
+    }
+
+    /**
+     * Returns the index of a book from the name of its content file.
+     *
+     * @param fileName the file name
+     * @return the index, or -1 if the name is not that of a generated book
+     */
+    static int indexOf(String fileName) {
+        if (fileName == null || !fileName.startsWith("book-") || !fileName.endsWith(".txt")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(fileName.substring(5, fileName.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String author(int rank) {
+        int names = FIRST_NAMES.length * LAST_NAMES.length;
+        int name = rank % names;
+        StringBuilder author = new StringBuilder(FIRST_NAMES[name % FIRST_NAMES.length]).append(' ');
+        // Past the plain names, middle initials tell the authors apart
+        for (int variant = rank / names; variant > 0; variant = (variant - 1) / 26) {
+            author.append((char) ('A' + (variant - 1) % 26)).append(". ");
+        }
+        return author.append(LAST_NAMES[name / FIRST_NAMES.length]).toString();
+    }
+
+    /**
+     * Builds a valid ISBN-13 in the 978 prefix.
+     *
+     * @param number the 9-digit registration number
+     * @return the 13 digits, including the check digit
+     */
+    static String isbn(long number) {
+        String digits = String.format("978%09d", number);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+
+    /**
+     * Returns the size of the content of a book.
+     *
+     * @param index the index of the book
+     * @return the size in UTF-8 bytes
+     */
+    long contentBytes(int index) {
+        if (minBytes == maxBytes) {
+            return minBytes;
+        }
+        double logMin = Math.log(minBytes);
+        return Math.round(Math.exp(logMin + random(index, 1).nextDouble() * (Math.log(maxBytes) - logMin)));
+    }
+
+    /**
+     * Streams the content of a book.
+     *
+     * @param index the index of the book
+     * @return the content, exactly {@link #contentBytes(int)} bytes of UTF-8
+     */
+    InputStream content(int index) {
+        return new ContentStream(random(index, 1), contentBytes(index));
+    }
+
+    /**
+     * Samples ranks 0 to n - 1 with probability proportional to {@code 1 / (rank + 1)^exponent}.
+     */
+    private static final class Zipf {
+        private final double[] cumulative;
+
+        private Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+        }
+
+        private int sample(SplittableRandom random) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return Math.min(cumulative.length - 1, rank >= 0 ? rank : -rank - 1);
+        }
+    }
+
+    /**
+     * Generated words separated by spaces and line breaks, padded with spaces to the exact size.
+     */
+    private final class ContentStream extends InputStream {
+        private final SplittableRandom random;
+        private long remaining;
+        private byte[] word = new byte[0];
+        private int position;
+        private int wordsInLine;
+
+        private ContentStream(SplittableRandom random, long size) {
+            this.random = random;
+            this.remaining = size;
+        }
+
+        private void nextWord() {
+            int pick = random.nextInt(scriptWeights[scriptWeights.length - 1]);
+            int script = 0;
+            while (pick >= scriptWeights[script]) {
+                script++;
+            }
+            byte[][] words = scripts[script].words;
+            byte[] next = words[random.nextInt(words.length)];
+            wordsInLine++;
+            byte separator = wordsInLine >= 12 && random.nextInt(4) == 0 ? (byte) '\n' : (byte) ' ';
+            if (separator == '\n') {
+                wordsInLine = 0;
+            }
+            if (next.length + 1 > remaining) {
+                // Too little room left for a whole word: pad, so no character is cut in half
+                word = new byte[(int) remaining];
+                Arrays.fill(word, (byte) ' ');
+            } else {
+                word = Arrays.copyOf(next, next.length + 1);
+                word[next.length] = separator;
+            }
+            position = 0;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && remaining > 0) {
+                if (position == word.length) {
+                    nextWord();
+                }
+                int n = (int) Math.min(Math.min(length - read, word.length - position), remaining);
+                System.arraycopy(word, position, buffer, offset + read, n);
+                position += n;
+                read += n;
+                remaining -= n;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.itp.DigLib.api.model.Genres;
+import com.itp.DigLib.api.model.ImportReport;
+import com.itp.DigLib.db.BookRepository;
+
+/**
+ * Fills an empty library with a synthetic catalogue from {@link CorpusGenerator}, for scale tests.
+ * Enabled by starting the application with {@code book.corpus.books} set to the number of books.
+ *
+ * <p>The books go through the bulk import, so their contents are uploaded in parallel and the rows
+ * are inserted in JDBC batches, with page indexes, text statistics and search indexing as for any
+ * upload. Nothing is generated if the library already holds books, so the setting can stay on across
+ * restarts against a persistent database.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "book.corpus.books")
+public class CorpusLoader implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CorpusLoader.class);
+    // Entries handed to one import, bounding the metadata held at once
+    static final int BATCH_SIZE = 20 * BookImportService.CHUNK_SIZE;
+
+    private final BookImportService importService;
+    private final BookRepository bookRepo;
+    private final Genres genres;
+    private final int books;
+    private final long seed;
+    private final String contentBytes;
+    private final String scripts;
+
+    /**
+     * Constructs a new CorpusLoader.
+     *
+     * @param importService the bulk import storing the books
+     * @param bookRepo the repository of books
+     * @param genres the genres books are drawn from
+     * @param books the number of books to generate
+     * @param seed the seed of the catalogue
+     * @param contentBytes the content size in bytes, or a range {@code min-max} to draw sizes from
+     * @param scripts the weights of the scripts in the content, such as {@code ascii=90,cjk=10}
+     */
+    public CorpusLoader(
+            BookImportService importService,
+            BookRepository bookRepo,
+            Genres genres,
+            @Value("${book.corpus.books}") int books,
+            @Value("${book.corpus.seed:42}") long seed,
+            @Value("${book.corpus.content-bytes:16384-262144}") String contentBytes,
+            @Value("${book.corpus.scripts:ascii=85,latin1=10,cjk=4,emoji=1}") String scripts
+    ) {
+        this.importService = importService;
+        this.bookRepo = bookRepo;
+        this.genres = genres;
+        this.books = books;
+        this.seed = seed;
+        this.contentBytes = contentBytes;
+        this.scripts = scripts;
+    }
+
+    /**
+     * Generates and imports the catalogue if the library is empty.
+     *
+     * @param args the application arguments
+     * @throws IOException if the genres cannot be read
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (books <= 0) {
+            return;
+        }
+        long existing = bookRepo.count();
+        if (existing > 0) {
+            LOGGER.info("Skipping corpus generation, the library already holds {} books", existing);
+            return;
+        }
+        String[] range = contentBytes.split("-");
+        CorpusGenerator generator = new CorpusGenerator(seed, books, genres.getGenresList(),
+            Long.parseLong(range[0].trim()), Long.parseLong(range[range.length - 1].trim()),
+            CorpusGenerator.parseScripts(scripts));
+        BookImportService.ContentSource contents = new BookImportService.ContentSource() {
+            @Override
+            public boolean contains(String name) {
+                return CorpusGenerator.indexOf(name) >= 0;
+            }
+
+            @Override
+            public InputStream open(String name) {
+                return generator.content(CorpusGenerator.indexOf(name));
+            }
+        };
+
+        long started = System.nanoTime();
+        int imported = 0;
+        int failed = 0;
+        for (int from = 0; from < books; from += BATCH_SIZE) {
+            List<ImportManifest.Entry> entries = new ArrayList<>(BATCH_SIZE);
+            for (int index = from; index < Math.min(books, from + BATCH_SIZE); index++) {
+                entries.add(generator.entry(index));
+            }
+            ImportReport report = importService.importBooks(entries, contents);
+            imported += report.getImported();
+            failed += report.getFailed();
+            LOGGER.info("Generated {} of {} books", from + entries.size(), books);
+        }
+        LOGGER.info("Corpus generation finished: {} imported, {} failed, in {} s", imported, failed,
+            (System.nanoTime() - started) / 1_000_000_000);
+    }
+}
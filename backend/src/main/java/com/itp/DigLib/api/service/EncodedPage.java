@@ -0,0 +1,72 @@
+package com.itp.DigLib.api.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The serialized JSON of a content page, ready to be sent as is or gzip-compressed.
+ *
+ * <p>Both forms are built once when the page is first requested and then cached, so repeated
+ * requests for a page skip building, serializing and compressing it. The gzip form is compressed
+ * at the best level, which costs more once but sends fewer bytes every time.</p>
+ */
+public final class EncodedPage {
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private EncodedPage(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    /**
+     * Builds the encoded forms of a serialized page.
+     *
+     * @param json the UTF-8 JSON of the page
+     * @return the encoded page
+     */
+    public static EncodedPage of(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(json);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+        return new EncodedPage(json, compressed.toByteArray());
+    }
+
+    /**
+     * Returns the uncompressed JSON.
+     *
+     * @return the UTF-8 JSON of the page
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    /**
+     * Returns the gzip-compressed JSON.
+     *
+     * @return the gzip stream of the JSON
+     */
+    public byte[] gzip() {
+        return gzip;
+    }
+
+    /**
+     * Returns an estimate of the heap used by this page.
+     *
+     * @return the estimated size in bytes
+     */
+    long estimatedSize() {
+        return 48 + json.length + gzip.length;
+    }
+}
@@ -0,0 +1,97 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Input stream that compresses the stream it wraps into independently deflated frames,
+ * recording the {@link FrameTable} of the compressed output as it goes.
+ *
+ * <p>Only one frame of input and output is buffered at a time.</p>
+ */
+class FrameCompressingInputStream extends InputStream {
+    private final InputStream in;
+    private final int frameSize;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final byte[] raw;
+    private byte[] compressed;
+    private int position;
+    private int length;
+    private long[] offsets = new long[16];
+    private int frames;
+    private long totalBytes;
+    private boolean finished;
+
+    FrameCompressingInputStream(InputStream in, int frameSize) {
+        this.in = in;
+        this.frameSize = frameSize;
+        this.raw = new byte[frameSize];
+        this.compressed = new byte[frameSize / 2];
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        while (position == length) {
+            if (!nextFrame()) {
+                return -1;
+            }
+        }
+        int read = Math.min(count, length - position);
+        System.arraycopy(compressed, position, buffer, offset, read);
+        position += read;
+        return read;
+    }
+
+    private boolean nextFrame() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int read = in.readNBytes(raw, 0, frameSize);
+        if (read == 0) {
+            finished = true;
+            deflater.end();
+            return false;
+        }
+        deflater.reset();
+        deflater.setInput(raw, 0, read);
+        deflater.finish();
+        length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        position = 0;
+        if (frames + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[frames + 1] = offsets[frames] + length;
+        frames++;
+        totalBytes += read;
+        return true;
+    }
+
+    /**
+     * Returns the frame table of the compressed output, once the stream has been read to the end.
+     *
+     * @return the frame table
+     */
+    FrameTable frameTable() {
+        if (!finished) {
+            throw new IllegalStateException("Stream has not been read to the end");
+        }
+        return new FrameTable(frameSize, totalBytes, Arrays.copyOf(offsets, frames + 1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream that inflates compressed content frame by frame, as described by its {@link FrameTable}.
+ */
+class FrameDecompressingInputStream extends InputStream {
+    private final InputStream in;
+    private final FrameTable frames;
+    private int frame;
+    private byte[] raw = new byte[0];
+    private int position;
+
+    FrameDecompressingInputStream(InputStream in, FrameTable frames) {
+        this(in, frames, 0);
+    }
+
+    /**
+     * Constructs a stream over compressed content starting at the given frame.
+     *
+     * @param in the compressed content, starting at the first byte of the frame
+     * @param frames the frame table of the content
+     * @param frame the first frame to inflate
+     */
+    FrameDecompressingInputStream(InputStream in, FrameTable frames, int frame) {
+        this.in = in;
+        this.frames = frames;
+        this.frame = frame;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        while (position == raw.length) {
+            if (frame == frames.frameCount()) {
+                return -1;
+            }
+            int compressedLength = (int) (frames.compressedEnd(frame) - frames.compressedStart(frame));
+            byte[] compressed = in.readNBytes(compressedLength);
+            if (compressed.length < compressedLength) {
+                throw new IOException("Unexpected end of compressed content");
+            }
+            raw = FrameTable.inflate(ByteBuffer.wrap(compressed), frames.rawLength(frame));
+            position = 0;
+            frame++;
+        }
+        int read = Math.min(count, raw.length - position);
+        System.arraycopy(raw, position, buffer, offset, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,208 @@
+package com.itp.DigLib.api.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Locates the independently compressed frames of a stored book.
+ *
+ * <p>Compressed content is the concatenation of raw deflate streams, each holding a fixed number
+ * of bytes of the UTF-8 text (the last frame may be shorter). The table keeps the compressed size of
+ * every frame, so the frames holding a byte range of the text can be fetched and inflated without
+ * touching the rest of the object. It is kept next to the content as a small sidecar.</p>
+ */
+public final class FrameTable {
+    private static final int MAGIC = 0x444C4654; // "DLFT"
+    private static final byte VERSION = 1;
+
+    private final int frameSize;
+    private final long totalBytes;
+    private final long[] offsets;
+
+    /**
+     * Constructs a new FrameTable.
+     *
+     * @param frameSize the number of uncompressed bytes in every frame but the last
+     * @param totalBytes the number of uncompressed bytes in the content
+     * @param offsets the compressed start offset of every frame, followed by the compressed size of the content
+     */
+    FrameTable(int frameSize, long totalBytes, long[] offsets) {
+        this.frameSize = frameSize;
+        this.totalBytes = totalBytes;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Returns the number of uncompressed bytes in every frame but the last.
+     *
+     * @return the frame size in bytes
+     */
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    /**
+     * Returns the number of bytes in the uncompressed content.
+     *
+     * @return the total number of uncompressed bytes
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns the number of bytes in the stored compressed content.
+     *
+     * @return the total number of compressed bytes
+     */
+    public long getCompressedBytes() {
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * Returns the number of frames.
+     *
+     * @return the number of frames
+     */
+    public int frameCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the frame holding the given uncompressed byte.
+     *
+     * @param position the uncompressed byte offset
+     * @return the frame number
+     */
+    public int frameOf(long position) {
+        return (int) (position / frameSize);
+    }
+
+    /**
+     * Returns the uncompressed offset of the first byte of a frame.
+     *
+     * @param frame the frame number
+     * @return the inclusive uncompressed start offset
+     */
+    public long rawStart(int frame) {
+        return (long) frame * frameSize;
+    }
+
+    /**
+     * Returns the number of uncompressed bytes in a frame.
+     *
+     * @param frame the frame number
+     * @return the uncompressed length of the frame
+     */
+    public int rawLength(int frame) {
+        return (int) Math.min(frameSize, totalBytes - rawStart(frame));
+    }
+
+    /**
+     * Returns the compressed offset of the first byte of a frame.
+     *
+     * @param frame the frame number
+     * @return the inclusive compressed start offset
+     */
+    public long compressedStart(int frame) {
+        return offsets[frame];
+    }
+
+    /**
+     * Returns the compressed offset just past the last byte of a frame.
+     *
+     * @param frame the frame number
+     * @return the exclusive compressed end offset
+     */
+    public long compressedEnd(int frame) {
+        return offsets[frame + 1];
+    }
+
+    /**
+     * Returns an estimate of the heap used by this table.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimatedSize() {
+        return 48 + offsets.length * 8L;
+    }
+
+    /**
+     * Inflates a single frame.
+     *
+     * @param compressed the compressed frame, consumed by this call
+     * @param rawLength the uncompressed length of the frame
+     * @return the uncompressed bytes of the frame
+     * @throws IOException if the frame is corrupt
+     */
+    public static byte[] inflate(ByteBuffer compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated content frame");
+                }
+                length += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt content frame", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Serializes the table to its sidecar representation.
+     *
+     * @return the serialized table
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(frameSize);
+            out.writeLong(totalBytes);
+            out.writeInt(frameCount());
+            for (int frame = 0; frame < frameCount(); frame++) {
+                out.writeInt((int) (compressedEnd(frame) - compressedStart(frame)));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize frame table", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Reads a table from its sidecar representation.
+     *
+     * @param data the serialized table
+     * @return the frame table
+     * @throws IOException if the data is not a valid frame table
+     */
+    public static FrameTable fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Unsupported frame table format");
+            }
+            int frameSize = in.readInt();
+            long totalBytes = in.readLong();
+            long[] offsets = new long[in.readInt() + 1];
+            for (int frame = 1; frame < offsets.length; frame++) {
+                offsets[frame] = offsets[frame - 1] + in.readInt();
+            }
+            return new FrameTable(frameSize, totalBytes, offsets);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itp.DigLib.api.model.Book;
+
+/**
+ * Reads the manifest of a bulk import: one entry per book, holding its metadata and the name of its
+ * content file.
+ *
+ * <p>A manifest is either CSV ({@code .csv}), with a header row naming the columns, or JSON
+ * ({@code .json}), as an array of objects. Both use the fields {@code title}, {@code author},
+ * {@code genre}, {@code isbn}, {@code year} and {@code file}. Values are kept as text, so an invalid
+ * value fails only its own entry when the book is built.</p>
+ */
+final class ImportManifest {
+    static final List<String> FIELDS = List.of("title", "author", "genre", "isbn", "year", "file");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ImportManifest() {
+    }
+
+    /**
+     * One entry of a manifest.
+     *
+     * @param title the title of the book
+     * @param author the author of the book
+     * @param genre the genre of the book
+     * @param isbn the ISBN of the book
+     * @param year the publication year of the book
+     * @param file the name of the content file of the book
+     */
+    record Entry(String title, String author, String genre, String isbn, String year, String file) {
+
+        /**
+         * Builds the book described by this entry, without its content.
+         *
+         * @return the new book
+         * @throws IllegalArgumentException if a value is invalid
+         */
+        Book toBook() {
+            Book book = new Book();
+            book.setTitle(title);
+            book.setAuthor(author);
+            book.setGenre(genre);
+            book.setIsbn(isbn);
+            book.setYear(Integer.parseInt(year.trim()));
+            return book;
+        }
+    }
+
+    /**
+     * Returns whether a file name is that of a manifest.
+     *
+     * @param name the file name
+     * @return true for manifest.csv and manifest.json
+     */
+    static boolean isManifest(String name) {
+        return "manifest.csv".equals(name) || "manifest.json".equals(name);
+    }
+
+    /**
+     * Reads a manifest, choosing the format by the extension of its name.
+     *
+     * @param name the file name of the manifest
+     * @param in the manifest, read until the end but not closed
+     * @return the entries in manifest order
+     * @throws IOException if the manifest cannot be read
+     * @throws IllegalArgumentException if the format is unknown or the manifest is malformed
+     */
+    static List<Entry> parse(String name, InputStream in) throws IOException {
+        String lower = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return parseCsv(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        if (lower.endsWith(".json")) {
+            try {
+                return parseJson(MAPPER.readTree(in));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Manifest is not valid JSON: " + e.getOriginalMessage(), e);
+            }
+        }
+        throw new IllegalArgumentException("Manifest must be a .csv or .json file: " + name);
+    }
+
+    /**
+     * Reads a CSV manifest. Fields may be quoted, with doubled quotes inside quoted fields.
+     *
+     * @param text the manifest
+     * @return the entries in manifest order
+     */
+    static List<Entry> parseCsv(String text) {
+        List<List<String>> rows = csvRows(text.startsWith("\uFEFF") ? text.substring(1) : text);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Manifest is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = rows.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String field : FIELDS) {
+            if (!columns.containsKey(field)) {
+                throw new IllegalArgumentException("Manifest has no " + field + " column");
+            }
+        }
+        List<Entry> entries = new ArrayList<>(rows.size() - 1);
+        for (List<String> row : rows.subList(1, rows.size())) {
+            String[] values = new String[FIELDS.size()];
+            for (int i = 0; i < values.length; i++) {
+                int column = columns.get(FIELDS.get(i));
+                values[i] = column < row.size() ? row.get(column) : "";
+            }
+            entries.add(new Entry(values[0], values[1], values[2], values[3], values[4], values[5]));
+        }
+        return entries;
+    }
+
+    private static List<List<String>> csvRows(String text) {
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                endRow(rows, row, field);
+                row = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Manifest ends inside a quoted field");
+        }
+        endRow(rows, row, field);
+        return rows;
+    }
+
+    private static void endRow(List<List<String>> rows, List<String> row, StringBuilder field) {
+        row.add(field.toString());
+        field.setLength(0);
+        // Blank lines are skipped
+        if (row.size() > 1 || !row.get(0).isBlank()) {
+            rows.add(row);
+        }
+    }
+
+    private static List<Entry> parseJson(JsonNode root) {
+        if (root == null || !root.isArray()) {
+            throw new IllegalArgumentException("Manifest must be a JSON array of books");
+        }
+        List<Entry> entries = new ArrayList<>(root.size());
+        for (JsonNode book : root) {
+            String[] values = new String[FIELDS.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = book.path(FIELDS.get(i)).asText("");
+            }
+            entries.add(new Entry(values[0], values[1], values[2], values[3], values[4], values[5]));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,69 @@
+package com.itp.DigLib.api.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.itp.DigLib.api.model.TextStatistics;
+
+/**
+ * Input stream that feeds every byte read through it to a {@link PageIndex.Builder}, a
+ * {@link BreakTable.Builder} and a {@link TextStatistics.Builder}, so content can be indexed in the
+ * same pass that uploads it.
+ */
+class IndexingInputStream extends FilterInputStream {
+    private final PageIndex.Builder index;
+    private final BreakTable.Builder breaks;
+    private final TextStatistics.Builder statistics;
+
+    IndexingInputStream(InputStream in, PageIndex.Builder index, BreakTable.Builder breaks,
+            TextStatistics.Builder statistics) {
+        super(in);
+        this.index = index;
+        this.breaks = breaks;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            byte[] single = {(byte) b};
+            index.update(single, 0, 1);
+            breaks.update(single, 0, 1);
+            statistics.update(single, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            index.update(buffer, offset, read);
+            breaks.update(buffer, offset, read);
+            statistics.update(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Skipped bytes would be missing from the index, so read them instead
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -0,0 +1,388 @@
+package com.itp.DigLib.api.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps character-based page numbers of a UTF-8 encoded book to byte offsets in the stored object.
+ *
+ * <p>The index is computed once when the content is stored and kept next to it as a small sidecar,
+ * so a single page can be fetched with a ranged read instead of downloading the whole book.
+ * Page boundaries follow the same rules as {@code String.substring} on the decoded text, including
+ * boundaries that fall between the two halves of a surrogate pair.</p>
+ */
+public final class PageIndex {
+    private static final int MAGIC = 0x444C5049; // "DLPI"
+    private static final byte VERSION = 1;
+
+    // Set on an offset when the page starts on the low surrogate of a 4-byte sequence
+    private static final long SPLIT_FLAG = 1L << 62;
+    private static final long OFFSET_MASK = SPLIT_FLAG - 1;
+
+    private final long totalChars;
+    private final long totalBytes;
+    private final Map<Integer, long[]> offsets;
+
+    private PageIndex(long totalChars, long totalBytes, Map<Integer, long[]> offsets) {
+        this.totalChars = totalChars;
+        this.totalBytes = totalBytes;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Creates a builder computing the index for the given page sizes.
+     *
+     * @param pageSizes the page sizes (in characters) to index
+     * @return a new builder
+     */
+    public static Builder builder(int... pageSizes) {
+        return new Builder(pageSizes);
+    }
+
+    /**
+     * Returns the number of UTF-16 characters in the decoded book.
+     *
+     * @return the total number of characters
+     */
+    public long getTotalChars() {
+        return totalChars;
+    }
+
+    /**
+     * Returns the number of bytes in the stored UTF-8 content.
+     *
+     * @return the total number of bytes
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Returns an estimate of the heap used by this index.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimatedSize() {
+        long size = 64;
+        for (long[] table : offsets.values()) {
+            size += 32 + table.length * 8L;
+        }
+        return size;
+    }
+
+    /**
+     * Returns whether page boundaries are known for the given page size.
+     *
+     * @param pageSize the page size in characters
+     * @return true if the page size is indexed
+     */
+    public boolean supports(int pageSize) {
+        return offsets.containsKey(pageSize);
+    }
+
+    /**
+     * Returns the number of pages for the given page size.
+     *
+     * @param pageSize the page size in characters
+     * @return the number of pages
+     */
+    public int totalPages(int pageSize) {
+        return (int) ((totalChars + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Returns the number of characters on the given page.
+     *
+     * @param pageSize the page size in characters
+     * @param pageNumber the page number (0-based)
+     * @return the number of characters on the page
+     */
+    public int pageChars(int pageSize, int pageNumber) {
+        long start = (long) pageNumber * pageSize;
+        return (int) Math.min(pageSize, totalChars - start);
+    }
+
+    /**
+     * Returns the first byte to read for the given page.
+     *
+     * @param pageSize the page size in characters
+     * @param pageNumber the page number (0-based)
+     * @return the inclusive start byte offset
+     */
+    public long startByte(int pageSize, int pageNumber) {
+        return table(pageSize)[pageNumber] & OFFSET_MASK;
+    }
+
+    /**
+     * Returns the byte offset just past the last byte to read for the given page.
+     *
+     * @param pageSize the page size in characters
+     * @param pageNumber the page number (0-based)
+     * @return the exclusive end byte offset
+     */
+    public long endByte(int pageSize, int pageNumber) {
+        long[] table = table(pageSize);
+        if (pageNumber + 1 >= table.length) {
+            return totalBytes;
+        }
+        long next = table[pageNumber + 1];
+        // The next page starts inside a 4-byte sequence, so this page needs all of it
+        return (next & SPLIT_FLAG) != 0 ? (next & OFFSET_MASK) + 4 : next;
+    }
+
+    /**
+     * Returns the number of characters to drop from the start of the decoded range.
+     *
+     * @param pageSize the page size in characters
+     * @param pageNumber the page number (0-based)
+     * @return 1 if the page starts on a low surrogate, 0 otherwise
+     */
+    public int skipChars(int pageSize, int pageNumber) {
+        return (table(pageSize)[pageNumber] & SPLIT_FLAG) != 0 ? 1 : 0;
+    }
+
+    /**
+     * Returns the page positions for the given page size as a {@link PageLayout}.
+     *
+     * @param pageSize the page size in characters
+     * @return the layout of the pages
+     * @throws IllegalArgumentException if the page size is not indexed
+     */
+    PageLayout layout(int pageSize) {
+        table(pageSize);
+        return new PageLayout() {
+            @Override
+            public String key() {
+                return String.valueOf(pageSize);
+            }
+
+            @Override
+            public long totalChars() {
+                return totalChars;
+            }
+
+            @Override
+            public int totalPages() {
+                return PageIndex.this.totalPages(pageSize);
+            }
+
+            @Override
+            public int pageChars(int pageNumber) {
+                return PageIndex.this.pageChars(pageSize, pageNumber);
+            }
+
+            @Override
+            public long startByte(int pageNumber) {
+                return PageIndex.this.startByte(pageSize, pageNumber);
+            }
+
+            @Override
+            public long endByte(int pageNumber) {
+                return PageIndex.this.endByte(pageSize, pageNumber);
+            }
+
+            @Override
+            public int skipChars(int pageNumber) {
+                return PageIndex.this.skipChars(pageSize, pageNumber);
+            }
+        };
+    }
+
+    private long[] table(int pageSize) {
+        long[] table = offsets.get(pageSize);
+        if (table == null) {
+            throw new IllegalArgumentException("Page size not indexed: " + pageSize);
+        }
+        return table;
+    }
+
+    /**
+     * Serializes the index to its sidecar representation.
+     *
+     * @return the serialized index
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(totalChars);
+            out.writeLong(totalBytes);
+            out.writeInt(offsets.size());
+            for (Map.Entry<Integer, long[]> entry : offsets.entrySet()) {
+                long[] table = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeInt(table.length);
+                long previous = 0;
+                for (long offset : table) {
+                    long position = offset & OFFSET_MASK;
+                    writeVarLong(out, (position - previous) << 1 | ((offset & SPLIT_FLAG) != 0 ? 1 : 0));
+                    previous = position;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize page index", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Reads an index from its sidecar representation.
+     *
+     * @param data the serialized index
+     * @return the page index
+     * @throws IOException if the data is not a valid page index
+     */
+    public static PageIndex fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Unsupported page index format");
+            }
+            long totalChars = in.readLong();
+            long totalBytes = in.readLong();
+            int sizes = in.readInt();
+            Map<Integer, long[]> offsets = new TreeMap<>();
+            for (int i = 0; i < sizes; i++) {
+                int pageSize = in.readInt();
+                long[] table = new long[in.readInt()];
+                long position = 0;
+                for (int page = 0; page < table.length; page++) {
+                    long value = readVarLong(in);
+                    position += value >>> 1;
+                    table[page] = (value & 1) != 0 ? position | SPLIT_FLAG : position;
+                }
+                offsets.put(pageSize, table);
+            }
+            return new PageIndex(totalChars, totalBytes, offsets);
+        }
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed page index");
+    }
+
+    /**
+     * Computes a {@link PageIndex} from UTF-8 content fed in arbitrary chunks.
+     *
+     * <p>Content that is not well-formed UTF-8 cannot be mapped reliably, since the decoder
+     * replaces malformed input; {@link #build()} returns null for such content.</p>
+     */
+    public static final class Builder {
+        private final int[] pageSizes;
+        private final long[][] tables;
+        private final int[] counts;
+        private long chars;
+        private long bytes;
+        private int pending;
+        private int lowerBound = 0x80;
+        private int upperBound = 0xBF;
+        private boolean malformed;
+
+        private Builder(int... pageSizes) {
+            this.pageSizes = Arrays.stream(pageSizes).filter(size -> size > 0).distinct().toArray();
+            this.tables = new long[this.pageSizes.length][16];
+            this.counts = new int[this.pageSizes.length];
+        }
+
+        /**
+         * Feeds the next chunk of content.
+         *
+         * @param data the buffer holding the chunk
+         * @param offset the start of the chunk in the buffer
+         * @param length the length of the chunk
+         * @return this builder
+         */
+        public Builder update(byte[] data, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                accept(data[i] & 0xFF);
+                bytes++;
+            }
+            return this;
+        }
+
+        private void accept(int b) {
+            if (pending > 0) {
+                if (b < lowerBound || b > upperBound) {
+                    malformed = true;
+                }
+                lowerBound = 0x80;
+                upperBound = 0xBF;
+                pending--;
+                return;
+            }
+            int width;
+            if (b < 0x80) {
+                width = 1;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                width = 2;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                width = 3;
+                lowerBound = b == 0xE0 ? 0xA0 : 0x80;
+                upperBound = b == 0xED ? 0x9F : 0xBF;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                width = 4;
+                lowerBound = b == 0xF0 ? 0x90 : 0x80;
+                upperBound = b == 0xF4 ? 0x8F : 0xBF;
+            } else {
+                malformed = true;
+                return;
+            }
+            pending = width - 1;
+            // Supplementary code points decode to a surrogate pair
+            int charsInSequence = width == 4 ? 2 : 1;
+            for (int i = 0; i < pageSizes.length; i++) {
+                long boundary = (long) counts[i] * pageSizes[i];
+                while (boundary < chars + charsInSequence) {
+                    record(i, boundary == chars ? bytes : bytes | SPLIT_FLAG);
+                    boundary += pageSizes[i];
+                }
+            }
+            chars += charsInSequence;
+        }
+
+        private void record(int table, long offset) {
+            if (counts[table] == tables[table].length) {
+                tables[table] = Arrays.copyOf(tables[table], counts[table] * 2);
+            }
+            tables[table][counts[table]++] = offset;
+        }
+
+        /**
+         * Finishes the computation.
+         *
+         * @return the page index, or null if the content is not well-formed UTF-8
+         */
+        public PageIndex build() {
+            if (malformed || pending > 0) {
+                return null;
+            }
+            Map<Integer, long[]> offsets = new TreeMap<>();
+            for (int i = 0; i < pageSizes.length; i++) {
+                offsets.put(pageSizes[i], Arrays.copyOf(tables[i], counts[i]));
+            }
+            return new PageIndex(chars, bytes, offsets);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes page indexes for book contents stored before page indexing existed.
+ * Enabled by starting the application with {@code book.index.backfill=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "book.index.backfill", havingValue = "true")
+public class PageIndexBackfill implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageIndexBackfill.class);
+
+    private final BookContentService bookContentService;
+
+    /**
+     * Constructs a new PageIndexBackfill.
+     *
+     * @param bookContentService the service owning the stored contents
+     */
+    public PageIndexBackfill(BookContentService bookContentService) {
+        this.bookContentService = bookContentService;
+    }
+
+    /**
+     * Indexes every stored book content that does not have a page index yet.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        int indexed = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (String filename : bookContentService.listStoredFiles()) {
+            try {
+                if (bookContentService.indexExistingContent(filename)) {
+                    indexed++;
+                } else {
+                    skipped++;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Failed to index book content {}: {}", filename, e.getMessage());
+                failed++;
+            }
+        }
+        LOGGER.info("Page index backfill finished: {} indexed, {} skipped, {} failed", indexed, skipped, failed);
+    }
+}
@@ -0,0 +1,60 @@
+package com.itp.DigLib.api.service;
+
+/**
+ * Positions of the pages of a book for one page size and {@link com.itp.DigLib.api.model.PageMode},
+ * as characters of the decoded text and bytes of the stored UTF-8 content.
+ */
+interface PageLayout {
+    /**
+     * Returns a key identifying the layout among the layouts of a book, used to cache its pages.
+     *
+     * @return the layout key
+     */
+    String key();
+
+    /**
+     * Returns the number of UTF-16 characters in the decoded book.
+     *
+     * @return the total number of characters
+     */
+    long totalChars();
+
+    /**
+     * Returns the number of pages.
+     *
+     * @return the number of pages
+     */
+    int totalPages();
+
+    /**
+     * Returns the number of characters on the given page.
+     *
+     * @param pageNumber the page number (0-based)
+     * @return the number of characters on the page
+     */
+    int pageChars(int pageNumber);
+
+    /**
+     * Returns the first byte to read for the given page.
+     *
+     * @param pageNumber the page number (0-based)
+     * @return the inclusive start byte offset
+     */
+    long startByte(int pageNumber);
+
+    /**
+     * Returns the byte offset just past the last byte to read for the given page.
+     *
+     * @param pageNumber the page number (0-based)
+     * @return the exclusive end byte offset
+     */
+    long endByte(int pageNumber);
+
+    /**
+     * Returns the number of characters to drop from the start of the decoded range.
+     *
+     * @param pageNumber the page number (0-based)
+     * @return the number of characters before the page in its first code point
+     */
+    int skipChars(int pageNumber);
+}
@@ -0,0 +1,231 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Decides how many pages to read ahead after a page is served, and loads them in the background.
+ *
+ * <p>A reader is approximated by the book and page size it reads. When a reader moves to the next
+ * page, the number of pages read ahead is the number it is expected to reach within the configured
+ * horizon, based on a moving average of the time between its page turns. Fast readers get more pages
+ * read ahead, up to the configured maximum; jumping to another page stops reading ahead until the
+ * reader reads sequentially again.</p>
+ *
+ * <p>Loads run on a small bounded pool. When the queue is full, new loads are dropped, so read-ahead
+ * never delays or fails the request that triggered it. With virtual threads enabled, every load gets
+ * its own virtual thread instead, and loads beyond the pool's threads and queue are dropped.</p>
+ */
+@Component
+public class ReadAhead {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadAhead.class);
+
+    private final Executor executor;
+    private final int maxPages;
+    private final long horizonNanos;
+    private final LongSupplier clock;
+    private final Cache<String, Reader> readers = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterAccess(10, TimeUnit.MINUTES)
+        .build();
+
+    /**
+     * Loads a range of pages into the content cache.
+     */
+    @FunctionalInterface
+    public interface PageLoader {
+        /**
+         * Loads the pages.
+         *
+         * @param from the first page to load
+         * @param to the page just past the last page to load
+         * @throws IOException if an I/O error occurs
+         */
+        void load(int from, int to) throws IOException;
+    }
+
+    /**
+     * Constructs a new ReadAhead running loads on its own bounded thread pool, or on virtual threads.
+     *
+     * @param threads the number of threads loading pages
+     * @param queueSize the number of loads that may wait for a thread
+     * @param maxPages the maximum number of pages read ahead, or 0 to disable read-ahead
+     * @param horizonMillis how far ahead, in milliseconds of reading, pages are loaded
+     * @param virtualThreads whether loads run on virtual threads, at most threads + queueSize at once
+     */
+    @Autowired
+    public ReadAhead(
+            @Value("${book.readahead.threads:2}") int threads,
+            @Value("${book.readahead.queue-size:32}") int queueSize,
+            @Value("${book.readahead.max-pages:8}") int maxPages,
+            @Value("${book.readahead.horizon-ms:30000}") long horizonMillis,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this(virtualThreads ? new VirtualExecutor(threads + queueSize) : newExecutor(threads, queueSize),
+            maxPages, horizonMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new ReadAhead.
+     *
+     * @param executor the executor running the loads
+     * @param maxPages the maximum number of pages read ahead, or 0 to disable read-ahead
+     * @param horizonMillis how far ahead, in milliseconds of reading, pages are loaded
+     * @param clock the source of the current time in nanoseconds
+     */
+    ReadAhead(Executor executor, int maxPages, long horizonMillis, LongSupplier clock) {
+        this.executor = executor;
+        this.maxPages = maxPages;
+        this.horizonNanos = TimeUnit.MILLISECONDS.toNanos(horizonMillis);
+        this.clock = clock;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueSize) {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "read-ahead-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Records that a page was served and loads the following pages in the background.
+     *
+     * @param filename the name of the stored file
+     * @param pageSize the page size in characters
+     * @param pageNumber the page that was served
+     * @param totalPages the number of pages of the book
+     * @param loader loads the pages read ahead
+     */
+    public void afterRead(String filename, int pageSize, int pageNumber, int totalPages, PageLoader loader) {
+        int from = pageNumber + 1;
+        int to = (int) Math.min(totalPages, (long) from + pagesAhead(filename, pageSize, pageNumber));
+        if (from >= to) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                loader.load(from, to);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Failed to read ahead pages {}-{} of {}: {}", from, to - 1, filename, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Returns the number of pages to read ahead after the given page, updating the state of its reader.
+     *
+     * @param filename the name of the stored file
+     * @param pageSize the page size in characters
+     * @param pageNumber the page that was served
+     * @return the number of pages to read ahead
+     */
+    int pagesAhead(String filename, int pageSize, int pageNumber) {
+        if (maxPages <= 0) {
+            return 0;
+        }
+        Reader reader = readers.get(filename + ":" + pageSize, key -> new Reader());
+        long now = clock.getAsLong();
+        synchronized (reader) {
+            if (reader.lastPage < 0) {
+                // Nothing is known about a new reader yet, assume it reads on
+                reader.lastPage = pageNumber;
+                reader.lastNanos = now;
+                return 1;
+            }
+            if (pageNumber == reader.lastPage + 1) {
+                long interval = Math.max(1, now - reader.lastNanos);
+                reader.intervalNanos = reader.intervalNanos < 0 ? interval : (reader.intervalNanos + interval) / 2;
+            } else if (pageNumber != reader.lastPage) {
+                reader.intervalNanos = -1;
+            }
+            reader.lastPage = pageNumber;
+            reader.lastNanos = now;
+            if (reader.intervalNanos < 0) {
+                return 0;
+            }
+            long pages = (horizonNanos + reader.intervalNanos - 1) / reader.intervalNanos;
+            return (int) Math.max(1, Math.min(maxPages, pages));
+        }
+    }
+
+    /**
+     * Stops the background loads when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        } else if (executor instanceof VirtualExecutor) {
+            ((VirtualExecutor) executor).threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs every load on its own virtual thread, dropping loads while the limit is reached.
+     *
+     * <p>Reading a page blocks on the storage, which a virtual thread does without holding a platform
+     * thread, so loads need no pool. The limit keeps a burst of readers from sending an unbounded
+     * number of storage reads at once.</p>
+     */
+    static final class VirtualExecutor implements Executor {
+        private final ExecutorService threads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("read-ahead-", 1).factory());
+        private final Semaphore permits;
+
+        VirtualExecutor(int limit) {
+            this.permits = new Semaphore(limit);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            try {
+                threads.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Reading state of one reader.
+     */
+    private static final class Reader {
+        private int lastPage = -1;
+        private long lastNanos;
+        private long intervalNanos = -1;
+    }
+}
@@ -0,0 +1,146 @@
+package com.itp.DigLib.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads pinned to their carrier thread while virtual threads are enabled.
+ *
+ * <p>A virtual thread that blocks inside a {@code synchronized} block or method cannot unmount, so
+ * it holds one of the few carrier threads for as long as it blocks. The Cloud Storage client, the
+ * Hikari pool and the MySQL driver all synchronize somewhere on their blocking paths. This monitor
+ * streams the JFR {@code jdk.VirtualThreadPinned} events longer than
+ * {@code book.threads.pinned-threshold-ms} and counts them per site: the first frame in one of
+ * those libraries, or else the first frame outside the JDK. A site is logged with its stack the
+ * first time it pins and again each time its count doubles, so a hot site does not flood the log.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class PinningMonitor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PinningMonitor.class);
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    static final List<String> WATCHED = List.of(
+        "com.google.cloud.", "com.google.api.", "com.zaxxer.hikari.", "com.mysql.cj.");
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    /**
+     * Constructs a new PinningMonitor.
+     *
+     * @param thresholdMillis the shortest pin reported, in milliseconds
+     */
+    public PinningMonitor(@Value("${book.threads.pinned-threshold-ms:20}") long thresholdMillis) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    /**
+     * Starts streaming pinning events.
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(EVENT, this::record);
+            stream.startAsync();
+            LOGGER.info("Reporting virtual threads pinned for at least {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR can be missing or disabled in the runtime, which must not stop the application
+            LOGGER.warn("Cannot report pinned virtual threads: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    /**
+     * Stops streaming when the application shuts down.
+     */
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        RecordedStackTrace trace = event.getStackTrace();
+        List<String> frames = trace == null ? List.of() : trace.getFrames().stream()
+            .map(PinningMonitor::frame)
+            .toList();
+        pinned(frames, event.getDuration());
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    /**
+     * Counts a pinned virtual thread and logs it when its site is new or its count has doubled.
+     *
+     * @param frames the stack of the pinned thread, innermost first, as class.method
+     * @param duration how long the thread was pinned
+     */
+    void pinned(List<String> frames, Duration duration) {
+        String site = site(frames);
+        LongAdder count = counts.computeIfAbsent(site, key -> new LongAdder());
+        count.increment();
+        long sum = count.sum();
+        if (Long.bitCount(sum) == 1) {
+            LOGGER.warn("Virtual thread pinned for {} ms in {} ({} times so far): {}", duration.toMillis(), site,
+                sum, frames.subList(0, Math.min(LOGGED_FRAMES, frames.size())));
+        } else {
+            LOGGER.debug("Virtual thread pinned for {} ms in {}", duration.toMillis(), site);
+        }
+    }
+
+    /**
+     * Returns the site a pin is counted under.
+     *
+     * @param frames the stack of the pinned thread, innermost first, as class.method
+     * @return the first frame in a watched library, else the first frame outside the JDK, else the
+     *     first frame, or "unknown" for an empty stack
+     */
+    static String site(List<String> frames) {
+        for (String frame : frames) {
+            if (WATCHED.stream().anyMatch(frame::startsWith)) {
+                return frame;
+            }
+        }
+        for (String frame : frames) {
+            if (!frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0);
+    }
+
+    /**
+     * Returns the number of pins counted per site.
+     *
+     * @return the counts by site, in site order
+     */
+    public Map<String, Long> pinnedCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        counts.forEach((site, count) -> result.put(site, count.sum()));
+        return result;
+    }
+}
@@ -1,22 +1,89 @@
 package com.itp.DigLib.config;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.itp.DigLib.storage.BookStorage;
+import com.itp.DigLib.storage.GcsBookStorage;
+import com.itp.DigLib.storage.InMemoryBookStorage;
+import com.itp.DigLib.storage.LocalBookStorage;
+import com.itp.DigLib.storage.MeteredBookStorage;
+import com.itp.DigLib.storage.SimulatedLatencyBookStorage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class StorageConfig {
-    
-    @Value("${spring.cloud.gcp.project-id}")
-    private String projectId;
-    
-    @Bean
-    public Storage storage() {
-        return StorageOptions.newBuilder()
-            .setProjectId(projectId)
-            .build()
-            .getService();
+
+    /**
+     * Book storage on Google Cloud Storage, used unless another backend is selected.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "book.storage.type", havingValue = "gcs", matchIfMissing = true)
+    static class GcsStorageConfig {
+
+        @Value("${spring.cloud.gcp.project-id}")
+        private String projectId;
+
+        @Bean
+        public Storage storage() {
+            return StorageOptions.newBuilder()
+                .setProjectId(projectId)
+                .build()
+                .getService();
+        }
+
+        @Bean
+        public BookStorage bookStorage(
+                Storage storage,
+                @Value("${spring.cloud.gcp.storage.bucket-name}") String bucketName,
+                @Value("${book.upload.chunk-size:1048576}") int uploadChunkSize,
+                MeterRegistry meterRegistry
+        ) {
+            BookStorage gcs = new GcsBookStorage(storage, bucketName, uploadChunkSize);
+            return new MeteredBookStorage(gcs, meterRegistry, "gcs");
+        }
+    }
+
+    /**
+     * Book storage on the local filesystem, selected with {@code book.storage.type=local}.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "book.storage.type", havingValue = "local")
+    static class LocalStorageConfig {
+
+        @Bean
+        public BookStorage bookStorage(@Value("${book.storage.local.root:bookstorage}") String root,
+                MeterRegistry meterRegistry) throws IOException {
+            return new MeteredBookStorage(new LocalBookStorage(Path.of(root)), meterRegistry, "local");
+        }
+    }
+
+    /**
+     * Book storage in the heap with simulated latency and bandwidth, selected with
+     * {@code book.storage.type=memory} for load tests without Cloud Storage.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "book.storage.type", havingValue = "memory")
+    static class MemoryStorageConfig {
+
+        @Bean
+        public BookStorage bookStorage(
+                @Value("${book.storage.memory.latency-ms:0}") long latencyMillis,
+                @Value("${book.storage.memory.bytes-per-second:0}") long bytesPerSecond,
+                MeterRegistry meterRegistry
+        ) {
+            BookStorage memory = new SimulatedLatencyBookStorage(new InMemoryBookStorage(),
+                Duration.ofMillis(latencyMillis), bytesPerSecond);
+            return new MeteredBookStorage(memory, meterRegistry, "memory");
+        }
     }
-}
\ No newline at end of file
+}
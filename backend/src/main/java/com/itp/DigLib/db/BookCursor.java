@@ -0,0 +1,141 @@
+package com.itp.DigLib.db;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.itp.DigLib.api.model.Book;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Position in a sorted book listing, after the last book of a slice.
+ *
+ * <p>The cursor holds the sort field and direction, and the sort key and ID of the last book. The next
+ * slice is the books sorting after that key, which the database finds by seeking the index of the sort
+ * field, so every slice costs the same however deep it is. Clients see the cursor as an opaque token.</p>
+ */
+public final class BookCursor {
+    private static final String SEPARATOR = "\n";
+
+    private final String sortBy;
+    private final Sort.Direction direction;
+    private final int id;
+    private final Object value;
+
+    private BookCursor(String sortBy, Sort.Direction direction, int id, Object value) {
+        this.sortBy = sortBy;
+        this.direction = direction;
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * Returns the cursor after a book.
+     *
+     * @param book the last book of a slice
+     * @param sortBy the sort field, one of {@link BookSpecifications#SORTABLE_FIELDS}
+     * @param direction the sort direction
+     * @return the cursor
+     */
+    public static BookCursor after(Book book, String sortBy, Sort.Direction direction) {
+        Object value = switch (sortBy) {
+            case "title" -> book.getTitle();
+            case "author" -> book.getAuthor();
+            case "year" -> book.getYear();
+            case "id" -> book.getId();
+            default -> throw new IllegalArgumentException("Cannot sort books by " + sortBy);
+        };
+        return new BookCursor(sortBy, direction, book.getId(), value);
+    }
+
+    /**
+     * Decodes a token returned by {@link #encode()}.
+     *
+     * @param token the token
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static BookCursor decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (parts.length != 4 || !BookSpecifications.SORTABLE_FIELDS.contains(parts[0]) || parts[3].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+            int id = Integer.parseInt(parts[2]);
+            // The value is tagged: "-" for no value, "s" for text, "i" for a number
+            Object value = switch (parts[3].charAt(0)) {
+                case '-' -> null;
+                case 's' -> parts[3].substring(1);
+                case 'i' -> Integer.parseInt(parts[3].substring(1));
+                default -> throw new IllegalArgumentException("Malformed cursor");
+            };
+            return new BookCursor(parts[0], direction, id, value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque URL-safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        String tagged = value == null ? "-" : value instanceof Integer ? "i" + value : "s" + value;
+        String raw = sortBy + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + tagged;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns whether this cursor belongs to a listing sorted the given way.
+     *
+     * @param sortBy the sort field
+     * @param direction the sort direction
+     * @return true if the cursor can continue that listing
+     */
+    public boolean matches(String sortBy, Sort.Direction direction) {
+        return this.sortBy.equals(sortBy) && this.direction == direction;
+    }
+
+    /**
+     * Returns the filter selecting the books after this cursor, in the order of its listing.
+     * Null sort keys are ordered as MySQL does: first when ascending, last when descending.
+     *
+     * @return the filter
+     */
+    public Specification<Book> toSpecification() {
+        boolean ascending = direction.isAscending();
+        return (root, query, cb) -> {
+            Predicate idAfter = after(cb, root.get("id"), id, ascending);
+            if (sortBy.equals("id")) {
+                return idAfter;
+            }
+            Expression<Object> field = root.get(sortBy);
+            if (value == null) {
+                return ascending
+                    ? cb.or(cb.isNotNull(field), cb.and(cb.isNull(field), idAfter))
+                    : cb.and(cb.isNull(field), idAfter);
+            }
+            Predicate seek = cb.or(after(cb, root.get(sortBy), value, ascending),
+                cb.and(cb.equal(field, value), idAfter));
+            return ascending ? seek : cb.or(seek, cb.isNull(field));
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Expression field, Object value, boolean ascending) {
+        Comparable key = (Comparable) value;
+        return ascending ? cb.greaterThan(field, key) : cb.lessThan(field, key);
+    }
+}
@@ -0,0 +1,41 @@
+package com.itp.DigLib.db;
+
+/**
+ * Projection of the searchable metadata of a book, read without its other columns.
+ */
+public interface BookMetadata {
+    /**
+     * Returns the ID of the book.
+     *
+     * @return the ID of the book
+     */
+    int getId();
+
+    /**
+     * Returns the title of the book.
+     *
+     * @return the title of the book
+     */
+    String getTitle();
+
+    /**
+     * Returns the author of the book.
+     *
+     * @return the author of the book
+     */
+    String getAuthor();
+
+    /**
+     * Returns the genre of the book.
+     *
+     * @return the genre of the book
+     */
+    String getGenre();
+
+    /**
+     * Returns the year of publication of the book.
+     *
+     * @return the year of publication of the book
+     */
+    int getYear();
+}
@@ -1,17 +1,38 @@
 package com.itp.DigLib.db;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.itp.DigLib.api.model.Book;
 
-public interface BookRepository extends PagingAndSortingRepository<Book, Integer>, CrudRepository<Book, Integer> {
+public interface BookRepository extends PagingAndSortingRepository<Book, Integer>, CrudRepository<Book, Integer>,
+        JpaSpecificationExecutor<Book> {
     @SuppressWarnings("null")
     @Override
     Page<Book> findAll(Pageable pageable);
-    Page<Book> findByTitleContainingIgnoreCase(String title, Pageable pageable);
-    Page<Book> findByAuthorContainingIgnoreCase(String author, Pageable pageable);
-    Page<Book> findByGenreContainingIgnoreCase(String genre, Pageable pageable);
+    Slice<Book> findAllBy(Pageable pageable);
+    List<BookMetadata> findByIdGreaterThanOrderByIdAsc(int id, Pageable pageable);
+
+    /**
+     * Deletes books with one statement. Unlike {@code deleteAllById}, which loads and removes each book,
+     * this does not run entity listeners, so callers must update what they maintain.
+     *
+     * @param ids the IDs of the books
+     * @return the number of books deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from Book b where b.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.itp.DigLib.db;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.BookFilter;
+
+/**
+ * Filters for querying books, combined into one query with {@link Specification#and}.
+ *
+ * <p>Every factory returns null when its parameter is null, which {@link Specification} treats as
+ * no restriction, so optional request parameters can be passed straight through.</p>
+ */
+public final class BookSpecifications {
+    /**
+     * The fields books may be sorted by. Each has an index (see {@link Book}), so sorting a page never
+     * needs a filesort over the whole table.
+     */
+    public static final Set<String> SORTABLE_FIELDS = Set.of("id", "title", "author", "year");
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Combines every filter set in a book filter.
+     *
+     * @param filter the filter
+     * @return the combined filter
+     */
+    public static Specification<Book> matching(BookFilter filter) {
+        return Specification.where(titleContains(filter.getTitle()))
+            .and(authorContains(filter.getAuthor()))
+            .and(genreContains(filter.getGenre()))
+            .and(isbnEquals(filter.getIsbn()))
+            .and(yearFrom(filter.getYearFrom()))
+            .and(yearTo(filter.getYearTo()));
+    }
+
+    /**
+     * Matches books whose title contains a string, ignoring case.
+     *
+     * @param title the string to look for, or null
+     * @return the filter, or null
+     */
+    public static Specification<Book> titleContains(String title) {
+        return contains("title", title);
+    }
+
+    /**
+     * Matches books whose author contains a string, ignoring case.
+     *
+     * @param author the string to look for, or null
+     * @return the filter, or null
+     */
+    public static Specification<Book> authorContains(String author) {
+        return contains("author", author);
+    }
+
+    /**
+     * Matches books whose genre contains a string, ignoring case.
+     *
+     * @param genre the string to look for, or null
+     * @return the filter, or null
+     */
+    public static Specification<Book> genreContains(String genre) {
+        return contains("genre", genre);
+    }
+
+    /**
+     * Matches the books with an ISBN.
+     *
+     * @param isbn the ISBN, or null
+     * @return the filter, or null
+     */
+    public static Specification<Book> isbnEquals(String isbn) {
+        return isbn == null ? null : (root, query, cb) -> cb.equal(root.get("isbn"), isbn);
+    }
+
+    /**
+     * Matches books published in or after a year.
+     *
+     * @param year the first year, or null
+     * @return the filter, or null
+     */
+    public static Specification<Book> yearFrom(Integer year) {
+        return year == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("year"), year);
+    }
+
+    /**
+     * Matches books published in or before a year.
+     *
+     * @param year the last year, or null
+     * @return the filter, or null
+     */
+    public static Specification<Book> yearTo(Integer year) {
+        return year == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("year"), year);
+    }
+
+    /**
+     * Matches the books with the given IDs.
+     *
+     * @param ids the IDs, or null
+     * @return the filter, or null
+     */
+    public static Specification<Book> idIn(Collection<Integer> ids) {
+        return ids == null ? null : (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Matches the books with an ID above a given one.
+     *
+     * @param id the highest ID not to match
+     * @return the filter
+     */
+    public static Specification<Book> idGreaterThan(int id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    private static Specification<Book> contains(String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        // Escape the LIKE wildcards, as derived "Containing" queries do
+        String pattern = "%" + value.toLowerCase(Locale.ROOT)
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get(field)), pattern, '\\');
+    }
+}
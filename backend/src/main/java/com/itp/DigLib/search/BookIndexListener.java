@@ -0,0 +1,84 @@
+package com.itp.DigLib.search;
+
+import com.itp.DigLib.api.model.Book;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Entity listener keeping the {@link TrigramIndex} and the {@link FacetCounts} in step with the books
+ * written to the database. Created by Hibernate through the Spring bean container, which injects them.
+ *
+ * <p>The callbacks run when the statements are flushed, before the transaction commits. The changes
+ * are therefore deferred until after the commit, so a rolled back insert or delete leaves the index and
+ * the counts untouched. Outside a transaction they are applied at once.</p>
+ */
+public class BookIndexListener {
+    private final TrigramIndex index;
+    private final FacetCounts facets;
+
+    /**
+     * Constructs a new BookIndexListener.
+     *
+     * @param index the trigram index to update
+     * @param facets the catalogue counts to update
+     */
+    public BookIndexListener(TrigramIndex index, FacetCounts facets) {
+        this.index = index;
+        this.facets = facets;
+    }
+
+    /**
+     * Adds the metadata of an inserted book.
+     *
+     * @param book the book that was inserted
+     */
+    @PostPersist
+    public void afterInsert(Book book) {
+        afterCommit(() -> {
+            index.add(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre());
+            facets.add(book.getId(), book.getGenre(), book.getAuthor(), book.getYear());
+        });
+    }
+
+    /**
+     * Adds the metadata of an updated book. The counts are left alone: the old values of the book
+     * are not known here, and the API never changes a stored book.
+     *
+     * @param book the book that was updated
+     */
+    @PostUpdate
+    public void afterUpdate(Book book) {
+        afterCommit(() -> index.add(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre()));
+    }
+
+    /**
+     * Removes a deleted book.
+     *
+     * @param book the book that was deleted
+     */
+    @PostRemove
+    public void afterRemove(Book book) {
+        afterCommit(() -> {
+            index.remove(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre());
+            facets.remove(book.getId(), book.getGenre(), book.getAuthor(), book.getYear());
+        });
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
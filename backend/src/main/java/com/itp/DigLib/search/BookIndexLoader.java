@@ -0,0 +1,153 @@
+package com.itp.DigLib.search;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.itp.DigLib.db.BookMetadata;
+import com.itp.DigLib.db.BookRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fills the {@link TrigramIndex} and the {@link FacetCounts} with the books in the database once the
+ * application has started, and keeps them in step with the other instances.
+ *
+ * <p>Books are read in ID order, a batch at a time, on a background thread, so startup does not wait
+ * for a large catalogue. Until loading has finished the index reports that it cannot narrow a
+ * search, so filters fall back to scanning the database, and the counts report that they are not
+ * ready, so listings count the books with a query.</p>
+ *
+ * <p>Books saved by this instance reach the index through {@link BookIndexListener}; those saved by
+ * other instances are read periodically, by reading the books past the IDs the index is complete for.
+ * A refresh reads again the books the previous one read, in case a book with a lower ID committed
+ * later, and only marks those as complete. Books deleted by other instances stay in the index, which
+ * only costs extra candidates. The total count is corrected with a count query at the same time; the
+ * counts by genre, decade and author only follow the changes made on this instance.</p>
+ */
+@Component
+public class BookIndexLoader {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookIndexLoader.class);
+    static final int BATCH_SIZE = 10_000;
+
+    private final TrigramIndex index;
+    private final FacetCounts facets;
+    private final BookRepository bookRepo;
+    private final int refreshSeconds;
+    private ScheduledExecutorService loader;
+    // The highest ID read so far, only used by the loader thread
+    private int readUpTo = Integer.MIN_VALUE;
+
+    /**
+     * Constructs a new BookIndexLoader.
+     *
+     * @param index the trigram index to fill
+     * @param facets the catalogue counts to fill
+     * @param bookRepo the repository of books
+     * @param refreshSeconds the seconds between reads of the books saved by other instances
+     */
+    public BookIndexLoader(TrigramIndex index, FacetCounts facets, BookRepository bookRepo,
+            @Value("${book.metadata.index.refresh-seconds:30}") int refreshSeconds) {
+        this.index = index;
+        this.facets = facets;
+        this.bookRepo = bookRepo;
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    /**
+     * Starts loading in the background, then keeps refreshing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-index-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.execute(this::load);
+        if (refreshSeconds > 0) {
+            loader.scheduleWithFixedDelay(this::refresh, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Adds every book in the database to the index and the counts, and marks both ready.
+     */
+    void load() {
+        long started = System.nanoTime();
+        long books = 0;
+        try {
+            int lastId = Integer.MIN_VALUE;
+            List<BookMetadata> batch;
+            do {
+                batch = bookRepo.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BATCH_SIZE));
+                for (BookMetadata book : batch) {
+                    index.add(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre());
+                    facets.load(book.getId(), book.getGenre(), book.getAuthor(), book.getYear());
+                    lastId = book.getId();
+                }
+                books += batch.size();
+            } while (batch.size() == BATCH_SIZE);
+            readUpTo = lastId;
+            index.markIndexedUpTo(lastId);
+            index.markReady();
+            facets.markReady();
+            LOGGER.info("Book indexes loaded {} books with {} trigrams in {} ms",
+                books, index.trigramCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to load the book indexes after {} books, filters and counts query the database: {}",
+                books, e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the books saved by other instances since the last refresh, and corrects the total count.
+     */
+    void refresh() {
+        if (!index.isReady()) {
+            return;
+        }
+        try {
+            int lastId = index.indexedUpTo();
+            int added = 0;
+            List<BookMetadata> batch;
+            do {
+                batch = bookRepo.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BATCH_SIZE));
+                for (BookMetadata book : batch) {
+                    if (index.addIfMissing(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre())) {
+                        added++;
+                    }
+                    lastId = book.getId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+            // The books read by the previous refresh have had a whole period to commit
+            index.markIndexedUpTo(Math.max(index.indexedUpTo(), readUpTo));
+            readUpTo = Math.max(readUpTo, lastId);
+            facets.correctTotal(bookRepo.count());
+            if (added > 0) {
+                LOGGER.info("Book index refresh added {} books saved by other instances", added);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to refresh the book indexes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops loading and refreshing when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (loader != null) {
+            loader.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.itp.DigLib.search;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts of the books in the catalogue, in total and by genre, decade and author, kept in memory.
+ *
+ * <p>The counts are rebuilt from the database at startup and then changed as books are added and
+ * deleted on this instance, so neither the paged listing nor the facets need a {@code COUNT(*)} query.
+ * Other instances change the catalogue too: the total is corrected periodically by
+ * {@link BookIndexLoader}, while the other counts only follow this instance until it restarts.
+ * Counters are {@link LongAdder}s, which spread concurrent updates over cells instead of contending on
+ * one value.</p>
+ *
+ * <p>While the counts are rebuilt, a change to a book the rebuild has not read yet is held back, so
+ * nothing is counted twice. An added book is counted at the end if the rebuild never read it. A
+ * deleted book is only uncounted if it was added while holding back: any other book the rebuild did
+ * not read was deleted before it was reached, and so was never counted.</p>
+ */
+@Component
+public class FacetCounts {
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> genres = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, LongAdder> decades = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> authors = new ConcurrentHashMap<>();
+    // Books added while the counts are rebuilt, and not read by the rebuild yet, by ID
+    private final Map<Integer, Change> pending = new HashMap<>();
+    private int loadedUpTo = Integer.MIN_VALUE;
+    private volatile boolean ready;
+
+    /**
+     * A change to the counts made while they were rebuilt.
+     */
+    private record Change(int id, String genre, String author, int year, int delta) {}
+
+    /**
+     * Counts an added book.
+     *
+     * @param id the ID of the book
+     * @param genre the genre of the book
+     * @param author the author of the book
+     * @param year the publication year of the book
+     */
+    public void add(int id, String genre, String author, int year) {
+        change(new Change(id, genre, author, year, 1));
+    }
+
+    /**
+     * Uncounts a deleted book.
+     *
+     * @param id the ID of the book
+     * @param genre the genre of the book
+     * @param author the author of the book
+     * @param year the publication year of the book
+     */
+    public void remove(int id, String genre, String author, int year) {
+        change(new Change(id, genre, author, year, -1));
+    }
+
+    /**
+     * Counts a book read while the counts are rebuilt, in ID order.
+     *
+     * @param id the ID of the book
+     * @param genre the genre of the book
+     * @param author the author of the book
+     * @param year the publication year of the book
+     */
+    public void load(int id, String genre, String author, int year) {
+        apply(genre, author, year, 1);
+        synchronized (pending) {
+            loadedUpTo = Math.max(loadedUpTo, id);
+        }
+    }
+
+    /**
+     * Ends the rebuild, counting the held back books it did not read.
+     */
+    public void markReady() {
+        synchronized (pending) {
+            for (Change change : pending.values()) {
+                if (change.id() > loadedUpTo) {
+                    apply(change.genre(), change.author(), change.year(), change.delta());
+                }
+            }
+            pending.clear();
+            ready = true;
+        }
+    }
+
+    /**
+     * Corrects the total count to the number of books in the database, which includes the books added
+     * and deleted by other instances. Changes made on this instance while the number was counted may
+     * leave the total off by those books until the next correction.
+     *
+     * @param count the number of books counted in the database
+     */
+    public void correctTotal(long count) {
+        if (ready) {
+            total.add(count - total.sum());
+        }
+    }
+
+    /**
+     * Returns whether the counts have been rebuilt and are exact.
+     *
+     * @return true if the counts can be used
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the number of books.
+     *
+     * @return the total count
+     */
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the number of books by genre, with a zero count for known genres without books.
+     *
+     * @param knownGenres the genres to list first, in order
+     * @return the counts by genre
+     */
+    public Map<String, Long> genres(List<String> knownGenres) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String genre : knownGenres) {
+            counts.put(genre, 0L);
+        }
+        new TreeMap<>(genres).forEach((genre, count) -> {
+            long sum = count.sum();
+            if (sum > 0 || counts.containsKey(genre)) {
+                counts.put(genre, sum);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Returns the number of books by decade of publication.
+     *
+     * @return the counts keyed by the first year of each decade, in order
+     */
+    public Map<Integer, Long> decades() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        decades.forEach((decade, count) -> {
+            long sum = count.sum();
+            if (sum > 0) {
+                counts.put(decade, sum);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Returns the authors with the most books.
+     *
+     * @param limit the maximum number of authors
+     * @return the counts by author, most books first
+     */
+    public Map<String, Long> topAuthors(int limit) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        authors.entrySet().stream()
+            .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+            .filter(entry -> entry.getValue() > 0)
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(limit)
+            .forEach(entry -> counts.put(entry.getKey(), entry.getValue()));
+        return counts;
+    }
+
+    private void change(Change change) {
+        if (!ready) {
+            synchronized (pending) {
+                if (!ready && change.id() > loadedUpTo) {
+                    if (change.delta() > 0) {
+                        pending.put(change.id(), change);
+                    } else {
+                        // Cancels an add held back, or the book is deleted before the rebuild reads it
+                        pending.remove(change.id());
+                    }
+                    return;
+                }
+            }
+        }
+        apply(change.genre(), change.author(), change.year(), change.delta());
+    }
+
+    private void apply(String genre, String author, int year, int delta) {
+        total.add(delta);
+        if (genre != null) {
+            genres.computeIfAbsent(genre, key -> new LongAdder()).add(delta);
+        }
+        if (author != null) {
+            authors.computeIfAbsent(author, key -> new LongAdder()).add(delta);
+        }
+        decades.computeIfAbsent(year / 10 * 10, key -> new LongAdder()).add(delta);
+    }
+}
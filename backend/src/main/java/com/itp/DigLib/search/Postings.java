@@ -0,0 +1,199 @@
+package com.itp.DigLib.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The books containing one term, how often and where they contain it, kept compressed in memory.
+ *
+ * <p>Entries are stored as variable-length integers: the difference to the previous book ID
+ * (zig-zag encoded, since books are not always added in ID order), the term frequency, then the
+ * offsets of the first {@link Segment#MAX_POSITIONS} occurrences, each as the difference to the
+ * previous one. Most entries take a few bytes.</p>
+ */
+final class Postings {
+    private byte[] data = new byte[8];
+    private int length;
+    private int count;
+    private int lastBook;
+
+    /**
+     * Receives the entries of a posting list.
+     */
+    @FunctionalInterface
+    interface PostingConsumer {
+        /**
+         * Accepts an entry.
+         *
+         * @param bookId the ID of the book
+         * @param frequency the number of times the book contains the term
+         */
+        void accept(int bookId, int frequency);
+    }
+
+    /**
+     * Appends an entry.
+     *
+     * @param bookId the ID of the book
+     * @param frequency the number of times the book contains the term
+     * @param positions the ascending offsets of the first occurrences, as many as {@link #stored(int)}
+     */
+    void add(int bookId, int frequency, long[] positions) {
+        if (positions.length != stored(frequency)) {
+            throw new IllegalArgumentException("Expected " + stored(frequency) + " positions");
+        }
+        int delta = bookId - lastBook;
+        writeVarLong(((delta << 1) ^ (delta >> 31)) & 0xFFFFFFFFL);
+        writeVarLong(frequency);
+        long previous = 0;
+        for (long position : positions) {
+            writeVarLong(position - previous);
+            previous = position;
+        }
+        lastBook = bookId;
+        count++;
+    }
+
+    /**
+     * Returns the number of positions kept for an entry.
+     *
+     * @param frequency the number of times the book contains the term
+     * @return the number of first occurrences kept
+     */
+    static int stored(int frequency) {
+        return Math.min(frequency, Segment.MAX_POSITIONS);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of books containing the term
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Decodes every entry in the order they were added, without their positions.
+     *
+     * @param consumer receives the entries
+     */
+    void forEach(PostingConsumer consumer) {
+        Cursor cursor = new Cursor();
+        while (cursor.position < length) {
+            int book = cursor.nextBook();
+            int frequency = (int) cursor.readVarLong();
+            cursor.skipPositions(frequency);
+            consumer.accept(book, frequency);
+        }
+    }
+
+    /**
+     * Returns the positions of some books.
+     *
+     * @param bookIds the IDs of the books
+     * @return the ascending offsets of the first occurrences in each of the books in this list
+     */
+    Map<Integer, long[]> positions(Set<Integer> bookIds) {
+        Map<Integer, long[]> positions = new HashMap<>();
+        Cursor cursor = new Cursor();
+        while (cursor.position < length && positions.size() < bookIds.size()) {
+            int book = cursor.nextBook();
+            int frequency = (int) cursor.readVarLong();
+            if (bookIds.contains(book)) {
+                positions.put(book, cursor.readPositions(frequency));
+            } else {
+                cursor.skipPositions(frequency);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns a copy of this list without the entries of a book.
+     *
+     * @param bookId the ID of the book to leave out
+     * @return the remaining entries
+     */
+    Postings without(int bookId) {
+        Postings remaining = new Postings();
+        Cursor cursor = new Cursor();
+        while (cursor.position < length) {
+            int book = cursor.nextBook();
+            int frequency = (int) cursor.readVarLong();
+            if (book != bookId) {
+                remaining.add(book, frequency, cursor.readPositions(frequency));
+            } else {
+                cursor.skipPositions(frequency);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns an estimate of the heap used by this list.
+     *
+     * @return the estimated size in bytes
+     */
+    long estimatedSize() {
+        return 48 + data.length;
+    }
+
+    private void writeVarLong(long value) {
+        if (length + 10 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 10));
+        }
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Reads the entries from the start of the list.
+     */
+    private final class Cursor {
+        private int position;
+        private int book;
+
+        int nextBook() {
+            int value = (int) readVarLong();
+            book += (value >>> 1) ^ -(value & 1);
+            return book;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long[] readPositions(int frequency) {
+            long[] positions = new long[stored(frequency)];
+            long offset = 0;
+            for (int i = 0; i < positions.length; i++) {
+                offset += readVarLong();
+                positions[i] = offset;
+            }
+            return positions;
+        }
+
+        void skipPositions(int frequency) {
+            int remaining = stored(frequency);
+            while (remaining > 0) {
+                if ((data[position++] & 0x80) == 0) {
+                    remaining--;
+                }
+            }
+        }
+    }
+}
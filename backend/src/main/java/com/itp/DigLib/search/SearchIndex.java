@@ -0,0 +1,363 @@
+package com.itp.DigLib.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.itp.DigLib.storage.BookStorage;
+
+/**
+ * Inverted index over the contents of all books, kept in the book storage.
+ *
+ * <p>Every book has its own {@link Segment} under {@value #PREFIX} in the book storage, holding its
+ * term dictionary and excerpts, so the index is shared by every instance and survives restarts and
+ * redeployments. The dictionaries are loaded into compressed in-memory {@link Postings}, with the
+ * positions of the terms, and the excerpts are kept compressed next to them, so a query is ranked with
+ * BM25 and given its positions and snippet text without reading the book storage. Instances pick up
+ * books indexed or removed by others through {@link #refresh()}.</p>
+ *
+ * <p>Adding a book stores its segment and appends to the postings of its terms; removing it drops
+ * it from the postings of the terms in its segment, then deletes the segment.</p>
+ */
+@Component
+public class SearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndex.class);
+    static final String PREFIX = "searchindex/";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SEGMENT_TYPE = "application/octet-stream";
+    private static final int READ_CHUNK_SIZE = 16 * 1024;
+    // BM25 parameters, the usual defaults
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final BookStorage storage;
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Entry> books = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalTokens;
+
+    /**
+     * Constructs a new SearchIndex.
+     *
+     * @param storage the storage holding the segments next to the book contents
+     */
+    public SearchIndex(BookStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * A book matching a query.
+     *
+     * @param bookId the ID of the book
+     * @param score the BM25 score of the book
+     * @param positions the ascending character offsets of the first occurrences of the query terms
+     * @param excerptStart the character offset of the excerpt
+     * @param excerpt the text of the book from a little before the first position, empty if there is none
+     * @param characters the length of the book in characters
+     */
+    public record Hit(int bookId, double score, long[] positions, long excerptStart, String excerpt,
+            long characters) {}
+
+    /**
+     * What the index keeps of a book besides its postings.
+     */
+    private record Entry(long tokens, long characters, Segment.Excerpts excerpts) {}
+
+    /**
+     * Loads the segments stored since the last load, and drops the books whose segments were deleted.
+     * The first call loads the whole index.
+     *
+     * @return the number of books loaded or dropped
+     */
+    public int refresh() {
+        // Taken before the listing, so books indexed by this instance meanwhile are not dropped
+        Set<Integer> known;
+        lock.readLock().lock();
+        try {
+            known = new HashSet<>(books.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<Integer> stored = new HashSet<>();
+        for (String key : storage.list(PREFIX)) {
+            int bookId = bookIdOf(key);
+            if (bookId >= 0) {
+                stored.add(bookId);
+            }
+        }
+
+        int changed = 0;
+        for (int bookId : stored) {
+            if (known.contains(bookId)) {
+                continue;
+            }
+            try {
+                Segment segment = readSegment(bookId);
+                if (segment == null) {
+                    continue;
+                }
+                lock.writeLock().lock();
+                try {
+                    // Indexed by this instance since the listing
+                    if (!books.containsKey(bookId)) {
+                        addPostings(segment);
+                        changed++;
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Skipping unreadable search segment of book {}: {}", bookId, e.getMessage());
+            }
+        }
+        for (int bookId : known) {
+            if (!stored.contains(bookId)) {
+                lock.writeLock().lock();
+                try {
+                    removePostings(bookId, null);
+                    changed++;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Indexes the text of a book, replacing its previous entry if any.
+     *
+     * @param bookId the ID of the book
+     * @param text the text of the book, read until the end but not closed
+     * @throws IOException if the text cannot be read or the segment cannot be stored
+     */
+    public void add(int bookId, Reader text) throws IOException {
+        Segment.Writer writer = new Segment.Writer(bookId);
+        char[] buffer = new char[READ_CHUNK_SIZE];
+        int read;
+        while ((read = text.read(buffer)) != -1) {
+            writer.update(buffer, 0, read);
+        }
+        byte[] data = writer.finish();
+        Segment segment = Segment.read(data);
+        Set<String> previousTerms = contains(bookId) ? termsOf(readSegment(bookId)) : null;
+        storage.put(segmentKey(bookId), new ByteArrayInputStream(data), SEGMENT_TYPE);
+        // The write lock is only held to swap the postings, not while the text is read or stored
+        lock.writeLock().lock();
+        try {
+            removePostings(bookId, previousTerms);
+            addPostings(segment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index.
+     *
+     * @param bookId the ID of the book
+     * @return true if the book was indexed
+     * @throws IOException if the segment cannot be read
+     */
+    public boolean remove(int bookId) throws IOException {
+        Set<String> terms = contains(bookId) ? termsOf(readSegment(bookId)) : null;
+        storage.delete(segmentKey(bookId));
+        lock.writeLock().lock();
+        try {
+            return removePostings(bookId, terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether a book is indexed.
+     *
+     * @param bookId the ID of the book
+     * @return true if the book is indexed
+     */
+    public boolean contains(int bookId) {
+        lock.readLock().lock();
+        try {
+            return books.containsKey(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an estimate of the heap used by the postings and the excerpts.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimatedSize() {
+        lock.readLock().lock();
+        try {
+            long size = 0;
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                size += 2L * entry.getKey().length() + entry.getValue().estimatedSize();
+            }
+            for (Entry book : books.values()) {
+                size += 48 + book.excerpts().estimatedSize();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the books containing any term of a query.
+     *
+     * @param query the query text
+     * @param limit the maximum number of books to return
+     * @return the best matching books, best first
+     * @throws IOException if an excerpt is corrupt
+     * @throws IllegalArgumentException if the query has no searchable terms
+     */
+    public List<Hit> search(String query, int limit) throws IOException {
+        List<String> terms = Tokenizer.terms(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable terms");
+        }
+        List<Map.Entry<Integer, Double>> best;
+        Map<Integer, List<long[]>> positions = new HashMap<>();
+        Map<Integer, Entry> entries = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            best = rank(terms, limit);
+            for (Map.Entry<Integer, Double> entry : best) {
+                entries.put(entry.getKey(), books.get(entry.getKey()));
+            }
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null) {
+                    list.positions(entries.keySet()).forEach((bookId, offsets) ->
+                        positions.computeIfAbsent(bookId, key -> new ArrayList<>()).add(offsets));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // The excerpts are immutable, so they are decompressed outside the lock
+        List<Hit> hits = new ArrayList<>(best.size());
+        for (Map.Entry<Integer, Double> entry : best) {
+            long[] offsets = positions.getOrDefault(entry.getKey(), List.of()).stream()
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+            Entry book = entries.get(entry.getKey());
+            long excerptStart = offsets.length > 0 ? Math.max(0, offsets[0] - Segment.EXCERPT_LEAD) : 0;
+            String excerpt = offsets.length > 0 ? book.excerpts().text(excerptStart, Segment.EXCERPT_CHARS) : "";
+            hits.add(new Hit(entry.getKey(), entry.getValue(), offsets, excerptStart, excerpt, book.characters()));
+        }
+        return hits;
+    }
+
+    private List<Map.Entry<Integer, Double>> rank(List<String> terms, int limit) {
+        int bookCount = books.size();
+        double averageTokens = bookCount > 0 ? (double) totalTokens / bookCount : 0;
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (bookCount - list.size() + 0.5) / (list.size() + 0.5));
+            list.forEach((bookId, frequency) -> {
+                double norm = K1 * (1 - B + B * books.get(bookId).tokens() / averageTokens);
+                scores.merge(bookId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+            });
+        }
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+            top.add(score);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Integer, Double>> best = new ArrayList<>(top);
+        best.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+        return best;
+    }
+
+    private void addPostings(Segment segment) throws IOException {
+        int bookId = segment.bookId();
+        Segment.Excerpts excerpts = segment.excerpts();
+        segment.forEachTerm((term, frequency, positions) ->
+            postings.computeIfAbsent(term, key -> new Postings()).add(bookId, frequency, positions));
+        books.put(bookId, new Entry(segment.tokenCount(), segment.charCount(), excerpts));
+        totalTokens += segment.tokenCount();
+    }
+
+    /**
+     * Drops a book from the postings of its terms, or from every posting list when its terms are not
+     * known because the segment is gone.
+     */
+    private boolean removePostings(int bookId, Set<String> terms) {
+        Entry book = books.remove(bookId);
+        if (book == null) {
+            return false;
+        }
+        totalTokens -= book.tokens();
+        for (String term : terms != null ? terms : new ArrayList<>(postings.keySet())) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            Postings remaining = list.without(bookId);
+            if (remaining.size() == 0) {
+                postings.remove(term);
+            } else if (remaining.size() != list.size()) {
+                postings.put(term, remaining);
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> termsOf(Segment segment) throws IOException {
+        if (segment == null) {
+            return null;
+        }
+        Set<String> terms = new HashSet<>();
+        segment.forEachTerm((term, frequency, positions) -> terms.add(term));
+        return terms;
+    }
+
+    private Segment readSegment(int bookId) throws IOException {
+        byte[] data = storage.get(segmentKey(bookId));
+        return data != null ? Segment.read(data) : null;
+    }
+
+    private static String segmentKey(int bookId) {
+        return PREFIX + bookId + SEGMENT_SUFFIX;
+    }
+
+    private static int bookIdOf(String key) {
+        if (!key.startsWith(PREFIX) || !key.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(key.substring(PREFIX.length(), key.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
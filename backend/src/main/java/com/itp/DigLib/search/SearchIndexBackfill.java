@@ -0,0 +1,70 @@
+package com.itp.DigLib.search;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.db.BookRepository;
+
+/**
+ * Indexes the contents of books added before full-text search existed, or while the index was lost.
+ * Enabled by starting the application with {@code book.search.backfill=true}.
+ *
+ * <p>Application runners run before the index is loaded in the background, so the backfill loads the
+ * segments already in the book storage itself first; otherwise every book would look unindexed.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "book.search.backfill", havingValue = "true")
+public class SearchIndexBackfill implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexBackfill.class);
+
+    private final SearchService searchService;
+    private final BookRepository bookRepo;
+
+    /**
+     * Constructs a new SearchIndexBackfill.
+     *
+     * @param searchService the service owning the search index
+     * @param bookRepo the repository of books
+     */
+    public SearchIndexBackfill(SearchService searchService, BookRepository bookRepo) {
+        this.searchService = searchService;
+        this.bookRepo = bookRepo;
+    }
+
+    /**
+     * Loads the search index, then indexes every book that is not in it yet.
+     *
+     * @param args the application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!searchService.refreshIndex()) {
+            LOGGER.error("Search index backfill skipped, the search index could not be loaded");
+            return;
+        }
+        int indexed = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (Book book : bookRepo.findAll()) {
+            if (searchService.isIndexed(book.getId())) {
+                skipped++;
+                continue;
+            }
+            try {
+                searchService.indexNow(book.getId(), book.getFileName());
+                indexed++;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Failed to index book {} for search: {}", book.getId(), e.getMessage());
+                failed++;
+            }
+        }
+        LOGGER.info("Search index backfill finished: {} indexed, {} skipped, {} failed", indexed, skipped, failed);
+    }
+}
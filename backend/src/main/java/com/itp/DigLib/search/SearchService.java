@@ -0,0 +1,281 @@
+package com.itp.DigLib.search;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.SearchResult;
+import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.db.BookRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service keeping the full-text {@link SearchIndex} in step with the library and answering queries.
+ *
+ * <p>Books are indexed on a single background thread after they are added, so uploads do not wait for
+ * indexing and the index is written by one thread at a time. A book becomes searchable once its
+ * indexing has finished.</p>
+ *
+ * <p>Once the application has started, the index is loaded from the book storage in the background
+ * and then refreshed periodically, so books indexed or removed by other instances become visible.
+ * Queries are answered from memory: snippets come from the excerpts kept by the index.</p>
+ */
+@Service
+public class SearchService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchService.class);
+    static final int MAX_PAGES_PER_RESULT = 20;
+    static final int SNIPPET_CHARS = Segment.EXCERPT_CHARS;
+
+    private final SearchIndex index;
+    private final BookContentService bookContentService;
+    private final BookRepository bookRepo;
+    private final Executor executor;
+    private final int defaultPageSize;
+    private final int refreshSeconds;
+    private ScheduledExecutorService refresher;
+
+    /**
+     * Constructs a new SearchService indexing on its own background thread.
+     *
+     * @param index the full-text index
+     * @param bookContentService the service owning the stored contents
+     * @param bookRepo the repository of books
+     * @param pageSize the default page size in characters
+     * @param refreshSeconds the seconds between refreshes of the index from the book storage
+     */
+    @Autowired
+    public SearchService(SearchIndex index, BookContentService bookContentService, BookRepository bookRepo,
+            @Value("${book.page.size:1000}") int pageSize,
+            @Value("${book.search.refresh-seconds:60}") int refreshSeconds) {
+        this(index, bookContentService, bookRepo, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        }), pageSize, refreshSeconds);
+    }
+
+    /**
+     * Constructs a new SearchService.
+     *
+     * @param index the full-text index
+     * @param bookContentService the service owning the stored contents
+     * @param bookRepo the repository of books
+     * @param executor the executor running the indexing
+     * @param pageSize the default page size in characters
+     * @param refreshSeconds the seconds between refreshes of the index from the book storage
+     */
+    SearchService(SearchIndex index, BookContentService bookContentService, BookRepository bookRepo,
+            Executor executor, int pageSize, int refreshSeconds) {
+        this.index = index;
+        this.bookContentService = bookContentService;
+        this.bookRepo = bookRepo;
+        this.executor = executor;
+        this.defaultPageSize = pageSize;
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    /**
+     * Loads the index in the background, then keeps refreshing it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefreshing() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long started = System.nanoTime();
+        refresher.execute(() -> {
+            refreshIndex();
+            LOGGER.info("Loaded search index in {} ms, postings use about {} KiB",
+                (System.nanoTime() - started) / 1_000_000, index.estimatedSize() / 1024);
+        });
+        if (refreshSeconds > 0) {
+            refresher.scheduleWithFixedDelay(this::refreshIndex, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Brings the index in step with the segments in the book storage.
+     *
+     * @return true if the index was refreshed, false if the storage could not be read
+     */
+    boolean refreshIndex() {
+        try {
+            int changed = index.refresh();
+            if (changed > 0) {
+                LOGGER.info("Search index refresh loaded or dropped {} books", changed);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to refresh the search index: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Indexes the content of a book in the background.
+     *
+     * @param book the saved book
+     */
+    public void indexBook(Book book) {
+        int id = book.getId();
+        String filename = book.getFileName();
+        executor.execute(() -> {
+            try {
+                indexNow(id, filename);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Failed to index book {} for search: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Indexes the content of a book in the calling thread.
+     *
+     * @param id the ID of the book
+     * @param filename the name of the stored file
+     * @throws IOException if the content cannot be read or the index cannot be written
+     */
+    public void indexNow(int id, String filename) throws IOException {
+        try (Reader text = new InputStreamReader(bookContentService.openContent(filename), StandardCharsets.UTF_8)) {
+            index.add(id, text);
+        }
+        LOGGER.info("Indexed book {} for search", id);
+    }
+
+    /**
+     * Returns whether the content of a book is indexed.
+     *
+     * @param id the ID of the book
+     * @return true if the book is searchable
+     */
+    public boolean isIndexed(int id) {
+        return index.contains(id);
+    }
+
+    /**
+     * Removes a book from the index in the background, after any pending indexing of it.
+     *
+     * @param id the ID of the book
+     */
+    public void removeBook(int id) {
+        executor.execute(() -> {
+            try {
+                index.remove(id);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Failed to remove book {} from the search index: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Searches the contents of all books.
+     *
+     * @param query the query text
+     * @param limit the maximum number of books to return
+     * @param pageSize the page size in characters used to number the pages of the hits (optional)
+     * @return the matching books, best first
+     * @throws IOException if the index cannot be read
+     * @throws IllegalArgumentException if the query has no searchable terms or the page size is not positive
+     */
+    public List<SearchResult> search(String query, int limit, Integer pageSize) throws IOException {
+        int charactersPerPage = pageSize != null ? pageSize : defaultPageSize;
+        if (charactersPerPage <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        List<SearchIndex.Hit> hits = index.search(query, limit);
+        List<Integer> ids = new ArrayList<>(hits.size());
+        for (SearchIndex.Hit hit : hits) {
+            ids.add(hit.bookId());
+        }
+        Map<Integer, Book> books = new HashMap<>();
+        for (Book book : bookRepo.findAllById(ids)) {
+            books.put(book.getId(), book);
+        }
+
+        List<SearchResult> results = new ArrayList<>(hits.size());
+        for (SearchIndex.Hit hit : hits) {
+            Book book = books.get(hit.bookId());
+            if (book == null) {
+                // Deleted while its removal from the index is pending
+                continue;
+            }
+            List<Integer> pages = new ArrayList<>();
+            for (long position : hit.positions()) {
+                int page = (int) (position / charactersPerPage);
+                if (pages.isEmpty() || pages.get(pages.size() - 1) != page) {
+                    pages.add(page);
+                    if (pages.size() == MAX_PAGES_PER_RESULT) {
+                        break;
+                    }
+                }
+            }
+            String snippet = hit.positions().length > 0 ? snippet(hit) : "";
+            results.add(new SearchResult(book.getId(), book.getTitle(), book.getAuthor(), hit.score(), pages,
+                snippet));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the excerpt of a hit, which starts a little before its first position, widened to whole
+     * words, or an empty snippet if the book has no excerpt there.
+     */
+    private static String snippet(SearchIndex.Hit hit) {
+        String text = hit.excerpt();
+        if (text.isEmpty()) {
+            return "";
+        }
+        long offset = hit.positions()[0];
+        long start = hit.excerptStart();
+        long end = start + text.length();
+        long total = hit.characters();
+
+        int from = 0;
+        int to = text.length();
+        if (start > 0) {
+            int space = text.indexOf(' ');
+            from = space >= 0 && space < offset - start ? space + 1 : 0;
+        }
+        if (end < total) {
+            int space = text.lastIndexOf(' ');
+            to = space > offset - start ? space : to;
+        }
+        String snippet = text.substring(from, to).replaceAll("\\s+", " ").trim();
+        return (start > 0 || from > 0 ? "…" : "") + snippet + (end < total ? "…" : "");
+    }
+
+    /**
+     * Stops the background indexing when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
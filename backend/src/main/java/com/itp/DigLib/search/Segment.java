@@ -0,0 +1,469 @@
+package com.itp.DigLib.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+
+import com.itp.DigLib.api.service.FrameTable;
+
+/**
+ * The search index of one book, as stored in the book storage.
+ *
+ * <p>A segment holds the term dictionary of the book. Every entry has the frequency of the term and
+ * the offsets of its first {@link #MAX_POSITIONS} occurrences, delta encoded. The text itself is not
+ * copied, only the excerpts around the first occurrence of every term, which is where the snippet of
+ * a hit is taken from. Overlapping excerpts are merged into ranges, and the text of the ranges is
+ * compressed in blocks of about {@value #EXCERPT_BLOCK_CHARS} characters. A footer locates the
+ * sections:</p>
+ *
+ * <pre>
+ * header:     magic, version, book ID
+ * dictionary: count, then term, frequency, stored positions and position deltas of every term, sorted
+ * excerpts:   range count, then gap to the previous range and length of every range,
+ *             block count, then characters, UTF-8 length, compressed length and deflated text of every block
+ * footer:     tokens, characters, dictionary offset, excerpts offset, magic
+ * </pre>
+ */
+final class Segment {
+    static final int MAX_POSITIONS = 16;
+    static final int EXCERPT_CHARS = 160;
+    // Characters of an excerpt before the occurrence it is taken around
+    static final int EXCERPT_LEAD = EXCERPT_CHARS / 3;
+    private static final int EXCERPT_BLOCK_CHARS = 16 * 1024;
+
+    private static final int MAGIC = 0x444C5347; // "DLSG"
+    private static final byte VERSION = 3;
+    private static final int HEADER_SIZE = 9;
+    private static final int FOOTER_SIZE = 28;
+
+    private final byte[] data;
+    private final int bookId;
+    private final long tokenCount;
+    private final long charCount;
+    private final int dictionaryOffset;
+    private final int excerptsOffset;
+
+    private Segment(byte[] data, int bookId, long tokenCount, long charCount, int dictionaryOffset,
+            int excerptsOffset) {
+        this.data = data;
+        this.bookId = bookId;
+        this.tokenCount = tokenCount;
+        this.charCount = charCount;
+        this.dictionaryOffset = dictionaryOffset;
+        this.excerptsOffset = excerptsOffset;
+    }
+
+    /**
+     * Receives the terms of a segment.
+     */
+    @FunctionalInterface
+    interface TermVisitor {
+        /**
+         * Accepts a term.
+         *
+         * @param term the term
+         * @param frequency the number of times the book contains the term
+         * @param positions the ascending character offsets of its first occurrences
+         */
+        void accept(String term, int frequency, long[] positions);
+    }
+
+    /**
+     * Reads a segment.
+     *
+     * @param data the stored segment
+     * @return the segment
+     * @throws IOException if the data is not a segment
+     */
+    static Segment read(byte[] data) throws IOException {
+        if (data.length < HEADER_SIZE + FOOTER_SIZE) {
+            throw new IOException("Not a search segment");
+        }
+        ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER_SIZE);
+        ByteBuffer footer = ByteBuffer.wrap(data, data.length - FOOTER_SIZE, FOOTER_SIZE);
+        if (header.getInt() != MAGIC || header.get() != VERSION || footer.getInt(data.length - 4) != MAGIC) {
+            throw new IOException("Not a search segment");
+        }
+        int bookId = header.getInt();
+        long tokenCount = footer.getLong();
+        long charCount = footer.getLong();
+        int dictionaryOffset = footer.getInt();
+        int excerptsOffset = footer.getInt();
+        if (dictionaryOffset < HEADER_SIZE || excerptsOffset < dictionaryOffset
+                || excerptsOffset > data.length - FOOTER_SIZE) {
+            throw new IOException("Malformed search segment");
+        }
+        return new Segment(data, bookId, tokenCount, charCount, dictionaryOffset, excerptsOffset);
+    }
+
+    int bookId() {
+        return bookId;
+    }
+
+    long tokenCount() {
+        return tokenCount;
+    }
+
+    long charCount() {
+        return charCount;
+    }
+
+    /**
+     * Visits every term of the dictionary, in order.
+     *
+     * @param visitor receives the terms
+     * @throws IOException if the segment is malformed
+     */
+    void forEachTerm(TermVisitor visitor) throws IOException {
+        DataInputStream in = section(dictionaryOffset, excerptsOffset);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String term = in.readUTF();
+            int frequency = (int) readVarLong(in);
+            long[] positions = new long[(int) readVarLong(in)];
+            long offset = 0;
+            for (int position = 0; position < positions.length; position++) {
+                offset += readVarLong(in);
+                positions[position] = offset;
+            }
+            visitor.accept(term, frequency, positions);
+        }
+    }
+
+    /**
+     * Reads the excerpts, to be kept without the rest of the segment.
+     *
+     * @return the excerpts of the book
+     * @throws IOException if the segment is malformed
+     */
+    Excerpts excerpts() throws IOException {
+        DataInputStream in = section(excerptsOffset, data.length - FOOTER_SIZE);
+        int ranges = (int) readVarLong(in);
+        long[] starts = new long[ranges];
+        int[] offsets = new int[ranges + 1];
+        long end = 0;
+        for (int range = 0; range < ranges; range++) {
+            starts[range] = end + readVarLong(in);
+            offsets[range + 1] = offsets[range] + (int) readVarLong(in);
+            end = starts[range] + offsets[range + 1] - offsets[range];
+        }
+        int blocks = (int) readVarLong(in);
+        int[] blockOffsets = new int[blocks + 1];
+        int[] rawLengths = new int[blocks];
+        byte[][] compressed = new byte[blocks][];
+        for (int block = 0; block < blocks; block++) {
+            blockOffsets[block + 1] = blockOffsets[block] + (int) readVarLong(in);
+            rawLengths[block] = (int) readVarLong(in);
+            compressed[block] = new byte[(int) readVarLong(in)];
+            in.readFully(compressed[block]);
+        }
+        if (blockOffsets[blocks] != offsets[ranges]) {
+            throw new IOException("Malformed search segment");
+        }
+        return new Excerpts(starts, offsets, blockOffsets, rawLengths, compressed);
+    }
+
+    private DataInputStream section(int start, int end) {
+        return new DataInputStream(new ByteArrayInputStream(data, start, end - start));
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed search segment");
+    }
+
+    /**
+     * The stored excerpts of a book, compressed in memory.
+     */
+    static final class Excerpts {
+        private final long[] starts;
+        private final int[] offsets;
+        private final int[] blockOffsets;
+        private final int[] rawLengths;
+        private final byte[][] blocks;
+
+        private Excerpts(long[] starts, int[] offsets, int[] blockOffsets, int[] rawLengths, byte[][] blocks) {
+            this.starts = starts;
+            this.offsets = offsets;
+            this.blockOffsets = blockOffsets;
+            this.rawLengths = rawLengths;
+            this.blocks = blocks;
+        }
+
+        /**
+         * Returns the stored text from an offset of the book.
+         *
+         * @param from the character offset in the book
+         * @param length the maximum number of characters
+         * @return the text, shorter than asked for where the excerpt ends, or empty if no excerpt holds
+         *         the offset
+         * @throws IOException if a block is corrupt
+         */
+        String text(long from, int length) throws IOException {
+            int range = floor(starts, from);
+            if (range < 0 || from - starts[range] >= offsets[range + 1] - offsets[range]) {
+                return "";
+            }
+            int first = offsets[range] + (int) (from - starts[range]);
+            int last = (int) Math.min(offsets[range + 1], (long) first + length);
+            StringBuilder text = new StringBuilder(last - first);
+            int block = floor(blockOffsets, first);
+            while (first < last) {
+                String chars = new String(FrameTable.inflate(ByteBuffer.wrap(blocks[block]), rawLengths[block]),
+                    StandardCharsets.UTF_8);
+                int skip = first - blockOffsets[block];
+                int taken = Math.min(chars.length() - skip, last - first);
+                text.append(chars, skip, skip + taken);
+                first += taken;
+                block++;
+            }
+            return text.toString();
+        }
+
+        /**
+         * Returns an estimate of the heap used by the excerpts.
+         *
+         * @return the estimated size in bytes
+         */
+        long estimatedSize() {
+            long size = 96 + starts.length * 12L + blocks.length * 28L;
+            for (byte[] block : blocks) {
+                size += block.length;
+            }
+            return size;
+        }
+
+        private static int floor(long[] values, long value) {
+            int index = Arrays.binarySearch(values, value);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        private static int floor(int[] values, int value) {
+            int index = Arrays.binarySearch(values, 0, values.length - 1, value);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+
+    /**
+     * Builds a segment from text fed in arbitrary chunks.
+     *
+     * <p>The text is tokenized as it arrives and not kept, apart from the last few characters an
+     * excerpt may start in and the excerpts themselves, which are compressed a block at a time. The term
+     * dictionary, with at most {@link #MAX_POSITIONS} offsets per term, is held in memory until
+     * {@link #finish()}.</p>
+     */
+    static final class Writer {
+        // Characters kept behind the text read: a term is emitted at most its length after it starts
+        private static final int RECENT_CHARS = EXCERPT_LEAD + Tokenizer.MAX_TERM_LENGTH + 2;
+
+        private final int bookId;
+        private final Tokenizer tokenizer;
+        private final Map<String, TermEntry> terms = new HashMap<>();
+        private final StringBuilder recent = new StringBuilder();
+        private final List<long[]> ranges = new ArrayList<>();
+        private final StringBuilder excerpt = new StringBuilder();
+        private final ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        private final DataOutputStream blockOut = new DataOutputStream(blocks);
+        private long recentStart;
+        private long rangeEnd;
+        private long capturedTo;
+        private int blockCount;
+        private long tokenCount;
+        private long charCount;
+
+        /**
+         * Starts building a segment.
+         *
+         * @param bookId the ID of the book
+         */
+        Writer(int bookId) {
+            this.bookId = bookId;
+            this.tokenizer = new Tokenizer(this::addTerm);
+        }
+
+        private void addTerm(String term, long offset) {
+            TermEntry entry = terms.get(term);
+            if (entry == null) {
+                entry = new TermEntry();
+                terms.put(term, entry);
+                addExcerpt(Math.max(0, offset - EXCERPT_LEAD));
+            }
+            if (entry.frequency < MAX_POSITIONS) {
+                entry.positions[entry.frequency] = offset;
+            }
+            entry.frequency++;
+            tokenCount++;
+        }
+
+        /**
+         * Feeds the next chunk of text.
+         *
+         * @param chars the buffer holding the chunk
+         * @param start the start of the chunk in the buffer
+         * @param length the length of the chunk
+         */
+        void update(char[] chars, int start, int length) {
+            // The chunk is kept until it is tokenized, so the excerpts of its terms can be copied
+            recent.append(chars, start, length);
+            tokenizer.update(chars, start, length);
+            charCount += length;
+            capture();
+            int dropped = recent.length() - RECENT_CHARS;
+            if (dropped > 0) {
+                recent.delete(0, dropped);
+                recentStart += dropped;
+            }
+        }
+
+        /**
+         * Starts or extends the range of excerpts with the excerpt starting at an offset, which is never
+         * before the start of the previous excerpt.
+         */
+        private void addExcerpt(long start) {
+            if (ranges.isEmpty() || start > rangeEnd) {
+                // The previous range ended before the text read so far, so it is complete
+                capture();
+                ranges.add(new long[] {start, 0});
+                capturedTo = start;
+            }
+            rangeEnd = Math.max(rangeEnd, start + EXCERPT_CHARS);
+            capture();
+        }
+
+        /**
+         * Copies the text read so far of the current range to the excerpts.
+         */
+        private void capture() {
+            long available = recentStart + recent.length();
+            long to = Math.min(rangeEnd, available);
+            if (ranges.isEmpty() || to <= capturedTo) {
+                return;
+            }
+            excerpt.append(recent, (int) (capturedTo - recentStart), (int) (to - recentStart));
+            ranges.get(ranges.size() - 1)[1] += to - capturedTo;
+            capturedTo = to;
+            if (excerpt.length() >= EXCERPT_BLOCK_CHARS) {
+                flushBlock(false);
+            }
+        }
+
+        /**
+         * Compresses the excerpt text collected so far into a block, keeping a trailing high surrogate
+         * for the next block unless it is the last one.
+         */
+        private void flushBlock(boolean last) {
+            int chars = excerpt.length();
+            if (!last && chars > 0 && Character.isHighSurrogate(excerpt.charAt(chars - 1))) {
+                chars--;
+            }
+            if (chars == 0) {
+                return;
+            }
+            byte[] raw = excerpt.substring(0, chars).getBytes(StandardCharsets.UTF_8);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                byte[] buffer = new byte[4096];
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } finally {
+                deflater.end();
+            }
+            try {
+                writeVarLong(blockOut, chars);
+                writeVarLong(blockOut, raw.length);
+                writeVarLong(blockOut, compressed.size());
+                compressed.writeTo(blockOut);
+            } catch (IOException e) {
+                // A ByteArrayOutputStream does not throw
+                throw new IllegalStateException(e);
+            }
+            blockCount++;
+            excerpt.delete(0, chars);
+        }
+
+        /**
+         * Serializes the segment.
+         *
+         * @return the segment to store
+         * @throws IOException if the dictionary cannot be serialized
+         */
+        byte[] finish() throws IOException {
+            tokenizer.finish();
+            capture();
+            flushBlock(true);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(bookId);
+            int dictionaryOffset = out.size();
+            out.writeInt(terms.size());
+            for (Map.Entry<String, TermEntry> term : new TreeMap<>(terms).entrySet()) {
+                TermEntry entry = term.getValue();
+                int stored = Math.min(entry.frequency, MAX_POSITIONS);
+                out.writeUTF(term.getKey());
+                writeVarLong(out, entry.frequency);
+                writeVarLong(out, stored);
+                long previous = 0;
+                for (int position = 0; position < stored; position++) {
+                    writeVarLong(out, entry.positions[position] - previous);
+                    previous = entry.positions[position];
+                }
+            }
+            int excerptsOffset = out.size();
+            writeVarLong(out, ranges.size());
+            long end = 0;
+            for (long[] range : ranges) {
+                writeVarLong(out, range[0] - end);
+                writeVarLong(out, range[1]);
+                end = range[0] + range[1];
+            }
+            writeVarLong(out, blockCount);
+            blocks.writeTo(out);
+            out.writeLong(tokenCount);
+            out.writeLong(charCount);
+            out.writeInt(dictionaryOffset);
+            out.writeInt(excerptsOffset);
+            out.writeInt(MAGIC);
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Frequency and first positions of a term while a segment is built.
+     */
+    private static final class TermEntry {
+        private final long[] positions = new long[MAX_POSITIONS];
+        private int frequency;
+    }
+}
@@ -0,0 +1,120 @@
+package com.itp.DigLib.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text fed in arbitrary chunks into search terms.
+ *
+ * <p>A term is a run of letters and digits, lower-cased code point by code point. Terms shorter than
+ * {@link #MIN_TERM_LENGTH} or longer than {@link #MAX_TERM_LENGTH} characters are dropped. The offset
+ * of a term is the UTF-16 character offset of its first character, which is how pages are counted.</p>
+ */
+final class Tokenizer {
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 40;
+
+    private final TermConsumer consumer;
+    private final StringBuilder term = new StringBuilder();
+    private long offset;
+    private long termStart;
+    private char pendingHigh;
+    private boolean tooLong;
+
+    /**
+     * Receives the terms of the text in order.
+     */
+    @FunctionalInterface
+    interface TermConsumer {
+        /**
+         * Accepts a term.
+         *
+         * @param term the lower-cased term
+         * @param offset the character offset of the term in the text
+         */
+        void accept(String term, long offset);
+    }
+
+    Tokenizer(TermConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Returns the distinct terms of a query, in the order they appear.
+     *
+     * @param text the query text
+     * @return the terms
+     */
+    static List<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        Tokenizer tokenizer = new Tokenizer((term, offset) -> terms.add(term));
+        tokenizer.update(text.toCharArray(), 0, text.length());
+        tokenizer.finish();
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Feeds the next chunk of text.
+     *
+     * @param chars the buffer holding the chunk
+     * @param start the start of the chunk in the buffer
+     * @param length the length of the chunk
+     */
+    void update(char[] chars, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            char c = chars[i];
+            if (pendingHigh != 0) {
+                char high = pendingHigh;
+                pendingHigh = 0;
+                if (Character.isLowSurrogate(c)) {
+                    accept(Character.toCodePoint(high, c), 2);
+                    continue;
+                }
+                accept(high, 1);
+            }
+            if (Character.isHighSurrogate(c)) {
+                pendingHigh = c;
+            } else {
+                accept(c, 1);
+            }
+        }
+    }
+
+    /**
+     * Ends the text, emitting the last term.
+     */
+    void finish() {
+        if (pendingHigh != 0) {
+            accept(pendingHigh, 1);
+            pendingHigh = 0;
+        }
+        endTerm();
+    }
+
+    private void accept(int codePoint, int chars) {
+        if (Character.isLetterOrDigit(codePoint)) {
+            if (term.length() == 0 && !tooLong) {
+                termStart = offset;
+            }
+            if (term.length() + chars > MAX_TERM_LENGTH) {
+                tooLong = true;
+                term.setLength(0);
+            } else if (!tooLong) {
+                term.appendCodePoint(Character.toLowerCase(codePoint));
+            }
+        } else {
+            endTerm();
+        }
+        offset += chars;
+    }
+
+    private void endTerm() {
+        if (!tooLong && term.length() >= MIN_TERM_LENGTH) {
+            consumer.accept(term.toString(), termStart);
+        }
+        term.setLength(0);
+        tooLong = false;
+    }
+}
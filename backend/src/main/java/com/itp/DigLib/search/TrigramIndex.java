@@ -0,0 +1,378 @@
+package com.itp.DigLib.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory trigram index over the title, author and genre of every book.
+ *
+ * <p>A substring filter like {@code title=ring} cannot use a database index, so the database has to
+ * scan every book. This index maps every three-character sequence of the metadata to the IDs of the
+ * books containing it; the books containing a filter string are among those containing all of its
+ * trigrams. The index only narrows the search to candidate IDs, and the database still applies the
+ * filter to them, so entries of changed or deleted books cost nothing but a few extra candidates. That
+ * keeps updates cheap: changed metadata is added without removing the old trigrams, which are only
+ * dropped when the book is deleted on this instance or the application restarts.</p>
+ *
+ * <p>Missing entries are another matter: a book missing from the index would never be a candidate.
+ * Books added on this instance are indexed as they are saved, and {@link BookIndexLoader} picks up the
+ * books added by other instances periodically. Until then, only the books up to
+ * {@link #indexedUpTo()} are known to be indexed, so queries have to match the books past it without
+ * the index.</p>
+ *
+ * <p>Text is lower-cased and stripped of accents before it is split, so the candidates include the
+ * matches of an accent-insensitive database collation.</p>
+ */
+@Component
+public class TrigramIndex {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<Long, IdList> lists = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxCandidates;
+    private volatile boolean ready;
+    private volatile int indexedUpTo = Integer.MIN_VALUE;
+    // Books added past indexedUpTo, so a periodic refresh reading them again does not add them twice
+    private final Set<Integer> unsettled = new HashSet<>();
+
+    /**
+     * A metadata field of a book.
+     */
+    public enum Field {
+        TITLE, AUTHOR, GENRE
+    }
+
+    /**
+     * Constructs a new TrigramIndex.
+     *
+     * @param maxCandidates the largest number of candidates worth returning instead of scanning
+     */
+    public TrigramIndex(@Value("${book.metadata.index.max-candidates:10000}") int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Adds the metadata of a book.
+     *
+     * @param id the ID of the book
+     * @param title the title of the book
+     * @param author the author of the book
+     * @param genre the genre of the book
+     */
+    public void add(int id, String title, String author, String genre) {
+        lock.writeLock().lock();
+        try {
+            addBook(id, title, author, genre);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the metadata of a book unless it was added since the index was last complete.
+     *
+     * @param id the ID of the book
+     * @param title the title of the book
+     * @param author the author of the book
+     * @param genre the genre of the book
+     * @return true if the book was added
+     */
+    public boolean addIfMissing(int id, String title, String author, String genre) {
+        lock.writeLock().lock();
+        try {
+            if (id > indexedUpTo && unsettled.contains(id)) {
+                return false;
+            }
+            addBook(id, title, author, genre);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addBook(int id, String title, String author, String genre) {
+        for (long key : keys(title, author, genre)) {
+            lists.computeIfAbsent(key, k -> new IdList()).add(id);
+        }
+        // Not tracked while the index is loaded, when the load itself reads every book once
+        if (ready && id > indexedUpTo) {
+            unsettled.add(id);
+        }
+    }
+
+    /**
+     * Removes a book with the given metadata.
+     *
+     * @param id the ID of the book
+     * @param title the title of the book
+     * @param author the author of the book
+     * @param genre the genre of the book
+     */
+    public void remove(int id, String title, String author, String genre) {
+        lock.writeLock().lock();
+        try {
+            for (long key : keys(title, author, genre)) {
+                IdList list = lists.get(key);
+                if (list == null) {
+                    continue;
+                }
+                IdList remaining = list.without(id);
+                if (remaining.size() == 0) {
+                    lists.remove(key);
+                } else {
+                    lists.put(key, remaining);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the index as complete, after the existing books have been added.
+     */
+    public void markReady() {
+        ready = true;
+    }
+
+    /**
+     * Records that every book up to an ID has been added, whichever instance saved it.
+     *
+     * @param id the highest ID up to which the index is complete
+     */
+    public void markIndexedUpTo(int id) {
+        lock.writeLock().lock();
+        try {
+            indexedUpTo = id;
+            unsettled.removeIf(added -> added <= id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the highest ID up to which every book is in the index. Books with higher IDs saved by
+     * other instances may not have been added yet.
+     *
+     * @return the highest ID up to which the index is complete
+     */
+    public int indexedUpTo() {
+        return indexedUpTo;
+    }
+
+    /**
+     * Returns whether the index holds every book and can be used for queries.
+     *
+     * @return true if the index is complete
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the IDs of the books that may contain a filter string in a field.
+     *
+     * @param field the field to filter on
+     * @param filter the filter string
+     * @return the sorted candidate IDs, a superset of the matching books up to {@link #indexedUpTo()},
+     *         or null if the index cannot narrow the search: the index is not loaded yet, the filter
+     *         is shorter than three characters, or more than the configured number of books would be
+     *         candidates
+     */
+    public int[] candidates(Field field, String filter) {
+        return filter != null ? candidates(Map.of(field, filter)) : null;
+    }
+
+    /**
+     * Returns the IDs of the books that may contain every filter string in its field.
+     *
+     * @param filters the filter strings by field
+     * @return the sorted candidate IDs, a superset of the matching books up to {@link #indexedUpTo()},
+     *         or null if the index cannot narrow the search
+     */
+    public int[] candidates(Map<Field, String> filters) {
+        if (!ready) {
+            return null;
+        }
+        Set<Long> keys = new HashSet<>();
+        for (Map.Entry<Field, String> filter : filters.entrySet()) {
+            if (filter.getValue() != null) {
+                addKeys(keys, filter.getKey(), filter.getValue());
+            }
+        }
+        if (keys.isEmpty()) {
+            return null;
+        }
+        List<IdList> matching = new ArrayList<>(keys.size());
+        lock.readLock().lock();
+        try {
+            for (long key : keys) {
+                IdList list = lists.get(key);
+                if (list == null) {
+                    return new int[0];
+                }
+                matching.add(list);
+            }
+            // Start from the rarest trigram, so every intersection works on the smallest set
+            matching.sort(Comparator.comparingInt(IdList::size));
+            int[] candidates = matching.get(0).toArray();
+            for (int i = 1; i < matching.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, matching.get(i).toArray());
+            }
+            return candidates.length <= maxCandidates ? candidates : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct trigrams in the index.
+     *
+     * @return the number of trigrams
+     */
+    public int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return lists.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalizes text the way it is indexed.
+     *
+     * @param text the text
+     * @return the lower-cased text without accents
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Long> keys(String title, String author, String genre) {
+        Set<Long> keys = new HashSet<>();
+        addKeys(keys, Field.TITLE, title);
+        addKeys(keys, Field.AUTHOR, author);
+        addKeys(keys, Field.GENRE, genre);
+        return keys;
+    }
+
+    private static void addKeys(Set<Long> keys, Field field, String text) {
+        if (text == null) {
+            return;
+        }
+        String normalized = normalize(text);
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            keys.add((long) field.ordinal() << 48
+                | (long) normalized.charAt(i) << 32
+                | (long) normalized.charAt(i + 1) << 16
+                | normalized.charAt(i + 2));
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * The IDs of the books containing one trigram, delta encoded as variable-length integers.
+     *
+     * <p>Books are mostly added in ID order, so deltas are small and positive. Deltas are zig-zag
+     * encoded so an out-of-order ID can still be appended; the list is then sorted when decoded.</p>
+     */
+    static final class IdList {
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int last;
+        private boolean sorted = true;
+
+        void add(int id) {
+            if (count > 0 && id == last) {
+                return;
+            }
+            int delta = id - last;
+            if (count > 0 && delta < 0) {
+                sorted = false;
+            }
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            int value = (delta << 1) ^ (delta >> 31);
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+            last = id;
+            count++;
+        }
+
+        int size() {
+            return count;
+        }
+
+        int[] toArray() {
+            int[] ids = new int[count];
+            int position = 0;
+            int id = 0;
+            for (int i = 0; i < count; i++) {
+                int value = 0;
+                int shift = 0;
+                int b;
+                do {
+                    b = data[position++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                id += (value >>> 1) ^ -(value & 1);
+                ids[i] = id;
+            }
+            if (sorted) {
+                return ids;
+            }
+            Arrays.sort(ids);
+            return Arrays.stream(ids).distinct().toArray();
+        }
+
+        IdList without(int id) {
+            IdList remaining = new IdList();
+            for (int other : toArray()) {
+                if (other != id) {
+                    remaining.add(other);
+                }
+            }
+            return remaining;
+        }
+    }
+}
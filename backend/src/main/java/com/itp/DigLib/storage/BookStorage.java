@@ -0,0 +1,123 @@
+package com.itp.DigLib.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Object storage holding book contents and their sidecar files, addressed by slash-separated keys.
+ *
+ * <p>Implementations must support reading a byte range of an object without reading the rest of it,
+ * which is what page reads are built on.</p>
+ */
+public interface BookStorage {
+
+    /**
+     * Stores an object, replacing any existing object with the same key.
+     * The content is streamed, so implementations must not buffer the whole object in memory.
+     *
+     * @param key the key of the object
+     * @param content the content to store, read until the end but not closed
+     * @param contentType the media type of the content
+     * @throws IOException if an I/O error occurs
+     */
+    void put(String key, InputStream content, String contentType) throws IOException;
+
+    /**
+     * Reads a whole object.
+     *
+     * @param key the key of the object
+     * @return the content of the object, or null if it does not exist
+     * @throws IOException if an I/O error occurs
+     */
+    byte[] get(String key) throws IOException;
+
+    /**
+     * Reads a byte range of an object.
+     *
+     * @param key the key of the object
+     * @param start the first byte to read
+     * @param end the byte just past the last byte to read
+     * @return a buffer holding exactly the requested bytes
+     * @throws IOException if an I/O error occurs or the object is shorter than the range
+     */
+    ByteBuffer getRange(String key, long start, long end) throws IOException;
+
+    /**
+     * Opens an object for sequential reading.
+     *
+     * @param key the key of the object
+     * @return a stream over the content of the object
+     * @throws IOException if an I/O error occurs or the object does not exist
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Opens a byte range of an object for sequential reading, without buffering the range in memory.
+     *
+     * @param key the key of the object
+     * @param start the first byte to read
+     * @param end the byte just past the last byte to read
+     * @return a stream over the requested bytes
+     * @throws IOException if an I/O error occurs or the object does not exist
+     */
+    InputStream openRange(String key, long start, long end) throws IOException;
+
+    /**
+     * Returns the size of an object.
+     *
+     * @param key the key of the object
+     * @return the size of the object in bytes, or -1 if it does not exist
+     * @throws IOException if an I/O error occurs
+     */
+    long size(String key) throws IOException;
+
+    /**
+     * Deletes an object.
+     *
+     * @param key the key of the object
+     * @return true if the object was deleted, false if it did not exist
+     */
+    boolean delete(String key);
+
+    /**
+     * Deletes several objects. Implementations backed by a remote service should send the deletes
+     * in batches rather than one request per object.
+     *
+     * @param keys the keys of the objects
+     * @return for every key in order, true if the object was deleted, false if it did not exist
+     */
+    default List<Boolean> deleteAll(List<String> keys) {
+        List<Boolean> deleted = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            deleted.add(delete(key));
+        }
+        return deleted;
+    }
+
+    /**
+     * Returns whether an object exists.
+     *
+     * @param key the key of the object
+     * @return true if the object exists
+     */
+    boolean exists(String key);
+
+    /**
+     * Lists the keys of all objects whose key starts with the given prefix.
+     *
+     * @param prefix the key prefix
+     * @return the matching keys
+     */
+    List<String> list(String prefix);
+
+    /**
+     * Returns a human-readable location of an object, used for logging.
+     *
+     * @param key the key of the object
+     * @return the location of the object
+     */
+    String locationOf(String key);
+}
@@ -0,0 +1,140 @@
+package com.itp.DigLib.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+
+/**
+ * {@link BookStorage} backed by a Google Cloud Storage bucket.
+ */
+public class GcsBookStorage implements BookStorage {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Cloud Storage accepts at most 100 calls in one batch request
+    static final int DELETE_BATCH_SIZE = 100;
+
+    private final Storage storage;
+    private final String bucketName;
+    private final int uploadChunkSize;
+
+    /**
+     * Constructs a new GcsBookStorage.
+     *
+     * @param storage the Google Cloud Storage client
+     * @param bucketName the name of the bucket holding the objects
+     * @param uploadChunkSize the number of bytes buffered per resumable upload request
+     */
+    public GcsBookStorage(Storage storage, String bucketName, int uploadChunkSize) {
+        this.storage = storage;
+        this.bucketName = bucketName;
+        this.uploadChunkSize = uploadChunkSize;
+    }
+
+    @Override
+    public void put(String key, InputStream content, String contentType) throws IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(blobId(key)).setContentType(contentType).build();
+        // Closing the channel finalizes the object, so it is only closed once the whole content was written.
+        // On failure the resumable upload is abandoned instead: it never becomes an object and expires.
+        WriteChannel writer = storage.writer(blobInfo);
+        writer.setChunkSize(uploadChunkSize);
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+            while (chunk.hasRemaining()) {
+                writer.write(chunk);
+            }
+        }
+        writer.close();
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Blob blob = storage.get(blobId(key));
+        return blob != null ? blob.getContent() : null;
+    }
+
+    @Override
+    public ByteBuffer getRange(String key, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        try (ReadChannel reader = storage.reader(blobId(key))) {
+            reader.seek(start);
+            reader.limit(end);
+            while (buffer.hasRemaining()) {
+                if (reader.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of content in " + key);
+                }
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public InputStream open(String key) {
+        return Channels.newInputStream(storage.reader(blobId(key)));
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        ReadChannel reader = storage.reader(blobId(key));
+        reader.seek(start);
+        reader.limit(end);
+        return Channels.newInputStream(reader);
+    }
+
+    @Override
+    public long size(String key) {
+        Blob blob = storage.get(blobId(key));
+        return blob != null ? blob.getSize() : -1;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return storage.delete(blobId(key));
+    }
+
+    @Override
+    public List<Boolean> deleteAll(List<String> keys) {
+        List<Boolean> deleted = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            List<BlobId> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+            for (String key : keys.subList(from, Math.min(keys.size(), from + DELETE_BATCH_SIZE))) {
+                batch.add(blobId(key));
+            }
+            deleted.addAll(storage.delete(batch));
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return storage.get(blobId(key)) != null;
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        List<String> keys = new ArrayList<>();
+        for (Blob blob : storage.list(bucketName, Storage.BlobListOption.prefix(prefix)).iterateAll()) {
+            keys.add(blob.getName());
+        }
+        return keys;
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return String.format("gs://%s/%s", bucketName, key);
+    }
+
+    private BlobId blobId(String key) {
+        return BlobId.of(bucketName, key);
+    }
+}
@@ -0,0 +1,89 @@
+package com.itp.DigLib.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link BookStorage} keeping objects in the heap, for load tests on one machine.
+ *
+ * <p>Unlike the other backends it holds every object in memory, and the objects are lost when the
+ * application stops. Combine it with {@link SimulatedLatencyBookStorage} to get the response times of
+ * a remote store.</p>
+ */
+public class InMemoryBookStorage implements BookStorage {
+    private final ConcurrentMap<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String key, InputStream content, String contentType) throws IOException {
+        objects.put(key, content.readAllBytes());
+    }
+
+    @Override
+    public byte[] get(String key) {
+        byte[] content = objects.get(key);
+        return content != null ? content.clone() : null;
+    }
+
+    @Override
+    public ByteBuffer getRange(String key, long start, long end) throws IOException {
+        byte[] content = require(key);
+        if (end > content.length) {
+            throw new IOException("Unexpected end of content in " + key);
+        }
+        return ByteBuffer.wrap(content, (int) start, (int) (end - start)).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return new ByteArrayInputStream(require(key));
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        byte[] content = require(key);
+        int from = (int) Math.min(start, content.length);
+        return new ByteArrayInputStream(content, from, (int) Math.min(end, content.length) - from);
+    }
+
+    @Override
+    public long size(String key) {
+        byte[] content = objects.get(key);
+        return content != null ? content.length : -1;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return objects.remove(key) != null;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return objects.containsKey(key);
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        return objects.keySet().stream()
+            .filter(key -> key.startsWith(prefix))
+            .sorted()
+            .toList();
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return "memory:" + key;
+    }
+
+    private byte[] require(String key) throws IOException {
+        byte[] content = objects.get(key);
+        if (content == null) {
+            throw new IOException("No such object: " + key);
+        }
+        return content;
+    }
+}
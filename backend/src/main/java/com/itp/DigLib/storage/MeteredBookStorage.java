@@ -0,0 +1,208 @@
+package com.itp.DigLib.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link BookStorage} decorator recording the latency and size of every storage request.
+ *
+ * <p>{@code diglib.storage.requests} times each call, tagged with the backend, the operation and
+ * whether it succeeded. {@code diglib.storage.bytes} records the bytes read or written per call,
+ * tagged with the backend and the direction. Streams returned by {@code open} and {@code openRange}
+ * are timed until they are opened, and their bytes are recorded when they are closed.</p>
+ */
+public class MeteredBookStorage implements BookStorage {
+    private final BookStorage delegate;
+    private final MeterRegistry registry;
+    private final String backend;
+    private final DistributionSummary bytesRead;
+    private final DistributionSummary bytesWritten;
+
+    /**
+     * A storage call that may fail with an I/O error.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    private interface StorageCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Constructs a new MeteredBookStorage.
+     *
+     * @param delegate the storage doing the work
+     * @param registry the registry receiving the metrics
+     * @param backend the name of the backend, used as a tag
+     */
+    public MeteredBookStorage(BookStorage delegate, MeterRegistry registry, String backend) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.backend = backend;
+        this.bytesRead = bytes("read");
+        this.bytesWritten = bytes("written");
+    }
+
+    private DistributionSummary bytes(String direction) {
+        return DistributionSummary.builder("diglib.storage.bytes")
+            .baseUnit("bytes")
+            .tag("backend", backend)
+            .tag("direction", direction)
+            .register(registry);
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("diglib.storage.requests")
+            .tag("backend", backend)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    private <T> T time(String operation, StorageCall<T> call) throws IOException {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T timeUnchecked(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream content, String contentType) throws IOException {
+        CountingInputStream counted = new CountingInputStream(content, null);
+        time("put", () -> {
+            delegate.put(key, counted, contentType);
+            return null;
+        });
+        bytesWritten.record(counted.count);
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        byte[] content = time("get", () -> delegate.get(key));
+        if (content != null) {
+            bytesRead.record(content.length);
+        }
+        return content;
+    }
+
+    @Override
+    public ByteBuffer getRange(String key, long start, long end) throws IOException {
+        ByteBuffer range = time("getRange", () -> delegate.getRange(key, start, end));
+        bytesRead.record(range.remaining());
+        return range;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return new CountingInputStream(time("open", () -> delegate.open(key)), bytesRead);
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        return new CountingInputStream(time("openRange", () -> delegate.openRange(key, start, end)), bytesRead);
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return time("size", () -> delegate.size(key));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return timeUnchecked("delete", () -> delegate.delete(key));
+    }
+
+    @Override
+    public List<Boolean> deleteAll(List<String> keys) {
+        return timeUnchecked("deleteAll", () -> delegate.deleteAll(keys));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return timeUnchecked("exists", () -> delegate.exists(key));
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        return timeUnchecked("list", () -> delegate.list(prefix));
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return delegate.locationOf(key);
+    }
+
+    /**
+     * Counts the bytes read through a stream, and records them when the stream is closed.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final DistributionSummary summary;
+        private long count;
+        private boolean closed;
+
+        CountingInputStream(InputStream in, DistributionSummary summary) {
+            super(in);
+            this.summary = summary;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed && summary != null) {
+                summary.record(count);
+            }
+            closed = true;
+            super.close();
+        }
+    }
+}
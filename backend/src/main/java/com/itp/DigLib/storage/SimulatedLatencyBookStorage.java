@@ -0,0 +1,171 @@
+package com.itp.DigLib.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link BookStorage} decorator delaying every request like a remote object store.
+ *
+ * <p>Each request waits for a fixed latency before it reaches the delegate, and for as long as its
+ * bytes take to transfer at the configured bandwidth. Streams are slowed down as they are read, so a
+ * reader only pays for the bytes it consumes. The delay is a sleep, which does not hold a carrier
+ * thread when the caller runs on a virtual thread.</p>
+ */
+public class SimulatedLatencyBookStorage implements BookStorage {
+    private final BookStorage delegate;
+    private final Duration latency;
+    private final long bytesPerSecond;
+
+    /**
+     * Constructs a new SimulatedLatencyBookStorage.
+     *
+     * @param delegate the storage doing the work
+     * @param latency the delay added to every request
+     * @param bytesPerSecond the simulated bandwidth of one request, or 0 for no bandwidth limit
+     */
+    public SimulatedLatencyBookStorage(BookStorage delegate, Duration latency, long bytesPerSecond) {
+        if (latency.isNegative() || bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Latency and bandwidth cannot be negative");
+        }
+        this.delegate = delegate;
+        this.latency = latency;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    private void delay(Duration duration) throws InterruptedIOException {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during simulated storage delay");
+        }
+    }
+
+    private Duration transfer(long bytes) {
+        return bytesPerSecond == 0 ? Duration.ZERO : Duration.ofNanos(bytes * 1_000_000_000L / bytesPerSecond);
+    }
+
+    // delete, exists and list cannot throw IOException, so an interrupt only ends their delay early
+    private void delayUnchecked() {
+        try {
+            delay(latency);
+        } catch (InterruptedIOException e) {
+            // The interrupt status is kept for the caller
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream content, String contentType) throws IOException {
+        delay(latency);
+        delegate.put(key, new ThrottledInputStream(content), contentType);
+    }
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        delay(latency);
+        byte[] content = delegate.get(key);
+        if (content != null) {
+            delay(transfer(content.length));
+        }
+        return content;
+    }
+
+    @Override
+    public ByteBuffer getRange(String key, long start, long end) throws IOException {
+        delay(latency);
+        ByteBuffer range = delegate.getRange(key, start, end);
+        delay(transfer(range.remaining()));
+        return range;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        delay(latency);
+        return new ThrottledInputStream(delegate.open(key));
+    }
+
+    @Override
+    public InputStream openRange(String key, long start, long end) throws IOException {
+        delay(latency);
+        return new ThrottledInputStream(delegate.openRange(key, start, end));
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        delay(latency);
+        return delegate.size(key);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        delayUnchecked();
+        return delegate.delete(key);
+    }
+
+    @Override
+    public List<Boolean> deleteAll(List<String> keys) {
+        // One batched request, like the remote stores
+        delayUnchecked();
+        return delegate.deleteAll(keys);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        delayUnchecked();
+        return delegate.exists(key);
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        delayUnchecked();
+        return delegate.list(prefix);
+    }
+
+    @Override
+    public String locationOf(String key) {
+        return delegate.locationOf(key);
+    }
+
+    /**
+     * Delays every read by the transfer time of the bytes it returns.
+     */
+    private final class ThrottledInputStream extends FilterInputStream {
+
+        private ThrottledInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                delay(transfer(1));
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                delay(transfer(read));
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            delay(transfer(skipped));
+            return skipped;
+        }
+    }
+}
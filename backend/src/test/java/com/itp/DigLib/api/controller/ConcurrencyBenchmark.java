@@ -0,0 +1,143 @@
+package com.itp.DigLib.api.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how throughput and latency of a running backend grow with the number of concurrent clients.
+ *
+ * <p>Not a test: start the backend once with {@code spring.threads.virtual.enabled=false} and once
+ * with {@code true}, and run this against each with the base URL, a comma-separated list of book IDs
+ * and the seconds to spend per step. Each client alternates between a content page (a storage read
+ * unless cached) and the book's metadata (a database read), at concurrency doubling from 16 to 2048.
+ * With platform threads throughput stops growing near Tomcat's 200 worker threads; with virtual
+ * threads it grows until the storage, the database pool or the CPU is saturated. Use books with many
+ * pages, so most pages miss the content cache.</p>
+ */
+public final class ConcurrencyBenchmark {
+    private static final int MIN_CLIENTS = 16;
+    private static final int MAX_CLIENTS = 2048;
+    private static final int PAGES = 500;
+
+    private ConcurrencyBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the base URL, the book IDs, and optionally the seconds per step (default 20)
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: ConcurrencyBenchmark <base url> <id,id,...> [seconds per step]");
+            return;
+        }
+        String baseUrl = args[0].replaceAll("/+$", "");
+        int[] ids = Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray();
+        Duration step = Duration.ofSeconds(args.length > 2 ? Integer.parseInt(args[2]) : 20);
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+        // Warm up the JIT, the connection pools and the caches of the server
+        run(client, baseUrl, ids, MIN_CLIENTS, step);
+
+        System.out.printf("%8s %10s %10s %10s %10s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        double best = 0;
+        int bestClients = 0;
+        for (int clients = MIN_CLIENTS; clients <= MAX_CLIENTS; clients *= 2) {
+            Result result = run(client, baseUrl, ids, clients, step);
+            double throughput = result.latencies.length / (step.toNanos() / 1e9);
+            System.out.printf("%8d %10.1f %10.1f %10.1f %10.1f %8d%n", clients, throughput,
+                result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.errors);
+            if (throughput > best * 1.05) {
+                best = throughput;
+                bestClients = clients;
+            }
+        }
+        System.out.printf("Throughput stops growing at %d clients (%.1f req/s)%n", bestClients, best);
+    }
+
+    private static Result run(HttpClient client, String baseUrl, int[] ids, int clients, Duration step)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + step.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> perClient = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            long[][] latencies = {new long[256]};
+            int[] count = {0};
+            Thread thread = Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                boolean content = random.nextBoolean();
+                while (System.nanoTime() < deadline) {
+                    int id = ids[random.nextInt(ids.length)];
+                    String path = content
+                        ? "/books/" + id + "/content?page=" + random.nextInt(PAGES) + "&pageSize=1000"
+                        : "/books/" + id;
+                    content = !content;
+                    long start = System.nanoTime();
+                    if (!get(client, baseUrl + path)) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (count[0] == latencies[0].length) {
+                        latencies[0] = Arrays.copyOf(latencies[0], count[0] * 2);
+                    }
+                    latencies[0][count[0]++] = System.nanoTime() - start;
+                }
+                synchronized (perClient) {
+                    perClient.add(Arrays.copyOf(latencies[0], count[0]));
+                }
+            });
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static boolean get(HttpClient client, String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(60))
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            // A page past the end of a short book is a 400, which still cost the server a read
+            return response.statusCode() < 500;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The sorted latencies in nanoseconds and the number of failed requests of one step.
+     */
+    private record Result(long[] latencies, long errors) {
+        double percentile(double fraction) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(fraction * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
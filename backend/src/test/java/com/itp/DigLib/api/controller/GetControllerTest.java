@@ -1,33 +1,69 @@
 package com.itp.DigLib.api.controller;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Optional;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 import static org.mockito.Mockito.doThrow;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.BookFacets;
+import com.itp.DigLib.api.model.BookFilter;
+import com.itp.DigLib.api.model.BookSlice;
 import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.api.service.EncodedPage;
+import com.itp.DigLib.db.BookCursor;
 import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.api.model.ContentCacheStats;
 import com.itp.DigLib.api.model.Genres;
+import com.itp.DigLib.api.model.PageMode;
 import com.itp.DigLib.api.model.PagedContent;
+import com.itp.DigLib.search.FacetCounts;
+import com.itp.DigLib.search.TrigramIndex;
 
 public class GetControllerTest {
 
@@ -43,11 +79,21 @@ public class GetControllerTest {
     @Mock
     private Genres genres;
 
+    @Mock
+    private TrigramIndex trigramIndex;
+
+    @Mock
+    private FacetCounts facetCounts;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
     }
 
+    private static EncodedPage encode(PagedContent page) throws IOException {
+        return EncodedPage.of(new ObjectMapper().writeValueAsBytes(page));
+    }
+
     @Test
     void testGetAllBooks() {
         Book book1 = new Book();
@@ -58,7 +104,7 @@ public class GetControllerTest {
         Page<Book> page = new PageImpl<>(Arrays.asList(book1, book2));
         when(bookRepo.findAll(any(PageRequest.class))).thenReturn(page);
 
-        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc", null, null, null);
+        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc", new BookFilter()).getBody();
 
         assertEquals(2, result.getContent().size());
         verify(bookRepo).findAll(any(PageRequest.class));
@@ -70,7 +116,7 @@ public class GetControllerTest {
         book.setTitle("Test Book");
         when(bookRepo.findById(1)).thenReturn(Optional.of(book));
 
-        ResponseEntity<Book> response = getController.getBook(1);
+        ResponseEntity<Book> response = getController.getBook(1, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Test Book", response.getBody().getTitle());
@@ -82,26 +128,185 @@ public class GetControllerTest {
         book.setTitle("Test Book");
         when(bookRepo.findById(1)).thenReturn(Optional.of(book));
 
-        PagedContent pagedContent = new PagedContent("test content", 0, 1, 12, 12);
-        when(bookContentService.readBookContent(anyString(), anyInt(), any())).thenReturn(pagedContent);
+        EncodedPage encoded = encode(new PagedContent("test content", 0, 1, 12, 12));
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), any(), any())).thenReturn(encoded);
 
-        ResponseEntity<PagedContent> response = getController.getBookContent(1, 0, null);
+        ResponseEntity<byte[]> response = getController.getBookContent(1, 0, null, "char", null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("test content", response.getBody().getContent());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertTrue(new String(response.getBody(), StandardCharsets.UTF_8).contains("\"content\":\"test content\""));
 
         // Test case where book is not found
         when(bookRepo.findById(2)).thenReturn(Optional.empty());
-        ResponseEntity<PagedContent> notFoundResponse = getController.getBookContent(2, 0, null);
+        ResponseEntity<byte[]> notFoundResponse = getController.getBookContent(2, 0, null, "char", null, null);
         assertEquals(HttpStatus.NOT_FOUND, notFoundResponse.getStatusCode());
 
         // Test case where IOException is thrown
         when(bookRepo.findById(3)).thenReturn(Optional.of(book));
-        when(bookContentService.readBookContent(anyString(), anyInt(), any())).thenThrow(new IOException("Test IOException"));
-        ResponseEntity<PagedContent> errorResponse = getController.getBookContent(3, 0, null);
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), any(), any())).thenThrow(new IOException("Test IOException"));
+        ResponseEntity<byte[]> errorResponse = getController.getBookContent(3, 0, null, "char", null, null);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, errorResponse.getStatusCode());
     }
 
+    @Test
+    void testGetBookContentByWords() throws Exception {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+        EncodedPage encoded = encode(new PagedContent("whole words ", 0, 2, 12, 20));
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), any(), any())).thenReturn(encoded);
+
+        ResponseEntity<byte[]> response = getController.getBookContent(1, 0, 15, "Word", null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(bookContentService).readEncodedPage(book.getFileName(), book.getTextStatistics(), 0, 15, PageMode.WORD);
+
+        // Test case where the mode is unknown
+        assertEquals(HttpStatus.BAD_REQUEST, getController.getBookContent(1, 0, 15, "sentence", null, null).getStatusCode());
+    }
+
+    @Test
+    void testGetBookContentUnservablePageSize() throws Exception {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), eq(5), any()))
+            .thenThrow(new IllegalArgumentException("Page size must be at least 20 characters"));
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), eq(500), any()))
+            .thenThrow(new IllegalArgumentException("No more page sizes can be computed for this book"));
+
+        // Test case where the page size is below the default in word mode
+        assertEquals(HttpStatus.BAD_REQUEST, getController.getBookContent(1, 0, 5, "word", null, null).getStatusCode());
+
+        // Test case where the book already has as many break tables as allowed
+        assertEquals(HttpStatus.BAD_REQUEST,
+            getController.getBookContent(1, 0, 500, "paragraph", null, null).getStatusCode());
+    }
+
+    @Test
+    void testGetBookContentGzip() throws Exception {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+        when(bookContentService.pageETag(book.getFileName(), null, 0, 100, PageMode.CHAR)).thenReturn("\"abc-char100-0\"");
+        EncodedPage encoded = encode(new PagedContent("test content", 0, 1, 12, 12));
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), any(), any())).thenReturn(encoded);
+
+        ResponseEntity<byte[]> response = getController.getBookContent(1, 0, 100, "char", null, "br, gzip;q=0.8");
+
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"abc-char100-0-gzip\"", response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertArrayEquals(encoded.json(), in.readAllBytes());
+        }
+
+        // Refused or missing gzip gets the plain JSON with the plain ETag
+        for (String acceptEncoding : new String[] {"gzip;q=0", "identity", "*;q=0", null}) {
+            ResponseEntity<byte[]> plain = getController.getBookContent(1, 0, 100, "char", null, acceptEncoding);
+            assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+            assertEquals("\"abc-char100-0\"", plain.getHeaders().getETag());
+            assertArrayEquals(encoded.json(), plain.getBody());
+        }
+        assertEquals("gzip", getController.getBookContent(1, 0, 100, "char", null, "*")
+            .getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void testGetBookETag() {
+        Book book = new Book();
+        book.setId(1);
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+
+        ResponseEntity<Book> response = getController.getBook(1, null);
+        String etag = response.getHeaders().getETag();
+        assertEquals("\"1-0\"", etag);
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+
+        ResponseEntity<Book> notModified = getController.getBook(1, "\"0-0\", W/" + etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        assertEquals(etag, notModified.getHeaders().getETag());
+
+        assertEquals(HttpStatus.OK, getController.getBook(1, "\"1-1\"").getStatusCode());
+    }
+
+    @Test
+    void testGetBookContentNotModified() throws Exception {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+        when(bookContentService.pageETag(book.getFileName(), null, 2, 100, PageMode.CHAR)).thenReturn("\"abc-char100-2\"");
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), any(), any()))
+            .thenReturn(encode(new PagedContent("test content", 2, 3, 12, 212)));
+
+        ResponseEntity<byte[]> response = getController.getBookContent(1, 2, 100, "char", null, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc-char100-2\"", response.getHeaders().getETag());
+        assertTrue(response.getHeaders().getCacheControl().contains("immutable"));
+
+        ResponseEntity<byte[]> notModified = getController.getBookContent(1, 2, 100, "char", "\"abc-char100-2\"", null);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        verify(bookContentService).readEncodedPage(anyString(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testGetBookContentDefaultPageSizeIsRevalidated() throws Exception {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+        when(bookContentService.pageETag(book.getFileName(), null, 0, null, PageMode.CHAR)).thenReturn("\"abc-char1000-0\"");
+        when(bookContentService.readEncodedPage(anyString(), any(), anyInt(), any(), any()))
+            .thenReturn(encode(new PagedContent("test content", 0, 1, 12, 12)));
+
+        ResponseEntity<byte[]> response = getController.getBookContent(1, 0, null, "char", null, null);
+
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void testGetBookContentRange() throws Exception {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+
+        List<PagedContent> pages = Arrays.asList(
+            new PagedContent("first", 2, 5, 5, 25),
+            new PagedContent("second", 3, 5, 6, 25));
+        when(bookContentService.readBookContentRange(anyString(), any(), anyInt(), anyInt(), any(), any())).thenReturn(pages);
+
+        ResponseEntity<List<PagedContent>> response = getController.getBookContentRange(1, 2, 3, 5, "char");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(pages, response.getBody());
+        verify(bookContentService).readBookContentRange(book.getFileName(), book.getTextStatistics(), 2, 3, 5, PageMode.CHAR);
+
+        // Test case where book is not found
+        when(bookRepo.findById(2)).thenReturn(Optional.empty());
+        assertEquals(HttpStatus.NOT_FOUND, getController.getBookContentRange(2, 0, 1, null, "char").getStatusCode());
+
+        // Test case where the page range is invalid
+        when(bookContentService.readBookContentRange(anyString(), any(), anyInt(), anyInt(), any(), any()))
+            .thenThrow(new IllegalArgumentException("Invalid page range"));
+        assertEquals(HttpStatus.BAD_REQUEST, getController.getBookContentRange(1, 3, 2, null, "char").getStatusCode());
+    }
+
+    @Test
+    void testGetBookContentRangeError() throws Exception {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+        when(bookContentService.readBookContentRange(anyString(), any(), anyInt(), anyInt(), any(), any()))
+            .thenThrow(new IOException("Test IOException"));
+
+        ResponseEntity<List<PagedContent>> response = getController.getBookContentRange(1, 0, 1, null, "char");
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
     @Test
     void testGetAllBooksByTitle() {
         Book book1 = new Book();
@@ -110,44 +315,162 @@ public class GetControllerTest {
         book2.setTitle("Spring Boot in Practice");
 
         Page<Book> page = new PageImpl<>(Arrays.asList(book1, book2));
-        when(bookRepo.findByTitleContainingIgnoreCase(anyString(), any(PageRequest.class))).thenReturn(page);
+        when(bookRepo.findAll(anySpecification(), any(PageRequest.class))).thenReturn(page);
 
-        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc", "Spring", null, null);
+        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc",
+            new BookFilter("Spring", null, null)).getBody();
 
         assertEquals(2, result.getContent().size());
-        verify(bookRepo).findByTitleContainingIgnoreCase(anyString(), any(PageRequest.class));
+        verify(bookRepo).findAll(anySpecification(), any(PageRequest.class));
     }
 
     @Test
-    void testGetAllBooksByAuthor() {
-        Book book1 = new Book();
-        book1.setAuthor("Craig Walls");
-        Book book2 = new Book();
-        book2.setAuthor("Mark Heckler");
+    @SuppressWarnings("unchecked")
+    void testGetAllBooksCombinesFilters() {
+        BookFilter filter = new BookFilter("Spring", "Craig", "Technology");
+        filter.setIsbn("1234567890123");
+        filter.setYearFrom(2000);
+        filter.setYearTo(2020);
+        when(bookRepo.findAll(anySpecification(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of()));
 
-        Page<Book> page = new PageImpl<>(Arrays.asList(book1, book2));
-        when(bookRepo.findByAuthorContainingIgnoreCase(anyString(), any(PageRequest.class))).thenReturn(page);
+        ResponseEntity<Page<Book>> response = getController.getAllBooks(0, 10, "year", "desc", filter);
 
-        Page<Book> result = getController.getAllBooks(0, 10, "author", "asc", null, "Craig", null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ArgumentCaptor<Map<TrigramIndex.Field, String>> substrings = ArgumentCaptor.forClass(Map.class);
+        verify(trigramIndex).candidates(substrings.capture());
+        assertEquals("Spring", substrings.getValue().get(TrigramIndex.Field.TITLE));
+        assertEquals("Craig", substrings.getValue().get(TrigramIndex.Field.AUTHOR));
+        assertEquals("Technology", substrings.getValue().get(TrigramIndex.Field.GENRE));
+        ArgumentCaptor<PageRequest> pageRequest = ArgumentCaptor.forClass(PageRequest.class);
+        verify(bookRepo).findAll(anySpecification(), pageRequest.capture());
+        assertEquals(Sort.by(Sort.Direction.DESC, "year", "id"), pageRequest.getValue().getSort());
+    }
 
-        assertEquals(2, result.getContent().size());
-        verify(bookRepo).findByAuthorContainingIgnoreCase(anyString(), any(PageRequest.class));
+    @Test
+    void testGetAllBooksByYearRangeOnly() {
+        BookFilter filter = new BookFilter();
+        filter.setYearFrom(1990);
+        when(bookRepo.findAll(anySpecification(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of()));
+
+        ResponseEntity<Page<Book>> response = getController.getAllBooks(0, 10, "title", "asc", filter);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(bookRepo).findAll(anySpecification(), any(PageRequest.class));
+        verify(bookRepo, never()).findAll(any(PageRequest.class));
     }
 
     @Test
-    void testGetAllBooksByGenre() {
-        Book book1 = new Book();
-        book1.setGenre("Technology");
-        Book book2 = new Book();
-        book2.setGenre("Technology");
+    void testGetAllBooksRejectsUnindexedSort() {
+        ResponseEntity<Page<Book>> response = getController.getAllBooks(0, 10, "filename", "asc", new BookFilter());
 
-        Page<Book> page = new PageImpl<>(Arrays.asList(book1, book2));
-        when(bookRepo.findByGenreContainingIgnoreCase(anyString(), any(PageRequest.class))).thenReturn(page);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(bookRepo, never()).findAll(any(PageRequest.class));
+    }
 
-        Page<Book> result = getController.getAllBooks(0, 10, "genre", "asc", null, null, "Technology");
+    @Test
+    void testGetAllBooksByTitleUsesTrigramCandidates() {
+        Book book = new Book();
+        book.setTitle("Spring in Action");
+        when(trigramIndex.candidates(anyMap())).thenReturn(new int[] {3, 8});
+        when(bookRepo.findAll(anySpecification(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(book)));
 
-        assertEquals(2, result.getContent().size());
-        verify(bookRepo).findByGenreContainingIgnoreCase(anyString(), any(PageRequest.class));
+        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc",
+            new BookFilter("Spring", null, null)).getBody();
+
+        assertEquals(1, result.getContent().size());
+        verify(bookRepo).findAll(anySpecification(), any(PageRequest.class));
+    }
+
+    @Test
+    void testGetAllBooksWithoutTrigramCandidatesStillMatchesUnindexedBooks() {
+        // Another instance saved a matching book the index has not picked up yet
+        Book book = new Book();
+        book.setAuthor("Nobody");
+        when(trigramIndex.candidates(anyMap())).thenReturn(new int[0]);
+        when(trigramIndex.indexedUpTo()).thenReturn(100);
+        when(bookRepo.findAll(anySpecification(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(book)));
+
+        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc",
+            new BookFilter(null, "Nobody", null)).getBody();
+
+        assertEquals(1, result.getTotalElements());
+        verify(trigramIndex).indexedUpTo();
+    }
+
+    /**
+     * Answers fluent repository queries with the given books, recording the query built.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private FetchableFluentQuery<Book> stubFluentQuery(List<Book> books) {
+        FetchableFluentQuery<Book> query = mock(FetchableFluentQuery.class, RETURNS_SELF);
+        when(query.all()).thenReturn(books);
+        doAnswer(invocation -> ((Function) invocation.getArgument(1)).apply(query))
+            .when(bookRepo).findBy(anySpecification(), any());
+        return query;
+    }
+
+    private static Book book(int id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
+
+    @Test
+    void testGetBookSliceFirstSlice() {
+        FetchableFluentQuery<Book> query = stubFluentQuery(List.of(book(1, "A"), book(2, "B"), book(3, "C")));
+
+        ResponseEntity<BookSlice> response = getController.getBookSlice("", 2, "title", "asc", new BookFilter());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getSize());
+        assertEquals("B", response.getBody().getContent().get(1).getTitle());
+        assertTrue(BookCursor.decode(response.getBody().getNext()).matches("title", Sort.Direction.ASC));
+        verify(query).limit(3);
+        verify(query).sortBy(Sort.by(Sort.Direction.ASC, "title", "id"));
+        verify(bookRepo, never()).count();
+    }
+
+    @Test
+    void testGetBookSliceLastSlice() {
+        String cursor = BookCursor.after(book(2, "B"), "title", Sort.Direction.ASC).encode();
+        stubFluentQuery(List.of(book(3, "C")));
+
+        ResponseEntity<BookSlice> response = getController.getBookSlice(cursor, 2, "title", "asc", new BookFilter());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getSize());
+        assertNull(response.getBody().getNext());
+        assertTrue(response.getBody().isLast());
+    }
+
+    @Test
+    void testGetBookSliceCapsSize() {
+        FetchableFluentQuery<Book> query = stubFluentQuery(List.of());
+
+        getController.getBookSlice("", 1000, "id", "desc", new BookFilter());
+
+        verify(query).limit(GetController.MAX_SLICE_SIZE + 1);
+        verify(query).sortBy(Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    @Test
+    void testGetBookSliceRejectsInvalidCursors() {
+        String yearCursor = BookCursor.after(book(2, "B"), "year", Sort.Direction.ASC).encode();
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+            getController.getBookSlice("garbage!", 10, "title", "asc", new BookFilter()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            getController.getBookSlice(yearCursor, 10, "title", "asc", new BookFilter()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            getController.getBookSlice("", 10, "filename", "asc", new BookFilter()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+            getController.getBookSlice("", 0, "title", "asc", new BookFilter()).getStatusCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Specification<Book> anySpecification() {
+        return any(Specification.class);
     }
 
     @Test
@@ -160,7 +483,7 @@ public class GetControllerTest {
         Page<Book> page = new PageImpl<>(Arrays.asList(book1, book2));
         when(bookRepo.findAll(any(PageRequest.class))).thenReturn(page);
 
-        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc", null, null, null);
+        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc", new BookFilter()).getBody();
 
         assertEquals(2, result.getContent().size());
         verify(bookRepo).findAll(any(PageRequest.class));
@@ -182,6 +505,68 @@ public class GetControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, errorResponse.getStatusCode());
     }
 
+    @Test
+    void testGetAllBooksUsesCachedTotal() {
+        Book book = new Book();
+        book.setTitle("Book 1");
+        when(facetCounts.isReady()).thenReturn(true);
+        when(facetCounts.total()).thenReturn(42L);
+        when(bookRepo.findAllBy(any(PageRequest.class))).thenReturn(new SliceImpl<>(List.of(book)));
+
+        Page<Book> result = getController.getAllBooks(1, 10, "title", "asc", new BookFilter()).getBody();
+
+        assertEquals(42, result.getTotalElements());
+        assertEquals(5, result.getTotalPages());
+        assertEquals(1, result.getNumber());
+        assertEquals(1, result.getContent().size());
+        verify(bookRepo, never()).findAll(any(PageRequest.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAllBooksFilteredCountsInDatabase() {
+        when(facetCounts.isReady()).thenReturn(true);
+        when(bookRepo.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(Page.empty());
+
+        getController.getAllBooks(0, 10, "title", "asc", new BookFilter("Ring", null, null));
+
+        verify(bookRepo).findAll(any(Specification.class), any(PageRequest.class));
+        verify(bookRepo, never()).findAllBy(any(PageRequest.class));
+        verify(facetCounts, never()).total();
+    }
+
+    @Test
+    void testGetBookFacets() throws Exception {
+        List<String> genresList = Arrays.asList("Fantasy", "Poetry");
+        when(genres.getGenresList()).thenReturn(genresList);
+        when(facetCounts.isReady()).thenReturn(true);
+        when(facetCounts.total()).thenReturn(3L);
+        when(facetCounts.genres(genresList)).thenReturn(Map.of("Fantasy", 3L, "Poetry", 0L));
+        when(facetCounts.decades()).thenReturn(Map.of(1950, 3L));
+        when(facetCounts.topAuthors(GetController.MAX_FACET_AUTHORS)).thenReturn(Map.of("Tolkien", 3L));
+
+        ResponseEntity<BookFacets> response = getController.getBookFacets(1000);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().getTotal());
+        assertEquals(0L, response.getBody().getGenres().get("Poetry"));
+        assertEquals(3L, response.getBody().getDecades().get(1950));
+        assertEquals(3L, response.getBody().getAuthors().get("Tolkien"));
+
+        // Test case where IOException is thrown
+        doThrow(new IOException("Test IOException")).when(genres).getGenresList();
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, getController.getBookFacets(20).getStatusCode());
+    }
+
+    @Test
+    void testGetBookFacetsInvalid() {
+        when(facetCounts.isReady()).thenReturn(true);
+        assertEquals(HttpStatus.BAD_REQUEST, getController.getBookFacets(-1).getStatusCode());
+
+        when(facetCounts.isReady()).thenReturn(false);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, getController.getBookFacets(20).getStatusCode());
+    }
+
     @Test
     void testGetAllBooksSortedByTitleAsc() {
         Book book1 = new Book();
@@ -192,7 +577,7 @@ public class GetControllerTest {
         Page<Book> page = new PageImpl<>(Arrays.asList(book1, book2));
         when(bookRepo.findAll(any(PageRequest.class))).thenReturn(page);
 
-        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc", null, null, null);
+        Page<Book> result = getController.getAllBooks(0, 10, "title", "asc", new BookFilter()).getBody();
 
         assertEquals(2, result.getContent().size());
         assertEquals("A Book", result.getContent().get(0).getTitle());
@@ -210,12 +595,136 @@ public class GetControllerTest {
         Page<Book> page = new PageImpl<>(Arrays.asList(book1, book2));
         when(bookRepo.findAll(any(PageRequest.class))).thenReturn(page);
 
-        Page<Book> result = getController.getAllBooks(0, 10, "title", "desc", null, null, null);
+        Page<Book> result = getController.getAllBooks(0, 10, "title", "desc", new BookFilter()).getBody();
 
         assertEquals(2, result.getContent().size());
         assertEquals("Z Book", result.getContent().get(0).getTitle());
         assertEquals("A Book", result.getContent().get(1).getTitle());
         verify(bookRepo).findAll(any(PageRequest.class));
     }
-}
 
+    @Test
+    void testGetCacheStats() {
+        ContentCacheStats stats = new ContentCacheStats(5, 2, 1, 100, 3, 300, 1000);
+        when(bookContentService.getCacheStats()).thenReturn(stats);
+
+        ResponseEntity<ContentCacheStats> response = getController.getCacheStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(5, response.getBody().getHitCount());
+        assertEquals(2, response.getBody().getMissCount());
+        assertEquals(1, response.getBody().getEvictionCount());
+    }
+
+    @Test
+    void testGetRawBookContent() throws Exception {
+        Book book = mockRawContent("Hello, raw world!");
+
+        ResponseEntity<StreamingResponseBody> response = getController.getRawBookContent(1, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(17, response.getHeaders().getContentLength());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("\"" + book.getFileName() + "-11\"", response.getHeaders().getETag());
+        assertEquals("Hello, raw world!", write(response.getBody()));
+    }
+
+    @Test
+    void testGetRawBookContentRange() throws Exception {
+        mockRawContent("Hello, raw world!");
+
+        ResponseEntity<StreamingResponseBody> response = getController.getRawBookContent(1, "bytes=7-9", null);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals(3, response.getHeaders().getContentLength());
+        assertEquals("bytes 7-9/17", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("raw", write(response.getBody()));
+    }
+
+    @Test
+    void testGetRawBookContentSuffixRange() throws Exception {
+        mockRawContent("Hello, raw world!");
+
+        ResponseEntity<StreamingResponseBody> response = getController.getRawBookContent(1, "bytes=-6", null);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("world!", write(response.getBody()));
+    }
+
+    @Test
+    void testGetRawBookContentIfRange() throws Exception {
+        Book book = mockRawContent("Hello, raw world!");
+        String etag = "\"" + book.getFileName() + "-11\"";
+
+        ResponseEntity<StreamingResponseBody> matching = getController.getRawBookContent(1, "bytes=0-4", etag);
+        ResponseEntity<StreamingResponseBody> stale = getController.getRawBookContent(1, "bytes=0-4", "\"old\"");
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, matching.getStatusCode());
+        assertEquals("Hello", write(matching.getBody()));
+        assertEquals(HttpStatus.OK, stale.getStatusCode());
+        assertEquals("Hello, raw world!", write(stale.getBody()));
+    }
+
+    @Test
+    void testGetRawBookContentUnsatisfiableRange() throws Exception {
+        mockRawContent("Hello, raw world!");
+
+        ResponseEntity<StreamingResponseBody> response = getController.getRawBookContent(1, "bytes=100-", null);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */17", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testGetRawBookContentRangeOfEmptyContent() throws Exception {
+        mockRawContent("");
+
+        ResponseEntity<StreamingResponseBody> response = getController.getRawBookContent(1, "bytes=0-", null);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */0", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testGetRawBookContentMalformedRange() throws Exception {
+        mockRawContent("Hello, raw world!");
+
+        ResponseEntity<StreamingResponseBody> response = getController.getRawBookContent(1, "lines=1-2", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void testGetRawBookContentErrors() throws Exception {
+        when(bookRepo.findById(2)).thenReturn(Optional.empty());
+        assertEquals(HttpStatus.NOT_FOUND, getController.getRawBookContent(2, null, null).getStatusCode());
+
+        Book book = new Book();
+        book.setTitle("Test Book");
+        when(bookRepo.findById(3)).thenReturn(Optional.of(book));
+        when(bookContentService.contentLength(anyString())).thenThrow(new IOException("Test IOException"));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, getController.getRawBookContent(3, null, null).getStatusCode());
+    }
+
+    private Book mockRawContent(String content) throws IOException {
+        Book book = new Book();
+        book.setTitle("Test Book");
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        when(bookRepo.findById(1)).thenReturn(Optional.of(book));
+        when(bookContentService.contentLength(book.getFileName())).thenReturn((long) bytes.length);
+        doAnswer(invocation -> {
+            long start = invocation.getArgument(1);
+            long end = invocation.getArgument(2);
+            OutputStream out = invocation.getArgument(3);
+            out.write(bytes, (int) start, (int) (end - start));
+            return null;
+        }).when(bookContentService).transferContent(anyString(), anyLong(), anyLong(), any(OutputStream.class));
+        return book;
+    }
+
+    private static String write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
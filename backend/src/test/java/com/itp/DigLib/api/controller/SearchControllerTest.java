@@ -0,0 +1,80 @@
+package com.itp.DigLib.api.controller;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.itp.DigLib.api.model.SearchResult;
+import com.itp.DigLib.search.SearchService;
+
+public class SearchControllerTest {
+
+    @Mock
+    private SearchService searchService;
+
+    @InjectMocks
+    private SearchController searchController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testSearch() throws IOException {
+        List<SearchResult> results = List.of(new SearchResult(1, "Moby Dick", "Melville", 2.5, List.of(3), "whale"));
+        when(searchService.search("whale", 10, null)).thenReturn(results);
+
+        ResponseEntity<List<SearchResult>> response = searchController.search("whale", 10, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    void testSearchCapsLimit() throws IOException {
+        when(searchService.search("whale", SearchController.MAX_LIMIT, 500)).thenReturn(List.of());
+
+        ResponseEntity<List<SearchResult>> response = searchController.search("whale", 1000, 500);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(searchService).search("whale", SearchController.MAX_LIMIT, 500);
+    }
+
+    @Test
+    void testSearchWithInvalidLimit() {
+        ResponseEntity<List<SearchResult>> response = searchController.search("whale", 0, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testSearchWithoutTerms() throws IOException {
+        when(searchService.search(any(), anyInt(), any())).thenThrow(new IllegalArgumentException("no terms"));
+
+        ResponseEntity<List<SearchResult>> response = searchController.search("?", 10, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testSearchWithIOException() throws IOException {
+        when(searchService.search(any(), anyInt(), any())).thenThrow(new IOException("disk"));
+
+        ResponseEntity<List<SearchResult>> response = searchController.search("whale", 10, null);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+}
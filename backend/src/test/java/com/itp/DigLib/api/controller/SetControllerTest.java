@@ -1,15 +1,20 @@
 package com.itp.DigLib.api.controller;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.zip.ZipException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
@@ -18,8 +23,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 
 import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.ImportReport;
+import com.itp.DigLib.api.model.TextStatistics;
 import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.api.service.BookImportService;
 import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.search.FacetCounts;
+import com.itp.DigLib.search.SearchService;
+import com.itp.DigLib.search.TrigramIndex;
 
 public class SetControllerTest {
 
@@ -29,6 +40,18 @@ public class SetControllerTest {
     @Mock
     private BookContentService bookContentService;
 
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private BookImportService bookImportService;
+
+    @Mock
+    private TrigramIndex trigramIndex;
+
+    @Mock
+    private FacetCounts facetCounts;
+
     @InjectMocks
     private SetController setController;
 
@@ -63,6 +86,7 @@ public class SetControllerTest {
         assertEquals("ID:" + book.getId(), response.getBody());
         verify(bookRepo).save(any(Book.class));
         verify(bookContentService).storeFile(any(), anyString());
+        verify(searchService).indexBook(book);
     }
 
     @Test
@@ -77,6 +101,7 @@ public class SetControllerTest {
         assertEquals("Book deleted successfully", response.getBody());
         verify(bookRepo).deleteById(1);
         verify(bookContentService).deleteBookContent(anyString());
+        verify(searchService).removeBook(1);
     }
 
     @Test
@@ -128,6 +153,35 @@ public class SetControllerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Illegal values Illegal Argument", response.getBody());
+        verify(bookContentService).deleteBookContent(anyString());
+    }
+
+    @Test
+    void testAddNewBookSavesTextStatistics() throws Exception {
+        TextStatistics statistics = new TextStatistics(12, 12, 2, 1, 12);
+        when(bookContentService.storeFile(any(), anyString())).thenReturn(statistics);
+        when(bookRepo.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MockMultipartFile content = new MockMultipartFile(
+            "content",
+            "test.txt",
+            "text/plain",
+            "test content".getBytes()
+        );
+
+        ResponseEntity<String> response = setController.addNewBook(
+            "Test Book",
+            "Test Author",
+            "Fiction",
+            "1234567890123",
+            2020,
+            content
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ArgumentCaptor<Book> saved = ArgumentCaptor.forClass(Book.class);
+        verify(bookRepo).save(saved.capture());
+        assertEquals(statistics, saved.getValue().getTextStatistics());
     }
 
     @Test
@@ -182,4 +236,98 @@ public class SetControllerTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void testImportBooksFromArchive() throws Exception {
+        MockMultipartFile archive = new MockMultipartFile("archive", "books.zip", "application/zip", new byte[] {1});
+        ImportReport report = new ImportReport(List.of(
+            ImportReport.Item.imported(0, "a.txt", 7),
+            ImportReport.Item.failed(1, "b.txt", "Missing content file b.txt")));
+        when(bookImportService.importArchive(archive)).thenReturn(report);
+
+        ResponseEntity<ImportReport> response = setController.importBooks(archive, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getImported());
+        assertEquals(1, response.getBody().getFailed());
+    }
+
+    @Test
+    void testImportBooksFromManifestAndFiles() throws Exception {
+        MockMultipartFile manifest = new MockMultipartFile("manifest", "manifest.csv", "text/csv", new byte[] {1});
+        MockMultipartFile file = new MockMultipartFile("files", "a.txt", "text/plain", "text".getBytes());
+        when(bookImportService.importFiles(manifest, List.of(file))).thenReturn(new ImportReport(List.of()));
+
+        ResponseEntity<ImportReport> response = setController.importBooks(null, manifest, List.of(file));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(bookImportService).importFiles(manifest, List.of(file));
+    }
+
+    @Test
+    void testImportBooksNeedsArchiveOrManifest() {
+        assertEquals(HttpStatus.BAD_REQUEST, setController.importBooks(null, null, null).getStatusCode());
+    }
+
+    @Test
+    void testImportBooksWithInvalidArchive() throws Exception {
+        MockMultipartFile archive = new MockMultipartFile("archive", "books.zip", "application/zip", new byte[] {1});
+        when(bookImportService.importArchive(archive)).thenThrow(new ZipException("zip END header not found"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, setController.importBooks(archive, null, null).getStatusCode());
+    }
+
+    @Test
+    void testImportBooksWithInvalidManifest() throws Exception {
+        MockMultipartFile archive = new MockMultipartFile("archive", "books.zip", "application/zip", new byte[] {1});
+        when(bookImportService.importArchive(archive))
+            .thenThrow(new IllegalArgumentException("Manifest has no isbn column"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, setController.importBooks(archive, null, null).getStatusCode());
+    }
+
+    @Test
+    void testDeleteBooks() {
+        Book first = new Book();
+        first.setId(1);
+        first.setTitle("First Book");
+        first.setAuthor("Test Author");
+        first.setGenre("Fiction");
+        Book second = new Book();
+        second.setId(2);
+        second.setTitle("Second Book");
+        when(bookRepo.findAllById(any())).thenReturn(List.of(first, second));
+
+        ResponseEntity<List<Integer>> response = setController.deleteBooks(List.of(1, 2, 99, 1));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(1, 2), response.getBody());
+        verify(bookRepo).deleteByIdIn(List.of(1, 2));
+        verify(bookContentService).deleteBookContents(List.of(first.getFileName(), second.getFileName()));
+        verify(trigramIndex).remove(1, "First Book", "Test Author", "Fiction");
+        verify(facetCounts).remove(1, "Fiction", "Test Author", 0);
+        verify(searchService).removeBook(2);
+    }
+
+    @Test
+    void testDeleteBooksNoneFound() {
+        when(bookRepo.findAllById(any())).thenReturn(List.of());
+
+        ResponseEntity<List<Integer>> response = setController.deleteBooks(List.of(99));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(), response.getBody());
+        verify(bookRepo, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    void testDeleteBooksRejectsEmptyAndOversizedRequests() {
+        List<Integer> tooMany = new ArrayList<>();
+        for (int i = 0; i <= SetController.MAX_BULK_DELETE; i++) {
+            tooMany.add(i);
+        }
+
+        assertEquals(HttpStatus.BAD_REQUEST, setController.deleteBooks(List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, setController.deleteBooks(tooMany).getStatusCode());
+    }
+}
@@ -0,0 +1,27 @@
+package com.itp.DigLib.api.model;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class BookFilterTest {
+
+    @Test
+    void testEmptyFilter() {
+        assertTrue(new BookFilter().isEmpty());
+        assertTrue(new BookFilter(null, null, null).isEmpty());
+    }
+
+    @Test
+    void testAnyFilterMakesItNonEmpty() {
+        assertFalse(new BookFilter("Dune", null, null).isEmpty());
+
+        BookFilter filter = new BookFilter();
+        filter.setYearTo(1999);
+        assertFalse(filter.isEmpty());
+
+        filter = new BookFilter();
+        filter.setIsbn("1234567890123");
+        assertFalse(filter.isEmpty());
+    }
+}
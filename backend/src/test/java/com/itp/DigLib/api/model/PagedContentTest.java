@@ -132,4 +132,18 @@ public class PagedContentTest {
 
         assertEquals("1 hours, 49 minutes", content.getReadingTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetReadingTimeFromWordCount() {
+        PagedContent content = new PagedContent(
+            "Test content",
+            0,
+            1,
+            12,
+            100000,
+            183 * 90
+        );
+
+        assertEquals("1 hours, 30 minutes", content.getReadingTime());
+    }
+}
@@ -0,0 +1,68 @@
+package com.itp.DigLib.api.model;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class TextStatisticsTest {
+
+    private static TextStatistics compute(byte[] content, int chunkSize) {
+        TextStatistics.Builder builder = TextStatistics.builder();
+        for (int offset = 0; offset < content.length; offset += chunkSize) {
+            builder.update(content, offset, Math.min(chunkSize, content.length - offset));
+        }
+        return builder.build();
+    }
+
+    @Test
+    void testCountsMatchDecodedText() {
+        String text = "Æble først,\tså 😀 og til sidst\r\nen hale";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        // Sequences split across chunks must be counted the same
+        for (int chunkSize : new int[] {1, 2, 3, 7, bytes.length}) {
+            TextStatistics statistics = compute(bytes, chunkSize);
+            assertEquals(text.length(), statistics.getChars());
+            assertEquals(text.codePointCount(0, text.length()), statistics.getCodePoints());
+            assertEquals(9, statistics.getWords());
+            assertEquals(2, statistics.getLines());
+            assertEquals(bytes.length, statistics.getBytes());
+        }
+    }
+
+    @Test
+    void testEmptyContent() {
+        TextStatistics statistics = compute(new byte[0], 1);
+        assertEquals(0, statistics.getChars());
+        assertEquals(0, statistics.getWords());
+        assertEquals(0, statistics.getLines());
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", statistics.getSha256());
+    }
+
+    @Test
+    void testHashDoesNotDependOnChunks() {
+        byte[] bytes = "abc".getBytes(StandardCharsets.UTF_8);
+        String expected = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+        assertEquals(expected, compute(bytes, 1).getSha256());
+        assertEquals(expected, compute(bytes, 3).getSha256());
+    }
+
+    @Test
+    void testTrailingLineBreakDoesNotStartLine() {
+        assertEquals(2, compute("one\ntwo\n".getBytes(StandardCharsets.UTF_8), 4).getLines());
+        assertEquals(2, compute("one\ntwo".getBytes(StandardCharsets.UTF_8), 4).getLines());
+        assertEquals(3, compute("\n\n\n".getBytes(StandardCharsets.UTF_8), 4).getLines());
+    }
+
+    @Test
+    void testMalformedContentCountsReplacementCharacters() {
+        byte[] bytes = {'a', (byte) 0xFF, 'b', (byte) 0xE2, (byte) 0x82, 'c', (byte) 0xC3};
+        TextStatistics statistics = compute(bytes, 2);
+
+        String decoded = new String(bytes, StandardCharsets.UTF_8);
+        assertEquals(decoded.length(), statistics.getChars());
+        assertEquals(1, statistics.getWords());
+    }
+}
@@ -0,0 +1,113 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.itp.DigLib.api.model.ContentCacheStats;
+
+public class BookContentCacheTest {
+
+    @Test
+    void testHitsAndMissesAreCounted() throws IOException {
+        BookContentCache cache = new BookContentCache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getPage("book.txt", "10", 0, () -> "page " + loads.incrementAndGet());
+        String cached = cache.getPage("book.txt", "10", 0, () -> "page " + loads.incrementAndGet());
+
+        ContentCacheStats stats = cache.stats();
+        assertEquals("page 1", cached);
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEntryCount());
+    }
+
+    @Test
+    void testInvalidateDropsAllEntriesOfBook() throws IOException {
+        BookContentCache cache = new BookContentCache(1 << 20);
+        cache.getPage("book.txt", "10", 0, () -> "first");
+        cache.getFullText("book.txt", () -> "full text");
+        cache.getPage("other.txt", "10", 0, () -> "other");
+
+        cache.invalidate("book.txt");
+
+        assertEquals("reloaded", cache.getPage("book.txt", "10", 0, () -> "reloaded"));
+        assertEquals("other", cache.getPage("other.txt", "10", 0, () -> "changed"));
+    }
+
+    @Test
+    void testInvalidateAllDropsEntriesOfEveryBook() throws IOException {
+        BookContentCache cache = new BookContentCache(1 << 20);
+        cache.getPage("book.txt", "10", 0, () -> "first");
+        cache.getFullText("second.txt", () -> "full text");
+        cache.getPage("other.txt", "10", 0, () -> "other");
+
+        cache.invalidateAll(List.of("book.txt", "second.txt"));
+
+        assertEquals(1, cache.stats().getEntryCount());
+        assertEquals("reloaded", cache.getFullText("second.txt", () -> "reloaded"));
+        assertEquals("other", cache.getPage("other.txt", "10", 0, () -> "changed"));
+    }
+
+    @Test
+    void testMissingIndexIsCached() throws IOException {
+        BookContentCache cache = new BookContentCache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.getIndex("book.txt", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.getIndex("book.txt", () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testSizeIsBoundedByWeight() throws IOException {
+        BookContentCache cache = new BookContentCache(64 * 1024);
+        String page = "x".repeat(4096);
+
+        for (int i = 0; i < 100; i++) {
+            cache.getPage("book.txt", "4096", i, () -> page);
+        }
+        cache.getPage("book.txt", "4096", 0, () -> page);
+
+        ContentCacheStats stats = cache.stats();
+        assertTrue(stats.getWeightedSize() <= 64 * 1024);
+        assertTrue(stats.getEntryCount() < 100);
+    }
+
+    @Test
+    void testLoaderFailureIsPropagated() {
+        BookContentCache cache = new BookContentCache(1 << 20);
+
+        assertThrows(IOException.class, () -> cache.getFullText("missing.txt", () -> {
+            throw new IOException("File not found");
+        }));
+    }
+
+    @Test
+    void testFramesAreCachedUntilInvalidated() {
+        BookContentCache cache = new BookContentCache(1 << 20);
+        byte[] frame = {1, 2, 3};
+
+        assertNull(cache.getFrameIfPresent("book.txt", 0));
+        cache.putFrame("book.txt", 0, frame);
+        assertEquals(frame, cache.getFrameIfPresent("book.txt", 0));
+
+        cache.invalidate("book.txt");
+        assertNull(cache.getFrameIfPresent("book.txt", 0));
+    }
+}
@@ -1,40 +1,60 @@
 package com.itp.DigLib.api.service;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 
-import com.google.cloud.storage.Blob;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Storage;
+import com.itp.DigLib.api.model.PageMode;
 import com.itp.DigLib.api.model.PagedContent;
+import com.itp.DigLib.api.model.TextStatistics;
+import com.itp.DigLib.storage.BookStorage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 public class BookContentServiceTest {
-    
-    @Mock
-    private Storage storage;
-    
+
     @Mock
-    private Blob mockBlob;
-    
+    private BookStorage storage;
+
+    private final Map<String, byte[]> objects = new HashMap<>();
+    private final AtomicLong bytesRead = new AtomicLong();
+
     private BookContentService bookContentService;
-    private static final String BUCKET_NAME = "test-bucket";
     private static final String TEST_CONTENT = """
             First page content.
             Second page content.
@@ -43,12 +63,46 @@ public class BookContentServiceTest {
             """;
 
     @BeforeEach
-    void setUp() {
-        bookContentService = new BookContentService(storage, BUCKET_NAME, 20); // Set page size to 20 chars
-        
-        // Setup default blob behavior
-        lenient().when(mockBlob.getContent()).thenReturn(TEST_CONTENT.getBytes(StandardCharsets.UTF_8));
-        lenient().when(storage.get(any(BlobId.class))).thenReturn(mockBlob);
+    void setUp() throws IOException {
+        bookContentService = newService(1024); // Set page size to 20 chars, compress in 1 KiB frames
+
+        // Setup the storage mock to behave like an in-memory object store
+        lenient().doAnswer(invocation -> {
+            InputStream content = invocation.getArgument(1);
+            objects.put(invocation.getArgument(0), content.readAllBytes());
+            return null;
+        }).when(storage).put(anyString(), any(InputStream.class), anyString());
+        lenient().when(storage.get(anyString())).thenAnswer(invocation -> objects.get(invocation.getArgument(0)));
+        lenient().when(storage.getRange(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            byte[] data = objects.get(invocation.getArgument(0));
+            long start = invocation.getArgument(1);
+            long end = invocation.getArgument(2);
+            bytesRead.addAndGet(end - start);
+            return ByteBuffer.wrap(Arrays.copyOfRange(data, (int) start, (int) end));
+        });
+        lenient().when(storage.openRange(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            byte[] data = objects.get(invocation.getArgument(0));
+            long start = invocation.getArgument(1);
+            long end = invocation.getArgument(2);
+            bytesRead.addAndGet(end - start);
+            return new ByteArrayInputStream(Arrays.copyOfRange(data, (int) start, (int) end));
+        });
+        lenient().when(storage.size(anyString())).thenAnswer(invocation -> {
+            byte[] data = objects.get(invocation.getArgument(0));
+            return data != null ? (long) data.length : -1L;
+        });
+        lenient().when(storage.open(anyString())).thenAnswer(
+            invocation -> new ByteArrayInputStream(objects.get(invocation.getArgument(0))));
+        lenient().when(storage.exists(anyString())).thenAnswer(invocation -> objects.containsKey(invocation.getArgument(0)));
+        lenient().when(storage.delete(anyString())).thenAnswer(invocation -> objects.remove(invocation.getArgument(0)) != null);
+        lenient().when(storage.list(anyString())).thenAnswer(invocation -> objects.keySet().stream()
+            .filter(key -> key.startsWith(invocation.getArgument(0)))
+            .sorted()
+            .toList());
+        lenient().when(storage.locationOf(anyString())).thenAnswer(invocation -> "mem://" + invocation.getArgument(0));
+
+        // Content stored before page indexing existed
+        objects.put("bookcontents/test.txt", TEST_CONTENT.getBytes(StandardCharsets.UTF_8));
     }
 
     @Test
@@ -56,26 +110,29 @@ public class BookContentServiceTest {
         // Arrange
         String newContent = "This is new test content";
         MockMultipartFile file = new MockMultipartFile(
-            "file", 
+            "file",
             "newtest.txt",
-            "text/plain", 
+            "text/plain",
             newContent.getBytes()
         );
-        when(storage.create(any(BlobInfo.class), any(byte[].class))).thenReturn(mockBlob);
 
         // Act
-        String storedPath = bookContentService.storeFile(file, "newtest.txt");
-        
+        TextStatistics statistics = bookContentService.storeFile(file, "newtest.txt");
+
         // Assert
-        verify(storage).create(any(BlobInfo.class), any(byte[].class));
-        assertEquals("gs://" + BUCKET_NAME + "/newtest.txt", storedPath);
+        verify(storage).put(eq("bookcontents/newtest.txt"), any(InputStream.class), anyString());
+        assertArrayEquals(newContent.getBytes(), readStored("newtest.txt"));
+        assertTrue(objects.containsKey("bookindex/newtest.txt.idx"));
+        assertTrue(objects.containsKey("bookindex/newtest.txt.frames"));
+        assertEquals(newContent.length(), statistics.getChars());
+        assertEquals(5, statistics.getWords());
     }
 
     @Test
     void testReadBookContentFirstPage() throws IOException {
         // Act
         PagedContent pagedContent = bookContentService.readBookContent("test.txt", 0, 20);
-        
+
         // Assert
         assertEquals("First page content.\n", pagedContent.getContent());
         assertEquals(0, pagedContent.getPageNumber());
@@ -88,7 +145,7 @@ public class BookContentServiceTest {
     void testReadBookContentMiddlePage() throws IOException {
         // Act
         PagedContent pagedContent = bookContentService.readBookContent("test.txt", 1, 20);
-        
+
         // Assert
         assertEquals("Second page content.", pagedContent.getContent());
         assertEquals(1, pagedContent.getPageNumber());
@@ -99,10 +156,10 @@ public class BookContentServiceTest {
     void testReadBookContentLastPage() throws IOException {
         // Arrange
         int lastPage = (TEST_CONTENT.length() - 1) / 20;
-        
+
         // Act
         PagedContent pagedContent = bookContentService.readBookContent("test.txt", lastPage, 20);
-        
+
         // Assert
         assertTrue(pagedContent.getContent().length() <= 20);
         assertEquals(lastPage, pagedContent.getPageNumber());
@@ -113,7 +170,7 @@ public class BookContentServiceTest {
     void testReadBookContentCustomPageSize() throws IOException {
         // Act
         PagedContent pagedContent = bookContentService.readBookContent("test.txt", 0, 10);
-        
+
         // Assert
         assertEquals(10, pagedContent.getContent().length());
         assertEquals(0, pagedContent.getPageNumber());
@@ -124,46 +181,60 @@ public class BookContentServiceTest {
     @Test
     void testReadBookContentInvalidPageNumber() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> 
+        assertThrows(IllegalArgumentException.class, () ->
             bookContentService.readBookContent("test.txt", -1, 20));
 
-        assertThrows(IllegalArgumentException.class, () -> 
+        assertThrows(IllegalArgumentException.class, () ->
             bookContentService.readBookContent("test.txt", 1000, 20));
     }
 
     @Test
     void testDeleteExistingBookContent() {
-        // Arrange
-        when(storage.delete(any(BlobId.class))).thenReturn(true);
-        
         // Act
         boolean result = bookContentService.deleteBookContent("test.txt");
-        
+
         // Assert
         assertTrue(result);
-        verify(storage).delete(any(BlobId.class));
+        verify(storage).delete("bookcontents/test.txt");
+        verify(storage).delete("bookindex/test.txt.idx");
+        verify(storage).delete("bookindex/test.txt.frames");
+        assertFalse(objects.containsKey("bookcontents/test.txt"));
     }
 
     @Test
-    void testDeleteNonExistentBookContent() {
+    void testDeleteBookContentsInOneBatch() throws IOException {
         // Arrange
-        when(storage.delete(any(BlobId.class))).thenReturn(false);
-        
+        bookContentService.storeContent(new ByteArrayInputStream("Other book".getBytes(StandardCharsets.UTF_8)),
+            "other.txt");
+        bookContentService.readBookContent("test.txt", 0, 20);
+        when(storage.deleteAll(anyList())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+            .map(key -> objects.remove(key) != null)
+            .toList());
+
+        // Act
+        int deleted = bookContentService.deleteBookContents(List.of("test.txt", "other.txt", "missing.txt"));
+
+        // Assert
+        assertEquals(2, deleted);
+        verify(storage).deleteAll(anyList());
+        assertTrue(objects.isEmpty());
+        assertEquals(0, bookContentService.getCacheStats().getEntryCount());
+    }
+
+    @Test
+    void testDeleteNonExistentBookContent() {
         // Act
         boolean result = bookContentService.deleteBookContent("nonexistent.txt");
-        
+
         // Assert
         assertFalse(result);
-        verify(storage).delete(any(BlobId.class));
+        verify(storage).delete("bookcontents/nonexistent.txt");
     }
 
     @Test
     void testReadNonExistentFile() {
-        // Arrange
-        when(storage.get(any(BlobId.class))).thenReturn(null);
-        
         // Act & Assert
-        assertThrows(IOException.class, () -> 
+        assertThrows(IOException.class, () ->
             bookContentService.readBookContent("nonexistent.txt", 0, 20));
     }
 
@@ -171,7 +242,7 @@ public class BookContentServiceTest {
     void testReadBookContentDefaultPageSize() throws IOException {
         // Act
         PagedContent pagedContent = bookContentService.readBookContent("test.txt", 0, null);
-        
+
         // Assert
         assertEquals(20, pagedContent.getContent().length()); // defaultPageSize is set to 20 in setUp()
         assertEquals(0, pagedContent.getPageNumber());
@@ -183,19 +254,19 @@ public class BookContentServiceTest {
     void testStoreEmptyFile() throws IOException {
         // Arrange
         MockMultipartFile file = new MockMultipartFile(
-            "file", 
+            "file",
             "empty.txt",
-            "text/plain", 
+            "text/plain",
             new byte[0]
         );
-        when(storage.create(any(BlobInfo.class), any(byte[].class))).thenReturn(mockBlob);
 
         // Act
-        String storedPath = bookContentService.storeFile(file, "empty.txt");
-        
+        TextStatistics statistics = bookContentService.storeFile(file, "empty.txt");
+
         // Assert
-        verify(storage).create(any(BlobInfo.class), any(byte[].class));
-        assertEquals("gs://" + BUCKET_NAME + "/empty.txt", storedPath);
+        assertEquals(0, objects.get("bookcontents/empty.txt").length);
+        assertEquals(0, statistics.getChars());
+        assertEquals(0, statistics.getLines());
     }
 
     @Test
@@ -203,30 +274,30 @@ public class BookContentServiceTest {
         // Arrange
         byte[] largeContent = new byte[10_000_000]; // 10 MB
         MockMultipartFile file = new MockMultipartFile(
-            "file", 
+            "file",
             "largefile.txt",
-            "text/plain", 
+            "text/plain",
             largeContent
         );
-        when(storage.create(any(BlobInfo.class), any(byte[].class))).thenReturn(mockBlob);
 
         // Act
-        String storedPath = bookContentService.storeFile(file, "largefile.txt");
-        
+        TextStatistics statistics = bookContentService.storeFile(file, "largefile.txt");
+
         // Assert
-        verify(storage).create(any(BlobInfo.class), any(byte[].class));
-        assertEquals("gs://" + BUCKET_NAME + "/largefile.txt", storedPath);
+        assertEquals(largeContent.length, readStored("largefile.txt").length);
+        assertEquals(largeContent.length, PageIndex.fromBytes(objects.get("bookindex/largefile.txt.idx")).getTotalBytes());
+        assertEquals(largeContent.length, statistics.getBytes());
     }
 
     @Test
     void testReadBookContentEdgeCaseLastPage() throws IOException {
         // Arrange
         String edgeCaseContent = "12345678901234567890"; // 20 characters
-        lenient().when(mockBlob.getContent()).thenReturn(edgeCaseContent.getBytes(StandardCharsets.UTF_8));
-        
+        objects.put("bookcontents/edgecase.txt", edgeCaseContent.getBytes(StandardCharsets.UTF_8));
+
         // Act
         PagedContent pagedContent = bookContentService.readBookContent("edgecase.txt", 0, 20);
-        
+
         // Assert
         assertEquals(edgeCaseContent, pagedContent.getContent());
         assertEquals(0, pagedContent.getPageNumber());
@@ -237,14 +308,551 @@ public class BookContentServiceTest {
     @Test
     void testReadBookContentNullFilename() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> 
+        assertThrows(IllegalArgumentException.class, () ->
             bookContentService.readBookContent(null, 0, 20));
     }
 
     @Test
     void testDeleteBookContentNullFilename() {
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> 
+        assertThrows(IllegalArgumentException.class, () ->
             bookContentService.deleteBookContent(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReadBookContentWithPageIndexReadsOnlyPageBytes() throws IOException {
+        // Arrange
+        String content = "Æble først, så 😀 og til sidst en lang hale af tekst.";
+        storeIndexed("indexed.txt", content);
+
+        // Act
+        PagedContent pagedContent = bookContentService.readBookContent("indexed.txt", 1, 10);
+
+        // Assert
+        assertEquals(content.substring(10, 20), pagedContent.getContent());
+        assertEquals(content.length(), pagedContent.getTotalSize());
+        assertEquals((content.length() + 9) / 10, pagedContent.getTotalPages());
+        verify(storage, never()).get("bookcontents/indexed.txt");
+        verify(storage).getRange(eq("bookcontents/indexed.txt"), anyLong(), anyLong());
+    }
+
+    @Test
+    void testReadBookContentWithPageIndexMatchesFullRead() throws IOException {
+        // Arrange
+        storeIndexed("indexed.txt", TEST_CONTENT);
+
+        // Act & Assert
+        for (int page = 0; page * 10 < TEST_CONTENT.length(); page++) {
+            PagedContent indexed = bookContentService.readBookContent("indexed.txt", page, 10);
+            PagedContent legacy = bookContentService.readBookContent("test.txt", page, 10);
+            assertEquals(legacy.getContent(), indexed.getContent());
+            assertEquals(legacy.getTotalPages(), indexed.getTotalPages());
+        }
+    }
+
+    @Test
+    void testReadBookContentWithPageIndexInvalidPageNumber() throws IOException {
+        // Arrange
+        storeIndexed("indexed.txt", TEST_CONTENT);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            bookContentService.readBookContent("indexed.txt", 1000, 20));
+    }
+
+    @Test
+    void testIndexExistingContent() throws IOException {
+        // Act
+        boolean indexed = bookContentService.indexExistingContent("test.txt");
+
+        // Assert
+        assertTrue(indexed);
+        PageIndex index = PageIndex.fromBytes(objects.get("bookindex/test.txt.idx"));
+        assertEquals(TEST_CONTENT.length(), index.getTotalChars());
+        assertTrue(index.supports(20));
+    }
+
+    @Test
+    void testIndexExistingContentSkipsIndexedBooks() throws IOException {
+        // Arrange
+        storeIndexed("indexed.txt", TEST_CONTENT);
+
+        // Act
+        boolean indexed = bookContentService.indexExistingContent("indexed.txt");
+
+        // Assert
+        assertFalse(indexed);
+        verify(storage, never()).open(anyString());
+    }
+
+    @Test
+    void testListStoredFiles() throws IOException {
+        // Arrange
+        storeIndexed("indexed.txt", TEST_CONTENT);
+
+        // Act
+        List<String> filenames = bookContentService.listStoredFiles();
+
+        // Assert
+        assertEquals(List.of("indexed.txt", "test.txt"), filenames);
+    }
+
+    @Test
+    void testRepeatedReadsAreServedFromCache() throws IOException {
+        // Act
+        bookContentService.readBookContent("test.txt", 0, 20);
+        bookContentService.readBookContent("test.txt", 1, 20);
+
+        // Assert
+        verify(storage, times(1)).get("bookcontents/test.txt");
+        assertEquals(2, bookContentService.getCacheStats().getHitCount()); // page index and full text
+    }
+
+    @Test
+    void testRepeatedIndexedReadsAreServedFromCache() throws IOException {
+        // Arrange
+        storeIndexed("indexed.txt", TEST_CONTENT);
+
+        // Act
+        PagedContent first = bookContentService.readBookContent("indexed.txt", 1, 20);
+        PagedContent second = bookContentService.readBookContent("indexed.txt", 1, 20);
+
+        // Assert
+        assertEquals(first.getContent(), second.getContent());
+        verify(storage, times(1)).getRange(eq("bookcontents/indexed.txt"), anyLong(), anyLong());
+        verify(storage, times(1)).get("bookindex/indexed.txt.idx");
+    }
+
+    @Test
+    void testDeleteInvalidatesCachedContent() throws IOException {
+        // Arrange
+        bookContentService.readBookContent("test.txt", 0, 20);
+
+        // Act
+        bookContentService.deleteBookContent("test.txt");
+
+        // Assert
+        assertThrows(IOException.class, () -> bookContentService.readBookContent("test.txt", 0, 20));
+    }
+
+    @Test
+    void testStoreContentReplacesCachedContent() throws IOException {
+        // Arrange
+        bookContentService.readBookContent("test.txt", 0, 20);
+
+        // Act
+        bookContentService.storeContent(new ByteArrayInputStream("Replaced".getBytes(StandardCharsets.UTF_8)), "test.txt");
+
+        // Assert
+        assertEquals("Replaced", bookContentService.readBookContent("test.txt", 0, 20).getContent());
+    }
+
+    @Test
+    void testFailedStoreLeavesNoCachedContent() throws IOException {
+        // Arrange
+        bookContentService.readBookContent("test.txt", 0, 20);
+        doThrow(new IOException("Storage unavailable"))
+            .when(storage).put(eq("bookindex/test.txt.frames"), any(InputStream.class), anyString());
+
+        // Act
+        assertThrows(IOException.class, () -> bookContentService.storeContent(
+            new ByteArrayInputStream("Replaced".getBytes(StandardCharsets.UTF_8)), "test.txt"));
+
+        // Assert
+        assertEquals(0, bookContentService.getCacheStats().getEntryCount());
+    }
+
+    @Test
+    void testStoreContentStreamsWithoutMaterializingTheBook() throws IOException {
+        // Arrange
+        byte[] content = "Streamed content".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        bookContentService.storeContent(new ByteArrayInputStream(content), "streamed.txt");
+
+        // Assert
+        verify(storage, never()).get(anyString());
+        assertTrue(objects.get("bookcontents/streamed.txt").length < content.length);
+        assertEquals(content.length, FrameTable.fromBytes(objects.get("bookindex/streamed.txt.frames")).getTotalBytes());
+        assertEquals(content.length, PageIndex.fromBytes(objects.get("bookindex/streamed.txt.idx")).getTotalBytes());
+    }
+
+    @Test
+    void testStoreFailurePropagates() throws IOException {
+        // Arrange
+        doThrow(new IOException("Upload failed"))
+            .when(storage).put(eq("bookcontents/failing.txt"), any(InputStream.class), anyString());
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> bookContentService.storeContent(
+            new ByteArrayInputStream(new byte[10]), "failing.txt"));
+        assertFalse(objects.containsKey("bookindex/failing.txt.idx"));
+    }
+
+    @Test
+    void testReadBookContentWithStatisticsUsesWordCount() throws IOException {
+        // Arrange
+        TextStatistics statistics = storeIndexed("indexed.txt", "word ".repeat(183 * 61));
+
+        // Act
+        PagedContent indexed = bookContentService.readBookContent("indexed.txt", statistics, 0, 20);
+        PagedContent legacy = bookContentService.readBookContent("test.txt", statistics, 0, 20);
+
+        // Assert
+        assertEquals("1 hours, 1 minutes", indexed.getReadingTime());
+        assertEquals("1 hours, 1 minutes", legacy.getReadingTime());
+        assertEquals(statistics.getChars(), indexed.getTotalSize());
+    }
+
+    @Test
+    void testStoreContentComputesStatistics() throws IOException {
+        // Act
+        TextStatistics statistics = storeIndexed("stats.txt", TEST_CONTENT);
+
+        // Assert
+        assertEquals(TEST_CONTENT.length(), statistics.getChars());
+        assertEquals(TEST_CONTENT.codePointCount(0, TEST_CONTENT.length()), statistics.getCodePoints());
+        assertEquals(12, statistics.getWords());
+        assertEquals(4, statistics.getLines());
+        assertEquals(TEST_CONTENT.getBytes(StandardCharsets.UTF_8).length, statistics.getBytes());
+    }
+
+    @Test
+    void testUncompressedIndexedContentIsReadable() throws IOException {
+        // Arrange
+        bookContentService = newService(0);
+        storeIndexed("plain.txt", TEST_CONTENT);
+
+        // Act
+        PagedContent pagedContent = bookContentService.readBookContent("plain.txt", 1, 20);
+
+        // Assert
+        assertArrayEquals(TEST_CONTENT.getBytes(StandardCharsets.UTF_8), objects.get("bookcontents/plain.txt"));
+        assertFalse(objects.containsKey("bookindex/plain.txt.frames"));
+        assertEquals("Second page content.", pagedContent.getContent());
+    }
+
+    @Test
+    void testEncodedPageIsCached() throws IOException {
+        // Arrange
+        bookContentService = newService(0);
+        storeIndexed("encoded.txt", TEST_CONTENT);
+
+        // Act
+        EncodedPage first = bookContentService.readEncodedPage("encoded.txt", null, 1, 20, PageMode.CHAR);
+        EncodedPage second = bookContentService.readEncodedPage("encoded.txt", null, 1, 20, PageMode.CHAR);
+
+        // Assert
+        assertSame(first, second);
+        assertTrue(new String(first.json(), StandardCharsets.UTF_8).contains("\"content\":\"Second page content.\""));
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertArrayEquals(first.json(), gzip.readAllBytes());
+        }
+        verify(storage, times(1)).getRange(eq("bookcontents/encoded.txt"), anyLong(), anyLong());
+        assertNotSame(first, bookContentService.readEncodedPage("encoded.txt", null, 1, 20, PageMode.WORD));
+    }
+
+    @Test
+    void testPageReadsAreMeasured() throws IOException {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bookContentService = newService(0);
+        bookContentService.setMeterRegistry(registry);
+        storeIndexed("metered.txt", TEST_CONTENT);
+
+        // Act
+        EncodedPage page = bookContentService.readEncodedPage("metered.txt", null, 1, 20, PageMode.CHAR);
+        bookContentService.readEncodedPage("metered.txt", null, 1, 20, PageMode.CHAR);
+
+        // Assert
+        assertEquals(1, registry.get("diglib.content.page.read").tag("cache", "miss").timer().count());
+        assertEquals(1, registry.get("diglib.content.page.read").tag("cache", "hit").timer().count());
+        assertEquals(20, registry.get("diglib.content.decoded").summary().totalAmount());
+        assertEquals(page.json().length, registry.get("diglib.content.page.encoded").summary().totalAmount());
+    }
+
+    @Test
+    void testPageSpanningFramesIsReadWithOneRangeRead() throws IOException {
+        // Arrange
+        bookContentService = newService(8);
+        String content = "Æble først, så 😀 og til sidst en lang hale af tekst.";
+        storeIndexed("framed.txt", content);
+
+        // Act
+        PagedContent pagedContent = bookContentService.readBookContent("framed.txt", 1, 20);
+
+        // Assert
+        assertEquals(content.substring(20, 40), pagedContent.getContent());
+        verify(storage, times(1)).getRange(eq("bookcontents/framed.txt"), anyLong(), anyLong());
+    }
+
+    @Test
+    void testCompressedFullReadMatchesContent() throws IOException {
+        // Arrange
+        byte[] invalid = {'a', (byte) 0xFF, 'b'};
+        bookContentService.storeContent(new ByteArrayInputStream(invalid), "invalid.txt");
+
+        // Act
+        PagedContent pagedContent = bookContentService.readBookContent("invalid.txt", 0, 20);
+
+        // Assert
+        assertFalse(objects.containsKey("bookindex/invalid.txt.idx"));
+        assertEquals(new String(invalid, StandardCharsets.UTF_8), pagedContent.getContent());
+    }
+
+    @Test
+    void testSequentialReadOfCompressedBookReadsFewerBytes() throws IOException {
+        // Arrange
+        String content = "It was the best of times, it was the worst of times. ".repeat(4_000);
+        storeIndexed("compressed.txt", content);
+        BookContentService uncompressed = newService(0);
+        uncompressed.storeContent(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "raw.txt");
+
+        // Act
+        long compressedBytes = readAllPages(bookContentService, "compressed.txt", content.length());
+        long rawBytes = readAllPages(uncompressed, "raw.txt", content.length());
+
+        // Assert
+        assertEquals(content.getBytes(StandardCharsets.UTF_8).length, rawBytes);
+        assertTrue(compressedBytes * 4 < rawBytes, compressedBytes + " compressed vs " + rawBytes + " raw bytes read");
+    }
+
+    @Test
+    void testTransferContentOfCompressedBook() throws IOException {
+        // Arrange
+        bookContentService = newService(8);
+        String content = "Æble først, så 😀 og til sidst en lang hale af tekst.";
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        storeIndexed("framed.txt", content);
+
+        // Act & Assert
+        assertEquals(bytes.length, bookContentService.contentLength("framed.txt"));
+        for (int[] range : new int[][] {{0, bytes.length}, {3, 21}, {8, 16}, {bytes.length - 1, bytes.length}}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            bookContentService.transferContent("framed.txt", range[0], range[1], out);
+            assertArrayEquals(Arrays.copyOfRange(bytes, range[0], range[1]), out.toByteArray());
+        }
+    }
+
+    @Test
+    void testTransferContentOfPlainBook() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        bookContentService.transferContent("test.txt", 20, 41, out);
+
+        // Assert
+        assertEquals(TEST_CONTENT.length(), bookContentService.contentLength("test.txt"));
+        assertEquals("Second page content.\n", out.toString(StandardCharsets.UTF_8));
+        verify(storage).openRange("bookcontents/test.txt", 20, 41);
+        verify(storage, never()).get("bookcontents/test.txt");
+    }
+
+    @Test
+    void testContentLengthOfMissingBook() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> bookContentService.contentLength("nonexistent.txt"));
+    }
+
+    @Test
+    void testSequentialReadsLoadNextPagesAhead() throws IOException {
+        // Arrange
+        BookContentCache cache = new BookContentCache(1 << 20);
+        AtomicLong clock = new AtomicLong();
+        ReadAhead readAhead = new ReadAhead(Runnable::run, 4, 30_000, () -> clock.addAndGet(1_000_000_000L));
+        bookContentService = new BookContentService(storage, cache, readAhead, 20, new int[] {10}, 0, 1000);
+        String content = "0123456789".repeat(20);
+        storeIndexed("ahead.txt", content);
+
+        // Act
+        bookContentService.readBookContent("ahead.txt", 0, 10);
+        bookContentService.readBookContent("ahead.txt", 1, 10);
+
+        // Assert
+        for (int page = 1; page <= 5; page++) {
+            assertTrue(cache.containsPage("ahead.txt", "10", page), "page " + page + " should be cached");
+        }
+        assertFalse(cache.containsPage("ahead.txt", "10", 6));
+        verify(storage, times(3)).getRange(eq("bookcontents/ahead.txt"), anyLong(), anyLong());
+        assertEquals("0123456789", bookContentService.readBookContent("ahead.txt", 2, 10).getContent());
+        verify(storage, times(4)).getRange(eq("bookcontents/ahead.txt"), anyLong(), anyLong());
+    }
+
+    @Test
+    void testReadBookContentRangeUsesOneRangedRead() throws IOException {
+        // Arrange
+        bookContentService = newService(0);
+        StringBuilder content = new StringBuilder();
+        for (int page = 0; page < 8; page++) {
+            content.append("Page ").append(page).append(" of ten. "); // 15 chars, 10 char pages do not align
+        }
+        storeIndexed("batch.txt", content.toString());
+
+        // Act
+        List<PagedContent> pages = bookContentService.readBookContentRange("batch.txt", null, 2, 5, 10, PageMode.CHAR);
+
+        // Assert
+        assertEquals(4, pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            PagedContent page = pages.get(i);
+            assertEquals(2 + i, page.getPageNumber());
+            assertEquals(12, page.getTotalPages());
+            assertEquals(content.substring((2 + i) * 10, (3 + i) * 10), page.getContent());
+        }
+        verify(storage, times(1)).getRange(eq("bookcontents/batch.txt"), anyLong(), anyLong());
+        assertEquals(40, bytesRead.get());
+
+        // The pages were cached, so reading one of them does not touch the storage
+        assertEquals(content.substring(30, 40), bookContentService.readBookContent("batch.txt", 3, 10).getContent());
+        verify(storage, times(1)).getRange(eq("bookcontents/batch.txt"), anyLong(), anyLong());
+    }
+
+    @Test
+    void testReadBookContentRangeIsCapped() throws IOException {
+        // Arrange
+        String content = "0123456789".repeat(200);
+        storeIndexed("capped.txt", content);
+
+        // Act
+        List<PagedContent> pages = bookContentService.readBookContentRange("capped.txt", null, 10, 99, 20, PageMode.CHAR);
+        List<PagedContent> tail = bookContentService.readBookContentRange("capped.txt", null, 95, 120, 20, PageMode.CHAR);
+
+        // Assert
+        assertEquals(50, pages.size()); // 1000 characters
+        assertEquals(10, pages.get(0).getPageNumber());
+        assertEquals(59, pages.get(49).getPageNumber());
+        assertEquals(5, tail.size());
+        assertEquals(99, tail.get(4).getPageNumber());
+    }
+
+    @Test
+    void testReadBookContentRangeWithoutIndex() throws IOException {
+        // Act
+        List<PagedContent> pages = bookContentService.readBookContentRange("test.txt", null, 1, 2, null, PageMode.CHAR);
+
+        // Assert
+        assertEquals(2, pages.size());
+        assertEquals("Second page content.", pages.get(0).getContent().trim());
+        assertEquals("Third page content.", pages.get(1).getContent().trim());
+        verify(storage, times(1)).get("bookcontents/test.txt");
+    }
+
+    @Test
+    void testReadBookContentRangeInvalid() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> bookContentService.readBookContentRange("test.txt", null, 2, 1, null, PageMode.CHAR));
+        assertThrows(IllegalArgumentException.class,
+            () -> bookContentService.readBookContentRange("test.txt", null, 10, 12, null, PageMode.CHAR));
+        assertThrows(IllegalArgumentException.class,
+            () -> bookContentService.readBookContentRange(null, null, 0, 1, null, PageMode.CHAR));
+    }
+
+    @Test
+    void testReadBookContentByWords() throws IOException {
+        // Arrange
+        String content = "The quick brown fox jumps over the lazy dog. Pack my box with five dozen liquor jugs.";
+        storeIndexed("words.txt", content);
+
+        // Act
+        StringBuilder joined = new StringBuilder();
+        PagedContent first = bookContentService.readBookContent("words.txt", null, 0, 20, PageMode.WORD);
+        for (int page = 0; page < first.getTotalPages(); page++) {
+            String text = bookContentService.readBookContent("words.txt", null, page, 20, PageMode.WORD).getContent();
+            assertTrue(text.length() <= 20);
+            assertTrue(page == 0 || joined.charAt(joined.length() - 1) == ' ', "page " + page + " starts a word");
+            joined.append(text);
+        }
+
+        // Assert
+        assertEquals("The quick brown fox ", first.getContent());
+        assertEquals(content, joined.toString());
+        assertTrue(objects.containsKey("bookindex/words.txt.breaks"));
+        verify(storage, never()).open("bookcontents/words.txt");
+    }
+
+    @Test
+    void testBreaksOfOtherPageSizesAreComputedOnce() throws IOException {
+        // Arrange
+        String content = "First paragraph.\n\nSecond paragraph, a little longer.\n\nThird.";
+        storeIndexed("paragraphs.txt", content);
+
+        // Act
+        PagedContent first = bookContentService.readBookContent("paragraphs.txt", null, 0, 40, PageMode.PARAGRAPH);
+        PagedContent second = bookContentService.readBookContent("paragraphs.txt", null, 1, 40, PageMode.PARAGRAPH);
+        bookContentService = newService(1024); // Empty cache, the table is read from storage
+        PagedContent third = bookContentService.readBookContent("paragraphs.txt", null, 2, 40, PageMode.PARAGRAPH);
+
+        // Assert
+        assertEquals("First paragraph.\n\n", first.getContent());
+        assertEquals("Second paragraph, a little longer.\n\n", second.getContent());
+        assertEquals("Third.", third.getContent());
+        verify(storage, times(1)).open("bookcontents/paragraphs.txt");
+    }
+
+    @Test
+    void testBreaksOfSmallPageSizesAreRefused() throws IOException {
+        // Arrange
+        storeIndexed("words.txt", "The quick brown fox jumps over the lazy dog.");
+
+        // Act & Assert
+        assertEquals("The quick ", bookContentService.readBookContent("words.txt", null, 0, 10, PageMode.WORD)
+            .getContent());
+        assertThrows(IllegalArgumentException.class,
+            () -> bookContentService.readBookContent("words.txt", null, 0, 15, PageMode.WORD));
+        verify(storage, never()).open("bookcontents/words.txt");
+    }
+
+    @Test
+    void testBreaksOfNewPageSizesAreLimitedPerBook() throws IOException {
+        // Arrange
+        storeIndexed("words.txt", "The quick brown fox jumps over the lazy dog.");
+
+        // Act: the upload stored 4 tables, 12 more fit
+        for (int pageSize = 21; pageSize <= 32; pageSize++) {
+            bookContentService.readBookContent("words.txt", null, 0, pageSize, PageMode.WORD);
+        }
+
+        // Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> bookContentService.readBookContent("words.txt", null, 0, 33, PageMode.WORD));
+        bookContentService = newService(1024); // Empty cache, the tables are read from storage
+        assertEquals("The quick brown fox jumps ",
+            bookContentService.readBookContent("words.txt", null, 0, 26, PageMode.WORD).getContent());
+        verify(storage, times(12)).open("bookcontents/words.txt");
+    }
+
+    @Test
+    void testReadBookContentByWordsInvalid() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> bookContentService.readBookContent("test.txt", null, 0, 0, PageMode.WORD));
+        assertThrows(IllegalArgumentException.class,
+            () -> bookContentService.readBookContent("test.txt", null, 99, 20, PageMode.WORD));
+    }
+
+    private long readAllPages(BookContentService service, String filename, int length) throws IOException {
+        bytesRead.set(0);
+        for (int page = 0; page * 20 < length; page++) {
+            service.readBookContent(filename, page, 20);
+        }
+        return bytesRead.get();
+    }
+
+    private BookContentService newService(int frameSize) {
+        ReadAhead disabled = new ReadAhead(Runnable::run, 0, 30_000, System::nanoTime);
+        return new BookContentService(storage, new BookContentCache(1 << 20), disabled, 20, new int[] {10}, frameSize,
+            1000);
+    }
+
+    private byte[] readStored(String filename) throws IOException {
+        try (InputStream content = bookContentService.openContent(filename)) {
+            return content.readAllBytes();
+        }
+    }
+
+    private TextStatistics storeIndexed(String filename, String content) throws IOException {
+        return bookContentService.storeContent(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), filename);
+    }
+}
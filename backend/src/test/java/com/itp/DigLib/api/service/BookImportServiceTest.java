@@ -0,0 +1,330 @@
+package com.itp.DigLib.api.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.ImportReport;
+import com.itp.DigLib.api.model.TextStatistics;
+import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.search.BookIndexListener;
+import com.itp.DigLib.search.FacetCounts;
+import com.itp.DigLib.search.TrigramIndex;
+import com.itp.DigLib.search.SearchService;
+
+public class BookImportServiceTest {
+    private static final String MANIFEST = """
+            title,author,genre,isbn,year,file
+            The Hobbit,J. R. R. Tolkien,Fantasy,9780261102217,1937,hobbit.txt
+            "Ringworld, Part One",Larry Niven,Science Fiction,9780345333926,1970,ringworld.txt
+            """;
+
+    @Mock
+    private BookRepository bookRepo;
+
+    @Mock
+    private BookContentService bookContentService;
+
+    @Mock
+    private SearchService searchService;
+
+    private final TextStatistics statistics = new TextStatistics(4, 4, 1, 1, 4);
+    private ExecutorService uploads;
+    private BookImportService importService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        uploads = Executors.newFixedThreadPool(2);
+        importService = new BookImportService(bookRepo, bookContentService, searchService, uploads);
+        when(bookContentService.storeContent(any(), anyString())).thenReturn(statistics);
+        when(bookRepo.saveAll(any())).thenAnswer(invocation -> {
+            int id = 1;
+            for (Book book : invocation.<Iterable<Book>>getArgument(0)) {
+                book.setId(id++);
+            }
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploads.shutdownNow();
+    }
+
+    private static BookImportService.ContentSource contents(Map<String, String> files) {
+        return new BookImportService.ContentSource() {
+            @Override
+            public boolean contains(String name) {
+                return files.containsKey(name);
+            }
+
+            @Override
+            public InputStream open(String name) {
+                return new ByteArrayInputStream(files.get(name).getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    @Test
+    void testImportSavesBooksInOneBatch() {
+        // Arrange
+        List<ImportManifest.Entry> entries = ImportManifest.parseCsv(MANIFEST);
+
+        // Act
+        ImportReport report = importService.importBooks(entries,
+            contents(Map.of("hobbit.txt", "text", "ringworld.txt", "text")));
+
+        // Assert
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertEquals(1, report.getItems().get(0).getId());
+        assertEquals("ringworld.txt", report.getItems().get(1).getFile());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Book>> saved = ArgumentCaptor.forClass(List.class);
+        verify(bookRepo).saveAll(saved.capture());
+        assertEquals("Ringworld, Part One", saved.getValue().get(1).getTitle());
+        assertEquals(statistics, saved.getValue().get(0).getTextStatistics());
+        verify(searchService, times(2)).indexBook(any(Book.class));
+    }
+
+    @Test
+    void testInvalidEntriesFailOnTheirOwn() {
+        // Arrange
+        List<ImportManifest.Entry> entries = List.of(
+            new ImportManifest.Entry("Good", "Author", "Fantasy", "9780261102217", "1937", "good.txt"),
+            new ImportManifest.Entry("Bad ISBN", "Author", "Fantasy", "123", "1937", "good.txt"),
+            new ImportManifest.Entry("Bad year", "Author", "Fantasy", "9780261102217", "soon", "good.txt"),
+            new ImportManifest.Entry("No file", "Author", "Fantasy", "9780261102217", "1937", "missing.txt"));
+
+        // Act
+        ImportReport report = importService.importBooks(entries, contents(Map.of("good.txt", "text")));
+
+        // Assert
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals("Illegal values ISBN must be 13 digits", report.getItems().get(1).getError());
+        assertTrue(report.getItems().get(2).getError().startsWith("Illegal values"));
+        assertEquals("Missing content file missing.txt", report.getItems().get(3).getError());
+        assertNull(report.getItems().get(3).getId());
+    }
+
+    @Test
+    void testFailedUploadIsReported() throws IOException {
+        // Arrange
+        when(bookContentService.storeContent(any(), anyString())).thenThrow(new IOException("Storage unavailable"));
+
+        // Act
+        ImportReport report = importService.importBooks(ImportManifest.parseCsv(MANIFEST),
+            contents(Map.of("hobbit.txt", "text", "ringworld.txt", "text")));
+
+        // Assert
+        assertEquals(2, report.getFailed());
+        assertEquals("Failed to store book content: Storage unavailable", report.getItems().get(0).getError());
+        verify(searchService, never()).indexBook(any(Book.class));
+    }
+
+    @Test
+    void testFailedSaveDeletesStoredContents() {
+        // Arrange
+        doThrow(new IllegalStateException("Database unavailable")).when(bookRepo).saveAll(any());
+
+        // Act
+        ImportReport report = importService.importBooks(ImportManifest.parseCsv(MANIFEST),
+            contents(Map.of("hobbit.txt", "text", "ringworld.txt", "text")));
+
+        // Assert
+        assertEquals(0, report.getImported());
+        assertEquals("Failed to save book: Database unavailable", report.getItems().get(1).getError());
+        verify(bookContentService, times(2)).deleteBookContent(anyString());
+        verify(searchService, never()).indexBook(any(Book.class));
+    }
+
+    @Test
+    void testLargeImportsAreSavedInChunks() {
+        // Arrange
+        List<ImportManifest.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < BookImportService.CHUNK_SIZE + 1; i++) {
+            entries.add(new ImportManifest.Entry("Book " + i, "Author", "Fantasy", "9780261102217", "1937", "a.txt"));
+        }
+
+        // Act
+        ImportReport report = importService.importBooks(entries, contents(Map.of("a.txt", "text")));
+
+        // Assert
+        assertEquals(BookImportService.CHUNK_SIZE + 1, report.getImported());
+        assertEquals(BookImportService.CHUNK_SIZE, report.getItems().get(BookImportService.CHUNK_SIZE).getIndex());
+        verify(bookRepo, times(2)).saveAll(any());
+    }
+
+    @Test
+    void testInterruptedImportDeletesEveryUnsavedContent() throws Exception {
+        // Arrange
+        CountDownLatch uploading = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        // Like a storage write, the uploads carry on when they are interrupted
+        when(bookContentService.storeContent(any(), anyString())).thenAnswer(invocation -> {
+            uploading.countDown();
+            while (true) {
+                try {
+                    release.await();
+                    return statistics;
+                } catch (InterruptedException e) {
+                    // Keep waiting
+                }
+            }
+        });
+        ImportReport[] report = new ImportReport[1];
+        Thread importer = new Thread(() -> report[0] = importService.importBooks(ImportManifest.parseCsv(MANIFEST),
+            contents(Map.of("hobbit.txt", "text", "ringworld.txt", "text"))));
+
+        // Act
+        importer.start();
+        assertTrue(uploading.await(5, TimeUnit.SECONDS));
+        importer.interrupt();
+        importer.join(5000);
+        release.countDown();
+        uploads.shutdown();
+        assertTrue(uploads.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(0, report[0].getImported());
+        assertEquals("Import interrupted", report[0].getItems().get(0).getError());
+        assertEquals("Import interrupted", report[0].getItems().get(1).getError());
+        verify(bookContentService).deleteBookContents(argThat(filenames -> filenames.size() == 2));
+        // Both uploads completed after the import gave up on them, and deleted what they stored
+        verify(bookContentService, times(2)).deleteBookContent(anyString());
+        verify(bookRepo, never()).saveAll(argThat(books -> books.iterator().hasNext()));
+        verify(searchService, never()).indexBook(any(Book.class));
+    }
+
+    @Test
+    void testFailedChunkLeavesFacetCountsAlone() {
+        // Arrange
+        FacetCounts facets = new FacetCounts();
+        facets.markReady();
+        BookIndexListener listener = new BookIndexListener(new TrigramIndex(10), facets);
+        int[] chunks = new int[1];
+        int[] ids = new int[1];
+        // Flushes every book through the entity listener in a transaction that only the first chunk commits
+        doAnswer(invocation -> {
+            TransactionSynchronizationManager.initSynchronization();
+            boolean committed = chunks[0]++ == 0;
+            try {
+                for (Book book : invocation.<Iterable<Book>>getArgument(0)) {
+                    book.setId(++ids[0]);
+                    listener.afterInsert(book);
+                }
+                if (!committed) {
+                    throw new IllegalStateException("Duplicate ISBN");
+                }
+                return invocation.getArgument(0);
+            } finally {
+                List<TransactionSynchronization> synchronizations =
+                    TransactionSynchronizationManager.getSynchronizations();
+                TransactionSynchronizationManager.clearSynchronization();
+                if (committed) {
+                    synchronizations.forEach(TransactionSynchronization::afterCommit);
+                }
+            }
+        }).when(bookRepo).saveAll(any());
+        List<ImportManifest.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < BookImportService.CHUNK_SIZE + 2; i++) {
+            entries.add(new ImportManifest.Entry("Book " + i, "Author", "Fantasy", "9780261102217", "1937", "a.txt"));
+        }
+
+        // Act
+        ImportReport report = importService.importBooks(entries, contents(Map.of("a.txt", "text")));
+
+        // Assert
+        assertEquals(BookImportService.CHUNK_SIZE, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(BookImportService.CHUNK_SIZE, facets.total());
+        verify(bookContentService, times(2)).deleteBookContent(anyString());
+    }
+
+    @Test
+    void testImportArchive() throws IOException {
+        // Arrange
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            out.putNextEntry(new ZipEntry("hobbit.txt"));
+            out.write("In a hole in the ground".getBytes(StandardCharsets.UTF_8));
+            out.putNextEntry(new ZipEntry("manifest.csv"));
+            out.write(MANIFEST.getBytes(StandardCharsets.UTF_8));
+        }
+        MockMultipartFile archive = new MockMultipartFile("archive", "books.zip", "application/zip", zip.toByteArray());
+
+        // Act
+        ImportReport report = importService.importArchive(archive);
+
+        // Assert
+        assertEquals(1, report.getImported());
+        assertEquals("Missing content file ringworld.txt", report.getItems().get(1).getError());
+    }
+
+    @Test
+    void testImportArchiveWithoutManifest() throws IOException {
+        // Arrange
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(zip)) {
+            out.putNextEntry(new ZipEntry("hobbit.txt"));
+        }
+        MockMultipartFile archive = new MockMultipartFile("archive", "books.zip", "application/zip", zip.toByteArray());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> importService.importArchive(archive));
+    }
+
+    @Test
+    void testImportFiles() throws IOException {
+        // Arrange
+        MockMultipartFile manifest = new MockMultipartFile("manifest", "manifest.json", "application/json", """
+            [{"title": "The Hobbit", "author": "J. R. R. Tolkien", "genre": "Fantasy",
+              "isbn": "9780261102217", "year": 1937, "file": "hobbit.txt"}]
+            """.getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile file = new MockMultipartFile("files", "hobbit.txt", "text/plain", "text".getBytes());
+
+        // Act
+        ImportReport report = importService.importFiles(manifest, List.of(file));
+
+        // Assert
+        assertEquals(1, report.getImported());
+        verify(bookContentService).storeContent(any(), anyString());
+    }
+}
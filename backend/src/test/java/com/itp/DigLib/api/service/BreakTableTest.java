@@ -0,0 +1,124 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.itp.DigLib.api.model.PageMode;
+
+public class BreakTableTest {
+    private static final PageMode[] MODES = {PageMode.WORD, PageMode.PARAGRAPH};
+
+    private static BreakTable build(String text, int... pageSizes) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return BreakTable.builder(MODES, pageSizes).update(bytes, 0, bytes.length).build();
+    }
+
+    private static List<String> pages(BreakTable table, String text, PageMode mode, int pageSize) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        PageLayout layout = table.layout(mode, pageSize);
+        List<String> pages = new ArrayList<>();
+        for (int page = 0; page < layout.totalPages(); page++) {
+            byte[] range = Arrays.copyOfRange(bytes, (int) layout.startByte(page), (int) layout.endByte(page));
+            String decoded = new String(range, StandardCharsets.UTF_8);
+            assertEquals(layout.pageChars(page), decoded.length());
+            pages.add(decoded);
+        }
+        return pages;
+    }
+
+    @Test
+    void testWordPagesEndBeforeAWord() {
+        String text = "The quick brown fox jumps over the lazy dog.";
+
+        List<String> pages = pages(build(text, 12), text, PageMode.WORD, 12);
+
+        assertEquals(List.of("The quick ", "brown fox ", "jumps over ", "the lazy ", "dog."), pages);
+    }
+
+    @Test
+    void testParagraphPagesPreferParagraphBreaks() {
+        String text = "One two.\n\nThree four five.\nSix.\n\nSeven";
+
+        List<String> pages = pages(build(text, 24), text, PageMode.PARAGRAPH, 24);
+
+        assertEquals(List.of("One two.\n\n", "Three four five.\nSix.\n\n", "Seven"), pages);
+    }
+
+    @Test
+    void testParagraphPagesFallBackToWords() {
+        String text = "A paragraph that is far longer than one page.";
+
+        List<String> pages = pages(build(text, 16), text, PageMode.PARAGRAPH, 16);
+
+        assertEquals(String.join("", pages), text);
+        assertEquals(pages(build(text, 16), text, PageMode.WORD, 16), pages);
+    }
+
+    @Test
+    void testLongWordsAreCutAtCodePoints() {
+        String text = "😀😀😀😀 Blåbærsyltetøy";
+
+        for (int pageSize : new int[] {1, 3, 5}) {
+            List<String> pages = pages(build(text, pageSize), text, PageMode.WORD, pageSize);
+
+            assertEquals(text, String.join("", pages));
+            for (String page : pages) {
+                assertTrue(page.length() <= Math.max(pageSize, 2), page);
+                assertFalse(Character.isLowSurrogate(page.charAt(0)), page);
+            }
+        }
+    }
+
+    @Test
+    void testChunkedInputGivesSameTable() {
+        byte[] bytes = "Ærlig talt,\n\n中文 og 😀 i små biter".getBytes(StandardCharsets.UTF_8);
+
+        BreakTable.Builder builder = BreakTable.builder(MODES, 4, 9);
+        for (int i = 0; i < bytes.length; i++) {
+            builder.update(bytes, i, 1);
+        }
+
+        assertTrue(Arrays.equals(
+            BreakTable.builder(MODES, 4, 9).update(bytes, 0, bytes.length).build().toBytes(),
+            builder.build().toBytes()));
+    }
+
+    @Test
+    void testSerializationRoundTripAndMerge() throws IOException {
+        String text = "Første side. Andre side 😀.\n\nTredje side.";
+        BreakTable original = build(text, 10);
+
+        BreakTable restored = BreakTable.fromBytes(original.toBytes());
+        BreakTable merged = restored.merge(build(text, 25));
+
+        assertEquals(pages(original, text, PageMode.WORD, 10), pages(restored, text, PageMode.WORD, 10));
+        assertEquals(2, restored.tableCount());
+        assertEquals(4, merged.tableCount());
+        assertTrue(merged.supports(PageMode.PARAGRAPH, 25));
+        assertFalse(restored.supports(PageMode.PARAGRAPH, 25));
+        assertThrows(IllegalArgumentException.class, () -> restored.layout(PageMode.WORD, 25));
+        assertThrows(IOException.class, () -> BreakTable.fromBytes(new byte[] {1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    void testMalformedContentHasNoTable() {
+        byte[] bytes = {'a', ' ', (byte) 0xC3, 'b'};
+
+        assertNull(BreakTable.builder(MODES, 10).update(bytes, 0, bytes.length).build());
+    }
+
+    @Test
+    void testEmptyContentHasNoPages() {
+        assertEquals(0, build("", 10).layout(PageMode.WORD, 10).totalPages());
+    }
+}
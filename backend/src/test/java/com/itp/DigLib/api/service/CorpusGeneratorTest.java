@@ -0,0 +1,113 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.itp.DigLib.api.model.Book;
+
+public class CorpusGeneratorTest {
+    private static final List<String> GENRES = List.of("Fantasy", "Mystery", "Science Fiction");
+
+    private static CorpusGenerator generator(long seed, String scripts) {
+        return new CorpusGenerator(seed, 10_000, GENRES, 1000, 100_000, CorpusGenerator.parseScripts(scripts));
+    }
+
+    private static String decode(InputStream content) throws IOException {
+        return StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .decode(ByteBuffer.wrap(content.readAllBytes()))
+            .toString();
+    }
+
+    @Test
+    void testSameSeedGivesSameCatalogue() throws IOException {
+        // Arrange
+        CorpusGenerator first = generator(42, "ascii=1,cjk=1");
+        CorpusGenerator second = generator(42, "ascii=1,cjk=1");
+
+        // Act & Assert
+        assertEquals(first.entry(1234), second.entry(1234));
+        assertArrayEquals(first.content(1234).readAllBytes(), second.content(1234).readAllBytes());
+        assertNotEquals(first.entry(1234), generator(43, "ascii=1,cjk=1").entry(1234));
+    }
+
+    @Test
+    void testEntriesAreValidBooks() {
+        // Arrange
+        CorpusGenerator generator = generator(42, "ascii=1");
+
+        // Act & Assert
+        for (int index = 0; index < 1000; index++) {
+            ImportManifest.Entry entry = generator.entry(index);
+            Book book = entry.toBook();
+            assertTrue(GENRES.contains(book.getGenre()));
+            assertEquals(index, CorpusGenerator.indexOf(entry.file()));
+        }
+    }
+
+    @Test
+    void testIsbnCheckDigit() {
+        // Act & Assert
+        assertEquals("9780261102217", CorpusGenerator.isbn(26110221));
+        assertEquals("9780000000002", CorpusGenerator.isbn(0));
+    }
+
+    @Test
+    void testAuthorsAreSkewed() {
+        // Arrange
+        CorpusGenerator generator = generator(42, "ascii=1");
+        Map<String, Integer> booksByAuthor = new HashMap<>();
+
+        // Act
+        for (int index = 0; index < 10_000; index++) {
+            booksByAuthor.merge(generator.entry(index).author(), 1, Integer::sum);
+        }
+
+        // Assert
+        int top = booksByAuthor.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        assertTrue(booksByAuthor.size() <= 500, booksByAuthor.size() + " authors");
+        assertTrue(top > 1000, "most prolific author has " + top + " books");
+    }
+
+    @Test
+    void testContentHasExactSizeAndValidUtf8() throws IOException {
+        // Arrange
+        CorpusGenerator generator = generator(42, "latin1=1,cjk=1,emoji=1");
+
+        // Act
+        for (int index = 0; index < 20; index++) {
+            InputStream content = generator.content(index);
+            long size = generator.contentBytes(index);
+
+            // Assert
+            assertEquals(size, generator.content(index).readAllBytes().length);
+            String text = decode(content);
+            assertTrue(size >= 1000 && size <= 100_000);
+            assertTrue(text.codePoints().anyMatch(c -> Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN));
+            assertTrue(text.codePoints().anyMatch(Character::isSupplementaryCodePoint));
+        }
+    }
+
+    @Test
+    void testInvalidSettings() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> CorpusGenerator.parseScripts("klingon=1"));
+        assertThrows(IllegalArgumentException.class, () -> generator(42, "ascii=0"));
+        assertThrows(IllegalArgumentException.class, () ->
+            new CorpusGenerator(42, 10, GENRES, 100, 10, CorpusGenerator.parseScripts("ascii=1")));
+        assertEquals(-1, CorpusGenerator.indexOf("hobbit.txt"));
+    }
+}
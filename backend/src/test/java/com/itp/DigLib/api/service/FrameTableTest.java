@@ -0,0 +1,120 @@
+package com.itp.DigLib.api.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class FrameTableTest {
+
+    private static final byte[] CONTENT = "Blåbær, €uro og 😀 emoji på hver side. ".repeat(200)
+        .getBytes(StandardCharsets.UTF_8);
+
+    private static FrameCompressingInputStream compress(byte[] content, int frameSize) {
+        return new FrameCompressingInputStream(new ByteArrayInputStream(content), frameSize);
+    }
+
+    @Test
+    void testFramesInflateToContent() throws IOException {
+        FrameCompressingInputStream in = compress(CONTENT, 1000);
+        byte[] compressed = in.readAllBytes();
+        FrameTable frames = in.frameTable();
+
+        assertEquals((CONTENT.length + 999) / 1000, frames.frameCount());
+        assertEquals(CONTENT.length, frames.getTotalBytes());
+        assertEquals(compressed.length, frames.getCompressedBytes());
+        assertTrue(compressed.length < CONTENT.length);
+        for (int frame = 0; frame < frames.frameCount(); frame++) {
+            ByteBuffer frameBytes = ByteBuffer.wrap(compressed, (int) frames.compressedStart(frame),
+                (int) (frames.compressedEnd(frame) - frames.compressedStart(frame)));
+            byte[] raw = FrameTable.inflate(frameBytes, frames.rawLength(frame));
+            int start = (int) frames.rawStart(frame);
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, start, start + raw.length), raw);
+        }
+    }
+
+    @Test
+    void testDecompressingStreamRestoresContent() throws IOException {
+        FrameCompressingInputStream in = compress(CONTENT, 333);
+        byte[] compressed = in.readAllBytes();
+
+        try (InputStream restored = new FrameDecompressingInputStream(
+                new ByteArrayInputStream(compressed), in.frameTable())) {
+            assertArrayEquals(CONTENT, restored.readAllBytes());
+        }
+    }
+
+    @Test
+    void testDecompressingStreamStartsAtFrame() throws IOException {
+        FrameCompressingInputStream in = compress(CONTENT, 333);
+        byte[] compressed = in.readAllBytes();
+        FrameTable frames = in.frameTable();
+
+        int start = (int) frames.compressedStart(2);
+        try (InputStream restored = new FrameDecompressingInputStream(
+                new ByteArrayInputStream(compressed, start, compressed.length - start), frames, 2)) {
+            restored.skipNBytes(10);
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 666 + 10, CONTENT.length), restored.readAllBytes());
+        }
+    }
+
+    @Test
+    void testSerializationRoundTrip() throws IOException {
+        FrameCompressingInputStream in = compress(CONTENT, 512);
+        in.readAllBytes();
+        FrameTable frames = in.frameTable();
+
+        FrameTable copy = FrameTable.fromBytes(frames.toBytes());
+
+        assertEquals(frames.getFrameSize(), copy.getFrameSize());
+        assertEquals(frames.getTotalBytes(), copy.getTotalBytes());
+        assertEquals(frames.frameCount(), copy.frameCount());
+        for (int frame = 0; frame < frames.frameCount(); frame++) {
+            assertEquals(frames.compressedStart(frame), copy.compressedStart(frame));
+            assertEquals(frames.compressedEnd(frame), copy.compressedEnd(frame));
+        }
+    }
+
+    @Test
+    void testEmptyContentHasNoFrames() throws IOException {
+        FrameCompressingInputStream in = compress(new byte[0], 512);
+
+        assertEquals(0, in.readAllBytes().length);
+        assertEquals(0, in.frameTable().frameCount());
+    }
+
+    @Test
+    void testFrameOfMapsOffsets() throws IOException {
+        FrameCompressingInputStream in = compress(CONTENT, 100);
+        in.readAllBytes();
+        FrameTable frames = in.frameTable();
+
+        assertEquals(0, frames.frameOf(99));
+        assertEquals(1, frames.frameOf(100));
+        assertEquals(100, frames.rawStart(1));
+        assertEquals(CONTENT.length - frames.rawStart(frames.frameCount() - 1), frames.rawLength(frames.frameCount() - 1));
+    }
+
+    @Test
+    void testTruncatedFrameIsRejected() throws IOException {
+        FrameCompressingInputStream in = compress(CONTENT, 1000);
+        byte[] compressed = in.readAllBytes();
+        FrameTable frames = in.frameTable();
+
+        ByteBuffer truncated = ByteBuffer.wrap(compressed, 0, (int) frames.compressedEnd(0) / 2);
+        assertThrows(IOException.class, () -> FrameTable.inflate(truncated, frames.rawLength(0)));
+    }
+
+    @Test
+    void testUnsupportedFormatIsRejected() {
+        assertThrows(IOException.class, () -> FrameTable.fromBytes(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9}));
+    }
+}
@@ -0,0 +1,66 @@
+package com.itp.DigLib.api.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class ImportManifestTest {
+
+    private static List<ImportManifest.Entry> parse(String name, String manifest) throws IOException {
+        return ImportManifest.parse(name, new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testCsvColumnsInAnyOrder() throws IOException {
+        List<ImportManifest.Entry> entries = parse("manifest.csv",
+            "file,year,isbn,genre,author,title\r\nhobbit.txt,1937,9780261102217,Fantasy,J. R. R. Tolkien,The Hobbit\r\n");
+
+        assertEquals(List.of(new ImportManifest.Entry(
+            "The Hobbit", "J. R. R. Tolkien", "Fantasy", "9780261102217", "1937", "hobbit.txt")), entries);
+    }
+
+    @Test
+    void testCsvQuotedFields() {
+        List<ImportManifest.Entry> entries = ImportManifest.parseCsv("""
+            title,author,genre,isbn,year,file
+            "Ringworld, ""Part"" One","Niven,
+            Larry",Science Fiction,9780345333926,1970,ringworld.txt
+
+            """);
+
+        assertEquals(1, entries.size());
+        assertEquals("Ringworld, \"Part\" One", entries.get(0).title());
+        assertEquals("Niven,\nLarry", entries.get(0).author());
+    }
+
+    @Test
+    void testCsvMissingColumn() {
+        assertThrows(IllegalArgumentException.class, () -> ImportManifest.parseCsv("title,author\nA,B\n"));
+        assertThrows(IllegalArgumentException.class, () -> ImportManifest.parseCsv("title,\"author\n"));
+    }
+
+    @Test
+    void testJson() throws IOException {
+        List<ImportManifest.Entry> entries = parse("manifest.json", """
+            [{"title": "The Hobbit", "author": "J. R. R. Tolkien", "genre": "Fantasy",
+              "isbn": "9780261102217", "year": 1937, "file": "hobbit.txt"},
+             {"title": "Untitled"}]
+            """);
+
+        assertEquals("1937", entries.get(0).year());
+        assertEquals("", entries.get(1).file());
+        assertThrows(IllegalArgumentException.class, () -> entries.get(1).toBook());
+    }
+
+    @Test
+    void testInvalidManifests() {
+        assertThrows(IllegalArgumentException.class, () -> parse("manifest.json", "{\"title\": \"x\"}"));
+        assertThrows(IllegalArgumentException.class, () -> parse("manifest.json", "[{"));
+        assertThrows(IllegalArgumentException.class, () -> parse("manifest.xml", "<books/>"));
+    }
+}
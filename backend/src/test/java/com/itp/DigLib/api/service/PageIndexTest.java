@@ -0,0 +1,104 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class PageIndexTest {
+
+    private static String readPage(PageIndex index, byte[] bytes, int pageSize, int page) {
+        byte[] range = Arrays.copyOfRange(bytes,
+            (int) index.startByte(pageSize, page), (int) index.endByte(pageSize, page));
+        String decoded = new String(range, StandardCharsets.UTF_8);
+        int skip = index.skipChars(pageSize, page);
+        return decoded.substring(skip, skip + index.pageChars(pageSize, page));
+    }
+
+    @Test
+    void testPagesMatchSubstringOfDecodedText() {
+        String text = "Blåbær, €uro og 😀 emoji på hver side 😀😀 – slutt.";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        PageIndex index = PageIndex.builder(1, 3, 7).update(bytes, 0, bytes.length).build();
+
+        for (int pageSize : new int[] {1, 3, 7}) {
+            assertEquals((text.length() + pageSize - 1) / pageSize, index.totalPages(pageSize));
+            for (int page = 0; page < index.totalPages(pageSize); page++) {
+                int start = page * pageSize;
+                String expected = text.substring(start, Math.min(start + pageSize, text.length()));
+                assertEquals(expected, readPage(index, bytes, pageSize, page));
+            }
+        }
+    }
+
+    @Test
+    void testChunkedInputGivesSameIndex() throws IOException {
+        byte[] bytes = "Ærlig talt, 中文 og 😀 i små biter".getBytes(StandardCharsets.UTF_8);
+
+        PageIndex.Builder builder = PageIndex.builder(4);
+        for (int i = 0; i < bytes.length; i++) {
+            builder.update(bytes, i, 1);
+        }
+
+        assertTrue(Arrays.equals(
+            PageIndex.builder(4).update(bytes, 0, bytes.length).build().toBytes(),
+            builder.build().toBytes()));
+    }
+
+    @Test
+    void testSerializationRoundTrip() throws IOException {
+        String text = "Første side. Andre side 😀. Tredje side.";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        PageIndex original = PageIndex.builder(5, 1000).update(bytes, 0, bytes.length).build();
+
+        PageIndex restored = PageIndex.fromBytes(original.toBytes());
+
+        assertEquals(text.length(), restored.getTotalChars());
+        assertEquals(bytes.length, restored.getTotalBytes());
+        assertTrue(restored.supports(5));
+        assertTrue(restored.supports(1000));
+        assertFalse(restored.supports(20));
+        for (int page = 0; page < restored.totalPages(5); page++) {
+            assertEquals(readPage(original, bytes, 5, page), readPage(restored, bytes, 5, page));
+        }
+    }
+
+    @Test
+    void testEmptyContent() {
+        PageIndex index = PageIndex.builder(10).build();
+
+        assertEquals(0, index.getTotalChars());
+        assertEquals(0, index.totalPages(10));
+    }
+
+    @Test
+    void testMalformedContentIsNotIndexed() {
+        byte[] invalid = {'a', (byte) 0xFF, 'b'};
+        byte[] truncated = {'a', (byte) 0xE2, (byte) 0x82};
+
+        assertNull(PageIndex.builder(10).update(invalid, 0, invalid.length).build());
+        assertNull(PageIndex.builder(10).update(truncated, 0, truncated.length).build());
+    }
+
+    @Test
+    void testUnknownFormatIsRejected() {
+        byte[] data = "not an index".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> PageIndex.fromBytes(data));
+    }
+
+    @Test
+    void testUnindexedPageSizeIsRejected() {
+        byte[] bytes = "content".getBytes(StandardCharsets.UTF_8);
+        PageIndex index = PageIndex.builder(10).update(bytes, 0, bytes.length).build();
+
+        assertThrows(IllegalArgumentException.class, () -> index.startByte(20, 0));
+    }
+}
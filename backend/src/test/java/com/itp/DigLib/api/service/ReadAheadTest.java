@@ -0,0 +1,132 @@
+package com.itp.DigLib.api.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class ReadAheadTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ReadAhead readAhead(int maxPages) {
+        return new ReadAhead(Runnable::run, maxPages, 30_000, clock::get);
+    }
+
+    @Test
+    void testNewReaderReadsOnePageAhead() {
+        assertEquals(1, readAhead(8).pagesAhead("book.txt", 10, 0));
+    }
+
+    @Test
+    void testFastReaderReadsMaximumAhead() {
+        ReadAhead readAhead = readAhead(8);
+
+        for (int page = 0; page < 5; page++) {
+            readAhead.pagesAhead("book.txt", 10, page);
+            clock.addAndGet(SECOND);
+        }
+
+        assertEquals(8, readAhead.pagesAhead("book.txt", 10, 5));
+    }
+
+    @Test
+    void testPagesAheadFollowReadingSpeed() {
+        ReadAhead readAhead = readAhead(8);
+
+        readAhead.pagesAhead("book.txt", 10, 0);
+        clock.addAndGet(10 * SECOND);
+
+        // 30 seconds of reading at 10 seconds per page
+        assertEquals(3, readAhead.pagesAhead("book.txt", 10, 1));
+
+        clock.addAndGet(120 * SECOND);
+        assertEquals(1, readAhead.pagesAhead("book.txt", 10, 2));
+    }
+
+    @Test
+    void testJumpStopsReadingAhead() {
+        ReadAhead readAhead = readAhead(8);
+        readAhead.pagesAhead("book.txt", 10, 0);
+        clock.addAndGet(SECOND);
+        readAhead.pagesAhead("book.txt", 10, 1);
+        clock.addAndGet(SECOND);
+
+        assertEquals(0, readAhead.pagesAhead("book.txt", 10, 40));
+        clock.addAndGet(SECOND);
+        assertTrue(readAhead.pagesAhead("book.txt", 10, 41) > 0);
+    }
+
+    @Test
+    void testReadersAreTrackedPerBookAndPageSize() {
+        ReadAhead readAhead = readAhead(8);
+        readAhead.pagesAhead("book.txt", 10, 0);
+        clock.addAndGet(SECOND);
+
+        assertEquals(1, readAhead.pagesAhead("book.txt", 20, 5));
+        assertEquals(1, readAhead.pagesAhead("other.txt", 10, 5));
+    }
+
+    @Test
+    void testDisabledReadAhead() {
+        assertEquals(0, readAhead(0).pagesAhead("book.txt", 10, 0));
+    }
+
+    @Test
+    void testAfterReadLoadsFollowingPagesWithinBook() {
+        ReadAhead readAhead = readAhead(8);
+        List<int[]> loads = new ArrayList<>();
+
+        for (int page = 0; page < 4; page++) {
+            readAhead.afterRead("book.txt", 10, page, 5, (from, to) -> loads.add(new int[] {from, to}));
+            clock.addAndGet(SECOND);
+        }
+
+        assertEquals(1, loads.get(0)[0]);
+        assertEquals(2, loads.get(0)[1]);
+        assertEquals(4, loads.get(3)[0]);
+        assertEquals(5, loads.get(3)[1]);
+        assertEquals(4, loads.size());
+    }
+
+    @Test
+    void testAfterReadIgnoresLoadFailures() {
+        readAhead(8).afterRead("book.txt", 10, 0, 5, (from, to) -> {
+            throw new IOException("Storage unavailable");
+        });
+    }
+
+    @Test
+    void testVirtualExecutorDropsLoadsOverLimit() throws InterruptedException {
+        ReadAhead.VirtualExecutor executor = new ReadAhead.VirtualExecutor(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger runs = new AtomicInteger();
+        Runnable blocked = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        executor.execute(blocked);
+        executor.execute(blocked);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // Both permits are held, so this load is dropped
+        executor.execute(blocked);
+        release.countDown();
+
+        assertEquals(2, runs.get());
+    }
+}
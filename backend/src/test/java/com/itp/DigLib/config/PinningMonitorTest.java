@@ -0,0 +1,46 @@
+package com.itp.DigLib.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+public class PinningMonitorTest {
+
+    @Test
+    void testSiteIsFirstWatchedFrame() {
+        List<String> frames = List.of(
+            "java.lang.Object.wait",
+            "com.zaxxer.hikari.pool.HikariPool.getConnection",
+            "com.itp.DigLib.api.service.BookContentService.readBookContent");
+
+        assertEquals("com.zaxxer.hikari.pool.HikariPool.getConnection", PinningMonitor.site(frames));
+    }
+
+    @Test
+    void testSiteFallsBackToFirstFrameOutsideJdk() {
+        List<String> frames = List.of(
+            "jdk.internal.misc.Unsafe.park",
+            "java.util.concurrent.locks.LockSupport.park",
+            "com.itp.DigLib.search.Segment.write");
+
+        assertEquals("com.itp.DigLib.search.Segment.write", PinningMonitor.site(frames));
+        assertEquals("java.lang.Object.wait", PinningMonitor.site(List.of("java.lang.Object.wait")));
+        assertEquals("unknown", PinningMonitor.site(List.of()));
+    }
+
+    @Test
+    void testPinsAreCountedPerSite() {
+        PinningMonitor monitor = new PinningMonitor(20);
+        List<String> storage = List.of("com.google.cloud.storage.StorageImpl.readAllBytes");
+
+        monitor.pinned(storage, Duration.ofMillis(40));
+        monitor.pinned(storage, Duration.ofMillis(25));
+        monitor.pinned(List.of(), Duration.ofMillis(30));
+
+        assertEquals(Map.of("com.google.cloud.storage.StorageImpl.readAllBytes", 2L, "unknown", 1L),
+            monitor.pinnedCounts());
+    }
+}
@@ -0,0 +1,61 @@
+package com.itp.DigLib.db;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.itp.DigLib.api.model.Book;
+
+public class BookCursorTest {
+
+    private static Book book(int id, String title, int year) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setYear(year);
+        return book;
+    }
+
+    @Test
+    void testRoundTrip() {
+        Book book = book(42, "Title with\nnewline, ümlaut and 😀", 1999);
+
+        for (String sortBy : BookSpecifications.SORTABLE_FIELDS) {
+            String token = BookCursor.after(book, sortBy, Sort.Direction.DESC).encode();
+            BookCursor decoded = BookCursor.decode(token);
+
+            assertTrue(decoded.matches(sortBy, Sort.Direction.DESC));
+            assertFalse(decoded.matches(sortBy, Sort.Direction.ASC));
+            assertEquals(token, decoded.encode());
+        }
+    }
+
+    @Test
+    void testTokenIsUrlSafe() {
+        String token = BookCursor.after(book(1, "???>>>~~~", 2000), "title", Sort.Direction.ASC).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testMalformedTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode("dGl0bGU"));
+        String unsortable = Base64.getUrlEncoder().encodeToString("filename\nASC\n1\nsx".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(unsortable));
+        String badId = Base64.getUrlEncoder().encodeToString("title\nASC\nx\nsx".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> BookCursor.decode(badId));
+    }
+
+    @Test
+    void testUnsortableFieldIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> BookCursor.after(book(1, "Title", 2000), "filename", Sort.Direction.ASC));
+    }
+}
@@ -5,7 +5,12 @@ import com.itp.DigLib.api.model.Book;
 import com.itp.DigLib.api.model.Genres;
 import com.itp.DigLib.api.model.PagedContent;
 import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.api.service.EncodedPage;
 import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.search.FacetCounts;
+import com.itp.DigLib.search.TrigramIndex;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,11 +20,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -43,6 +53,12 @@ public class GetControllerIT {
     @MockBean
     private Genres genres;
 
+    @MockBean
+    private TrigramIndex trigramIndex;
+
+    @MockBean
+    private FacetCounts facetCounts;
+
     @Test
     public void testGetAllBooks() throws Exception {
         // Arrange
@@ -67,6 +83,33 @@ public class GetControllerIT {
             .andExpect(jsonPath("$.content[0].author").value("Author 1"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetAllBooksWithCombinedFilters() throws Exception {
+        // Arrange
+        Book book = new Book();
+        book.setId(2);
+        book.setTitle("Filtered Book");
+        when(bookRepo.findAll(any(Specification.class), any(PageRequest.class)))
+            .thenReturn(new PageImpl<>(List.of(book)));
+
+        // Act & Assert
+        mockMvc.perform(get("/books")
+                .param("title", "Filtered")
+                .param("genre", "Fiction")
+                .param("yearFrom", "2000")
+                .param("yearTo", "2020")
+                .param("sortBy", "year"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].title").value("Filtered Book"));
+    }
+
+    @Test
+    public void testGetAllBooksSortedByUnindexedField() throws Exception {
+        mockMvc.perform(get("/books").param("sortBy", "filename"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void testGetBookContent() throws Exception {
         // Arrange
@@ -76,14 +119,19 @@ public class GetControllerIT {
         when(bookRepo.findById(1)).thenReturn(java.util.Optional.of(book));
 
         PagedContent content = new PagedContent("Test content", 0, 5, 100, 500);
-        when(bookContentService.readBookContent(any(), any(Integer.class), any()))
-            .thenReturn(content);
+        when(bookContentService.readEncodedPage(any(), any(), any(Integer.class), any(), any()))
+            .thenReturn(EncodedPage.of(new ObjectMapper().writeValueAsBytes(content)));
 
         // Act & Assert
         mockMvc.perform(get("/books/1/content"))
             .andDo(print())
             .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.content").value("Test content"));
+
+        mockMvc.perform(get("/books/1/content").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
     }
 
     @Test
@@ -99,4 +147,29 @@ public class GetControllerIT {
             .andExpect(jsonPath("$[0]").value("Fiction"))
             .andExpect(jsonPath("$[1]").value("Non-Fiction"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetBookFacets() throws Exception {
+        // Arrange
+        List<String> genresList = Arrays.asList("Fiction", "Non-Fiction");
+        Map<String, Long> genreCounts = new LinkedHashMap<>();
+        genreCounts.put("Fiction", 2L);
+        genreCounts.put("Non-Fiction", 0L);
+        when(genres.getGenresList()).thenReturn(genresList);
+        when(facetCounts.isReady()).thenReturn(true);
+        when(facetCounts.total()).thenReturn(2L);
+        when(facetCounts.genres(genresList)).thenReturn(genreCounts);
+        when(facetCounts.decades()).thenReturn(Map.of(2020, 2L));
+        when(facetCounts.topAuthors(20)).thenReturn(Map.of("Author 1", 2L));
+
+        // Act & Assert
+        mockMvc.perform(get("/books/facets"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(2))
+            .andExpect(jsonPath("$.genres.Fiction").value(2))
+            .andExpect(jsonPath("$.genres['Non-Fiction']").value(0))
+            .andExpect(jsonPath("$.decades['2020']").value(2))
+            .andExpect(jsonPath("$.authors['Author 1']").value(2));
+    }
+}
@@ -2,8 +2,13 @@ package com.itp.DigLib.integration;
 
 import com.itp.DigLib.api.controller.SetController;
 import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.ImportReport;
 import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.api.service.BookImportService;
 import com.itp.DigLib.db.BookRepository;
+import com.itp.DigLib.search.FacetCounts;
+import com.itp.DigLib.search.SearchService;
+import com.itp.DigLib.search.TrigramIndex;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +19,7 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +41,18 @@ public class SetControllerIT {
     @MockBean
     private BookContentService bookContentService;
 
+    @MockBean
+    private SearchService searchService;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private TrigramIndex trigramIndex;
+
+    @MockBean
+    private FacetCounts facetCounts;
+
     @Test
     public void testAddNewBook() throws Exception {
         // Arrange
@@ -91,4 +109,49 @@ public class SetControllerIT {
             .andDo(print())
             .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testImportBooks() throws Exception {
+        // Arrange
+        MockMultipartFile archive = new MockMultipartFile(
+            "archive",
+            "books.zip",
+            "application/zip",
+            new byte[] {1}
+        );
+        when(bookImportService.importArchive(any())).thenReturn(new ImportReport(List.of(
+            ImportReport.Item.imported(0, "a.txt", 1),
+            ImportReport.Item.failed(1, "b.txt", "Missing content file b.txt"))));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/books/import").file(archive))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.items[0].id").value(1))
+            .andExpect(jsonPath("$.items[1].error").value("Missing content file b.txt"));
+    }
+
+    @Test
+    public void testImportBooks_NothingSent() throws Exception {
+        mockMvc.perform(multipart("/books/import"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testDeleteBooks() throws Exception {
+        // Arrange
+        Book book = new Book();
+        book.setId(1);
+        book.setTitle("Test Book");
+        when(bookRepo.findAllById(any())).thenReturn(List.of(book));
+
+        // Act & Assert
+        mockMvc.perform(delete("/books").param("ids", "1,99"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0]").value(1));
+    }
+}
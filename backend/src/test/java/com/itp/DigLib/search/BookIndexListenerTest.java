@@ -0,0 +1,106 @@
+package com.itp.DigLib.search;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.itp.DigLib.api.model.Book;
+
+public class BookIndexListenerTest {
+
+    private TrigramIndex index;
+    private FacetCounts facets;
+    private BookIndexListener listener;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(10);
+        index.markReady();
+        facets = new FacetCounts();
+        facets.markReady();
+        listener = new BookIndexListener(index, facets);
+        book = new Book();
+        book.setId(1);
+        book.setTitle("Ringworld");
+        book.setAuthor("Larry Niven");
+        book.setGenre("Science Fiction");
+        book.setYear(1970);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testChangesOutsideTransactionAreApplied() {
+        // Act
+        listener.afterInsert(book);
+
+        // Assert
+        assertEquals(1, facets.total());
+        assertArrayEquals(new int[] {1}, index.candidates(TrigramIndex.Field.TITLE, "ring"));
+    }
+
+    @Test
+    void testInsertIsAppliedAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        listener.afterInsert(book);
+
+        // Assert
+        assertEquals(0, facets.total());
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(1, facets.total());
+        assertArrayEquals(new int[] {1}, index.candidates(TrigramIndex.Field.TITLE, "ring"));
+    }
+
+    @Test
+    void testRolledBackInsertIsDropped() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        listener.afterInsert(book);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertEquals(0, facets.total());
+        assertArrayEquals(new int[0], index.candidates(TrigramIndex.Field.TITLE, "ring"));
+    }
+
+    @Test
+    void testRolledBackRemoveKeepsBook() {
+        // Arrange
+        listener.afterInsert(book);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        listener.afterRemove(book);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Assert
+        assertEquals(1, facets.total());
+        assertArrayEquals(new int[] {1}, index.candidates(TrigramIndex.Field.TITLE, "ring"));
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,124 @@
+package com.itp.DigLib.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.itp.DigLib.db.BookMetadata;
+import com.itp.DigLib.db.BookRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class BookIndexLoaderTest {
+
+    @Mock
+    private BookRepository bookRepo;
+
+    private final List<BookMetadata> books = new ArrayList<>();
+    private TrigramIndex index;
+    private FacetCounts facets;
+    private BookIndexLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(10);
+        facets = new FacetCounts();
+        loader = new BookIndexLoader(index, facets, bookRepo, 30);
+
+        // Setup the repository to answer from the books in the database
+        lenient().when(bookRepo.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenAnswer(invocation -> {
+            int after = invocation.getArgument(0);
+            return books.stream().filter(book -> book.getId() > after).toList();
+        });
+        lenient().when(bookRepo.count()).thenAnswer(invocation -> (long) books.size());
+
+        books.add(book(1, "Ringworld", "Larry Niven"));
+        books.add(book(2, "Brave New World", "Aldous Huxley"));
+    }
+
+    private static BookMetadata book(int id, String title, String author) {
+        return new BookMetadata() {
+            @Override
+            public int getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getAuthor() {
+                return author;
+            }
+
+            @Override
+            public String getGenre() {
+                return "Science Fiction";
+            }
+
+            @Override
+            public int getYear() {
+                return 1970;
+            }
+        };
+    }
+
+    @Test
+    void testLoadMarksLoadedBooksIndexed() {
+        // Act
+        loader.load();
+
+        // Assert
+        assertEquals(2, index.indexedUpTo());
+        assertEquals(2, facets.total());
+        assertArrayEquals(new int[] {1, 2}, index.candidates(TrigramIndex.Field.TITLE, "world"));
+    }
+
+    @Test
+    void testRefreshPicksUpBooksOfOtherInstances() {
+        // Arrange
+        loader.load();
+        books.add(book(3, "The Ringworld Engineers", "Larry Niven"));
+        books.remove(1);
+
+        // Act
+        loader.refresh();
+
+        // Assert
+        assertArrayEquals(new int[] {1, 3}, index.candidates(TrigramIndex.Field.TITLE, "ringworld"));
+        assertEquals(2, facets.total());
+        // Book 3 is only marked complete by the next refresh, which reads it again
+        assertEquals(2, index.indexedUpTo());
+        loader.refresh();
+        assertEquals(3, index.indexedUpTo());
+        assertArrayEquals(new int[] {1, 3}, index.candidates(TrigramIndex.Field.TITLE, "ringworld"));
+    }
+
+    @Test
+    void testRefreshFindsBooksCommittedOutOfOrder() {
+        // Arrange
+        loader.load();
+        books.add(book(4, "Ringworld's Children", "Larry Niven"));
+        loader.refresh();
+        // Book 3 was saved before book 4 but committed after the refresh read book 4
+        books.add(2, book(3, "The Ringworld Engineers", "Larry Niven"));
+
+        // Act
+        loader.refresh();
+
+        // Assert
+        assertArrayEquals(new int[] {1, 3, 4}, index.candidates(TrigramIndex.Field.TITLE, "ringworld"));
+        assertEquals(4, index.indexedUpTo());
+    }
+}
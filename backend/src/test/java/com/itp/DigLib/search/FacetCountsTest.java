@@ -0,0 +1,122 @@
+package com.itp.DigLib.search;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FacetCountsTest {
+
+    private FacetCounts facets;
+
+    @BeforeEach
+    void setUp() {
+        facets = new FacetCounts();
+        facets.load(1, "Fantasy", "J. R. R. Tolkien", 1954);
+        facets.load(2, "Science Fiction", "Larry Niven", 1970);
+        facets.load(3, "Fantasy", "J. R. R. Tolkien", 1937);
+        facets.markReady();
+    }
+
+    @Test
+    void testCounts() {
+        assertTrue(facets.isReady());
+        assertEquals(3, facets.total());
+        assertEquals(Map.of(1930, 1L, 1950, 1L, 1970, 1L), facets.decades());
+        assertEquals(List.of(1930, 1950, 1970), List.copyOf(facets.decades().keySet()));
+    }
+
+    @Test
+    void testGenresIncludeKnownGenresInOrder() {
+        Map<String, Long> genres = facets.genres(List.of("Poetry", "Fantasy"));
+
+        assertEquals(List.of("Poetry", "Fantasy", "Science Fiction"), List.copyOf(genres.keySet()));
+        assertEquals(0L, genres.get("Poetry"));
+        assertEquals(2L, genres.get("Fantasy"));
+        assertEquals(1L, genres.get("Science Fiction"));
+    }
+
+    @Test
+    void testTopAuthors() {
+        facets.add(4, "Science Fiction", "Arthur C. Clarke", 1968);
+
+        Map<String, Long> authors = facets.topAuthors(2);
+
+        assertEquals(List.of("J. R. R. Tolkien", "Arthur C. Clarke"), List.copyOf(authors.keySet()));
+        assertEquals(2L, authors.get("J. R. R. Tolkien"));
+    }
+
+    @Test
+    void testAddAndRemove() {
+        facets.add(4, "Poetry", "Rainer Maria Rilke", 1923);
+        facets.remove(2, "Science Fiction", "Larry Niven", 1970);
+
+        assertEquals(3, facets.total());
+        assertEquals(1L, facets.genres(List.of()).get("Poetry"));
+        assertFalse(facets.genres(List.of()).containsKey("Science Fiction"));
+        assertFalse(facets.decades().containsKey(1970));
+        assertFalse(facets.topAuthors(10).containsKey("Larry Niven"));
+    }
+
+    @Test
+    void testChangesDuringLoadAreCountedOnce() {
+        FacetCounts loading = new FacetCounts();
+        loading.load(1, "Fantasy", "J. R. R. Tolkien", 1954);
+        // Book 2 is added before the load reaches it, and read by the load afterwards
+        loading.add(2, "Poetry", "Rainer Maria Rilke", 1923);
+        // Book 3 is added after the load has finished reading
+        loading.add(3, "Poetry", "Rainer Maria Rilke", 1923);
+        // Book 1 has been read already, so its removal applies at once
+        loading.remove(1, "Fantasy", "J. R. R. Tolkien", 1954);
+        loading.load(2, "Poetry", "Rainer Maria Rilke", 1923);
+
+        assertFalse(loading.isReady());
+        loading.markReady();
+
+        assertEquals(2, loading.total());
+        assertEquals(Map.of("Poetry", 2L), loading.genres(List.of()));
+        assertEquals(Map.of(1920, 2L), loading.decades());
+    }
+
+    @Test
+    void testBooksDeletedBeforeLoadReachesThemAreNotUncounted() {
+        FacetCounts loading = new FacetCounts();
+        loading.load(1, "Fantasy", "J. R. R. Tolkien", 1954);
+        // Book 2 existed when the load started, but is deleted before the load reaches it
+        loading.remove(2, "Poetry", "Rainer Maria Rilke", 1923);
+        // Book 3 is added and deleted again before the load reaches it
+        loading.add(3, "Poetry", "Rainer Maria Rilke", 1923);
+        loading.remove(3, "Poetry", "Rainer Maria Rilke", 1923);
+
+        loading.markReady();
+
+        assertEquals(1, loading.total());
+        assertEquals(Map.of("Fantasy", 1L), loading.genres(List.of()));
+        assertEquals(Map.of(1950, 1L), loading.decades());
+    }
+
+    @Test
+    void testCorrectTotalFollowsOtherInstances() {
+        // Another instance added two books and deleted one of these
+        facets.correctTotal(4);
+
+        assertEquals(4, facets.total());
+        facets.add(4, "Poetry", "Rainer Maria Rilke", 1923);
+        assertEquals(5, facets.total());
+    }
+
+    @Test
+    void testCorrectTotalIsIgnoredWhileLoading() {
+        FacetCounts loading = new FacetCounts();
+        loading.load(1, "Fantasy", "J. R. R. Tolkien", 1954);
+
+        loading.correctTotal(10);
+        loading.markReady();
+
+        assertEquals(1, loading.total());
+    }
+}
@@ -0,0 +1,69 @@
+package com.itp.DigLib.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class PostingsTest {
+
+    private static List<String> entries(Postings postings) {
+        List<String> entries = new ArrayList<>();
+        postings.forEach((bookId, frequency) -> entries.add(bookId + ":" + frequency));
+        return entries;
+    }
+
+    @Test
+    void testEntriesAreDecodedInInsertionOrder() {
+        Postings postings = new Postings();
+        postings.add(7, 3, new long[] {1, 2, 3});
+        postings.add(2, 1, new long[] {0});
+        postings.add(100_000, 500, new long[Segment.MAX_POSITIONS]);
+
+        assertEquals(3, postings.size());
+        assertEquals(List.of("7:3", "2:1", "100000:500"), entries(postings));
+    }
+
+    @Test
+    void testWithoutDropsOneBook() {
+        Postings postings = new Postings();
+        postings.add(1, 1, new long[] {10});
+        postings.add(2, 2, new long[] {20, 21});
+        postings.add(3, 3, new long[] {30, 31, 5_000_000_000L});
+
+        Postings remaining = postings.without(2);
+
+        assertEquals(2, remaining.size());
+        assertEquals(List.of("1:1", "3:3"), entries(remaining));
+        assertArrayEquals(new long[] {30, 31, 5_000_000_000L}, remaining.positions(Set.of(3)).get(3));
+        assertEquals(3, postings.size());
+    }
+
+    @Test
+    void testPositionsOfSomeBooks() {
+        Postings postings = new Postings();
+        postings.add(4, 2, new long[] {7, 900});
+        postings.add(1, 1, new long[] {3});
+        postings.add(9, 40, LongStream.range(0, Segment.MAX_POSITIONS).map(i -> i * 100).toArray());
+
+        Map<Integer, long[]> positions = postings.positions(Set.of(4, 9, 12));
+
+        assertEquals(2, positions.size());
+        assertArrayEquals(new long[] {7, 900}, positions.get(4));
+        assertEquals(Segment.MAX_POSITIONS, positions.get(9).length);
+        assertEquals(100L * (Segment.MAX_POSITIONS - 1), positions.get(9)[Segment.MAX_POSITIONS - 1]);
+    }
+
+    @Test
+    void testAddRejectsWrongNumberOfPositions() {
+        Postings postings = new Postings();
+
+        assertThrows(IllegalArgumentException.class, () -> postings.add(1, 3, new long[] {1}));
+    }
+}
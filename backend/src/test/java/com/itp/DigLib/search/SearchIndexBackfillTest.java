@@ -0,0 +1,77 @@
+package com.itp.DigLib.search;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.db.BookRepository;
+
+public class SearchIndexBackfillTest {
+
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private BookRepository bookRepo;
+
+    private SearchIndexBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        backfill = new SearchIndexBackfill(searchService, bookRepo);
+    }
+
+    private static Book book(int id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("Title " + id);
+        return book;
+    }
+
+    @Test
+    void testLoadsIndexBeforeIndexingMissingBooks() throws IOException {
+        // Arrange
+        Book indexed = book(1);
+        Book missing = book(2);
+        when(searchService.refreshIndex()).thenReturn(true);
+        when(bookRepo.findAll()).thenReturn(List.of(indexed, missing));
+        when(searchService.isIndexed(1)).thenReturn(true);
+
+        // Act
+        backfill.run(null);
+
+        // Assert
+        InOrder order = inOrder(searchService);
+        order.verify(searchService).refreshIndex();
+        order.verify(searchService).isIndexed(1);
+        verify(searchService, never()).indexNow(1, indexed.getFileName());
+        verify(searchService).indexNow(2, missing.getFileName());
+    }
+
+    @Test
+    void testSkipsWhenIndexCannotBeLoaded() throws IOException {
+        // Arrange
+        when(searchService.refreshIndex()).thenReturn(false);
+
+        // Act
+        backfill.run(null);
+
+        // Assert
+        verifyNoInteractions(bookRepo);
+        verify(searchService, never()).indexNow(anyInt(), anyString());
+    }
+}
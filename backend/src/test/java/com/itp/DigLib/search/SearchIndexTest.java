@@ -0,0 +1,143 @@
+package com.itp.DigLib.search;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.itp.DigLib.storage.InMemoryBookStorage;
+
+public class SearchIndexTest {
+
+    private InMemoryBookStorage storage;
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = spy(new InMemoryBookStorage());
+        index = new SearchIndex(storage);
+        index.refresh();
+        index.add(1, new StringReader("The whale swam past the ship. The whale was white."));
+        index.add(2, new StringReader("A ship sailed home. The crew was tired."));
+        index.add(3, new StringReader("Nothing to see here."));
+    }
+
+    @Test
+    void testRanksBooksByRelevance() throws IOException {
+        List<SearchIndex.Hit> hits = index.search("whale ship", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(1, hits.get(0).bookId());
+        assertEquals(2, hits.get(1).bookId());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+        assertArrayEquals(new long[] {4, 24, 34}, hits.get(0).positions());
+    }
+
+    @Test
+    void testHitsCarryExcerptAroundFirstPosition() throws IOException {
+        String text = "Call me Ishmael. " + "Some years ago, never mind how long precisely. ".repeat(10)
+            + "The whale surfaced near the ship.";
+        index.add(4, new StringReader(text));
+
+        SearchIndex.Hit hit = index.search("surfaced", 10).get(0);
+
+        assertEquals(4, hit.bookId());
+        assertEquals(text.length(), hit.characters());
+        assertEquals(text.indexOf("surfaced") - Segment.EXCERPT_LEAD, hit.excerptStart());
+        assertTrue(hit.excerpt().contains("The whale surfaced near the ship."));
+        assertEquals(text.substring((int) hit.excerptStart()), hit.excerpt());
+    }
+
+    @Test
+    void testSearchDoesNotReadStorage() throws IOException {
+        SearchIndex reloaded = new SearchIndex(storage);
+        reloaded.refresh();
+        clearInvocations(storage);
+
+        List<SearchIndex.Hit> hits = reloaded.search("whale ship", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals("The whale swam past the ship. The whale was white.", hits.get(0).excerpt());
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void testLimitKeepsBestBooks() throws IOException {
+        List<SearchIndex.Hit> hits = index.search("whale ship", 1);
+
+        assertEquals(1, hits.size());
+        assertEquals(1, hits.get(0).bookId());
+    }
+
+    @Test
+    void testSegmentsAreStoredInBookStorage() {
+        assertEquals(List.of("searchindex/1.seg", "searchindex/2.seg", "searchindex/3.seg"),
+            storage.list(SearchIndex.PREFIX));
+    }
+
+    @Test
+    void testRemoveDropsBook() throws IOException {
+        assertTrue(index.remove(1));
+
+        List<SearchIndex.Hit> hits = index.search("whale ship", 10);
+        assertEquals(1, hits.size());
+        assertEquals(2, hits.get(0).bookId());
+        assertFalse(index.contains(1));
+        assertFalse(storage.exists("searchindex/1.seg"));
+        assertFalse(index.remove(1));
+    }
+
+    @Test
+    void testAddReplacesPreviousEntry() throws IOException {
+        index.add(3, new StringReader("Now a whale is here too."));
+
+        List<SearchIndex.Hit> hits = index.search("nothing", 10);
+        assertEquals(0, hits.size());
+        assertEquals(2, index.search("whale", 10).size());
+    }
+
+    @Test
+    void testRefreshLoadsIndexFromStorage() throws IOException {
+        SearchIndex reloaded = new SearchIndex(storage);
+        assertEquals(3, reloaded.refresh());
+
+        assertTrue(reloaded.contains(2));
+        assertEquals(index.search("whale ship", 10).get(0).score(),
+            reloaded.search("whale ship", 10).get(0).score(), 1e-9);
+    }
+
+    @Test
+    void testRefreshPicksUpChangesOfOtherInstances() throws IOException {
+        SearchIndex other = new SearchIndex(storage);
+        other.refresh();
+
+        index.add(4, new StringReader("A white whale."));
+        index.remove(1);
+        assertEquals(2, other.refresh());
+
+        assertTrue(other.contains(4));
+        assertFalse(other.contains(1));
+        assertEquals(List.of(4), other.search("whale", 10).stream().map(SearchIndex.Hit::bookId).toList());
+        assertEquals(0, other.refresh());
+        verify(storage, never()).exists(anyString());
+    }
+
+    @Test
+    void testQueryWithoutTermsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("a ! ?", 10));
+    }
+}
@@ -0,0 +1,207 @@
+package com.itp.DigLib.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.MockitoAnnotations;
+
+import com.itp.DigLib.api.model.Book;
+import com.itp.DigLib.api.model.SearchResult;
+import com.itp.DigLib.api.service.BookContentService;
+import com.itp.DigLib.db.BookRepository;
+
+public class SearchServiceTest {
+
+    @Mock
+    private SearchIndex index;
+
+    @Mock
+    private BookContentService bookContentService;
+
+    @Mock
+    private BookRepository bookRepo;
+
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Run the background indexing in the calling thread
+        searchService = new SearchService(index, bookContentService, bookRepo, Runnable::run, 10, 0);
+    }
+
+    private static Book book(int id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor("Author " + id);
+        return book;
+    }
+
+    private static SearchIndex.Hit hit(int bookId, double score, long[] positions, String text) {
+        long start = positions.length > 0 ? Math.max(0, positions[0] - Segment.EXCERPT_LEAD) : 0;
+        String excerpt = text.substring((int) Math.min(text.length(), start),
+            (int) Math.min(text.length(), start + Segment.EXCERPT_CHARS));
+        return new SearchIndex.Hit(bookId, score, positions, start, excerpt, text.length());
+    }
+
+    @Test
+    void testIndexBookReadsStoredContent() throws IOException {
+        // Arrange
+        Book book = book(5, "Indexed");
+        when(bookContentService.openContent(book.getFileName()))
+            .thenReturn(new ByteArrayInputStream("Blåbær og 😀".getBytes(StandardCharsets.UTF_8)));
+        StringBuilder read = new StringBuilder();
+        doAnswer(invocation -> {
+            Reader text = invocation.getArgument(1);
+            char[] buffer = new char[64];
+            int length;
+            while ((length = text.read(buffer)) != -1) {
+                read.append(buffer, 0, length);
+            }
+            return null;
+        }).when(index).add(eq(5), any(Reader.class));
+
+        // Act
+        searchService.indexBook(book);
+
+        // Assert
+        assertEquals("Blåbær og 😀", read.toString());
+    }
+
+    @Test
+    void testIndexBookFailureIsNotPropagated() throws IOException {
+        // Arrange
+        Book book = book(5, "Missing");
+        when(bookContentService.openContent(book.getFileName())).thenThrow(new IOException("not found"));
+
+        // Act
+        searchService.indexBook(book);
+
+        // Assert
+        verify(bookContentService).openContent(book.getFileName());
+    }
+
+    @Test
+    void testRemoveBook() throws IOException {
+        // Act
+        searchService.removeBook(5);
+
+        // Assert
+        verify(index).remove(5);
+    }
+
+    @Test
+    void testSearchMapsHitsToPagesAndBooks() throws IOException {
+        // Arrange
+        when(index.search("whale", 10)).thenReturn(List.of(
+            hit(2, 3.5, new long[] {4, 7, 15, 42}, "The whale came"),
+            hit(9, 1.0, new long[] {0}, "Deleted")));
+        Book book = book(2, "Moby Dick");
+        when(bookRepo.findAllById(List.of(2, 9))).thenReturn(List.of(book));
+
+        // Act
+        List<SearchResult> results = searchService.search("whale", 10, null);
+
+        // Assert
+        assertEquals(1, results.size());
+        SearchResult result = results.get(0);
+        assertEquals(2, result.getBookId());
+        assertEquals("Moby Dick", result.getTitle());
+        assertEquals("Author 2", result.getAuthor());
+        assertEquals(3.5, result.getScore());
+        assertEquals(List.of(0, 1, 4), result.getPages());
+        assertEquals("The whale came", result.getSnippet());
+    }
+
+    @Test
+    void testSearchWithPageSize() throws IOException {
+        // Arrange
+        when(index.search("whale", 5)).thenReturn(List.of(
+            hit(2, 3.5, new long[] {3, 7, 15, 42}, "The whale came")));
+        when(bookRepo.findAllById(List.of(2))).thenReturn(List.of(book(2, "Moby Dick")));
+
+        // Act
+        List<SearchResult> results = searchService.search("whale", 5, 20);
+
+        // Assert
+        assertEquals(List.of(0, 2), results.get(0).getPages());
+    }
+
+    @Test
+    void testSnippetShowsTextAroundFirstHit() throws IOException {
+        // Arrange
+        String text = "filler words here ".repeat(50) + "the harpoon struck " + "more filler text ".repeat(50);
+        when(index.search("harpoon", 10)).thenReturn(List.of(
+            hit(4, 1.0, new long[] {text.indexOf("harpoon")}, text)));
+        when(bookRepo.findAllById(List.of(4))).thenReturn(List.of(book(4, "Moby Dick")));
+
+        // Act
+        String snippet = searchService.search("harpoon", 10, null).get(0).getSnippet();
+
+        // Assert
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.endsWith("…"));
+        assertTrue(snippet.contains("the harpoon struck"));
+        assertTrue(snippet.length() <= SearchService.SNIPPET_CHARS + 2);
+    }
+
+    @Test
+    void testSnippetIsEmptyWithoutExcerpt() throws IOException {
+        // Arrange
+        when(index.search("whale", 10)).thenReturn(List.of(new SearchIndex.Hit(2, 1.0, new long[] {4}, 0, "", 100)));
+        when(bookRepo.findAllById(List.of(2))).thenReturn(List.of(book(2, "Moby Dick")));
+
+        // Act
+        List<SearchResult> results = searchService.search("whale", 10, null);
+
+        // Assert
+        assertEquals(1, results.size());
+        assertEquals("", results.get(0).getSnippet());
+        verifyNoInteractions(bookContentService);
+    }
+
+    @Test
+    void testRefreshFailureIsNotPropagated() {
+        // Arrange
+        when(index.refresh()).thenThrow(new IllegalStateException("storage unavailable"));
+
+        // Act
+        boolean refreshed = searchService.refreshIndex();
+
+        // Assert
+        assertFalse(refreshed);
+        verify(index).refresh();
+    }
+
+    @Test
+    void testSearchRejectsInvalidPageSize() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("whale", 10, 0));
+    }
+
+    @Test
+    void testSearchPassesOnInvalidQuery() throws IOException {
+        // Arrange
+        when(index.search(any(), anyInt())).thenThrow(new IllegalArgumentException("no terms"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("!", 10, null));
+    }
+}
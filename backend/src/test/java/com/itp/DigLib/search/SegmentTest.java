@@ -0,0 +1,114 @@
+package com.itp.DigLib.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class SegmentTest {
+
+    private static Segment write(int bookId, String text, int chunkSize) throws IOException {
+        Segment.Writer writer = new Segment.Writer(bookId);
+        char[] chars = text.toCharArray();
+        for (int start = 0; start < chars.length; start += chunkSize) {
+            writer.update(chars, start, Math.min(chunkSize, chars.length - start));
+        }
+        return Segment.read(writer.finish());
+    }
+
+    @Test
+    void testDictionaryAndStatistics() throws IOException {
+        Segment segment = write(3, "The cat saw the other cat. THE END", 5);
+
+        List<String> terms = new ArrayList<>();
+        segment.forEachTerm((term, frequency, positions) -> terms.add(term + ":" + frequency));
+
+        assertEquals(3, segment.bookId());
+        assertEquals(8, segment.tokenCount());
+        assertEquals(34, segment.charCount());
+        assertEquals(List.of("cat:2", "end:1", "other:1", "saw:1", "the:3"), terms);
+    }
+
+    private static Map<String, long[]> positions(Segment segment) throws IOException {
+        Map<String, long[]> positions = new HashMap<>();
+        segment.forEachTerm((term, frequency, offsets) -> positions.put(term, offsets));
+        return positions;
+    }
+
+    @Test
+    void testPositionsOfTerms() throws IOException {
+        Segment segment = write(1, "one two one three one", 100);
+
+        Map<String, long[]> positions = positions(segment);
+
+        assertEquals(3, positions.size());
+        assertArrayEquals(new long[] {0, 8, 18}, positions.get("one"));
+        assertArrayEquals(new long[] {12}, positions.get("three"));
+    }
+
+    @Test
+    void testPositionsAreCapped() throws IOException {
+        Segment segment = write(1, "word ".repeat(Segment.MAX_POSITIONS + 10), 64);
+
+        List<Integer> frequencies = new ArrayList<>();
+        segment.forEachTerm((term, frequency, positions) -> frequencies.add(frequency));
+
+        assertEquals(List.of(Segment.MAX_POSITIONS + 10), frequencies);
+        assertEquals(Segment.MAX_POSITIONS, positions(segment).get("word").length);
+    }
+
+    @Test
+    void testExcerptsAroundFirstOccurrences() throws IOException {
+        String text = "filler ".repeat(100) + "the harpoon struck " + "filler ".repeat(100) + "harpoon filler";
+        Segment.Excerpts excerpts = write(1, text, 7).excerpts();
+        long harpoon = text.indexOf("harpoon");
+
+        String excerpt = excerpts.text(harpoon - Segment.EXCERPT_LEAD, Segment.EXCERPT_CHARS);
+
+        assertEquals(text.substring((int) harpoon - Segment.EXCERPT_LEAD,
+            (int) harpoon - Segment.EXCERPT_LEAD + Segment.EXCERPT_CHARS), excerpt);
+        assertEquals("filler ", excerpts.text(0, 7));
+        // Only the first occurrence of a term is kept
+        assertEquals("", excerpts.text(text.lastIndexOf("harpoon"), 7));
+    }
+
+    @Test
+    void testExcerptsSpanCompressedBlocks() throws IOException {
+        // Every word is new, so the whole text is kept as excerpts, in several blocks
+        StringBuilder text = new StringBuilder();
+        for (int word = 0; text.length() < 50_000; word++) {
+            text.append("word").append(word).append(" 😀 ");
+        }
+        Segment.Excerpts excerpts = write(1, text.toString(), 1000).excerpts();
+
+        for (int from = 0; from < text.length(); from += 997) {
+            String excerpt = excerpts.text(from, Segment.EXCERPT_CHARS);
+            assertEquals(text.substring(from, Math.min(text.length(), from + Segment.EXCERPT_CHARS)), excerpt);
+        }
+    }
+
+    @Test
+    void testOnlyExcerptsAreStored() throws IOException {
+        String text = "Linje med 😀 og æøå. ".repeat(10_000);
+        Segment.Writer writer = new Segment.Writer(1);
+        writer.update(text.toCharArray(), 0, text.length());
+
+        byte[] stored = writer.finish();
+
+        assertTrue(stored.length < 1000, stored.length + " bytes");
+        assertEquals(text.length(), Segment.read(stored).charCount());
+    }
+
+    @Test
+    void testReadRejectsOtherData() {
+        assertThrows(IOException.class, () -> Segment.read(new byte[64]));
+        assertThrows(IOException.class, () -> Segment.read(new byte[3]));
+    }
+}
@@ -0,0 +1,50 @@
+package com.itp.DigLib.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+public class TokenizerTest {
+
+    private static List<String> tokens(String text, int chunkSize) {
+        List<String> tokens = new ArrayList<>();
+        Tokenizer tokenizer = new Tokenizer((term, offset) -> tokens.add(term + "@" + offset));
+        char[] chars = text.toCharArray();
+        for (int start = 0; start < chars.length; start += chunkSize) {
+            tokenizer.update(chars, start, Math.min(chunkSize, chars.length - start));
+        }
+        tokenizer.finish();
+        return tokens;
+    }
+
+    @Test
+    void testTermsAreLowerCasedWithOffsets() {
+        assertEquals(List.of("hello@0", "wörld@7", "42@15"), tokens("Hello, WÖRLD a 42", 100));
+    }
+
+    @Test
+    void testChunkBoundariesDoNotSplitTerms() {
+        String text = "Blåbær 𝒜𝒷 syltetøy, og 😀 smil.";
+
+        assertEquals(tokens(text, text.length()), tokens(text, 1));
+    }
+
+    @Test
+    void testSupplementaryLettersCountAsTwoCharacters() {
+        assertEquals(List.of("𝒜𝒷@0", "ok@5"), tokens("𝒜𝒷 ok", 3));
+    }
+
+    @Test
+    void testShortAndLongTermsAreDropped() {
+        String tooLong = "x".repeat(Tokenizer.MAX_TERM_LENGTH + 1);
+
+        assertEquals(List.of("ab@2"), tokens("a ab " + tooLong, 7));
+    }
+
+    @Test
+    void testQueryTermsAreDistinct() {
+        assertEquals(List.of("to", "be", "or", "not"), Tokenizer.terms("To be, or not to be?"));
+    }
+}
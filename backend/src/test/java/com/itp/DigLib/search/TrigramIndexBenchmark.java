@@ -0,0 +1,99 @@
+package com.itp.DigLib.search;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares trigram candidate lookup with a full scan over one million synthetic books.
+ *
+ * <p>Not a test: run it by hand with {@code -Xmx2g}. The scan stands in for the database's
+ * {@code LIKE '%x%'} path, which has to look at every row; it runs in memory here, so it is a lower
+ * bound for what the database spends, without I/O or row decoding. The trigram path includes checking
+ * the filter against every candidate, which the database does for the candidate rows.</p>
+ */
+public final class TrigramIndexBenchmark {
+    private static final int BOOKS = 1_000_000;
+    private static final int ROUNDS = 20;
+    private static final String[] WORDS = {
+        "the", "lord", "ring", "world", "night", "shadow", "river", "garden", "house", "winter",
+        "secret", "war", "peace", "story", "city", "dark", "light", "stone", "king", "queen",
+        "island", "fire", "ocean", "journey", "silent", "golden", "forest", "glass", "empire", "song",
+    };
+    private static final String[] NAMES = {
+        "anna", "olav", "maria", "johan", "ingrid", "erik", "sofia", "lars", "nora", "henrik",
+        "berg", "dahl", "lie", "strand", "moen", "haugen", "bakke", "lund", "vik", "holm",
+    };
+    private static final String[] QUERIES = {"ring", "golden empire", "holm", "queen of", "xyz"};
+
+    private TrigramIndexBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        String[] titles = new String[BOOKS];
+        String[] authors = new String[BOOKS];
+        TrigramIndex index = new TrigramIndex(Integer.MAX_VALUE);
+        long started = System.nanoTime();
+        for (int id = 0; id < BOOKS; id++) {
+            titles[id] = title(random) + " " + id;
+            authors[id] = NAMES[random.nextInt(10)] + " " + NAMES[10 + random.nextInt(10)];
+            index.add(id, titles[id], authors[id], "Fiction");
+        }
+        index.markReady();
+        System.out.printf("Indexed %d books, %d trigrams, in %d ms%n",
+            BOOKS, index.trigramCount(), (System.nanoTime() - started) / 1_000_000);
+
+        for (String query : QUERIES) {
+            String lower = query.toLowerCase(Locale.ROOT);
+            long scanMatches = 0;
+            long indexMatches = 0;
+            long scanNanos = 0;
+            long indexNanos = 0;
+            int candidates = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                scanMatches = 0;
+                for (String title : titles) {
+                    if (title.toLowerCase(Locale.ROOT).contains(lower)) {
+                        scanMatches++;
+                    }
+                }
+                scanNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int[] ids = index.candidates(TrigramIndex.Field.TITLE, query);
+                indexMatches = 0;
+                for (int id : ids) {
+                    if (titles[id].toLowerCase(Locale.ROOT).contains(lower)) {
+                        indexMatches++;
+                    }
+                }
+                candidates = ids.length;
+                indexNanos += System.nanoTime() - start;
+            }
+            if (scanMatches != indexMatches) {
+                throw new IllegalStateException("Trigram path missed matches for " + query);
+            }
+            System.out.printf("%-15s matches %7d  candidates %7d  scan %8.2f ms  trigram %8.2f ms%n",
+                query, scanMatches, candidates, scanNanos / 1e6 / ROUNDS, indexNanos / 1e6 / ROUNDS);
+        }
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 2 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(i == 1 && random.nextBoolean() ? " of " : " ");
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return title.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package com.itp.DigLib.search;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex(2);
+        index.add(1, "The Lord of the Rings", "J. R. R. Tolkien", "Fantasy");
+        index.add(2, "Ringworld", "Larry Niven", "Science Fiction");
+        index.add(3, "Brave New World", "Aldous Huxley", "Science Fiction");
+        index.add(4, "Les Misérables", "Victor Hugo", "Historical Fiction");
+        index.markReady();
+    }
+
+    @Test
+    void testCandidatesContainAllTrigrams() {
+        assertArrayEquals(new int[] {1, 2}, index.candidates(TrigramIndex.Field.TITLE, "RING"));
+        assertArrayEquals(new int[] {2, 3}, index.candidates(TrigramIndex.Field.TITLE, "world"));
+        assertArrayEquals(new int[0], index.candidates(TrigramIndex.Field.TITLE, "dune"));
+    }
+
+    @Test
+    void testFieldsAreIndexedSeparately() {
+        assertArrayEquals(new int[] {3}, index.candidates(TrigramIndex.Field.AUTHOR, "huxley"));
+        assertArrayEquals(new int[0], index.candidates(TrigramIndex.Field.TITLE, "huxley"));
+    }
+
+    @Test
+    void testAccentsAreIgnored() {
+        assertArrayEquals(new int[] {4}, index.candidates(TrigramIndex.Field.TITLE, "miserables"));
+        assertArrayEquals(new int[] {4}, index.candidates(TrigramIndex.Field.TITLE, "MISÉR"));
+    }
+
+    @Test
+    void testCombinedFilters() {
+        Map<TrigramIndex.Field, String> filters = new EnumMap<>(TrigramIndex.Field.class);
+        filters.put(TrigramIndex.Field.TITLE, "world");
+        filters.put(TrigramIndex.Field.AUTHOR, "niven");
+
+        assertArrayEquals(new int[] {2}, index.candidates(filters));
+    }
+
+    @Test
+    void testBooksAddedPastIndexedIdsAreOnlyAddedOnce() {
+        TrigramIndex index = new TrigramIndex(10);
+        index.add(2, "Ringworld", "Larry Niven", "Science Fiction");
+        index.markIndexedUpTo(4);
+        index.markReady();
+        index.add(5, "Ringworld Engineers", "Larry Niven", "Science Fiction");
+
+        assertFalse(index.addIfMissing(5, "Ringworld Engineers", "Larry Niven", "Science Fiction"));
+        assertTrue(index.addIfMissing(6, "The Ringworld Throne", "Larry Niven", "Science Fiction"));
+        index.markIndexedUpTo(6);
+
+        assertEquals(6, index.indexedUpTo());
+        assertArrayEquals(new int[] {2, 5, 6}, index.candidates(TrigramIndex.Field.TITLE, "ringworld"));
+    }
+
+    @Test
+    void testCannotNarrowShortOrCommonFilters() {
+        assertNull(index.candidates(TrigramIndex.Field.TITLE, "ri"));
+        assertNull(index.candidates(TrigramIndex.Field.TITLE, null));
+        assertNull(index.candidates(TrigramIndex.Field.GENRE, "fiction"));
+    }
+
+    @Test
+    void testNotReadyUntilLoaded() {
+        TrigramIndex loading = new TrigramIndex(10);
+        loading.add(1, "Ringworld", "Larry Niven", "Science Fiction");
+
+        assertFalse(loading.isReady());
+        assertNull(loading.candidates(TrigramIndex.Field.TITLE, "ring"));
+    }
+
+    @Test
+    void testUpdatesAndRemovals() {
+        index.add(3, "Brave New Ring", "Aldous Huxley", "Science Fiction");
+        index.remove(1, "The Lord of the Rings", "J. R. R. Tolkien", "Fantasy");
+
+        assertArrayEquals(new int[] {2, 3}, index.candidates(TrigramIndex.Field.TITLE, "ring"));
+        assertArrayEquals(new int[0], index.candidates(TrigramIndex.Field.AUTHOR, "tolkien"));
+    }
+
+    @Test
+    void testIdListHandlesOutOfOrderIds() {
+        TrigramIndex.IdList list = new TrigramIndex.IdList();
+        for (int id : new int[] {5, 100_000, 7, 7, 5, 2}) {
+            list.add(id);
+        }
+
+        assertArrayEquals(new int[] {2, 5, 7, 100_000}, list.toArray());
+        assertArrayEquals(new int[] {2, 7, 100_000}, list.without(5).toArray());
+        assertEquals(3, list.without(5).size());
+    }
+}
@@ -0,0 +1,273 @@
+package com.itp.DigLib.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.google.api.gax.paging.Page;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+
+@ExtendWith(MockitoExtension.class)
+public class GcsBookStorageTest {
+
+    @Mock
+    private Storage storage;
+
+    @Mock
+    private WriteChannel writer;
+
+    private final ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+
+    private GcsBookStorage bookStorage;
+    private static final String BUCKET_NAME = "test-bucket";
+    private static final byte[] TEST_CONTENT = "Some stored book content".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bookStorage = new GcsBookStorage(storage, BUCKET_NAME, 256 * 1024);
+
+        // Setup the writer to collect everything uploaded through it
+        lenient().when(storage.writer(any(BlobInfo.class))).thenReturn(writer);
+        lenient().when(writer.write(any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer chunk = invocation.getArgument(0);
+            int length = chunk.remaining();
+            uploaded.write(chunk.array(), chunk.arrayOffset() + chunk.position(), length);
+            chunk.position(chunk.limit());
+            return length;
+        });
+    }
+
+    @Test
+    void testPutStreamsContentThroughResumableWriter() throws IOException {
+        // Arrange
+        byte[] content = "Streamed content".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        bookStorage.put("bookcontents/streamed.txt", new ByteArrayInputStream(content), "text/plain");
+
+        // Assert
+        verify(storage).writer(argThat((BlobInfo info) -> "bookcontents/streamed.txt".equals(info.getName())
+            && BUCKET_NAME.equals(info.getBucket())
+            && "text/plain".equals(info.getContentType())));
+        verify(writer).setChunkSize(256 * 1024);
+        verify(writer).close();
+        assertArrayEquals(content, uploaded.toByteArray());
+    }
+
+    @Test
+    void testFailedUploadIsNotFinalized() throws IOException {
+        // Arrange
+        InputStream failing = new SequenceInputStream(new ByteArrayInputStream(TEST_CONTENT), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> bookStorage.put("bookcontents/truncated.txt", failing, "text/plain"));
+        verify(writer, never()).close();
+        assertArrayEquals(TEST_CONTENT, uploaded.toByteArray());
+    }
+
+    @Test
+    void testGetExistingObject() throws IOException {
+        // Arrange
+        Blob blob = mock(Blob.class);
+        when(blob.getContent()).thenReturn(TEST_CONTENT);
+        when(storage.get(BlobId.of(BUCKET_NAME, "bookcontents/test.txt"))).thenReturn(blob);
+
+        // Act & Assert
+        assertArrayEquals(TEST_CONTENT, bookStorage.get("bookcontents/test.txt"));
+    }
+
+    @Test
+    void testGetMissingObject() throws IOException {
+        // Act & Assert
+        assertNull(bookStorage.get("bookcontents/missing.txt"));
+    }
+
+    @Test
+    void testGetRangeReadsOnlyRequestedBytes() throws IOException {
+        // Arrange
+        ReadChannel channel = channelOver(TEST_CONTENT);
+        when(storage.reader(BlobId.of(BUCKET_NAME, "bookcontents/test.txt"))).thenReturn(channel);
+
+        // Act
+        ByteBuffer range = bookStorage.getRange("bookcontents/test.txt", 5, 11);
+
+        // Assert
+        assertEquals("stored", StandardCharsets.UTF_8.decode(range).toString());
+        verify(channel).seek(5);
+        verify(channel).limit(11);
+        verify(channel).close();
+    }
+
+    @Test
+    void testGetRangePastEndOfObject() throws IOException {
+        // Arrange
+        ReadChannel channel = channelOver(TEST_CONTENT);
+        when(storage.reader(BlobId.of(BUCKET_NAME, "bookcontents/test.txt"))).thenReturn(channel);
+
+        // Act & Assert
+        assertThrows(IOException.class, () ->
+            bookStorage.getRange("bookcontents/test.txt", 5, TEST_CONTENT.length + 10));
+    }
+
+    @Test
+    void testOpenStreamsObject() throws IOException {
+        // Arrange
+        ReadChannel channel = channelOver(TEST_CONTENT);
+        when(storage.reader(BlobId.of(BUCKET_NAME, "bookcontents/test.txt"))).thenReturn(channel);
+
+        // Act
+        try (InputStream content = bookStorage.open("bookcontents/test.txt")) {
+            // Assert
+            assertArrayEquals(TEST_CONTENT, content.readAllBytes());
+        }
+    }
+
+    @Test
+    void testDeleteAndExists() {
+        // Arrange
+        when(storage.delete(BlobId.of(BUCKET_NAME, "bookcontents/test.txt"))).thenReturn(true);
+
+        // Act & Assert
+        assertTrue(bookStorage.delete("bookcontents/test.txt"));
+        assertFalse(bookStorage.delete("bookcontents/missing.txt"));
+        assertFalse(bookStorage.exists("bookcontents/missing.txt"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDeleteAllSendsBatches() {
+        // Arrange
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < GcsBookStorage.DELETE_BATCH_SIZE + 1; i++) {
+            keys.add("bookcontents/" + i + ".txt");
+        }
+        when(storage.delete(any(Iterable.class))).thenAnswer(invocation -> {
+            List<BlobId> batch = new ArrayList<>();
+            invocation.<Iterable<BlobId>>getArgument(0).forEach(batch::add);
+            return Collections.nCopies(batch.size(), true);
+        });
+
+        // Act
+        List<Boolean> deleted = bookStorage.deleteAll(keys);
+
+        // Assert
+        assertEquals(keys.size(), deleted.size());
+        verify(storage, times(2)).delete(any(Iterable.class));
+        verify(storage).delete(argThat((Iterable<BlobId> batch) ->
+            batch.iterator().next().equals(BlobId.of(BUCKET_NAME, "bookcontents/100.txt"))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testListByPrefix() {
+        // Arrange
+        Blob first = mock(Blob.class);
+        Blob second = mock(Blob.class);
+        when(first.getName()).thenReturn("bookcontents/a.txt");
+        when(second.getName()).thenReturn("bookcontents/b.txt");
+        Page<Blob> page = mock(Page.class);
+        when(page.iterateAll()).thenReturn(List.of(first, second));
+        when(storage.list(eq(BUCKET_NAME), any(Storage.BlobListOption.class))).thenReturn(page);
+
+        // Act & Assert
+        assertEquals(List.of("bookcontents/a.txt", "bookcontents/b.txt"), bookStorage.list("bookcontents/"));
+    }
+
+    @Test
+    void testLocationOf() {
+        // Act & Assert
+        assertEquals("gs://test-bucket/bookcontents/test.txt", bookStorage.locationOf("bookcontents/test.txt"));
+    }
+
+    @Test
+    void testOpenRangeStreamsRequestedBytes() throws IOException {
+        // Arrange
+        ReadChannel channel = channelOver(TEST_CONTENT);
+        when(storage.reader(BlobId.of(BUCKET_NAME, "bookcontents/test.txt"))).thenReturn(channel);
+
+        // Act
+        try (InputStream range = bookStorage.openRange("bookcontents/test.txt", 5, 11)) {
+            // Assert
+            assertEquals("stored", new String(range.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        verify(channel).seek(5);
+        verify(channel).limit(11);
+    }
+
+    @Test
+    void testSize() {
+        // Arrange
+        Blob blob = mock(Blob.class);
+        when(blob.getSize()).thenReturn((long) TEST_CONTENT.length);
+        when(storage.get(BlobId.of(BUCKET_NAME, "bookcontents/test.txt"))).thenReturn(blob);
+
+        // Act & Assert
+        assertEquals(TEST_CONTENT.length, bookStorage.size("bookcontents/test.txt"));
+        assertEquals(-1, bookStorage.size("bookcontents/missing.txt"));
+    }
+
+    private static ReadChannel channelOver(byte[] data) throws IOException {
+        ReadChannel channel = mock(ReadChannel.class);
+        long[] position = {0};
+        long[] limit = {data.length};
+        lenient().doAnswer(invocation -> {
+            position[0] = invocation.getArgument(0);
+            return null;
+        }).when(channel).seek(anyLong());
+        lenient().when(channel.limit(anyLong())).thenAnswer(invocation -> {
+            limit[0] = Math.min(data.length, (long) invocation.getArgument(0));
+            return channel;
+        });
+        lenient().when(channel.isOpen()).thenReturn(true);
+        lenient().when(channel.read(any(ByteBuffer.class))).thenAnswer(invocation -> {
+            ByteBuffer buffer = invocation.getArgument(0);
+            if (position[0] >= limit[0]) {
+                return -1;
+            }
+            int length = (int) Math.min(buffer.remaining(), limit[0] - position[0]);
+            buffer.put(data, (int) position[0], length);
+            position[0] += length;
+            return length;
+        });
+        return channel;
+    }
+}
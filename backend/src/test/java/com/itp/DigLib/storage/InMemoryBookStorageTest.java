@@ -0,0 +1,72 @@
+package com.itp.DigLib.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryBookStorageTest {
+
+    private InMemoryBookStorage bookStorage;
+    private static final byte[] TEST_CONTENT = "Some stored book content".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeEach
+    void setUp() {
+        bookStorage = new InMemoryBookStorage();
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        // Act
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Assert
+        assertArrayEquals(TEST_CONTENT, bookStorage.get("bookcontents/test.txt"));
+        assertEquals(TEST_CONTENT.length, bookStorage.size("bookcontents/test.txt"));
+        assertNull(bookStorage.get("bookcontents/missing.txt"));
+        assertEquals(-1, bookStorage.size("bookcontents/missing.txt"));
+    }
+
+    @Test
+    void testRangeReads() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act
+        ByteBuffer range = bookStorage.getRange("bookcontents/test.txt", 5, 11);
+
+        // Assert
+        assertEquals("stored", StandardCharsets.UTF_8.decode(range).toString());
+        try (InputStream in = bookStorage.openRange("bookcontents/test.txt", 5, 11)) {
+            assertEquals("stored", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertThrows(IOException.class, () ->
+            bookStorage.getRange("bookcontents/test.txt", 5, TEST_CONTENT.length + 10));
+        assertThrows(IOException.class, () -> bookStorage.open("bookcontents/missing.txt"));
+    }
+
+    @Test
+    void testDeleteExistsAndList() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/b.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+        bookStorage.put("bookcontents/a.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+        bookStorage.put("bookindex/a.txt.idx", new ByteArrayInputStream(TEST_CONTENT), "application/octet-stream");
+
+        // Act & Assert
+        assertEquals(List.of("bookcontents/a.txt", "bookcontents/b.txt"), bookStorage.list("bookcontents/"));
+        assertTrue(bookStorage.delete("bookcontents/a.txt"));
+        assertFalse(bookStorage.exists("bookcontents/a.txt"));
+        assertEquals(List.of(false, true), bookStorage.deleteAll(List.of("bookcontents/a.txt", "bookcontents/b.txt")));
+    }
+}
@@ -0,0 +1,150 @@
+package com.itp.DigLib.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalBookStorageTest {
+
+    @TempDir
+    Path root;
+
+    private LocalBookStorage bookStorage;
+    private static final byte[] TEST_CONTENT = "Some stored book content".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bookStorage = new LocalBookStorage(root);
+    }
+
+    @Test
+    void testPutAndGet() throws IOException {
+        // Act
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Assert
+        assertArrayEquals(TEST_CONTENT, bookStorage.get("bookcontents/test.txt"));
+        assertArrayEquals(TEST_CONTENT, Files.readAllBytes(root.resolve("bookcontents/test.txt")));
+    }
+
+    @Test
+    void testPutReplacesExistingObject() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(new byte[] {1, 2, 3}), "text/plain");
+
+        // Assert
+        assertArrayEquals(new byte[] {1, 2, 3}, bookStorage.get("bookcontents/test.txt"));
+        assertEquals(List.of("bookcontents/test.txt"), bookStorage.list("bookcontents/"));
+    }
+
+    @Test
+    void testGetMissingObject() throws IOException {
+        // Act & Assert
+        assertNull(bookStorage.get("bookcontents/missing.txt"));
+    }
+
+    @Test
+    void testGetRangeMapsRequestedBytes() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act
+        ByteBuffer range = bookStorage.getRange("bookcontents/test.txt", 5, 11);
+
+        // Assert
+        assertTrue(range.isDirect());
+        assertEquals("stored", StandardCharsets.UTF_8.decode(range).toString());
+    }
+
+    @Test
+    void testGetRangePastEndOfObject() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act & Assert
+        assertThrows(IOException.class, () ->
+            bookStorage.getRange("bookcontents/test.txt", 5, TEST_CONTENT.length + 10));
+    }
+
+    @Test
+    void testOpenStreamsObject() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act
+        try (InputStream content = bookStorage.open("bookcontents/test.txt")) {
+            // Assert
+            assertArrayEquals(TEST_CONTENT, content.readAllBytes());
+        }
+    }
+
+    @Test
+    void testDeleteAndExists() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act & Assert
+        assertTrue(bookStorage.exists("bookcontents/test.txt"));
+        assertTrue(bookStorage.delete("bookcontents/test.txt"));
+        assertFalse(bookStorage.exists("bookcontents/test.txt"));
+        assertFalse(bookStorage.delete("bookcontents/test.txt"));
+    }
+
+    @Test
+    void testListByPrefix() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/b.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+        bookStorage.put("bookcontents/a.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+        bookStorage.put("bookindex/a.txt.idx", new ByteArrayInputStream(TEST_CONTENT), "application/octet-stream");
+
+        // Act & Assert
+        assertEquals(List.of("bookcontents/a.txt", "bookcontents/b.txt"), bookStorage.list("bookcontents/"));
+    }
+
+    @Test
+    void testRejectsKeysOutsideRoot() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> bookStorage.get("../outside.txt"));
+        assertThrows(IllegalArgumentException.class, () -> bookStorage.exists("bookcontents/../../outside.txt"));
+    }
+
+    @Test
+    void testOpenRangeStreamsRequestedBytes() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act
+        try (InputStream range = bookStorage.openRange("bookcontents/test.txt", 5, 11)) {
+            // Assert
+            assertEquals("stored", new String(range.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testSize() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act & Assert
+        assertEquals(TEST_CONTENT.length, bookStorage.size("bookcontents/test.txt"));
+        assertEquals(-1, bookStorage.size("bookcontents/missing.txt"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.itp.DigLib.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MeteredBookStorageTest {
+
+    @TempDir
+    Path root;
+
+    private SimpleMeterRegistry registry;
+    private MeteredBookStorage bookStorage;
+    private static final byte[] TEST_CONTENT = "Some stored book content".getBytes(StandardCharsets.UTF_8);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = new SimpleMeterRegistry();
+        bookStorage = new MeteredBookStorage(new LocalBookStorage(root), registry, "local");
+    }
+
+    private long requests(String operation, String outcome) {
+        return registry.get("diglib.storage.requests")
+            .tag("backend", "local")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .timer()
+            .count();
+    }
+
+    private double bytes(String direction) {
+        return registry.get("diglib.storage.bytes").tag("direction", direction).summary().totalAmount();
+    }
+
+    @Test
+    void testPutAndGetAreMeasured() throws IOException {
+        // Act
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+        bookStorage.get("bookcontents/test.txt");
+        bookStorage.getRange("bookcontents/test.txt", 0, 4);
+
+        // Assert
+        assertEquals(1, requests("put", "success"));
+        assertEquals(1, requests("get", "success"));
+        assertEquals(1, requests("getRange", "success"));
+        assertEquals(TEST_CONTENT.length, bytes("written"));
+        assertEquals(TEST_CONTENT.length + 4, bytes("read"));
+    }
+
+    @Test
+    void testStreamBytesAreRecordedOnClose() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act
+        try (InputStream in = bookStorage.openRange("bookcontents/test.txt", 5, 11)) {
+            in.readAllBytes();
+            assertEquals(0, bytes("read"));
+        }
+
+        // Assert
+        assertEquals(1, requests("openRange", "success"));
+        assertEquals(6, bytes("read"));
+    }
+
+    @Test
+    void testFailuresAreMeasured() throws IOException {
+        // Arrange
+        bookStorage.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+
+        // Act
+        assertThrows(IOException.class, () -> bookStorage.getRange("bookcontents/test.txt", 0, 1000));
+        bookStorage.delete("bookcontents/missing.txt");
+
+        // Assert
+        assertEquals(1, requests("getRange", "error"));
+        assertEquals(0, bytes("read"));
+        assertEquals(1, requests("delete", "success"));
+    }
+}
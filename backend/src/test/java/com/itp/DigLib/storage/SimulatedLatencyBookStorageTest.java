@@ -0,0 +1,63 @@
+package com.itp.DigLib.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class SimulatedLatencyBookStorageTest {
+    private static final byte[] TEST_CONTENT = new byte[100_000];
+
+    private static long millis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @Test
+    void testRequestsWaitForLatency() throws IOException {
+        // Arrange
+        InMemoryBookStorage memory = new InMemoryBookStorage();
+        memory.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+        BookStorage bookStorage = new SimulatedLatencyBookStorage(memory, Duration.ofMillis(50), 0);
+
+        // Act
+        long start = System.nanoTime();
+        assertEquals(10, bookStorage.getRange("bookcontents/test.txt", 0, 10).remaining());
+        bookStorage.exists("bookcontents/test.txt");
+
+        // Assert
+        assertTrue(millis(start) >= 100);
+    }
+
+    @Test
+    void testTransfersWaitForBandwidth() throws IOException {
+        // Arrange
+        InMemoryBookStorage memory = new InMemoryBookStorage();
+        memory.put("bookcontents/test.txt", new ByteArrayInputStream(TEST_CONTENT), "text/plain");
+        // 100 000 bytes at 1 000 000 bytes per second take 100 ms
+        BookStorage bookStorage = new SimulatedLatencyBookStorage(memory, Duration.ZERO, 1_000_000);
+
+        // Act
+        long start = System.nanoTime();
+        try (InputStream in = bookStorage.open("bookcontents/test.txt")) {
+            assertArrayEquals(TEST_CONTENT, in.readAllBytes());
+        }
+
+        // Assert
+        assertTrue(millis(start) >= 100);
+    }
+
+    @Test
+    void testRejectsNegativeSettings() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+            new SimulatedLatencyBookStorage(new InMemoryBookStorage(), Duration.ofMillis(-1), 0));
+        assertThrows(IllegalArgumentException.class, () ->
+            new SimulatedLatencyBookStorage(new InMemoryBookStorage(), Duration.ZERO, -1));
+    }
+}
@@ -1,8 +1,12 @@
 package fxui.controllers;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import javafx.fxml.FXML;
+import javafx.scene.control.Button;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.FlowPane;
@@ -12,7 +16,9 @@ import model.Book;
 
 /**
  * Controller for the list tab that displays all available books.
- * Handles book selection and display updates.
+ * Handles book selection and display updates. Clicking a book opens it, while
+ * shortcut-clicking (Ctrl, or Cmd on macOS) adds it to or removes it from the
+ * selection that can be deleted at once.
  */
 public class ListController {
     @FXML
@@ -20,9 +26,14 @@ public class ListController {
     
     @FXML
     private Text displayError;
+
+    @FXML
+    private Button deleteSelected;
     
     private MainController mainController;
     private List<Book> bookList;
+    private final Set<Book> selectedBooks = new LinkedHashSet<>();
+    private static final String SELECTED_STYLE = "-fx-background-color: lightblue;";
 
     /**
      * Default constructor.
@@ -36,6 +47,7 @@ public class ListController {
     public void initialize() {
         displayError.setVisible(false);
         displayError.setManaged(false);
+        updateSelectionControls();
     }
 
     /**
@@ -63,7 +75,54 @@ public class ListController {
      */
     public void updateBookList(List<Book> books) {
         this.bookList = books == null ? List.of() : books;
+        selectedBooks.retainAll(bookList);
         updateBookView();
+        updateSelectionControls();
+    }
+
+    /**
+     * Returns the books currently selected for deletion.
+     *
+     * @return the selected books in the order they were selected
+     */
+    public List<Book> getSelectedBooks() {
+        return new ArrayList<>(selectedBooks);
+    }
+
+    /**
+     * Deletes all selected books with one request.
+     */
+    @FXML
+    public void handleDeleteSelected() {
+        if (mainController != null && !selectedBooks.isEmpty()) {
+            mainController.deleteBooks(getSelectedBooks());
+        }
+    }
+
+    /**
+     * Adds a book to the selection, or removes it if it is already selected.
+     *
+     * @param book the book to toggle
+     * @param bookBox the box displaying the book
+     */
+    private void toggleSelection(Book book, VBox bookBox) {
+        if (!selectedBooks.remove(book)) {
+            selectedBooks.add(book);
+        }
+        bookBox.setStyle(selectedBooks.contains(book) ? SELECTED_STYLE : "");
+        updateSelectionControls();
+    }
+
+    /**
+     * Shows the delete button with the number of selected books, or hides it when none are selected.
+     */
+    private void updateSelectionControls() {
+        if (deleteSelected == null) {
+            return;
+        }
+        deleteSelected.setText("DELETE SELECTED (" + selectedBooks.size() + ")");
+        deleteSelected.setVisible(!selectedBooks.isEmpty());
+        deleteSelected.setManaged(!selectedBooks.isEmpty());
     }
 
     /**
@@ -100,8 +159,11 @@ public class ListController {
                 book.getTitle().replaceAll("[^a-zA-Z0-9]", "") : 
                 "nullTitle";
             bookBox.setId(safeTitle + "Button");
+            bookBox.setStyle(selectedBooks.contains(book) ? SELECTED_STYLE : "");
             bookBox.setOnMouseClicked(e -> {
-                if (mainController != null) {
+                if (e != null && e.isShortcutDown()) {
+                    toggleSelection(book, bookBox);
+                } else if (mainController != null) {
                     mainController.setActiveBook(book);
                 }
             });
@@ -3,7 +3,9 @@ import java.io.File;
 import java.io.IOException;
 import java.net.http.HttpClient;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javafx.fxml.FXML;
@@ -135,6 +137,26 @@ public class MainController {
         }
     }
 
+    /**
+     * Deletes several books from the library with one request.
+     * @param books the books to delete
+     */
+    public void deleteBooks(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        try {
+            List<Integer> ids = books.stream().map(Book::getId).collect(Collectors.toList());
+            Set<Integer> deleted = new HashSet<>(bookHandler.deleteBooks(ids));
+            if (!deleted.isEmpty()) {
+                bookList.removeIf(book -> deleted.contains(book.getId()));
+                listTabController.updateBookList(bookList);
+            }
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Error deleting books: " + e.getMessage());
+        }
+    }
+
     /**
      * Sets confirmation text in the view tab.
      * @param text the text to display
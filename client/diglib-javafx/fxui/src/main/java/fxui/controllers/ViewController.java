@@ -2,8 +2,8 @@ package fxui.controllers;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
-import java.util.List;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -93,18 +93,18 @@ public class ViewController {
             return;
         }
 
-        try {
-            List<PagedContent> bookContent = contentHandler.readAllPages(selectedBook, PAGE_SIZE);
-            Stage directoryStage = new Stage();
-            DirectoryChooser directoryChooser = createDirectoryChooser();
-
-            File selectedDirectory = directoryChooser.showDialog(directoryStage);
-            if (selectedDirectory != null) {
-                fileCreator.createBookFile(selectedBook, selectedDirectory.toPath(), bookContent);
-                confirmationText.setText("file successfully downloaded");
-            } else {
-                errorText.setText("error while selecting directory");
-            }
+        Stage directoryStage = new Stage();
+        DirectoryChooser directoryChooser = createDirectoryChooser();
+
+        File selectedDirectory = directoryChooser.showDialog(directoryStage);
+        if (selectedDirectory == null) {
+            errorText.setText("error while selecting directory");
+            return;
+        }
+        // The whole book is streamed from the server into the file, not fetched page by page
+        try (InputStream bookContent = contentHandler.openRawContent(selectedBook.getId())) {
+            fileCreator.createBookFile(selectedBook, selectedDirectory.toPath(), bookContent);
+            confirmationText.setText("file successfully downloaded");
         } catch (IOException | InterruptedException e) {
             errorText.setText("error while reading/creating file");
         }
@@ -22,6 +22,9 @@ import org.testfx.util.WaitForAsyncUtils;
 
 import javafx.application.Platform;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
@@ -77,6 +80,12 @@ class ListControllerTest {
         WaitForAsyncUtils.waitForFxEvents();
     }
     
+    private static MouseEvent shortcutClick() {
+        // Control and meta both down, so the click counts as a shortcut click on every platform
+        return new MouseEvent(MouseEvent.MOUSE_CLICKED, 0, 0, 0, 0, MouseButton.PRIMARY, 1,
+            false, true, false, true, true, false, false, false, false, true, null);
+    }
+
     @Test
     void testInitialize() {
         assertFalse(displayError.isVisible());
@@ -284,4 +293,47 @@ class ListControllerTest {
         controller.setMainController(mainController);
         assertEquals(mainController, controller.getMainController());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testShortcutClickSelectsBooksForDeletion() throws Exception {
+        Button deleteSelected = new Button();
+        TestUtils.setPrivateField(listController, "deleteSelected", deleteSelected);
+        Book testBook2 = new Book();
+        testBook2.setID(2);
+        testBook2.setTitle("Another Book");
+        testBooks.add(testBook2);
+
+        Platform.runLater(() -> {
+            listController.updateBookList(testBooks);
+            for (int i = 0; i < 2; i++) {
+                ((VBox) bookDisplay.getChildren().get(i)).getOnMouseClicked().handle(shortcutClick());
+            }
+        });
+        WaitForAsyncUtils.waitForFxEvents();
+
+        assertEquals(testBooks, listController.getSelectedBooks());
+        assertTrue(deleteSelected.isVisible());
+        verify(mockMainController, never()).setActiveBook(any());
+
+        // A second shortcut click deselects the book
+        Platform.runLater(() -> ((VBox) bookDisplay.getChildren().get(0)).getOnMouseClicked().handle(shortcutClick()));
+        WaitForAsyncUtils.waitForFxEvents();
+        assertEquals(List.of(testBook2), listController.getSelectedBooks());
+
+        Platform.runLater(() -> listController.handleDeleteSelected());
+        WaitForAsyncUtils.waitForFxEvents();
+        verify(mockMainController).deleteBooks(List.of(testBook2));
+    }
+
+    @Test
+    void testSelectionKeepsOnlyListedBooks() {
+        Platform.runLater(() -> {
+            listController.updateBookList(testBooks);
+            ((VBox) bookDisplay.getChildren().get(0)).getOnMouseClicked().handle(shortcutClick());
+            listController.updateBookList(new ArrayList<>());
+        });
+        WaitForAsyncUtils.waitForFxEvents();
+
+        assertTrue(listController.getSelectedBooks().isEmpty());
+    }
+}
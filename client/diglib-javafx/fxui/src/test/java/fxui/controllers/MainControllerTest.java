@@ -243,6 +243,32 @@ public class MainControllerTest {
         assertEquals(newBookList, mainController.getBookList());
     }
 
+    @Test
+    void testDeleteBooks_OneRequest() throws Exception {
+        Book second = new Book();
+        second.setID(2);
+        second.setTitle("Second Book");
+        TestUtils.setPrivateField(mainController, "bookList", new ArrayList<>(List.of(testBooks.get(0), second)));
+        when(mockBookHandler.deleteBooks(List.of(1, 2))).thenReturn(List.of(2));
+
+        mainController.deleteBooks(List.of(testBooks.get(0), second));
+
+        verify(mockBookHandler).deleteBooks(List.of(1, 2));
+        verify(mockBookHandler, never()).deleteBook(anyInt());
+        verify(mockListController).updateBookList(anyList());
+        assertEquals(List.of(testBooks.get(0)), mainController.getBookList());
+    }
+
+    @Test
+    void testDeleteBooks_ThrowsException() throws Exception {
+        when(mockBookHandler.deleteBooks(anyList())).thenThrow(new IOException("Delete failed"));
+
+        mainController.deleteBooks(testBooks);
+
+        verify(mockListController, never()).updateBookList(anyList());
+        assertTrue(mainController.getBookList().contains(testBooks.get(0)));
+    }
+
     @Test
     void testDeleteBook_ThrowsException() throws Exception {
         Book book = testBooks.get(0);
@@ -1,10 +1,11 @@
 package fxui.controllers;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -279,8 +280,8 @@ class ViewControllerTest {
     void testHandleDownload() throws Exception {
         // Setup
         TestUtils.setPrivateField(viewController, "selectedBook", testBook);
-        List<PagedContent> content = Arrays.asList(firstPage, middlePage, lastPage);
-        when(mockContentHandler.readAllPages(any(Book.class), anyInt())).thenReturn(content);
+        InputStream content = new ByteArrayInputStream("Whole book content".getBytes(StandardCharsets.UTF_8));
+        when(mockContentHandler.openRawContent(anyInt())).thenReturn(content);
         
         // Create a temporary directory for the test
         File testDir = tempDir.toFile();
@@ -298,7 +299,8 @@ class ViewControllerTest {
         WaitForAsyncUtils.waitForFxEvents();
         
         // Verify
-        verify(mockContentHandler).readAllPages(eq(testBook), anyInt());
+        verify(mockContentHandler).openRawContent(testBook.getId());
+        verify(mockContentHandler, never()).readAllPages(any(Book.class), anyInt());
         verify(mockFileCreator).createBookFile(eq(testBook), eq(testDir.toPath()), eq(content));
         assertEquals("file successfully downloaded", confirmationText.getText());
     }
@@ -307,10 +309,15 @@ class ViewControllerTest {
     void testHandleDownload_Error() throws Exception {
         TestUtils.setPrivateField(viewController, "selectedBook", testBook);
         
-        when(mockContentHandler.readAllPages(eq(testBook), anyInt()))
+        DirectoryChooser mockChooser = mock(DirectoryChooser.class);
+        when(mockChooser.showDialog(any())).thenReturn(tempDir.toFile());
+        when(mockContentHandler.openRawContent(anyInt()))
             .thenThrow(new IOException("Download error"));
         
-        Platform.runLater(() -> viewController.handleDownload());
+        ViewController spyController = spy(viewController);
+        doReturn(mockChooser).when(spyController).createDirectoryChooser();
+        
+        Platform.runLater(() -> spyController.handleDownload());
         WaitForAsyncUtils.waitForFxEvents();
         
         assertEquals("error while reading/creating file", errorText.getText());
@@ -344,7 +351,8 @@ class ViewControllerTest {
         Platform.runLater(() -> spyController.handleDownload());
         WaitForAsyncUtils.waitForFxEvents();
         
-        verify(mockFileCreator, never()).createBookFile(any(), any(), any());
+        verify(mockFileCreator, never()).createBookFile(any(), any(), any(InputStream.class));
+        verify(mockContentHandler, never()).openRawContent(anyInt());
         assertEquals("error while selecting directory", errorText.getText());
     }
 
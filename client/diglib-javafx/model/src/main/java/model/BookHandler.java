@@ -7,6 +7,9 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * The {@code BookHandler} class provides methods to interact with a book API.
@@ -120,4 +123,30 @@ public class BookHandler {
         // Print the response
         return response.statusCode() == 200;
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes several books with one request to the API.
+     *
+     * @param ids the IDs of the books to delete.
+     * @return the IDs of the books that were deleted, or an empty list if the request failed.
+     * @throws IOException if an I/O error occurs when sending or receiving.
+     * @throws InterruptedException if the operation is interrupted.
+     */
+    public List<Integer> deleteBooks(List<Integer> ids) throws IOException, InterruptedException {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String joined = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(BASE_URL + "?ids=" + joined))
+            .header("accept", "application/json")
+            .DELETE()
+            .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return List.of();
+        }
+        return List.of(new ObjectMapper().readValue(response.body(), Integer[].class));
+    }
+}
@@ -1,13 +1,17 @@
 package model;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -16,7 +20,25 @@ import java.util.List;
  */
 public class ContentHandler {
     private static final String BASE_URL = "https://api.diglib.no/books";
+    private static final int CACHED_PAGES = 64;
     private final HttpClient httpClient;
+    // Pages read with an ETag, least recently used first
+    private final Map<URI, CachedPage> pageCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, CachedPage> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        });
+
+    /**
+     * A page kept with the ETag it was sent with.
+     *
+     * @param etag the ETag of the page
+     * @param immutable whether the server marked the page as never changing
+     * @param page the page
+     */
+    private record CachedPage(String etag, boolean immutable, PagedContent page) {}
 
     // Constructor that allows injection of HttpClient
     public ContentHandler(HttpClient httpClient) {
@@ -30,6 +52,10 @@ public class ContentHandler {
     /**
      * Reads a specific page of content from a book.
      *
+     * <p>Pages are kept with their ETag. A page the server marked as immutable is returned again
+     * without a request; any other kept page is revalidated, and reused if the server answers
+     * 304 Not Modified.</p>
+     *
      * @param bookID the ID of the book
      * @param page the page number to read
      * @param pageSize the size of the page
@@ -39,13 +65,29 @@ public class ContentHandler {
      */
     public PagedContent readPage(int bookID, int page, int pageSize) throws InterruptedException, IOException {        
         String queryParams = "?page=" + page + "&pageSize=" + pageSize;
-        
-        var request = HttpRequest.newBuilder(
-            URI.create(BASE_URL + "/" + bookID + "/content" + queryParams))
-            .header("accept", "application/json")
-            .build();
-        var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        return JsonToPagedContent.toPagedContent(response.body());
+        URI uri = URI.create(BASE_URL + "/" + bookID + "/content" + queryParams);
+        CachedPage cached = pageCache.get(uri);
+        if (cached != null && cached.immutable()) {
+            return cached.page();
+        }
+
+        var builder = HttpRequest.newBuilder(uri)
+            .header("accept", "application/json");
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
+        var response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (cached != null && response.statusCode() == 304) {
+            return cached.page();
+        }
+        PagedContent content = JsonToPagedContent.toPagedContent(response.body());
+        var etag = response.headers().firstValue("ETag");
+        if (response.statusCode() == 200 && etag.isPresent()) {
+            boolean immutable = response.headers().allValues("Cache-Control").stream()
+                .anyMatch(value -> value.contains("immutable"));
+            pageCache.put(uri, new CachedPage(etag.get(), immutable, content));
+        }
+        return content;
     }
 
     /**
@@ -67,6 +109,27 @@ public class ContentHandler {
         return pages;
     }
 
+    /**
+     * Opens the whole content of a book, streamed in a single request.
+     *
+     * @param bookID the ID of the book
+     * @return the content of the book as UTF-8 text, to be closed by the caller
+     * @throws InterruptedException if the operation is interrupted
+     * @throws IOException if an I/O error occurs or the content cannot be read
+     */
+    public InputStream openRawContent(int bookID) throws InterruptedException, IOException {
+        var request = HttpRequest.newBuilder(
+            URI.create(BASE_URL + "/" + bookID + "/content/raw"))
+            .header("accept", "text/plain")
+            .build();
+        var response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Failed to read content of book " + bookID + ": " + response.statusCode());
+        }
+        return response.body();
+    }
+
     /**
      * Writes content to a book from a specified file path.
      *
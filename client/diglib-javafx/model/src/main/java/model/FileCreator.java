@@ -1,8 +1,10 @@
 package model;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 
@@ -33,4 +35,22 @@ public class FileCreator {
         // Writes the content of the book to the file
         Files.writeString(newFile, content.toString());
     }
+
+    /**
+     * Creates a file for the specified {@link Book} in the given directory, streaming the content into it.
+     *
+     * @param selectedBook the {@link Book} object for which the file is to be created
+     * @param path the directory in which the file is to be created
+     * @param content the content to write to the file, read until the end but not closed
+     * @throws IOException if an I/O error occurs while creating the file or writing the content
+     */
+    public void createBookFile(Book selectedBook, Path path, InputStream content) throws IOException {
+        // Ensure the directory exists
+        if (!Files.exists(path)) {
+            Files.createDirectories(path);
+        }
+
+        // Copies the content into a new file with the name of the book, without holding it in memory
+        Files.copy(content, path.resolve(selectedBook.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+    }
 }
\ No newline at end of file
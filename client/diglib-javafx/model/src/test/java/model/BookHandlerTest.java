@@ -17,7 +17,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 
@@ -171,6 +173,36 @@ class BookHandlerTest {
         assertFalse(result);
     }
 
+    @Test
+    void deleteBooks_Success() throws IOException, InterruptedException {
+        // Arrange
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn("[1,3]");
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+
+        // Act
+        List<Integer> deleted = bookHandler.deleteBooks(List.of(1, 2, 3));
+
+        // Assert
+        assertEquals(List.of(1, 3), deleted);
+        verify(mockHttpClient).send(argThat(request ->
+            request.method().equals("DELETE") && request.uri().getQuery().equals("ids=1,2,3")),
+            any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void deleteBooks_Failure() throws IOException, InterruptedException {
+        // Arrange
+        when(mockResponse.statusCode()).thenReturn(400);
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+
+        // Act & Assert
+        assertTrue(bookHandler.deleteBooks(List.of(1)).isEmpty());
+        assertTrue(bookHandler.deleteBooks(List.of()).isEmpty());
+    }
+
     @Test
     void getAllBooks_ThrowsIOException() throws IOException, InterruptedException {
         // Arrange
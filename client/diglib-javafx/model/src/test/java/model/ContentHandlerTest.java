@@ -1,12 +1,17 @@
 package model;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -15,7 +20,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
 
@@ -27,6 +35,9 @@ class ContentHandlerTest {
     
     @Mock
     private HttpResponse<String> mockResponse;
+
+    @Mock
+    private HttpResponse<InputStream> mockStreamResponse;
     
     private ContentHandler contentHandler;
     private Book testBook;
@@ -37,6 +48,55 @@ class ContentHandlerTest {
         contentHandler = new ContentHandler(mockHttpClient);
         testBook = new Book();
         testBook.setID(1);
+        when(mockResponse.headers()).thenReturn(headers(Map.of()));
+    }
+
+    private static HttpHeaders headers(Map<String, List<String>> values) {
+        return HttpHeaders.of(values, (name, value) -> true);
+    }
+
+    @Test
+    void readPage_ImmutablePageIsNotRequestedAgain() throws IOException, InterruptedException {
+        // Arrange
+        String jsonResponse = "{\"content\":\"Test content\",\"pageNumber\":0,\"totalPages\":2,\"pageSize\":100,\"totalSize\":150}";
+        when(mockResponse.body()).thenReturn(jsonResponse);
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.headers()).thenReturn(headers(Map.of(
+            "ETag", List.of("\"abc-char100-0\""),
+            "Cache-Control", List.of("max-age=31536000, public, immutable"))));
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+
+        // Act
+        PagedContent first = contentHandler.readPage(1, 0, 100);
+        PagedContent second = contentHandler.readPage(1, 0, 100);
+
+        // Assert
+        assertEquals(first, second);
+        verify(mockHttpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void readPage_RevalidatesWithETag() throws IOException, InterruptedException {
+        // Arrange
+        String jsonResponse = "{\"content\":\"Test content\",\"pageNumber\":0,\"totalPages\":2,\"pageSize\":100,\"totalSize\":150}";
+        when(mockResponse.body()).thenReturn(jsonResponse).thenReturn(null);
+        when(mockResponse.statusCode()).thenReturn(200).thenReturn(304);
+        when(mockResponse.headers()).thenReturn(headers(Map.of(
+            "ETag", List.of("\"abc-char100-0\""),
+            "Cache-Control", List.of("no-cache"))));
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+
+        // Act
+        PagedContent first = contentHandler.readPage(1, 0, 100);
+        PagedContent second = contentHandler.readPage(1, 0, 100);
+
+        // Assert
+        assertEquals(first, second);
+        ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockHttpClient, times(2)).send(requests.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals("\"abc-char100-0\"", requests.getAllValues().get(1).headers().firstValue("If-None-Match").orElse(null));
     }
 
     @Test
@@ -91,6 +151,37 @@ class ContentHandlerTest {
         assertEquals("Page 2", pages.get(1).getContent());
     }
 
+    @Test
+    void openRawContent_Success() throws IOException, InterruptedException {
+        // Arrange
+        when(mockStreamResponse.body()).thenReturn(
+            new ByteArrayInputStream("Whole book content".getBytes(StandardCharsets.UTF_8)));
+        when(mockStreamResponse.statusCode()).thenReturn(200);
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockStreamResponse);
+
+        // Act
+        String content;
+        try (InputStream stream = contentHandler.openRawContent(1)) {
+            content = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // Assert
+        assertEquals("Whole book content", content);
+    }
+
+    @Test
+    void openRawContent_Failure() throws IOException, InterruptedException {
+        // Arrange
+        when(mockStreamResponse.body()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(mockStreamResponse.statusCode()).thenReturn(404);
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockStreamResponse);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> contentHandler.openRawContent(1));
+    }
+
     @Test
     void writeContentToBook_Success() throws IOException, InterruptedException {
         // Arrange
@@ -1,6 +1,9 @@
 package model;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
@@ -51,6 +54,19 @@ class FileCreatorTest {
         assertEquals("First page content\nSecond page content", fileContent);
     }
 
+    @Test
+    void createBookFile_StreamedContent() throws IOException {
+        // Arrange
+        InputStream content = new ByteArrayInputStream("Streamed book content".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        fileCreator.createBookFile(testBook, tempDir.resolve("downloads"), content);
+
+        // Assert
+        Path createdFile = tempDir.resolve("downloads").resolve(testBook.getFileName());
+        assertEquals("Streamed book content", Files.readString(createdFile));
+    }
+
     @Test
     void createBookFile_EmptyContent() throws IOException {
         // Arrange